@@ -0,0 +1,35 @@
+package com.must.courseevaluation.config;
+
+import com.must.courseevaluation.service.CourseRatingStatsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * 项目启动时重建课程评分聚合表
+ * 只需一次分组查询，保证聚合表与 reviews 表一致
+ */
+@Component
+@Order(0)
+public class CourseRatingStatsInitializer implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(CourseRatingStatsInitializer.class);
+
+    private final CourseRatingStatsService courseRatingStatsService;
+
+    public CourseRatingStatsInitializer(CourseRatingStatsService courseRatingStatsService) {
+        this.courseRatingStatsService = courseRatingStatsService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            courseRatingStatsService.rebuildAll();
+        } catch (Exception e) {
+            logger.error("启动时重建课程评分聚合失败: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -7,12 +7,17 @@ import com.must.courseevaluation.dto.ChatRequest;
 import com.must.courseevaluation.security.UserSecurity;
 import com.must.courseevaluation.service.AIRecommendationService;
 import com.must.courseevaluation.service.AICourseRecommendationService;
+import com.must.courseevaluation.service.AIRecommendationStreamListener;
+import com.must.courseevaluation.service.llm.StreamCancellation;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 
@@ -21,6 +26,9 @@ import java.util.Map;
 @CrossOrigin(origins = "*", maxAge = 3600)
 public class AIRecommendationController {
     
+    // 流式对话最长持续时间（意图分类 + 话术生成）
+    private static final long CHAT_STREAM_TIMEOUT_MS = 120_000L;
+    
     @Autowired
     private AIRecommendationService aiRecommendationService;
     
@@ -149,6 +157,27 @@ public class AIRecommendationController {
         }
     }
     
+    /**
+     * AI课程推荐聊天接口（SSE 流式）
+     * 事件：intent（意图）→ courses（课程卡片）→ token（话术片段，多次）→ done（完整响应）
+     * 客户端断开、连接超时或出错时取消处理，并关闭上游大模型流
+     */
+    @PostMapping(value = "/chat/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("isAuthenticated()")
+    public SseEmitter chatStream(@RequestBody ChatRequest request) {
+        SseEmitter emitter = new SseEmitter(CHAT_STREAM_TIMEOUT_MS);
+        StreamCancellation cancellation = aiCourseRecommendationService.streamMessage(request,
+                new SseStreamListener(emitter));
+        emitter.onTimeout(() -> {
+            cancellation.cancel();
+            emitter.complete();
+        });
+        emitter.onError(error -> cancellation.cancel());
+        // 正常完成后再取消没有效果：处理已结束，上游流已关闭
+        emitter.onCompletion(cancellation::cancel);
+        return emitter;
+    }
+    
     /**
      * 检查AI服务状态
      */
@@ -160,14 +189,47 @@ public class AIRecommendationController {
             "message", available ? "AI服务正常" : "AI服务未配置或未启用"
         ));
     }
+    
+    /**
+     * 将流式事件写入 SSE 连接
+     * 客户端断开后写入失败会抛出异常，中止后续的大模型流式读取
+     */
+    private static class SseStreamListener implements AIRecommendationStreamListener {
+        
+        private final SseEmitter emitter;
+        
+        SseStreamListener(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+        
+        @Override
+        public void onIntent(String intentType) {
+            send("intent", Map.of("intentType", intentType));
+        }
+        
+        @Override
+        public void onCourses(AIRecommendationResponse response) {
+            send("courses", response);
+        }
+        
+        @Override
+        public void onToken(String token) {
+            send("token", Map.of("content", token));
+        }
+        
+        @Override
+        public void onComplete(AIRecommendationResponse response) {
+            send("done", response);
+            emitter.complete();
+        }
+        
+        private void send(String event, Object data) {
+            try {
+                emitter.send(SseEmitter.event().name(event).data(data, MediaType.APPLICATION_JSON));
+            } catch (IOException e) {
+                emitter.completeWithError(e);
+                throw new IllegalStateException("SSE连接已断开", e);
+            }
+        }
+    }
 }
-
-
-
-
-
-
-
-
-
-
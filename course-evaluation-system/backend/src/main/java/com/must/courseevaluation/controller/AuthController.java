@@ -9,6 +9,7 @@ import com.must.courseevaluation.model.User;
 import com.must.courseevaluation.security.UserDetailsImpl;
 import com.must.courseevaluation.security.jwt.JwtUtils;
 import com.must.courseevaluation.service.EmailService;
+import com.must.courseevaluation.service.LoginThrottleService;
 import com.must.courseevaluation.service.SecurityAuditService;
 import com.must.courseevaluation.service.UserService;
 import com.must.courseevaluation.service.VerificationCodeService;
@@ -16,6 +17,8 @@ import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -25,8 +28,10 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.servlet.http.HttpServletRequest;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
@@ -52,6 +57,9 @@ public class AuthController {
     @Autowired
     private SecurityAuditService securityAuditService;
 
+    @Autowired
+    private LoginThrottleService loginThrottleService;
+
     @PostMapping("/login")
     public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest, HttpServletRequest request) {
         String ipAddress = getClientIpAddress(request);
@@ -59,6 +67,12 @@ public class AuthController {
         
         logger.info("尝试登录用户: {} 来自IP: {}", loginRequest.getUsername(), ipAddress);
         
+        // 失败次数超限时在校验密码之前拒绝，避免撞库请求耗尽 BCrypt 计算资源
+        Optional<Duration> retryAfter = loginThrottleService.checkAllowed(loginRequest.getUsername(), ipAddress);
+        if (retryAfter.isPresent()) {
+            return throttledResponse(loginRequest.getUsername(), ipAddress, retryAfter.get());
+        }
+        
         try {
             // 先检查用户是否存在及状态
             try {
@@ -91,6 +105,7 @@ public class AuthController {
             
             // 记录成功登录
             securityAuditService.logLoginAttempt(loginRequest.getUsername(), true, ipAddress, userAgent);
+            loginThrottleService.recordSuccess(loginRequest.getUsername());
             
             logger.info("用户登录成功: {}", loginRequest.getUsername());
             return ResponseEntity.ok(new JwtResponse(jwt, userDetails.getId(), userDetails.getUsername(), 
@@ -98,6 +113,7 @@ public class AuthController {
         } catch (Exception e) {
             // 记录失败登录
             securityAuditService.logLoginAttempt(loginRequest.getUsername(), false, ipAddress, userAgent);
+            loginThrottleService.recordFailure(loginRequest.getUsername(), ipAddress);
             
             logger.error("登录失败: {}", e.getMessage());
             // 将英文错误信息转换为中文
@@ -213,11 +229,18 @@ public class AuthController {
         
         logger.info("尝试邮箱验证码登录: {} 来自IP: {}", emailLoginRequest.getEmail(), ipAddress);
         
+        // 同样限制验证码猜测
+        Optional<Duration> retryAfter = loginThrottleService.checkAllowed(emailLoginRequest.getEmail(), ipAddress);
+        if (retryAfter.isPresent()) {
+            return throttledResponse(emailLoginRequest.getEmail(), ipAddress, retryAfter.get());
+        }
+        
         try {
             // 验证邮箱验证码
             if (!validateEmailCode(emailLoginRequest.getEmail(), emailLoginRequest.getEmailCode())) {
                 logger.warn("邮箱验证码无效: {}", emailLoginRequest.getEmail());
                 securityAuditService.logLoginAttempt(emailLoginRequest.getEmail(), false, ipAddress, userAgent);
+                loginThrottleService.recordFailure(emailLoginRequest.getEmail(), ipAddress);
                 return ResponseEntity.badRequest().body(Map.of("message", "验证码无效或已过期"));
             }
             
@@ -241,12 +264,14 @@ public class AuthController {
             
             // 记录成功登录
             securityAuditService.logLoginAttempt(user.getUsername(), true, ipAddress, userAgent);
+            loginThrottleService.recordSuccess(emailLoginRequest.getEmail());
             
             logger.info("邮箱验证码登录成功: {}", user.getUsername());
             return ResponseEntity.ok(new JwtResponse(jwt, user));
         } catch (Exception e) {
             logger.error("邮箱验证码登录失败: {}", e.getMessage());
             securityAuditService.logLoginAttempt(emailLoginRequest.getEmail(), false, ipAddress, userAgent);
+            loginThrottleService.recordFailure(emailLoginRequest.getEmail(), ipAddress);
             return ResponseEntity.badRequest().body(Map.of("message", "登录失败: " + e.getMessage()));
         }
     }
@@ -274,18 +299,21 @@ public class AuthController {
         return email.toLowerCase().endsWith("@student.must.edu.mo");
     }
     
+    // 登录被限流时返回 429 并记录安全审计事件
+    private ResponseEntity<?> throttledResponse(String account, String ipAddress, Duration retryAfter) {
+        long seconds = Math.max(1, retryAfter.toSeconds());
+        logger.warn("登录请求被限流: {} 来自IP: {}，{} 秒后可重试", account, ipAddress, seconds);
+        securityAuditService.logSecurityEvent("LOGIN_THROTTLED",
+                "登录失败次数过多，请求被拒绝", account, ipAddress, "HIGH");
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(seconds))
+                .body(Map.of("message", "登录失败次数过多，请在 " + seconds + " 秒后重试"));
+    }
+    
     // 获取客户端IP地址
+    // 不直接读取客户端可伪造的 X-Forwarded-For（否则每次换一个值即可绕过按IP限流）；
+    // 部署在反向代理之后时由 server.forward-headers-strategy=native 只采信可信代理转发的地址
     private String getClientIpAddress(HttpServletRequest request) {
-        String xForwardedFor = request.getHeader("X-Forwarded-For");
-        if (xForwardedFor != null && !xForwardedFor.isEmpty() && !"unknown".equalsIgnoreCase(xForwardedFor)) {
-            return xForwardedFor.split(",")[0];
-        }
-        
-        String xRealIp = request.getHeader("X-Real-IP");
-        if (xRealIp != null && !xRealIp.isEmpty() && !"unknown".equalsIgnoreCase(xRealIp)) {
-            return xRealIp;
-        }
-        
         return request.getRemoteAddr();
     }
     
@@ -1,23 +1,36 @@
 package com.must.courseevaluation.controller;
 
 import com.must.courseevaluation.dto.CourseDto;
+import com.must.courseevaluation.dto.CourseFacetPageDto;
+import com.must.courseevaluation.dto.CourseListItemDto;
 import com.must.courseevaluation.dto.CourseScheduleDto;
 import com.must.courseevaluation.dto.CourseSummaryDto;
+import com.must.courseevaluation.dto.TimetableImportReportDto;
 import com.must.courseevaluation.model.Course;
 import com.must.courseevaluation.security.UserDetailsImpl;
+import com.must.courseevaluation.service.CourseCatalogService;
 import com.must.courseevaluation.service.CourseService;
 import com.must.courseevaluation.service.CourseSummaryService;
 import com.must.courseevaluation.service.ReviewService;
+import com.must.courseevaluation.service.TimetableImportService;
+import com.must.courseevaluation.service.search.CourseFacetQuery;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/courses")
@@ -32,8 +45,35 @@ public class CourseController {
     @Autowired
     private CourseSummaryService courseSummaryService;
 
+    @Autowired
+    private CourseCatalogService courseCatalogService;
+
+    @Autowired
+    private TimetableImportService timetableImportService;
+
+    /**
+     * 获取课程列表
+     * view=compact 返回精简投影并带强 ETag，客户端携带 If-None-Match 且列表未变化时返回 304；
+     * 默认返回完整课程信息
+     */
     @GetMapping
-    public ResponseEntity<List<CourseDto>> getAllCourses() {
+    public ResponseEntity<?> getAllCourses(@RequestParam(defaultValue = "full") String view,
+                                           WebRequest webRequest) {
+        if ("compact".equals(view)) {
+            // 先取版本再查数据：查询期间发生的变化只会让下次请求多拿一次200，不会把旧数据标成新版本
+            String eTag = "\"" + courseCatalogService.getListVersionTag() + "\"";
+            if (webRequest.checkNotModified(eTag)) {
+                return null;
+            }
+            List<CourseListItemDto> items = courseService.getCourseListItems();
+            return ResponseEntity.ok()
+                    .eTag(eTag)
+                    .cacheControl(CacheControl.noCache())
+                    .body(items);
+        }
+        if (!"full".equals(view)) {
+            return ResponseEntity.badRequest().build();
+        }
         List<CourseDto> courses = courseService.getAllCourses();
         return ResponseEntity.ok(courses);
     }
@@ -68,11 +108,58 @@ public class CourseController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<CourseDto>> searchCourses(@RequestParam String keyword) {
-        List<CourseDto> courses = courseService.searchCourses(keyword);
+    public ResponseEntity<List<CourseDto>> searchCourses(@RequestParam String keyword,
+                                                         @RequestParam(defaultValue = "false") boolean ranked,
+                                                         @RequestParam(defaultValue = "20") int limit) {
+        // ranked=true 时使用倒排索引按相关度排序，否则保持按课程名模糊匹配
+        List<CourseDto> courses = ranked
+                ? courseService.searchCoursesRanked(keyword, limit)
+                : courseService.searchCourses(keyword);
         return ResponseEntity.ok(courses);
     }
 
+    /**
+     * 分面浏览课程
+     * 各筛选参数可重复传多个值（同一维度内为"或"），keyword 匹配课程名称或代码，返回当前页和每个维度的计数
+     */
+    @GetMapping("/browse")
+    public ResponseEntity<CourseFacetPageDto> browseCourses(
+            @RequestParam(required = false) Set<Long> facultyId,
+            @RequestParam(required = false) Set<Long> teacherId,
+            @RequestParam(required = false) Set<String> type,
+            @RequestParam(required = false) Set<Double> credits,
+            @RequestParam(required = false) Set<Integer> dayOfWeek,
+            @RequestParam(required = false) Set<Integer> timePeriod,
+            @RequestParam(required = false) Double minRating,
+            @RequestParam(required = false) String keyword,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        Set<Course.CourseType> types = new HashSet<>();
+        try {
+            if (type != null) {
+                for (String value : type) {
+                    types.add(Course.CourseType.valueOf(value));
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        CourseFacetQuery query = CourseFacetQuery.builder()
+                .facultyIds(facultyId != null ? facultyId : Set.of())
+                .teacherIds(teacherId != null ? teacherId : Set.of())
+                .types(types)
+                .credits(credits != null ? credits : Set.of())
+                .daysOfWeek(dayOfWeek != null ? dayOfWeek : Set.of())
+                .timePeriods(timePeriod != null ? timePeriod : Set.of())
+                .minRating(minRating)
+                .keyword(keyword)
+                .page(page)
+                .size(size)
+                .build();
+        return ResponseEntity.ok(courseService.browseCourses(query));
+    }
+
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<CourseDto> createCourse(@Valid @RequestBody CourseDto courseDto) {
@@ -80,6 +167,23 @@ public class CourseController {
         return new ResponseEntity<>(createdCourse, HttpStatus.CREATED);
     }
 
+    /**
+     * 导入学期课表（CSV 或 XLSX）
+     * dryRun=true 时只校验并返回统计，不写入数据库
+     */
+    @PostMapping("/import")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<TimetableImportReportDto> importTimetable(@RequestParam("file") MultipartFile file,
+                                                                    @RequestParam(defaultValue = "false") boolean dryRun)
+            throws IOException {
+        if (file.isEmpty()) {
+            throw new IllegalArgumentException("上传的文件为空");
+        }
+        try (InputStream in = file.getInputStream()) {
+            return ResponseEntity.ok(timetableImportService.importTimetable(in, file.getOriginalFilename(), dryRun));
+        }
+    }
+
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<CourseDto> updateCourse(@PathVariable Long id, @Valid @RequestBody CourseDto courseDto) {
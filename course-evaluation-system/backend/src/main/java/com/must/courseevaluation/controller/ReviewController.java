@@ -1,6 +1,7 @@
 package com.must.courseevaluation.controller;
 
 import com.must.courseevaluation.dto.ReviewDto;
+import com.must.courseevaluation.dto.ReviewPageDto;
 import com.must.courseevaluation.security.UserDetailsImpl;
 import com.must.courseevaluation.service.ReviewService;
 import jakarta.validation.Valid;
@@ -47,6 +48,30 @@ public class ReviewController {
         return ResponseEntity.ok(reviews);
     }
     
+    /**
+     * 游标分页获取课程评价，首页不传cursor，之后传上一页返回的nextCursor
+     */
+    @GetMapping("/course/{courseId}/feed")
+    public ResponseEntity<ReviewPageDto> getCourseReviewFeed(
+            @PathVariable Long courseId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        ReviewPageDto page = reviewService.getCourseReviewFeed(courseId, cursor, size);
+        return ResponseEntity.ok(page);
+    }
+    
+    /**
+     * 游标分页获取教师评价
+     */
+    @GetMapping("/teacher/{teacherId}/feed")
+    public ResponseEntity<ReviewPageDto> getTeacherReviewFeed(
+            @PathVariable Long teacherId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        ReviewPageDto page = reviewService.getTeacherReviewFeed(teacherId, cursor, size);
+        return ResponseEntity.ok(page);
+    }
+    
     @GetMapping("/user/{userId}")
     @PreAuthorize("@userSecurity.isUserSelf(#userId, principal) or hasRole('ROLE_ADMIN')")
     public ResponseEntity<List<ReviewDto>> getReviewsByUser(@PathVariable Long userId) {
@@ -1,6 +1,10 @@
 package com.must.courseevaluation.controller;
 
+import com.must.courseevaluation.service.ContentFilterService;
+import com.must.courseevaluation.service.CourseRatingStatsService;
+import com.must.courseevaluation.service.CourseSummaryRefreshService;
 import com.must.courseevaluation.service.DatabaseBackupService;
+import com.must.courseevaluation.service.EmailService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -23,6 +27,18 @@ public class SystemController {
     @Autowired
     private DatabaseBackupService databaseBackupService;
     
+    @Autowired
+    private CourseRatingStatsService courseRatingStatsService;
+    
+    @Autowired
+    private ContentFilterService contentFilterService;
+    
+    @Autowired
+    private CourseSummaryRefreshService courseSummaryRefreshService;
+    
+    @Autowired
+    private EmailService emailService;
+    
     /**
      * 系统健康状态检查
      */
@@ -80,6 +96,31 @@ public class SystemController {
         }
     }
     
+    /**
+     * 从备份恢复数据 - 管理员专用
+     */
+    @PostMapping("/backup/restore")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> restoreBackup(@RequestParam String name) {
+        try {
+            Map<String, Object> result = databaseBackupService.restoreBackup(name);
+            
+            if ((Boolean) result.get("success")) {
+                logger.info("管理员从备份恢复数据成功: {}", name);
+                return ResponseEntity.ok(result);
+            } else {
+                return ResponseEntity.status(500).body(result);
+            }
+            
+        } catch (Exception e) {
+            logger.error("从备份恢复数据失败: {}", e.getMessage(), e);
+            Map<String, Object> error = new HashMap<>();
+            error.put("success", false);
+            error.put("message", "数据恢复失败: " + e.getMessage());
+            return ResponseEntity.status(500).body(error);
+        }
+    }
+    
     /**
      * 获取备份列表 - 管理员专用
      */
@@ -142,6 +183,77 @@ public class SystemController {
         }
     }
     
+    /**
+     * 从评价表全量重建课程评分聚合 - 管理员专用
+     */
+    @PostMapping("/ratings/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> rebuildRatingStats() {
+        try {
+            Map<String, Object> result = courseRatingStatsService.rebuildAll();
+            logger.info("管理员重建课程评分聚合: {}", result);
+            return ResponseEntity.ok(result);
+            
+        } catch (Exception e) {
+            logger.error("重建课程评分聚合失败: {}", e.getMessage(), e);
+            Map<String, Object> error = new HashMap<>();
+            error.put("success", false);
+            error.put("message", "评分聚合重建失败: " + e.getMessage());
+            return ResponseEntity.status(500).body(error);
+        }
+    }
+    
+    /**
+     * 从词表文件重新加载敏感词 - 管理员专用
+     */
+    @PostMapping("/content-filter/reload")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> reloadSensitiveWords() {
+        int wordCount = contentFilterService.reloadFromFile();
+        logger.info("管理员重新加载敏感词表，词数: {}", wordCount);
+        
+        Map<String, Object> result = new HashMap<>();
+        result.put("success", true);
+        result.put("wordCount", wordCount);
+        return ResponseEntity.ok(result);
+    }
+    
+    /**
+     * 在后台刷新过期的AI课程总结 - 管理员专用
+     */
+    @PostMapping("/summaries/refresh")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> refreshCourseSummaries() {
+        boolean started = courseSummaryRefreshService.startRefresh();
+        logger.info("管理员触发AI总结刷新，启动: {}", started);
+        
+        Map<String, Object> result = new HashMap<>(courseSummaryRefreshService.getRefreshStatus());
+        result.put("started", started);
+        return ResponseEntity.accepted().body(result);
+    }
+    
+    /**
+     * 获取AI课程总结刷新进度 - 管理员专用
+     */
+    @GetMapping("/summaries/refresh")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getSummaryRefreshStatus() {
+        return ResponseEntity.ok(courseSummaryRefreshService.getRefreshStatus());
+    }
+    
+    /**
+     * 获取重试后仍发送失败的邮件记录 - 管理员专用
+     */
+    @GetMapping("/mail/failed")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getFailedEmails() {
+        List<Map<String, Object>> failed = emailService.getFailedEmails();
+        Map<String, Object> result = new HashMap<>();
+        result.put("failed", failed);
+        result.put("count", failed.size());
+        return ResponseEntity.ok(result);
+    }
+    
     /**
      * 获取数据库统计信息
      */
@@ -56,15 +56,27 @@ public class UserScheduleController {
     }
     
     /**
-     * 批量添加课程时间安排
+     * 批量添加课程时间安排（已有时间段更新课程名称），返回完整课表
      */
     @PostMapping("/batch")
     @PreAuthorize("hasRole('ROLE_STUDENT') or hasRole('ROLE_ADMIN')")
     public ResponseEntity<List<UserScheduleDto>> batchAddSchedules(
             @AuthenticationPrincipal UserDetailsImpl userDetails,
             @Valid @RequestBody List<UserScheduleDto> scheduleDtos) {
-        List<UserScheduleDto> created = userScheduleService.batchAddUserSchedules(userDetails.getId(), scheduleDtos);
-        return ResponseEntity.status(HttpStatus.CREATED).body(created);
+        List<UserScheduleDto> schedules = userScheduleService.batchAddUserSchedules(userDetails.getId(), scheduleDtos);
+        return ResponseEntity.status(HttpStatus.CREATED).body(schedules);
+    }
+    
+    /**
+     * 整体替换课程时间安排，返回替换后的课表
+     */
+    @PutMapping("/batch")
+    @PreAuthorize("hasRole('ROLE_STUDENT') or hasRole('ROLE_ADMIN')")
+    public ResponseEntity<List<UserScheduleDto>> replaceSchedules(
+            @AuthenticationPrincipal UserDetailsImpl userDetails,
+            @Valid @RequestBody List<UserScheduleDto> scheduleDtos) {
+        List<UserScheduleDto> schedules = userScheduleService.replaceUserSchedules(userDetails.getId(), scheduleDtos);
+        return ResponseEntity.ok(schedules);
     }
     
     /**
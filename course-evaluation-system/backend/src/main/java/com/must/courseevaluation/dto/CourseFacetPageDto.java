@@ -0,0 +1,45 @@
+package com.must.courseevaluation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 课程分面浏览结果
+ * 当前页课程加上每个筛选维度的取值计数，计数不受该维度自身已选条件的影响
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseFacetPageDto {
+
+    private List<CourseDto> content = new ArrayList<>();
+
+    private long totalElements;
+
+    private int page;
+
+    private int size;
+
+    // 维度名（faculty、teacher、type、credits、day、period、rating） -> 取值计数
+    private Map<String, List<FacetCount>> facets = new LinkedHashMap<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FacetCount {
+
+        private String value;
+
+        private String label;
+
+        private int count;
+
+        private boolean selected;
+    }
+}
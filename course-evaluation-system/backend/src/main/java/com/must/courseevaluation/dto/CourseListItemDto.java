@@ -0,0 +1,44 @@
+package com.must.courseevaluation.dto;
+
+import com.must.courseevaluation.model.Course;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 课程列表项（精简投影）
+ * 只包含列表页展示所需的字段，不含描述、考核标准和AI总结等长文本，
+ * 由 JPQL 构造器表达式直接查询生成，不加载课程实体
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseListItemDto {
+
+    private Long id;
+
+    private String code;
+
+    private String name;
+
+    private Double credits;
+
+    private String type;
+
+    private Long facultyId;
+
+    private String facultyName;
+
+    private Long teacherId;
+
+    private String teacherName;
+
+    /**
+     * JPQL 构造器表达式使用
+     */
+    public CourseListItemDto(Long id, String code, String name, Double credits, Course.CourseType type,
+                             Long facultyId, String facultyName, Long teacherId, String teacherName) {
+        this(id, code, name, credits, type != null ? type.name() : null,
+                facultyId, facultyName, teacherId, teacherName);
+    }
+}
@@ -0,0 +1,24 @@
+package com.must.courseevaluation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 评价分页结果（游标分页）
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewPageDto {
+    
+    private List<ReviewDto> content = new ArrayList<>();
+    
+    // 下一页游标（不透明字符串），没有更多数据时为null
+    private String nextCursor;
+    
+    private boolean hasMore;
+}
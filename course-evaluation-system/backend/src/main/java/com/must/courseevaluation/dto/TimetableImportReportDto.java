@@ -0,0 +1,60 @@
+package com.must.courseevaluation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 课表导入结果
+ * 校验失败的行逐条列出（超过上限时截断），写入失败的批次整体回滚并在错误中注明行号范围
+ */
+@Data
+@NoArgsConstructor
+public class TimetableImportReportDto {
+
+    // 只校验不写入
+    private boolean dryRun;
+
+    // 数据行数（不含表头和空行）
+    private int totalRows;
+
+    private int validRows;
+
+    private int invalidRows;
+
+    private int teachersCreated;
+
+    private int coursesCreated;
+
+    private int coursesUpdated;
+
+    private int schedulesWritten;
+
+    private int chunksCommitted;
+
+    private int chunksFailed;
+
+    private long durationMs;
+
+    private List<RowError> errors = new ArrayList<>();
+
+    // 错误数超过上限，未全部列出
+    private boolean errorsTruncated;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+
+        // 文件中的行号（从1开始，含表头）
+        private int row;
+
+        // 出错的列，整行或整批错误时为null
+        private String column;
+
+        private String message;
+    }
+}
@@ -13,7 +13,10 @@ import java.util.Set;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "courses")
+@Table(name = "courses", indexes = {
+    // 教师评价流：按教师找到其课程，再逐门课程走 idx_reviews_course_feed
+    @Index(name = "idx_courses_teacher", columnList = "teacher_id")
+})
 public class Course {
     
     @Id
@@ -0,0 +1,105 @@
+package com.must.courseevaluation.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 课程评分聚合（每门课程一行）
+ * 在评价增删改时增量维护，读取评分统计时只需一次主键查询
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "course_rating_stats")
+public class CourseRatingStats {
+
+    @Id
+    @Column(name = "course_id")
+    private Long courseId;
+
+    @Column(name = "review_count", nullable = false)
+    private long reviewCount = 0;
+
+    @Column(name = "rating_sum", nullable = false)
+    private long ratingSum = 0;
+
+    // 1-5 星评分直方图
+    @Column(name = "rating_1_count", nullable = false)
+    private long rating1Count = 0;
+
+    @Column(name = "rating_2_count", nullable = false)
+    private long rating2Count = 0;
+
+    @Column(name = "rating_3_count", nullable = false)
+    private long rating3Count = 0;
+
+    @Column(name = "rating_4_count", nullable = false)
+    private long rating4Count = 0;
+
+    @Column(name = "rating_5_count", nullable = false)
+    private long rating5Count = 0;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    public CourseRatingStats(Long courseId) {
+        this.courseId = courseId;
+    }
+
+    /**
+     * 计入一条评分
+     */
+    public void addRating(int rating) {
+        adjust(rating, 1);
+    }
+
+    /**
+     * 平均分，没有评价时返回null（与 AVG 聚合的语义一致）
+     */
+    public Double getAverageRating() {
+        return reviewCount > 0 ? (double) ratingSum / reviewCount : null;
+    }
+
+    /**
+     * 评分分布，key为星级（1-5），value为数量
+     */
+    public Map<Integer, Integer> getRatingDistribution() {
+        Map<Integer, Integer> distribution = new HashMap<>();
+        for (int i = 1; i <= 5; i++) {
+            distribution.put(i, (int) getBucket(i));
+        }
+        return distribution;
+    }
+
+    private void adjust(int rating, long delta) {
+        reviewCount = Math.max(0, reviewCount + delta);
+        ratingSum = Math.max(0, ratingSum + rating * delta);
+        switch (rating) {
+            case 1 -> rating1Count = Math.max(0, rating1Count + delta);
+            case 2 -> rating2Count = Math.max(0, rating2Count + delta);
+            case 3 -> rating3Count = Math.max(0, rating3Count + delta);
+            case 4 -> rating4Count = Math.max(0, rating4Count + delta);
+            case 5 -> rating5Count = Math.max(0, rating5Count + delta);
+            default -> { }
+        }
+        updatedAt = LocalDateTime.now();
+    }
+
+    private long getBucket(int rating) {
+        return switch (rating) {
+            case 1 -> rating1Count;
+            case 2 -> rating2Count;
+            case 3 -> rating3Count;
+            case 4 -> rating4Count;
+            case 5 -> rating5Count;
+            default -> 0;
+        };
+    }
+}
@@ -11,7 +11,10 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "reviews")
+@Table(name = "reviews", indexes = {
+    // 评价流游标分页：(course_id, pinned, created_at, id)
+    @Index(name = "idx_reviews_course_feed", columnList = "course_id, pinned DESC, created_at DESC, id DESC")
+})
 public class Review {
     
     @Id
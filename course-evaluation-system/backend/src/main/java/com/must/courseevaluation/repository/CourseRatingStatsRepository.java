@@ -0,0 +1,111 @@
+package com.must.courseevaluation.repository;
+
+import com.must.courseevaluation.model.CourseRatingStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface CourseRatingStatsRepository extends JpaRepository<CourseRatingStats, Long> {
+
+    /**
+     * 在已有聚合行上原子地累加（各计数不低于0），行锁保证并发评价不丢失更新
+     * @return 更新的行数，聚合行不存在时为0
+     */
+    @Modifying
+    @Query(value = "UPDATE course_rating_stats SET " +
+           "review_count = GREATEST(0, review_count + :countDelta), " +
+           "rating_sum = GREATEST(0, rating_sum + :sumDelta), " +
+           "rating_1_count = GREATEST(0, rating_1_count + :delta1), " +
+           "rating_2_count = GREATEST(0, rating_2_count + :delta2), " +
+           "rating_3_count = GREATEST(0, rating_3_count + :delta3), " +
+           "rating_4_count = GREATEST(0, rating_4_count + :delta4), " +
+           "rating_5_count = GREATEST(0, rating_5_count + :delta5), " +
+           "updated_at = CURRENT_TIMESTAMP " +
+           "WHERE course_id = :courseId", nativeQuery = true)
+    int applyDelta(@Param("courseId") Long courseId,
+                   @Param("countDelta") long countDelta,
+                   @Param("sumDelta") long sumDelta,
+                   @Param("delta1") long delta1,
+                   @Param("delta2") long delta2,
+                   @Param("delta3") long delta3,
+                   @Param("delta4") long delta4,
+                   @Param("delta5") long delta5);
+
+    /**
+     * 插入一行全零的聚合行（已存在时因主键冲突失败）
+     */
+    @Modifying
+    @Query(value = "INSERT INTO course_rating_stats (course_id, review_count, rating_sum, rating_1_count, " +
+           "rating_2_count, rating_3_count, rating_4_count, rating_5_count, updated_at) " +
+           "VALUES (:courseId, 0, 0, 0, 0, 0, 0, 0, CURRENT_TIMESTAMP)", nativeQuery = true)
+    int insertEmpty(@Param("courseId") Long courseId);
+
+    /**
+     * 为有评价但还没有聚合行的课程插入全零的聚合行
+     * @return 插入的行数
+     */
+    @Modifying
+    @Query(value = "INSERT INTO course_rating_stats (course_id, review_count, rating_sum, rating_1_count, " +
+           "rating_2_count, rating_3_count, rating_4_count, rating_5_count, updated_at) " +
+           "SELECT DISTINCT r.course_id, 0, 0, 0, 0, 0, 0, 0, CURRENT_TIMESTAMP FROM reviews r " +
+           "WHERE NOT EXISTS (SELECT 1 FROM course_rating_stats s WHERE s.course_id = r.course_id)",
+           nativeQuery = true)
+    int insertMissingForReviewedCourses();
+
+    /**
+     * 锁定当前所有聚合行直到事务结束（全量重建期间阻塞这些行上的增量更新）
+     * @return 被锁定的课程ID
+     */
+    @Query(value = "SELECT course_id FROM course_rating_stats FOR UPDATE", nativeQuery = true)
+    List<Long> lockAllCourseIds();
+
+    /**
+     * 从 reviews 表重新统计指定课程的聚合行
+     * @return 更新的行数
+     */
+    @Modifying
+    @Query(value = "UPDATE course_rating_stats SET " +
+           "review_count = (SELECT COUNT(*) FROM reviews r WHERE r.course_id = course_rating_stats.course_id), " +
+           "rating_sum = (SELECT COALESCE(SUM(r.rating), 0) FROM reviews r " +
+           "WHERE r.course_id = course_rating_stats.course_id), " +
+           "rating_1_count = (SELECT COUNT(*) FROM reviews r " +
+           "WHERE r.course_id = course_rating_stats.course_id AND r.rating = 1), " +
+           "rating_2_count = (SELECT COUNT(*) FROM reviews r " +
+           "WHERE r.course_id = course_rating_stats.course_id AND r.rating = 2), " +
+           "rating_3_count = (SELECT COUNT(*) FROM reviews r " +
+           "WHERE r.course_id = course_rating_stats.course_id AND r.rating = 3), " +
+           "rating_4_count = (SELECT COUNT(*) FROM reviews r " +
+           "WHERE r.course_id = course_rating_stats.course_id AND r.rating = 4), " +
+           "rating_5_count = (SELECT COUNT(*) FROM reviews r " +
+           "WHERE r.course_id = course_rating_stats.course_id AND r.rating = 5), " +
+           "updated_at = CURRENT_TIMESTAMP " +
+           "WHERE course_id IN (:courseIds)", nativeQuery = true)
+    int recomputeFromReviews(@Param("courseIds") Collection<Long> courseIds);
+
+    /**
+     * 删除指定课程中已没有评价的聚合行
+     */
+    @Modifying
+    @Query(value = "DELETE FROM course_rating_stats WHERE course_id IN (:courseIds) AND review_count = 0",
+           nativeQuery = true)
+    int deleteEmpty(@Param("courseIds") Collection<Long> courseIds);
+
+    /**
+     * 聚合表中的评价总数
+     */
+    @Query("SELECT COALESCE(SUM(s.reviewCount), 0) FROM CourseRatingStats s")
+    long sumReviewCount();
+
+    /**
+     * 获取指定教师所授全部课程的评分聚合
+     */
+    @Query("SELECT s FROM CourseRatingStats s WHERE s.courseId IN " +
+           "(SELECT c.id FROM Course c WHERE c.teacher.id = :teacherId)")
+    List<CourseRatingStats> findByTeacherId(@Param("teacherId") Long teacherId);
+}
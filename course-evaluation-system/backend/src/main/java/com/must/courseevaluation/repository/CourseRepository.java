@@ -1,5 +1,6 @@
 package com.must.courseevaluation.repository;
 
+import com.must.courseevaluation.dto.CourseListItemDto;
 import com.must.courseevaluation.model.Course;
 import com.must.courseevaluation.model.Faculty;
 import com.must.courseevaluation.model.Teacher;
@@ -7,6 +8,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,6 +20,8 @@ public interface CourseRepository extends JpaRepository<Course, Long> {
     List<Course> findByTeacher(Teacher teacher);
     List<Course> findByType(Course.CourseType type);
     boolean existsByCode(String code);
+
+    boolean existsByIdAndAiSummaryIsNotNull(Long id);
     
     /**
      * 获取所有课程及其关联数据（简化版，避免复杂聚合）
@@ -27,6 +31,17 @@ public interface CourseRepository extends JpaRepository<Course, Long> {
            "LEFT JOIN FETCH c.teacher")
     List<Course> findAllWithRelations();
     
+    /**
+     * 获取课程列表的精简投影（不加载实体和长文本字段）
+     */
+    @Query("SELECT new com.must.courseevaluation.dto.CourseListItemDto(" +
+           "c.id, c.code, c.name, c.credits, c.type, f.id, f.name, t.id, t.name) " +
+           "FROM Course c " +
+           "LEFT JOIN c.faculty f " +
+           "LEFT JOIN c.teacher t " +
+           "ORDER BY c.id")
+    List<CourseListItemDto> findAllListItems();
+    
     /**
      * 获取单个课程及其关联数据（避免N+1查询）
      */
@@ -53,4 +68,22 @@ public interface CourseRepository extends JpaRepository<Course, Long> {
            "LEFT JOIN FETCH c.teacher " +
            "WHERE c.teacher.id = :teacherId")
     List<Course> findByTeacherIdWithRelations(Long teacherId);
-} 
\ No newline at end of file
+    
+    /**
+     * 批量获取课程及其关联数据
+     */
+    @Query("SELECT DISTINCT c FROM Course c " +
+           "LEFT JOIN FETCH c.faculty " +
+           "LEFT JOIN FETCH c.teacher " +
+           "WHERE c.id IN :ids")
+    List<Course> findByIdInWithRelations(Collection<Long> ids);
+    
+    /**
+     * 获取所有课程的AI总结元数据（不加载总结正文）
+     * 返回 Object[] 数组：[courseId, code, hasSummary, aiSummaryReviewCount]
+     */
+    @Query("SELECT c.id, c.code, " +
+           "CASE WHEN c.aiSummary IS NULL OR c.aiSummary = '' THEN false ELSE true END, " +
+           "c.aiSummaryReviewCount FROM Course c")
+    List<Object[]> findSummaryMetadata();
+}
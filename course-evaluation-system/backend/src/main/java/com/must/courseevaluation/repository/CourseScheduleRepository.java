@@ -2,8 +2,11 @@ package com.must.courseevaluation.repository;
 
 import com.must.courseevaluation.model.CourseSchedule;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -14,6 +17,11 @@ public interface CourseScheduleRepository extends JpaRepository<CourseSchedule,
      */
     List<CourseSchedule> findByCourseId(Long courseId);
     
+    /**
+     * 批量查找多门课程的上课时间
+     */
+    List<CourseSchedule> findByCourseIdIn(Collection<Long> courseIds);
+    
     /**
      * 根据星期几查找所有课程时间
      */
@@ -38,5 +46,19 @@ public interface CourseScheduleRepository extends JpaRepository<CourseSchedule,
      * 检查某课程在指定时间是否已有安排
      */
     boolean existsByCourseIdAndDayOfWeekAndTimePeriod(Long courseId, Integer dayOfWeek, Integer timePeriod);
+    
+    /**
+     * 获取所有课程的上课时间槽（用于构建课程目录快照）
+     * 返回 Object[] 数组：[courseId, dayOfWeek, timePeriod]
+     */
+    @Query("SELECT s.course.id, s.dayOfWeek, s.timePeriod FROM CourseSchedule s")
+    List<Object[]> findAllSlots();
+    
+    /**
+     * 获取课程现有的时间安排行（不加载实体，用于计算批量替换的差异）
+     * 返回 Object[] 数组：[id, dayOfWeek, timePeriod, location]
+     */
+    @Query("SELECT s.id, s.dayOfWeek, s.timePeriod, s.location FROM CourseSchedule s WHERE s.course.id = :courseId")
+    List<Object[]> findRowsByCourseId(@Param("courseId") Long courseId);
 }
 
@@ -2,6 +2,7 @@ package com.must.courseevaluation.repository;
 
 import com.must.courseevaluation.model.Course;
 import com.must.courseevaluation.model.Review;
+import com.must.courseevaluation.model.ReviewVote;
 import com.must.courseevaluation.model.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -10,15 +11,19 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ReviewRepository extends JpaRepository<Review, Long> {
     List<Review> findByCourse(Course course);
+    List<Review> findByCourseId(Long courseId);
     Page<Review> findByCourse(Course course, Pageable pageable);
     List<Review> findByUser(User user);
     Page<Review> findByUser(User user, Pageable pageable);
     List<Review> findByCourseAndStatus(Course course, Review.ReviewStatus status);
+    long countByCourseAndStatus(Course course, Review.ReviewStatus status);
     
     @Query("SELECT AVG(r.rating) FROM Review r WHERE r.course = ?1")
     Double getAverageRatingForCourse(Course course);
@@ -26,12 +31,115 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
     @Query("SELECT COUNT(r) FROM Review r WHERE r.course = ?1")
     Long getReviewCountForCourse(Course course);
     
+    /**
+     * 按课程统计指定状态的评价数量（用于判断AI总结是否过期）
+     * 返回 Object[] 数组：[courseId, count]
+     */
+    @Query("SELECT r.course.id, COUNT(r) FROM Review r WHERE r.status = :status GROUP BY r.course.id")
+    List<Object[]> countByStatusGroupByCourse(@Param("status") Review.ReviewStatus status);
+    
+    /**
+     * 课程已审核评价的抽样字段（不含正文），点赞净数由 review_votes 左连接聚合得到
+     * 返回 Object[] 数组：[reviewId, rating, createdAt, netVotes]
+     */
+    @Query("SELECT r.id, r.rating, r.createdAt, " +
+           "COALESCE(SUM(CASE WHEN v.voteType = :like THEN 1 WHEN v.voteType = :dislike THEN -1 ELSE 0 END), 0) " +
+           "FROM Review r LEFT JOIN ReviewVote v ON v.review = r " +
+           "WHERE r.course.id = :courseId AND r.status = :status " +
+           "GROUP BY r.id, r.rating, r.createdAt")
+    List<Object[]> findSamplingCandidates(@Param("courseId") Long courseId,
+                                          @Param("status") Review.ReviewStatus status,
+                                          @Param("like") ReviewVote.VoteType like,
+                                          @Param("dislike") ReviewVote.VoteType dislike);
+    
+    /**
+     * 课程在指定时间之后新增或修改（含审核通过）的评价，按时间倒序
+     */
+    @Query("SELECT r FROM Review r WHERE r.course.id = :courseId AND r.status = :status " +
+           "AND (r.createdAt > :since OR r.updatedAt > :since) " +
+           "ORDER BY r.createdAt DESC, r.id DESC")
+    List<Review> findChangedSince(@Param("courseId") Long courseId,
+                                  @Param("status") Review.ReviewStatus status,
+                                  @Param("since") LocalDateTime since,
+                                  Pageable pageable);
+    
     @Query("SELECT r FROM Review r JOIN r.course c WHERE c.teacher.id = :teacherId AND r.status = :status")
     List<Review> findByTeacherIdAndStatus(@Param("teacherId") Long teacherId, @Param("status") Review.ReviewStatus status);
     
     @Query("SELECT r FROM Review r JOIN r.course c WHERE c.teacher.id = :teacherId")
     List<Review> findByTeacherId(@Param("teacherId") Long teacherId);
     
+    /**
+     * 课程评价流第一页（置顶优先，再按创建时间、ID倒序）
+     * 使用 idx_reviews_course_feed 索引
+     */
+    @Query("SELECT r FROM Review r JOIN FETCH r.user " +
+           "WHERE r.course.id = :courseId " +
+           "ORDER BY r.pinned DESC, r.createdAt DESC, r.id DESC")
+    List<Review> findCourseFeed(@Param("courseId") Long courseId, Pageable pageable);
+    
+    /**
+     * 课程评价流后续页：游标所在置顶分组内 (created_at, id) 严格小于游标的评价ID
+     * 置顶列取等值，行值比较在 idx_reviews_course_feed 上是一段连续的范围扫描
+     */
+    @Query(value = "SELECT r.id FROM reviews r " +
+           "WHERE r.course_id = :courseId AND r.pinned = :pinned " +
+           "AND (r.created_at, r.id) < (:createdAt, :id) " +
+           "ORDER BY r.created_at DESC, r.id DESC LIMIT :limit", nativeQuery = true)
+    List<Long> findCourseFeedIdsAfter(@Param("courseId") Long courseId,
+                                      @Param("pinned") boolean pinned,
+                                      @Param("createdAt") LocalDateTime createdAt,
+                                      @Param("id") Long id,
+                                      @Param("limit") int limit);
+    
+    /**
+     * 课程评价流中某个置顶分组开头的评价ID（置顶分组翻完后接着取非置顶分组）
+     */
+    @Query(value = "SELECT r.id FROM reviews r " +
+           "WHERE r.course_id = :courseId AND r.pinned = :pinned " +
+           "ORDER BY r.created_at DESC, r.id DESC LIMIT :limit", nativeQuery = true)
+    List<Long> findCourseFeedIdsInGroup(@Param("courseId") Long courseId,
+                                        @Param("pinned") boolean pinned,
+                                        @Param("limit") int limit);
+    
+    /**
+     * 教师评价流第一页（教师所授全部课程）
+     */
+    @Query("SELECT r FROM Review r JOIN FETCH r.user JOIN FETCH r.course c " +
+           "WHERE c.teacher.id = :teacherId " +
+           "ORDER BY r.pinned DESC, r.createdAt DESC, r.id DESC")
+    List<Review> findTeacherFeed(@Param("teacherId") Long teacherId, Pageable pageable);
+    
+    /**
+     * 教师评价流后续页：先经 idx_courses_teacher 找到教师的课程，
+     * 再在每门课程的 idx_reviews_course_feed 上按行值比较做范围扫描
+     */
+    @Query(value = "SELECT r.id FROM reviews r JOIN courses c ON c.id = r.course_id " +
+           "WHERE c.teacher_id = :teacherId AND r.pinned = :pinned " +
+           "AND (r.created_at, r.id) < (:createdAt, :id) " +
+           "ORDER BY r.created_at DESC, r.id DESC LIMIT :limit", nativeQuery = true)
+    List<Long> findTeacherFeedIdsAfter(@Param("teacherId") Long teacherId,
+                                       @Param("pinned") boolean pinned,
+                                       @Param("createdAt") LocalDateTime createdAt,
+                                       @Param("id") Long id,
+                                       @Param("limit") int limit);
+    
+    /**
+     * 教师评价流中某个置顶分组开头的评价ID
+     */
+    @Query(value = "SELECT r.id FROM reviews r JOIN courses c ON c.id = r.course_id " +
+           "WHERE c.teacher_id = :teacherId AND r.pinned = :pinned " +
+           "ORDER BY r.created_at DESC, r.id DESC LIMIT :limit", nativeQuery = true)
+    List<Long> findTeacherFeedIdsInGroup(@Param("teacherId") Long teacherId,
+                                         @Param("pinned") boolean pinned,
+                                         @Param("limit") int limit);
+    
+    /**
+     * 按ID批量加载评价流中的评价及其作者和课程（顺序由调用方恢复）
+     */
+    @Query("SELECT r FROM Review r JOIN FETCH r.user JOIN FETCH r.course WHERE r.id IN :ids")
+    List<Review> findFeedReviewsByIdIn(@Param("ids") Collection<Long> ids);
+    
     boolean existsByUserAndCourse(User user, Course course);
     
     // 获取用户对某课程的评论
@@ -2,8 +2,12 @@ package com.must.courseevaluation.repository;
 
 import com.must.courseevaluation.model.ReviewVote;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -19,6 +23,24 @@ public interface ReviewVoteRepository extends JpaRepository<ReviewVote, Long> {
      */
     Long countByReviewIdAndVoteType(Long reviewId, ReviewVote.VoteType voteType);
     
+    /**
+     * 批量统计多条评论的投票数量（一次分组查询，避免逐条COUNT）
+     * 返回 Object[] 数组：[reviewId, voteType, count]
+     */
+    @Query("SELECT v.review.id, v.voteType, COUNT(v) FROM ReviewVote v " +
+           "WHERE v.review.id IN :reviewIds " +
+           "GROUP BY v.review.id, v.voteType")
+    List<Object[]> countVotesByReviewIds(@Param("reviewIds") Collection<Long> reviewIds);
+    
+    /**
+     * 批量查询用户对多条评论的投票
+     * 返回 Object[] 数组：[reviewId, voteType]
+     */
+    @Query("SELECT v.review.id, v.voteType FROM ReviewVote v " +
+           "WHERE v.user.id = :userId AND v.review.id IN :reviewIds")
+    List<Object[]> findUserVotesByReviewIds(@Param("userId") Long userId,
+                                            @Param("reviewIds") Collection<Long> reviewIds);
+    
     /**
      * 删除用户对某条评论的投票
      */
@@ -2,6 +2,8 @@ package com.must.courseevaluation.repository;
 
 import com.must.courseevaluation.model.UserSchedule;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -39,5 +41,19 @@ public interface UserScheduleRepository extends JpaRepository<UserSchedule, Long
      * 统计用户的课程数量
      */
     long countByUserId(Long userId);
+    
+    /**
+     * 获取用户占用的时间槽（用于构建课表位图）
+     * 返回 Object[] 数组：[dayOfWeek, timePeriod]
+     */
+    @Query("SELECT s.dayOfWeek, s.timePeriod FROM UserSchedule s WHERE s.user.id = :userId")
+    List<Object[]> findSlotsByUserId(@Param("userId") Long userId);
+    
+    /**
+     * 获取用户现有的时间安排行（不加载实体，用于计算批量写入的差异）
+     * 返回 Object[] 数组：[id, dayOfWeek, timePeriod, courseName]
+     */
+    @Query("SELECT s.id, s.dayOfWeek, s.timePeriod, s.courseName FROM UserSchedule s WHERE s.user.id = :userId")
+    List<Object[]> findRowsByUserId(@Param("userId") Long userId);
 }
 
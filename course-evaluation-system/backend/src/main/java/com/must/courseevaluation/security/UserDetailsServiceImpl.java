@@ -2,19 +2,47 @@ package com.must.courseevaluation.security;
 
 import com.must.courseevaluation.model.User;
 import com.must.courseevaluation.repository.UserRepository;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 @Service
 public class UserDetailsServiceImpl implements UserDetailsService {
-    
-    @Autowired
-    private UserRepository userRepository;
 
+    private final UserRepository userRepository;
+    private final int cacheMaxEntries;
+    private final long cacheTtlNanos;
+
+    // JWT 请求的认证信息缓存：访问顺序的 LinkedHashMap 实现 LRU，所有访问都在 principals 上同步
+    private final LinkedHashMap<String, CachedPrincipal> principals;
+    // 每次失效加一；加载期间发生过失效时不写入缓存，避免把失效前读到的旧信息放回去
+    private long evictions;
+
+    public UserDetailsServiceImpl(UserRepository userRepository,
+                                  @Value("${jwt.principal-cache.max-entries:10000}") int cacheMaxEntries,
+                                  @Value("${jwt.principal-cache.ttl-seconds:300}") long cacheTtlSeconds) {
+        this.userRepository = userRepository;
+        this.cacheMaxEntries = cacheMaxEntries;
+        this.cacheTtlNanos = Duration.ofSeconds(cacheTtlSeconds).toNanos();
+        this.principals = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedPrincipal> eldest) {
+                return size() > UserDetailsServiceImpl.this.cacheMaxEntries;
+            }
+        };
+    }
+
+    /**
+     * 从数据库加载用户（登录校验密码时使用，始终读取最新数据）
+     */
     @Override
     @Transactional
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
@@ -23,4 +51,63 @@ public class UserDetailsServiceImpl implements UserDetailsService {
 
         return UserDetailsImpl.build(user);
     }
-} 
\ No newline at end of file
+
+    /**
+     * 为已验证的 JWT 请求加载用户，优先使用缓存，未命中或过期时才查询数据库
+     * 用户信息变化时通过 UserPrincipalChangedEvent 失效，TTL 兜底直接修改数据库的情况
+     */
+    public UserDetails loadCachedUserByUsername(String username) throws UsernameNotFoundException {
+        if (cacheMaxEntries <= 0) {
+            return loadUserByUsername(username);
+        }
+
+        long generation;
+        synchronized (principals) {
+            CachedPrincipal cached = principals.get(username);
+            if (cached != null) {
+                if (System.nanoTime() - cached.loadedAt() <= cacheTtlNanos) {
+                    return cached.userDetails();
+                }
+                principals.remove(username);
+            }
+            generation = evictions;
+        }
+
+        UserDetails userDetails = loadUserByUsername(username);
+        synchronized (principals) {
+            if (evictions == generation) {
+                principals.put(username, new CachedPrincipal(userDetails, System.nanoTime()));
+            }
+        }
+        return userDetails;
+    }
+
+    public void evictUser(String username) {
+        synchronized (principals) {
+            principals.remove(username);
+            evictions++;
+        }
+    }
+
+    public void evictAll() {
+        synchronized (principals) {
+            principals.clear();
+            evictions++;
+        }
+    }
+
+    /**
+     * 用户信息变化的事务提交后失效缓存；提交前已开始的加载可能读到旧信息，由 evictions 计数阻止其写入缓存
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserPrincipalChanged(UserPrincipalChangedEvent event) {
+        if (event.getUsername() == null) {
+            evictAll();
+        } else {
+            evictUser(event.getUsername());
+        }
+    }
+
+    private record CachedPrincipal(UserDetails userDetails, long loadedAt) {
+    }
+}
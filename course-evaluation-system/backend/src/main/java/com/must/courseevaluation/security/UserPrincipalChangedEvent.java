@@ -0,0 +1,28 @@
+package com.must.courseevaluation.security;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * 用户认证信息变化事件
+ * 用户的角色、启用状态、评论权限、密码或用户名变化以及用户被删除时发布，
+ * 事务提交后由 UserDetailsServiceImpl 失效该用户名的缓存认证信息；
+ * 用户数据整体替换（如从备份恢复）时发布 all()，失效全部缓存
+ */
+public class UserPrincipalChangedEvent extends ApplicationEvent {
+
+    // 为null表示涉及所有用户
+    private final String username;
+
+    public UserPrincipalChangedEvent(Object source, String username) {
+        super(source);
+        this.username = username;
+    }
+
+    public static UserPrincipalChangedEvent all(Object source) {
+        return new UserPrincipalChangedEvent(source, null);
+    }
+
+    public String getUsername() {
+        return username;
+    }
+}
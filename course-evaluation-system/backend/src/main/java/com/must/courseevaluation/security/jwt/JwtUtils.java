@@ -12,63 +12,97 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
 
+/**
+ * JWT 生成与校验
+ * 签名密钥和解析器在启动时构建一次；校验通过的令牌按摘要缓存其 Claims 直到过期，
+ * 同一令牌的后续请求无需重新验签和解析。
+ */
 @Component
 public class JwtUtils {
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
-    @Value("${jwt.secret}")
-    private String jwtSecret;
+    private final Key signingKey;
+    private final JwtParser jwtParser;
+    private final int jwtExpirationMs;
+    private final int cacheMaxEntries;
 
-    @Value("${jwt.expiration}")
-    private int jwtExpirationMs;
+    // 访问顺序的 LinkedHashMap 实现 LRU，所有访问都在 verifiedTokens 上同步
+    private final LinkedHashMap<String, Claims> verifiedTokens;
+
+    public JwtUtils(@Value("${jwt.secret}") String jwtSecret,
+                    @Value("${jwt.expiration}") int jwtExpirationMs,
+                    @Value("${jwt.cache.max-entries:10000}") int cacheMaxEntries) {
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        this.jwtParser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        this.jwtExpirationMs = jwtExpirationMs;
+        this.cacheMaxEntries = cacheMaxEntries;
+        this.verifiedTokens = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Claims> eldest) {
+                return size() > JwtUtils.this.cacheMaxEntries;
+            }
+        };
+    }
 
     public String generateJwtToken(Authentication authentication) {
         UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
-
-        Key key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
-
-        return Jwts.builder()
-                .setSubject((userPrincipal.getUsername()))
-                .setIssuedAt(new Date())
-                .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(key)
-                .compact();
+        return buildToken(userPrincipal.getUsername());
     }
 
     public String generateJwtTokenForUser(User user) {
-        Key key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        return buildToken(user.getUsername());
+    }
 
+    private String buildToken(String subject) {
+        Date now = new Date();
         return Jwts.builder()
-                .setSubject(user.getUsername())
-                .setIssuedAt(new Date())
-                .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(key)
+                .setSubject(subject)
+                .setIssuedAt(now)
+                .setExpiration(new Date(now.getTime() + jwtExpirationMs))
+                .signWith(signingKey)
                 .compact();
     }
 
-    public String getUserNameFromJwtToken(String token) {
-        Key key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
-
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
-    }
+    /**
+     * 校验令牌并返回其 Claims（每个请求只解析一次）
+     * @return 令牌无效或已过期时返回空
+     */
+    public Optional<Claims> parseValidatedClaims(String token) {
+        if (token == null || token.isEmpty()) {
+            return Optional.empty();
+        }
 
-    public boolean validateJwtToken(String authToken) {
-        try {
-            Key key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        String key = cacheMaxEntries > 0 ? digest(token) : null;
+        if (key != null) {
+            synchronized (verifiedTokens) {
+                Claims cached = verifiedTokens.get(key);
+                if (cached != null) {
+                    if (!isExpired(cached)) {
+                        return Optional.of(cached);
+                    }
+                    verifiedTokens.remove(key);
+                }
+            }
+        }
 
-            Jwts.parserBuilder()
-                    .setSigningKey(key)
-                    .build()
-                    .parseClaimsJws(authToken);
-            return true;
+        try {
+            Claims claims = jwtParser.parseClaimsJws(token).getBody();
+            if (key != null && claims.getExpiration() != null) {
+                synchronized (verifiedTokens) {
+                    verifiedTokens.put(key, claims);
+                }
+            }
+            return Optional.of(claims);
         } catch (SignatureException e) {
             logger.error("无效的JWT签名: {}", e.getMessage());
         } catch (MalformedJwtException e) {
@@ -81,6 +115,30 @@ public class JwtUtils {
             logger.error("JWT claims string is empty: {}", e.getMessage());
         }
 
-        return false;
+        return Optional.empty();
+    }
+
+    public String getUserNameFromJwtToken(String token) {
+        return jwtParser.parseClaimsJws(token).getBody().getSubject();
+    }
+
+    public boolean validateJwtToken(String authToken) {
+        return parseValidatedClaims(authToken).isPresent();
+    }
+
+    private static boolean isExpired(Claims claims) {
+        return claims.getExpiration() == null || !claims.getExpiration().after(new Date());
+    }
+
+    /**
+     * 缓存键只保存令牌摘要，不在内存中保留完整令牌
+     */
+    private static String digest(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
     }
-} 
\ No newline at end of file
+}
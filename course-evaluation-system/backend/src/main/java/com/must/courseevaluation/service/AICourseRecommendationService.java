@@ -2,6 +2,7 @@ package com.must.courseevaluation.service;
 
 import com.must.courseevaluation.dto.AIRecommendationResponse;
 import com.must.courseevaluation.dto.ChatRequest;
+import com.must.courseevaluation.service.llm.StreamCancellation;
 
 /**
  * AI课程推荐服务接口
@@ -23,6 +24,16 @@ public interface AICourseRecommendationService {
      */
     AIRecommendationResponse processMessage(ChatRequest request);
     
+    /**
+     * 以流式方式处理用户消息（异步执行，立即返回）
+     * 意图和课程卡片在过滤完成后立即推送，推荐话术逐段推送
+     * 
+     * @param request 包含用户消息和上下文的请求
+     * @param listener 流式事件监听器
+     * @return 取消句柄：客户端断开或连接超时时调用 cancel()，中止处理并关闭上游大模型流，之后不再回调监听器
+     */
+    StreamCancellation streamMessage(ChatRequest request, AIRecommendationStreamListener listener);
+    
     /**
      * 检查AI服务是否可用
      * 
@@ -0,0 +1,34 @@
+package com.must.courseevaluation.service;
+
+import com.must.courseevaluation.dto.AIRecommendationResponse;
+
+/**
+ * AI课程推荐流式响应监听器
+ *
+ * 事件顺序：onIntent → onCourses（仅课程推荐类意图）→ onToken（多次）→ onComplete
+ * 失败时直接回调 onComplete，参数为错误响应
+ */
+public interface AIRecommendationStreamListener {
+
+    /**
+     * 意图分类完成
+     *
+     * @param intentType 意图类型名称（如 NEW_QUERY）
+     */
+    void onIntent(String intentType);
+
+    /**
+     * 课程过滤完成，推送结构化课程卡片（content 为空，话术随后流式输出）
+     */
+    void onCourses(AIRecommendationResponse response);
+
+    /**
+     * 话术增量内容
+     */
+    void onToken(String token);
+
+    /**
+     * 处理完成，参数为与非流式接口一致的完整响应
+     */
+    void onComplete(AIRecommendationResponse response);
+}
@@ -1,48 +1,259 @@
 package com.must.courseevaluation.service;
 
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.util.Arrays;
-import java.util.List;
-import java.util.regex.Pattern;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
 
+/**
+ * 敏感词过滤服务
+ * 敏感词表在启动时编译为 Aho-Corasick 自动机，单次扫描即可完成检测和替换，
+ * 耗时与词表大小无关。词表可从文件热加载，新自动机构建完成后原子替换，不阻塞正在进行的过滤。
+ */
 @Service
 public class ContentFilterService {
-    
-    // 敏感词列表
-    private final List<String> sensitiveWords = Arrays.asList(
-        "傻逼", "操你", "他妈的", "妈的", "狗日", "混蛋", "王八蛋", 
-        "fuck", "shit", "damn", "asshole", "bitch", 
+
+    private static final Logger logger = LoggerFactory.getLogger(ContentFilterService.class);
+
+    // 默认敏感词列表（未配置词表文件时使用）
+    private static final List<String> DEFAULT_SENSITIVE_WORDS = Arrays.asList(
+        "傻逼", "操你", "他妈的", "妈的", "狗日", "混蛋", "王八蛋",
+        "fuck", "shit", "damn", "asshole", "bitch",
         "废物", "垃圾", "sb", "tmb", "gun"
     );
-    
+
+    // 敏感词表文件（每行一个词，#开头为注释），为空时使用默认列表
+    @Value("${content-filter.words-file:}")
+    private String wordsFile;
+
+    // 当前使用的自动机，热加载时整体替换
+    private volatile Automaton automaton;
+
+    // 词表文件上次加载时的修改时间
+    private volatile long wordsFileLastModified = -1;
+
+    public ContentFilterService() {
+        this.automaton = new Automaton(DEFAULT_SENSITIVE_WORDS);
+    }
+
+    @PostConstruct
+    public void init() {
+        if (wordsFile != null && !wordsFile.isBlank()) {
+            reloadFromFile();
+        }
+    }
+
     // 检查评论是否包含敏感词
     public boolean containsSensitiveContent(String content) {
         if (content == null || content.isEmpty()) {
             return false;
         }
-        
-        String lowerContent = content.toLowerCase();
-        return sensitiveWords.stream()
-                .anyMatch(lowerContent::contains);
+
+        return automaton.containsMatch(content);
     }
-    
+
     // 过滤敏感内容
     public String filterContent(String content) {
         if (content == null || content.isEmpty()) {
             return content;
         }
-        
-        String filteredContent = content;
-        for (String word : sensitiveWords) {
-            // 创建与敏感词长度相同的星号字符串
-            String replacement = "*".repeat(word.length());
-            // 替换敏感词（忽略大小写）
-            filteredContent = Pattern.compile(word, Pattern.CASE_INSENSITIVE)
-                    .matcher(filteredContent)
-                    .replaceAll(replacement);
+
+        // 每个命中的敏感词替换为等长的星号
+        return automaton.mask(content, '*');
+    }
+
+    /**
+     * 使用新的词表替换当前自动机
+     * @param words 敏感词列表
+     */
+    public void reloadSensitiveWords(Collection<String> words) {
+        Automaton rebuilt = new Automaton(words);
+        this.automaton = rebuilt;
+        logger.info("敏感词表已更新，词数: {}", rebuilt.getWordCount());
+    }
+
+    /**
+     * 从配置的词表文件重新加载
+     * @return 加载后的词数，未配置文件或加载失败时返回当前词数
+     */
+    public int reloadFromFile() {
+        if (wordsFile == null || wordsFile.isBlank()) {
+            return getSensitiveWordCount();
+        }
+
+        Path path = Paths.get(wordsFile);
+        try {
+            long lastModified = Files.getLastModifiedTime(path).toMillis();
+            List<String> words = new ArrayList<>();
+            for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+                String word = line.trim();
+                if (!word.isEmpty() && !word.startsWith("#")) {
+                    words.add(word);
+                }
+            }
+            reloadSensitiveWords(words);
+            wordsFileLastModified = lastModified;
+        } catch (IOException e) {
+            logger.error("加载敏感词表文件失败: {}, 继续使用当前词表", wordsFile, e);
+        }
+        return getSensitiveWordCount();
+    }
+
+    /**
+     * 定时检查词表文件是否有修改，有修改时热加载
+     */
+    @Scheduled(fixedDelayString = "${content-filter.reload-interval-ms:60000}")
+    public void reloadIfChanged() {
+        if (wordsFile == null || wordsFile.isBlank()) {
+            return;
+        }
+        try {
+            long lastModified = Files.getLastModifiedTime(Paths.get(wordsFile)).toMillis();
+            if (lastModified != wordsFileLastModified) {
+                reloadFromFile();
+            }
+        } catch (IOException e) {
+            logger.warn("检查敏感词表文件失败: {}", e.getMessage());
+        }
+    }
+
+    public int getSensitiveWordCount() {
+        return automaton.getWordCount();
+    }
+
+    /**
+     * Aho-Corasick 多模式匹配自动机（不可变，线程安全）
+     * 构建时对词做逐字符小写折叠，匹配时对文本做同样处理，保证下标与原文一致
+     */
+    private static final class Automaton {
+
+        // 每个状态的转移表
+        private final List<Map<Character, Integer>> transitions = new ArrayList<>();
+        // 失败指针
+        private final int[] fail;
+        // 在该状态结束的最长敏感词长度（含后缀链上的词），0表示无匹配
+        private final int[] matchLength;
+        private final int wordCount;
+
+        Automaton(Collection<String> words) {
+            transitions.add(new HashMap<>());
+            List<Integer> lengths = new ArrayList<>();
+            lengths.add(0);
+
+            Set<String> distinctWords = new HashSet<>();
+            for (String word : words) {
+                if (word == null || word.isEmpty()) {
+                    continue;
+                }
+                String folded = fold(word);
+                if (!distinctWords.add(folded)) {
+                    continue;
+                }
+
+                int state = 0;
+                for (int i = 0; i < folded.length(); i++) {
+                    char c = folded.charAt(i);
+                    Integer next = transitions.get(state).get(c);
+                    if (next == null) {
+                        next = transitions.size();
+                        transitions.add(new HashMap<>());
+                        lengths.add(0);
+                        transitions.get(state).put(c, next);
+                    }
+                    state = next;
+                }
+                lengths.set(state, Math.max(lengths.get(state), folded.length()));
+            }
+            this.wordCount = distinctWords.size();
+
+            int stateCount = transitions.size();
+            this.fail = new int[stateCount];
+            this.matchLength = new int[stateCount];
+            for (int i = 0; i < stateCount; i++) {
+                matchLength[i] = lengths.get(i);
+            }
+
+            // 按层次（BFS）计算失败指针
+            Deque<Integer> queue = new ArrayDeque<>();
+            for (int child : transitions.get(0).values()) {
+                fail[child] = 0;
+                queue.add(child);
+            }
+            while (!queue.isEmpty()) {
+                int state = queue.poll();
+                for (Map.Entry<Character, Integer> edge : transitions.get(state).entrySet()) {
+                    int child = edge.getValue();
+                    int f = fail[state];
+                    while (f != 0 && !transitions.get(f).containsKey(edge.getKey())) {
+                        f = fail[f];
+                    }
+                    Integer target = transitions.get(f).get(edge.getKey());
+                    fail[child] = (target != null && target != child) ? target : 0;
+                    matchLength[child] = Math.max(matchLength[child], matchLength[fail[child]]);
+                    queue.add(child);
+                }
+            }
+        }
+
+        int getWordCount() {
+            return wordCount;
+        }
+
+        boolean containsMatch(String text) {
+            int state = 0;
+            for (int i = 0; i < text.length(); i++) {
+                state = step(state, Character.toLowerCase(text.charAt(i)));
+                if (matchLength[state] > 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        String mask(String text, char maskChar) {
+            char[] result = null;
+            int state = 0;
+            for (int i = 0; i < text.length(); i++) {
+                state = step(state, Character.toLowerCase(text.charAt(i)));
+                int length = matchLength[state];
+                if (length > 0) {
+                    if (result == null) {
+                        result = text.toCharArray();
+                    }
+                    Arrays.fill(result, i - length + 1, i + 1, maskChar);
+                }
+            }
+            return result == null ? text : new String(result);
+        }
+
+        private int step(int state, char c) {
+            while (true) {
+                Integer next = transitions.get(state).get(c);
+                if (next != null) {
+                    return next;
+                }
+                if (state == 0) {
+                    return 0;
+                }
+                state = fail[state];
+            }
+        }
+
+        private static String fold(String word) {
+            char[] chars = word.toCharArray();
+            for (int i = 0; i < chars.length; i++) {
+                chars[i] = Character.toLowerCase(chars[i]);
+            }
+            return new String(chars);
         }
-        
-        return filteredContent;
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,39 @@
+package com.must.courseevaluation.service;
+
+import com.must.courseevaluation.service.catalog.CourseCatalogSnapshot;
+
+/**
+ * 课程目录快照服务
+ * 在内存中维护不可变的课程目录快照，推荐 Agent 每轮对话直接读取，不再查询数据库
+ */
+public interface CourseCatalogService {
+
+    /**
+     * 获取当前快照，首次调用时构建
+     */
+    CourseCatalogSnapshot getSnapshot();
+
+    /**
+     * 从数据库全量重建快照
+     */
+    CourseCatalogSnapshot rebuild();
+
+    /**
+     * 刷新快照中的评分聚合
+     * @param courseId 课程ID，为null时刷新所有课程
+     */
+    void refreshRatings(Long courseId);
+
+    /**
+     * 刷新快照中单门课程是否已有AI总结
+     * @param courseId 课程ID
+     */
+    void refreshSummary(Long courseId);
+
+    /**
+     * 课程列表的版本标识，可作为课程列表的强 ETag
+     * 只在全量重建（课程、学院、教师或上课时间变化）时改变，评分刷新不影响；
+     * 包含进程启动标识，重启后不会与之前发出的标识重复
+     */
+    String getListVersionTag();
+}
@@ -0,0 +1,18 @@
+package com.must.courseevaluation.service;
+
+import com.must.courseevaluation.service.search.CourseFacetIndex;
+import com.must.courseevaluation.service.search.CourseFacetQuery;
+
+/**
+ * 课程分面浏览服务
+ * 基于课程目录快照维护分面位图索引，一次查询返回当前页课程ID和所有维度的计数
+ */
+public interface CourseFacetService {
+
+    /**
+     * 按分面条件筛选课程
+     * @param query 筛选条件和分页参数
+     * @return 当前页课程ID、匹配总数和各维度计数
+     */
+    CourseFacetIndex.Result browse(CourseFacetQuery query);
+}
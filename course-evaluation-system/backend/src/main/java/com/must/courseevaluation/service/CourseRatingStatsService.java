@@ -0,0 +1,63 @@
+package com.must.courseevaluation.service;
+
+import java.util.Map;
+
+/**
+ * 课程评分聚合服务接口
+ * 维护 course_rating_stats 表，评分统计读取为一次主键查询
+ */
+public interface CourseRatingStatsService {
+
+    /**
+     * 新增评价时计入评分
+     * @param courseId 课程ID
+     * @param rating 评分（1-5）
+     */
+    void recordReviewAdded(Long courseId, int rating);
+
+    /**
+     * 删除评价时移除评分
+     * @param courseId 课程ID
+     * @param rating 评分（1-5）
+     */
+    void recordReviewRemoved(Long courseId, int rating);
+
+    /**
+     * 修改评价评分
+     * @param courseId 课程ID
+     * @param oldRating 原评分
+     * @param newRating 新评分
+     */
+    void recordRatingChanged(Long courseId, int oldRating, int newRating);
+
+    /**
+     * 获取课程评分统计（averageRating、totalReviews、ratingDistribution）
+     * @param courseId 课程ID
+     */
+    Map<String, Object> getCourseRatings(Long courseId);
+
+    /**
+     * 获取教师所授全部课程的评分统计
+     * @param teacherId 教师ID
+     */
+    Map<String, Object> getTeacherRatings(Long teacherId);
+
+    /**
+     * 获取课程平均分
+     * @param courseId 课程ID
+     * @return 平均分，没有评价时返回null
+     */
+    Double getAverageRating(Long courseId);
+
+    /**
+     * 获取课程评价数量
+     * @param courseId 课程ID
+     */
+    int getReviewCount(Long courseId);
+
+    /**
+     * 从 reviews 表全量重建评分聚合（修复增量维护产生的偏差）
+     * @return 重建结果（课程数、评价数、耗时）
+     */
+    Map<String, Object> rebuildAll();
+}
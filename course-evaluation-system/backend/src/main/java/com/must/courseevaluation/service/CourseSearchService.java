@@ -0,0 +1,34 @@
+package com.must.courseevaluation.service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 课程全文搜索服务
+ * 在内存中维护课程目录的字符二元组倒排索引，目录快照版本变化时只重新索引内容有变化的课程
+ */
+public interface CourseSearchService {
+
+    /**
+     * 按相关度搜索课程名称、代码、描述、教师和学院
+     * @param keyword 搜索词，支持中英文混合
+     * @param limit 最多返回的课程数
+     * @return 按相关度从高到低排列的课程ID
+     */
+    List<Long> search(String keyword, int limit);
+
+    /**
+     * 查找名称或描述包含任一关键词（忽略大小写）的课程
+     * @param keywords 关键词
+     * @return 课程ID集合
+     */
+    Set<Long> findCourseIdsContaining(Collection<String> keywords);
+
+    /**
+     * 查找名称或课程代码包含关键词（忽略大小写）的课程
+     * @param keyword 关键词
+     * @return 课程ID集合
+     */
+    Set<Long> findCourseIdsByNameOrCode(String keyword);
+}
@@ -1,18 +1,37 @@
 package com.must.courseevaluation.service;
 
 import com.must.courseevaluation.dto.CourseDto;
+import com.must.courseevaluation.dto.CourseFacetPageDto;
+import com.must.courseevaluation.dto.CourseListItemDto;
 import com.must.courseevaluation.dto.CourseScheduleDto;
 import com.must.courseevaluation.model.Course;
+import com.must.courseevaluation.service.search.CourseFacetQuery;
 
 import java.util.List;
 
 public interface CourseService {
     List<CourseDto> getAllCourses();
+    
+    /**
+     * 获取课程列表的精简投影（不含描述、考核标准等长文本）
+     */
+    List<CourseListItemDto> getCourseListItems();
     CourseDto getCourseById(Long id);
     List<CourseDto> getCoursesByFaculty(Long facultyId);
     List<CourseDto> getCoursesByTeacher(Long teacherId);
     List<CourseDto> getCoursesByType(Course.CourseType type);
     List<CourseDto> searchCourses(String keyword);
+    
+    /**
+     * 按相关度搜索课程（名称、代码、描述、教师、学院）
+     * @param limit 最多返回的课程数
+     */
+    List<CourseDto> searchCoursesRanked(String keyword, int limit);
+    
+    /**
+     * 分面浏览课程，一次返回当前页和各筛选维度的计数
+     */
+    CourseFacetPageDto browseCourses(CourseFacetQuery query);
     CourseDto createCourse(CourseDto courseDto);
     CourseDto updateCourse(CourseDto courseDto);
     void deleteCourse(Long id);
@@ -39,7 +58,8 @@ public interface CourseService {
     void deleteCourseSchedule(Long scheduleId);
     
     /**
-     * 批量设置课程时间安排（先删除再添加）
+     * 批量设置课程时间安排：与现有安排比较，只删除、修改和新增有变化的时间段
+     * @return 替换后的完整时间安排
      */
     List<CourseScheduleDto> setCourseSchedules(Long courseId, List<CourseScheduleDto> scheduleDtos);
     
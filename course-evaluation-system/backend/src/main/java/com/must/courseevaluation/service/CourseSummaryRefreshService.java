@@ -0,0 +1,22 @@
+package com.must.courseevaluation.service;
+
+import java.util.Map;
+
+/**
+ * 课程AI总结后台刷新服务
+ * 在后台线程池中为过期的课程重新生成AI总结，不阻塞应用启动
+ */
+public interface CourseSummaryRefreshService {
+
+    /**
+     * 启动一次后台刷新（立即返回）
+     * @return false 如果已有刷新任务在运行或AI服务不可用
+     */
+    boolean startRefresh();
+
+    /**
+     * 获取当前/最近一次刷新任务的进度
+     * @return 包含 state、total、completed、failed、remaining、etaSeconds 等字段
+     */
+    Map<String, Object> getRefreshStatus();
+}
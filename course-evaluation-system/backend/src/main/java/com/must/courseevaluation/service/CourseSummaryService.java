@@ -21,6 +21,14 @@ public interface CourseSummaryService {
      */
     CourseSummaryDto regenerateCourseSummary(Long courseId);
     
+    /**
+     * 增量更新课程AI总结：将已有总结与上次生成后新增的评价交给大模型合并，
+     * 没有可用的已有总结或新增评价过多时退回全量生成
+     * @param courseId 课程ID
+     * @return 课程总结DTO
+     */
+    CourseSummaryDto refreshCourseSummary(Long courseId);
+    
     /**
      * 检查AI服务是否可用
      * @return true如果可用
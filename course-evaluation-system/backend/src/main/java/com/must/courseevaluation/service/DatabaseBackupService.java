@@ -11,11 +11,20 @@ public interface DatabaseBackupService {
     
     /**
      * 创建数据备份
-     * @param backupName 备份名称
-     * @return 备份结果信息
+     * 在同一个只读事务中逐表流式导出为分块压缩的备份文件，内存占用与表大小无关
+     * @param backupName 备份名称（字母、数字、下划线和连字符）
+     * @return 备份结果信息，包含各表行数与吞吐量
      */
     Map<String, Object> createBackup(String backupName);
     
+    /**
+     * 从备份文件恢复数据
+     * 在一个事务中用备份替换现有数据，失败或备份中没有可用的管理员账号时回滚；表内的数据块并行解压、按顺序写入
+     * @param backupName 备份名称
+     * @return 恢复结果信息，包含各表行数与吞吐量
+     */
+    Map<String, Object> restoreBackup(String backupName);
+    
     /**
      * 获取备份列表
      * @return 备份列表
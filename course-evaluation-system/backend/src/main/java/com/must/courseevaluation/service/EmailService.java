@@ -1,5 +1,8 @@
 package com.must.courseevaluation.service;
 
+import java.util.List;
+import java.util.Map;
+
 /**
  * 邮件服务接口
  */
@@ -23,15 +26,25 @@ public interface EmailService {
     
     /**
      * 发送验证码邮件（注册用）
+     * 邮件放入发信队列后立即返回，由后台线程发送并在失败时重试
      * @param to 收件人
      * @param code 验证码
+     * @throws RuntimeException 发信队列已满
      */
     void sendVerificationCodeEmail(String to, String code);
     
     /**
      * 发送登录验证码邮件
+     * 邮件放入发信队列后立即返回，由后台线程发送并在失败时重试
      * @param to 收件人
      * @param code 验证码
+     * @throws RuntimeException 发信队列已满
      */
     void sendLoginVerificationCodeEmail(String to, String code);
+    
+    /**
+     * 获取重试后仍发送失败的邮件记录（最新的在前）
+     * @return 包含 to、subject、attempts、error、failedAt 的记录列表
+     */
+    List<Map<String, Object>> getFailedEmails();
 } 
\ No newline at end of file
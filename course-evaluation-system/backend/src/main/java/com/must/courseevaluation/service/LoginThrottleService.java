@@ -0,0 +1,30 @@
+package com.must.courseevaluation.service;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * 登录限流服务
+ * 按 IP 和账号（用户名或邮箱）分别统计滑动窗口内的失败次数，超过上限的登录请求
+ * 在校验密码（BCrypt）或验证码之前直接拒绝
+ */
+public interface LoginThrottleService {
+
+    /**
+     * 检查是否允许本次登录尝试
+     * @param account 用户名或邮箱
+     * @param ipAddress 客户端IP
+     * @return 被限流时返回建议的重试等待时间，允许时返回空
+     */
+    Optional<Duration> checkAllowed(String account, String ipAddress);
+
+    /**
+     * 记录一次登录失败
+     */
+    void recordFailure(String account, String ipAddress);
+
+    /**
+     * 记录一次登录成功，清除该账号的失败次数（IP 的计数保留）
+     */
+    void recordSuccess(String account);
+}
@@ -1,6 +1,7 @@
 package com.must.courseevaluation.service;
 
 import com.must.courseevaluation.dto.ReviewDto;
+import com.must.courseevaluation.dto.ReviewPageDto;
 import com.must.courseevaluation.model.Review;
 
 import java.util.List;
@@ -12,6 +13,22 @@ public interface ReviewService {
     List<ReviewDto> getReviewsByCourse(Long courseId);
     List<ReviewDto> getReviewsByTeacher(Long teacherId);
     List<ReviewDto> getReviewsByUser(Long userId);
+    
+    /**
+     * 游标分页获取课程评价（置顶优先，再按创建时间倒序）
+     * @param courseId 课程ID
+     * @param cursor 上一页返回的nextCursor，第一页传null
+     * @param size 每页数量
+     */
+    ReviewPageDto getCourseReviewFeed(Long courseId, String cursor, int size);
+    
+    /**
+     * 游标分页获取教师评价
+     * @param teacherId 教师ID
+     * @param cursor 上一页返回的nextCursor，第一页传null
+     * @param size 每页数量
+     */
+    ReviewPageDto getTeacherReviewFeed(Long teacherId, String cursor, int size);
     ReviewDto createReview(ReviewDto reviewDto);
     ReviewDto updateReview(ReviewDto reviewDto);
     ReviewDto updateReview(Long id, ReviewDto reviewDto);
@@ -0,0 +1,25 @@
+package com.must.courseevaluation.service;
+
+import com.must.courseevaluation.dto.TimetableImportReportDto;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 学期课表批量导入
+ * 逐行读取 CSV/XLSX 课表文件，按批校验并写入课程、教师和上课时间
+ */
+public interface TimetableImportService {
+
+    /**
+     * 导入课表文件
+     * 课程按代码新增或更新，教师按(姓名, 学院)匹配、不存在时创建，上课时间按(课程, 星期, 时间段)新增或更新地点；
+     * 导入只增改不删除，文件中没有的课程和上课时间保持不变。
+     * @param in 文件内容
+     * @param filename 原始文件名，按扩展名判断格式
+     * @param dryRun 为true时只校验并统计，不写入数据库
+     * 数据行在中途无法读取（文件损坏）时停止读取，之前校验通过的行照常写入，读取失败记录在报告的错误中。
+     * @throws IllegalArgumentException 文件类型不支持、无法打开或表头缺少必需列
+     */
+    TimetableImportReportDto importTimetable(InputStream in, String filename, boolean dryRun) throws IOException;
+}
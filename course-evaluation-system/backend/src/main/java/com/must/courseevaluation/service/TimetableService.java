@@ -0,0 +1,25 @@
+package com.must.courseevaluation.service;
+
+import java.util.List;
+
+/**
+ * 课表冲突检测服务
+ * 课程和用户的周课表都编码为 28 位位图（见 WeeklyTimetable），冲突检测只需一次按位与
+ */
+public interface TimetableService {
+
+    /**
+     * 获取用户课表位图（缓存，用户课表变化时失效）
+     */
+    int getUserMask(Long userId);
+
+    /**
+     * 查找与用户课表不冲突的课程ID
+     */
+    List<Long> findCourseIdsWithoutConflict(Long userId);
+
+    /**
+     * 失效用户课表位图缓存
+     */
+    void evictUser(Long userId);
+}
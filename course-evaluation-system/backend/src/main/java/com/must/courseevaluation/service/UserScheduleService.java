@@ -43,8 +43,15 @@ public interface UserScheduleService {
     List<UserScheduleDto> getConflictingSchedules(Long userId, List<Integer> dayOfWeeks, List<Integer> timePeriods);
     
     /**
-     * 批量添加用户课程时间安排
+     * 批量添加用户课程时间安排：新时间段插入，已有时间段更新课程名称，其余安排保留
+     * @return 写入后用户的完整课表
      */
     List<UserScheduleDto> batchAddUserSchedules(Long userId, List<UserScheduleDto> scheduleDtos);
+    
+    /**
+     * 用提交的列表整体替换用户课表，只写入有变化的时间段
+     * @return 替换后用户的完整课表
+     */
+    List<UserScheduleDto> replaceUserSchedules(Long userId, List<UserScheduleDto> scheduleDtos);
 }
 
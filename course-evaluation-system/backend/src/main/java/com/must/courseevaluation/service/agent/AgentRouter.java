@@ -46,6 +46,22 @@ public class AgentRouter {
      * 路由请求到对应的 Agent 处理
      */
     public AgentResult route(IntentResult intent, ConversationContext context) {
+        AgentResult result = dispatch(intent, context);
+        
+        // 如果有课程推荐结果，生成话术
+        if (needsRecommendationResponse(result)) {
+            String response = responseAgent.generateRecommendationResponse(result, intent, context);
+            result.setMessage(response);
+        }
+        
+        return result;
+    }
+    
+    /**
+     * 分发到对应的 Agent 完成课程过滤，不生成推荐话术
+     * 流式接口先推送课程卡片，再由 ResponseAgent 流式生成话术
+     */
+    public AgentResult dispatch(IntentResult intent, ConversationContext context) {
         IntentType intentType = intent.getIntentType();
         logger.info("[AgentRouter] 路由意图: {} -> {}", intent.getOriginalMessage(), intentType);
         
@@ -60,21 +76,22 @@ public class AgentRouter {
         // 处理请求
         AgentResult result = agent.process(intent, context);
         
-        // 如果有课程推荐结果，生成话术
-        if (result.isSuccess() && result.getCourses() != null && !result.getCourses().isEmpty()) {
-            String response = responseAgent.generateRecommendationResponse(result, intent, context);
-            result.setMessage(response);
-            
-            // 更新上下文中的上次推荐课程
-            if (result.getUpdatedContext() != null) {
-                result.getUpdatedContext().put("lastRecommendedCourses", 
-                    convertCoursesToMap(result.getCourses()));
-            }
+        // 更新上下文中的上次推荐课程
+        if (needsRecommendationResponse(result) && result.getUpdatedContext() != null) {
+            result.getUpdatedContext().put("lastRecommendedCourses", 
+                convertCoursesToMap(result.getCourses()));
         }
         
         return result;
     }
     
+    /**
+     * 结果中是否有需要生成话术的课程推荐
+     */
+    public boolean needsRecommendationResponse(AgentResult result) {
+        return result.isSuccess() && result.getCourses() != null && !result.getCourses().isEmpty();
+    }
+    
     /**
      * 将 CourseInfo 列表转换为 Map 列表（用于保存到上下文）
      */
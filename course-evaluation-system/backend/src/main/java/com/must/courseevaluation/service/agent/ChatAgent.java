@@ -1,13 +1,10 @@
 package com.must.courseevaluation.service.agent;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.must.courseevaluation.service.llm.ChatCompletionRequest;
+import com.must.courseevaluation.service.llm.DeepSeekClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestTemplate;
 
 import java.util.*;
 
@@ -20,17 +17,11 @@ public class ChatAgent implements BaseAgent {
     
     private static final Logger logger = LoggerFactory.getLogger(ChatAgent.class);
     
-    @Value("${deepseek.api.key:}")
-    private String apiKey;
+    private final DeepSeekClient deepSeekClient;
     
-    @Value("${deepseek.api.url:https://api.deepseek.com/v1}")
-    private String apiUrl;
-    
-    @Value("${deepseek.model:deepseek-chat}")
-    private String model;
-    
-    private final RestTemplate restTemplate = new RestTemplate();
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    public ChatAgent(DeepSeekClient deepSeekClient) {
+        this.deepSeekClient = deepSeekClient;
+    }
     
     // 预定义回复
     private static final Map<String, String> QUICK_RESPONSES = new HashMap<>();
@@ -77,7 +68,7 @@ public class ChatAgent implements BaseAgent {
         }
     }
     
-    private String generateAIChatResponse(String userMessage, ConversationContext context) throws Exception {
+    private String generateAIChatResponse(String userMessage, ConversationContext context) {
         String systemPrompt = """
             你是一个友好的课程推荐助手。用户可能会和你闲聊，你需要：
             1. 友好地回应用户
@@ -100,32 +91,14 @@ public class ChatAgent implements BaseAgent {
             userPrompt.append("\n\n（之前推荐过一些课程，可以适当提及）");
         }
         
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.setBearerAuth(apiKey);
-
-        Map<String, Object> requestBody = new HashMap<>();
-        requestBody.put("model", model);
-        requestBody.put("temperature", 0.8);
-        requestBody.put("max_tokens", 100);
-
-        List<Map<String, String>> messages = new ArrayList<>();
-        messages.add(Map.of("role", "system", "content", systemPrompt));
-        messages.add(Map.of("role", "user", "content", userPrompt.toString()));
-        requestBody.put("messages", messages);
-
-        HttpEntity<Map<String, Object>> request = new HttpEntity<>(requestBody, headers);
-
-        String url = apiUrl + "/chat/completions";
-        ResponseEntity<String> response = restTemplate.exchange(
-                url, HttpMethod.POST, request, String.class);
-
-        if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-            JsonNode root = objectMapper.readTree(response.getBody());
-            return root.path("choices").get(0).path("message").path("content").asText();
-        }
-        
-        throw new RuntimeException("AI回复生成失败");
+        return deepSeekClient.chatCompletion(ChatCompletionRequest.builder()
+                .caller("ChatAgent")
+                .systemPrompt(systemPrompt)
+                .userPrompt(userPrompt.toString())
+                .temperature(0.8)
+                .maxTokens(100)
+                .cacheable(true)
+                .build());
     }
 }
 
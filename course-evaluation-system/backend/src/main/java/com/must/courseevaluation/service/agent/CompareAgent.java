@@ -1,16 +1,12 @@
 package com.must.courseevaluation.service.agent;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.must.courseevaluation.model.Course;
-import com.must.courseevaluation.repository.CourseRepository;
-import com.must.courseevaluation.repository.ReviewRepository;
+import com.must.courseevaluation.service.CourseCatalogService;
+import com.must.courseevaluation.service.catalog.CourseCatalogSnapshot.CourseEntry;
+import com.must.courseevaluation.service.llm.ChatCompletionRequest;
+import com.must.courseevaluation.service.llm.DeepSeekClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestTemplate;
 
 import java.util.*;
 
@@ -23,23 +19,12 @@ public class CompareAgent implements BaseAgent {
     
     private static final Logger logger = LoggerFactory.getLogger(CompareAgent.class);
     
-    @Value("${deepseek.api.key:}")
-    private String apiKey;
+    private final CourseCatalogService courseCatalogService;
+    private final DeepSeekClient deepSeekClient;
     
-    @Value("${deepseek.api.url:https://api.deepseek.com/v1}")
-    private String apiUrl;
-    
-    @Value("${deepseek.model:deepseek-chat}")
-    private String model;
-    
-    private final CourseRepository courseRepository;
-    private final ReviewRepository reviewRepository;
-    private final RestTemplate restTemplate = new RestTemplate();
-    private final ObjectMapper objectMapper = new ObjectMapper();
-    
-    public CompareAgent(CourseRepository courseRepository, ReviewRepository reviewRepository) {
-        this.courseRepository = courseRepository;
-        this.reviewRepository = reviewRepository;
+    public CompareAgent(CourseCatalogService courseCatalogService, DeepSeekClient deepSeekClient) {
+        this.courseCatalogService = courseCatalogService;
+        this.deepSeekClient = deepSeekClient;
     }
     
     @Override
@@ -70,9 +55,9 @@ public class CompareAgent implements BaseAgent {
         }
         
         // 查找课程
-        List<Course> courses = new ArrayList<>();
+        List<CourseEntry> courses = new ArrayList<>();
         for (String name : coursesToCompare) {
-            Optional<Course> course = findCourseByName(name);
+            Optional<CourseEntry> course = findCourseByName(name);
             course.ifPresent(courses::add);
         }
         
@@ -94,27 +79,12 @@ public class CompareAgent implements BaseAgent {
         return result;
     }
     
-    private Optional<Course> findCourseByName(String name) {
-        List<Course> allCourses = courseRepository.findAll();
-        
-        // 精确匹配
-        for (Course course : allCourses) {
-            if (course.getName().equals(name)) {
-                return Optional.of(course);
-            }
-        }
-        
-        // 模糊匹配
-        for (Course course : allCourses) {
-            if (course.getName().contains(name) || name.contains(course.getName())) {
-                return Optional.of(course);
-            }
-        }
-        
-        return Optional.empty();
+    private Optional<CourseEntry> findCourseByName(String name) {
+        // 先精确匹配，再模糊匹配
+        return courseCatalogService.getSnapshot().findByName(name);
     }
     
-    private String generateComparison(List<Course> courses, String userMessage) {
+    private String generateComparison(List<CourseEntry> courses, String userMessage) {
         try {
             return generateAIComparison(courses, userMessage);
         } catch (Exception e) {
@@ -123,7 +93,7 @@ public class CompareAgent implements BaseAgent {
         }
     }
     
-    private String generateAIComparison(List<Course> courses, String userMessage) throws Exception {
+    private String generateAIComparison(List<CourseEntry> courses, String userMessage) {
         String systemPrompt = """
             你是一个专业的课程顾问。请根据提供的课程信息，帮助用户进行课程比较和选择建议。
             
@@ -140,15 +110,15 @@ public class CompareAgent implements BaseAgent {
         userPrompt.append("用户问题：").append(userMessage).append("\n\n");
         userPrompt.append("需要比较的课程：\n");
         
-        for (Course course : courses) {
+        for (CourseEntry course : courses) {
             userPrompt.append("\n【").append(course.getName()).append("】\n");
-            userPrompt.append("- 学院：").append(course.getFaculty() != null ? course.getFaculty().getName() : "未知").append("\n");
+            userPrompt.append("- 学院：").append(course.getFacultyName() != null ? course.getFacultyName() : "未知").append("\n");
             userPrompt.append("- 学分：").append(course.getCredits()).append("\n");
             userPrompt.append("- 类型：").append(course.getType().name().equals("COMPULSORY") ? "必修课" : "选修课").append("\n");
-            userPrompt.append("- 授课教师：").append(course.getTeacher() != null ? course.getTeacher().getName() : "未知").append("\n");
+            userPrompt.append("- 授课教师：").append(course.getTeacherName() != null ? course.getTeacherName() : "未知").append("\n");
             
-            Double rating = getAverageRating(course);
-            Integer reviewCount = getReviewCount(course);
+            Double rating = course.getAverageRating();
+            Integer reviewCount = course.getReviewCount();
             userPrompt.append("- 评分：").append(rating != null ? String.format("%.1f", rating) : "暂无").append("\n");
             userPrompt.append("- 评价数：").append(reviewCount != null ? reviewCount : 0).append("\n");
             userPrompt.append("- 简介：").append(course.getDescription() != null ? course.getDescription() : "暂无").append("\n");
@@ -156,45 +126,28 @@ public class CompareAgent implements BaseAgent {
         
         userPrompt.append("\n请进行比较并给出建议。");
         
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.setBearerAuth(apiKey);
-
-        Map<String, Object> requestBody = new HashMap<>();
-        requestBody.put("model", model);
-        requestBody.put("temperature", 0.7);
-        requestBody.put("max_tokens", 500);
-
-        List<Map<String, String>> messages = new ArrayList<>();
-        messages.add(Map.of("role", "system", "content", systemPrompt));
-        messages.add(Map.of("role", "user", "content", userPrompt.toString()));
-        requestBody.put("messages", messages);
-
-        HttpEntity<Map<String, Object>> request = new HttpEntity<>(requestBody, headers);
-
-        String url = apiUrl + "/chat/completions";
-        ResponseEntity<String> response = restTemplate.exchange(
-                url, HttpMethod.POST, request, String.class);
-
-        if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-            JsonNode root = objectMapper.readTree(response.getBody());
-            return root.path("choices").get(0).path("message").path("content").asText();
-        }
-        
-        throw new RuntimeException("AI比较生成失败");
+        return deepSeekClient.chatCompletion(ChatCompletionRequest.builder()
+                .caller("CompareAgent")
+                .systemPrompt(systemPrompt)
+                .userPrompt(userPrompt.toString())
+                .temperature(0.7)
+                .maxTokens(500)
+                .cacheable(true)
+                .cacheVersion(courseCatalogService.getSnapshot().getVersion())
+                .build());
     }
     
-    private String generateDefaultComparison(List<Course> courses) {
+    private String generateDefaultComparison(List<CourseEntry> courses) {
         StringBuilder sb = new StringBuilder();
         sb.append("📊 **课程对比分析**\n\n");
         
-        for (Course course : courses) {
+        for (CourseEntry course : courses) {
             sb.append("**").append(course.getName()).append("**\n");
-            sb.append("- 学院：").append(course.getFaculty() != null ? course.getFaculty().getName() : "未知").append("\n");
+            sb.append("- 学院：").append(course.getFacultyName() != null ? course.getFacultyName() : "未知").append("\n");
             sb.append("- 学分：").append(course.getCredits()).append("\n");
             sb.append("- 类型：").append(course.getType().name().equals("COMPULSORY") ? "必修课" : "选修课").append("\n");
             
-            Double rating = getAverageRating(course);
+            Double rating = course.getAverageRating();
             sb.append("- 评分：").append(rating != null ? String.format("%.1f", rating) : "暂无").append("\n\n");
         }
         
@@ -202,14 +155,5 @@ public class CompareAgent implements BaseAgent {
         
         return sb.toString();
     }
-    
-    private Double getAverageRating(Course course) {
-        return reviewRepository.getAverageRatingForCourse(course);
-    }
-    
-    private Integer getReviewCount(Course course) {
-        Long count = reviewRepository.getReviewCountForCourse(course);
-        return count != null ? count.intValue() : 0;
-    }
 }
 
@@ -1,17 +1,14 @@
 package com.must.courseevaluation.service.agent;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.must.courseevaluation.model.Course;
 import com.must.courseevaluation.model.Review;
-import com.must.courseevaluation.repository.CourseRepository;
 import com.must.courseevaluation.repository.ReviewRepository;
+import com.must.courseevaluation.service.CourseCatalogService;
+import com.must.courseevaluation.service.catalog.CourseCatalogSnapshot.CourseEntry;
+import com.must.courseevaluation.service.llm.ChatCompletionRequest;
+import com.must.courseevaluation.service.llm.DeepSeekClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestTemplate;
 
 import java.util.*;
 
@@ -24,23 +21,14 @@ public class DetailAgent implements BaseAgent {
     
     private static final Logger logger = LoggerFactory.getLogger(DetailAgent.class);
     
-    @Value("${deepseek.api.key:}")
-    private String apiKey;
-    
-    @Value("${deepseek.api.url:https://api.deepseek.com/v1}")
-    private String apiUrl;
-    
-    @Value("${deepseek.model:deepseek-chat}")
-    private String model;
-    
-    private final CourseRepository courseRepository;
+    private final CourseCatalogService courseCatalogService;
     private final ReviewRepository reviewRepository;
-    private final RestTemplate restTemplate = new RestTemplate();
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final DeepSeekClient deepSeekClient;
     
-    public DetailAgent(CourseRepository courseRepository, ReviewRepository reviewRepository) {
-        this.courseRepository = courseRepository;
+    public DetailAgent(CourseCatalogService courseCatalogService, ReviewRepository reviewRepository, DeepSeekClient deepSeekClient) {
+        this.courseCatalogService = courseCatalogService;
         this.reviewRepository = reviewRepository;
+        this.deepSeekClient = deepSeekClient;
     }
     
     @Override
@@ -66,14 +54,14 @@ public class DetailAgent implements BaseAgent {
         }
         
         // 查找课程
-        Optional<Course> courseOpt = findCourseByName(courseName);
+        Optional<CourseEntry> courseOpt = findCourseByName(courseName);
         
         if (courseOpt.isEmpty()) {
             return AgentResult.text(IntentType.DETAIL, 
                 "抱歉，我找不到\"" + courseName + "\"这门课程。请确认课程名称是否正确。");
         }
         
-        Course course = courseOpt.get();
+        CourseEntry course = courseOpt.get();
         
         // 生成详细介绍
         String detail = generateCourseDetail(course, intent.getOriginalMessage());
@@ -89,27 +77,12 @@ public class DetailAgent implements BaseAgent {
                 .build();
     }
     
-    private Optional<Course> findCourseByName(String name) {
-        List<Course> allCourses = courseRepository.findAll();
-        
-        // 精确匹配
-        for (Course course : allCourses) {
-            if (course.getName().equals(name)) {
-                return Optional.of(course);
-            }
-        }
-        
-        // 模糊匹配
-        for (Course course : allCourses) {
-            if (course.getName().contains(name) || name.contains(course.getName())) {
-                return Optional.of(course);
-            }
-        }
-        
-        return Optional.empty();
+    private Optional<CourseEntry> findCourseByName(String name) {
+        // 先精确匹配，再模糊匹配
+        return courseCatalogService.getSnapshot().findByName(name);
     }
     
-    private String generateCourseDetail(Course course, String userMessage) {
+    private String generateCourseDetail(CourseEntry course, String userMessage) {
         try {
             return generateAIDetail(course, userMessage);
         } catch (Exception e) {
@@ -118,9 +91,9 @@ public class DetailAgent implements BaseAgent {
         }
     }
     
-    private String generateAIDetail(Course course, String userMessage) throws Exception {
+    private String generateAIDetail(CourseEntry course, String userMessage) {
         // 获取课程评价
-        List<Review> reviews = reviewRepository.findByCourse(course);
+        List<Review> reviews = reviewRepository.findByCourseId(course.getId());
         
         String systemPrompt = """
             你是一个专业的课程顾问。请根据课程信息和学生评价，为用户详细介绍这门课程。
@@ -140,13 +113,13 @@ public class DetailAgent implements BaseAgent {
         userPrompt.append("【课程信息】\n");
         userPrompt.append("- 名称：").append(course.getName()).append("\n");
         userPrompt.append("- 代码：").append(course.getCode()).append("\n");
-        userPrompt.append("- 学院：").append(course.getFaculty() != null ? course.getFaculty().getName() : "未知").append("\n");
+        userPrompt.append("- 学院：").append(course.getFacultyName() != null ? course.getFacultyName() : "未知").append("\n");
         userPrompt.append("- 学分：").append(course.getCredits()).append("\n");
         userPrompt.append("- 类型：").append(course.getType().name().equals("COMPULSORY") ? "必修课" : "选修课").append("\n");
-        userPrompt.append("- 授课教师：").append(course.getTeacher() != null ? course.getTeacher().getName() : "未知").append("\n");
+        userPrompt.append("- 授课教师：").append(course.getTeacherName() != null ? course.getTeacherName() : "未知").append("\n");
         
-        Double rating = getAverageRating(course);
-        Integer reviewCount = getReviewCount(course);
+        Double rating = course.getAverageRating();
+        Integer reviewCount = course.getReviewCount();
         userPrompt.append("- 评分：").append(rating != null ? String.format("%.1f", rating) : "暂无").append("\n");
         userPrompt.append("- 评价数：").append(reviewCount != null ? reviewCount : 0).append("\n");
         userPrompt.append("- 简介：").append(course.getDescription() != null ? course.getDescription() : "暂无").append("\n");
@@ -164,46 +137,29 @@ public class DetailAgent implements BaseAgent {
         
         userPrompt.append("\n请详细介绍这门课程。");
         
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.setBearerAuth(apiKey);
-
-        Map<String, Object> requestBody = new HashMap<>();
-        requestBody.put("model", model);
-        requestBody.put("temperature", 0.7);
-        requestBody.put("max_tokens", 600);
-
-        List<Map<String, String>> messages = new ArrayList<>();
-        messages.add(Map.of("role", "system", "content", systemPrompt));
-        messages.add(Map.of("role", "user", "content", userPrompt.toString()));
-        requestBody.put("messages", messages);
-
-        HttpEntity<Map<String, Object>> request = new HttpEntity<>(requestBody, headers);
-
-        String url = apiUrl + "/chat/completions";
-        ResponseEntity<String> response = restTemplate.exchange(
-                url, HttpMethod.POST, request, String.class);
-
-        if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-            JsonNode root = objectMapper.readTree(response.getBody());
-            return root.path("choices").get(0).path("message").path("content").asText();
-        }
-        
-        throw new RuntimeException("AI详情生成失败");
+        return deepSeekClient.chatCompletion(ChatCompletionRequest.builder()
+                .caller("DetailAgent")
+                .systemPrompt(systemPrompt)
+                .userPrompt(userPrompt.toString())
+                .temperature(0.7)
+                .maxTokens(600)
+                .cacheable(true)
+                .cacheVersion(courseCatalogService.getSnapshot().getVersion())
+                .build());
     }
     
-    private String generateDefaultDetail(Course course) {
+    private String generateDefaultDetail(CourseEntry course) {
         StringBuilder sb = new StringBuilder();
         sb.append("📚 **").append(course.getName()).append("**\n\n");
         
         sb.append("**基本信息**\n");
         sb.append("- 课程代码：").append(course.getCode()).append("\n");
-        sb.append("- 所属学院：").append(course.getFaculty() != null ? course.getFaculty().getName() : "未知").append("\n");
+        sb.append("- 所属学院：").append(course.getFacultyName() != null ? course.getFacultyName() : "未知").append("\n");
         sb.append("- 学分：").append(course.getCredits()).append("\n");
         sb.append("- 类型：").append(course.getType().name().equals("COMPULSORY") ? "必修课" : "选修课").append("\n");
-        sb.append("- 授课教师：").append(course.getTeacher() != null ? course.getTeacher().getName() : "未知").append("\n");
+        sb.append("- 授课教师：").append(course.getTeacherName() != null ? course.getTeacherName() : "未知").append("\n");
         
-        Double rating = getAverageRating(course);
+        Double rating = course.getAverageRating();
         sb.append("- 综合评分：").append(rating != null ? String.format("%.1f", rating) + " ⭐" : "暂无评分").append("\n");
         
         if (course.getDescription() != null && !course.getDescription().isEmpty()) {
@@ -216,7 +172,7 @@ public class DetailAgent implements BaseAgent {
         return sb.toString();
     }
     
-    private AgentResult.CourseInfo toCourseInfo(Course course) {
+    private AgentResult.CourseInfo toCourseInfo(CourseEntry course) {
         return AgentResult.CourseInfo.builder()
                 .id(course.getId())
                 .code(course.getCode())
@@ -224,20 +180,11 @@ public class DetailAgent implements BaseAgent {
                 .credits(course.getCredits())
                 .type(course.getType().name())
                 .description(course.getDescription())
-                .facultyName(course.getFaculty() != null ? course.getFaculty().getName() : null)
-                .teacherName(course.getTeacher() != null ? course.getTeacher().getName() : null)
-                .averageRating(getAverageRating(course))
-                .reviewCount(getReviewCount(course))
+                .facultyName(course.getFacultyName())
+                .teacherName(course.getTeacherName())
+                .averageRating(course.getAverageRating())
+                .reviewCount(course.getReviewCount())
                 .build();
     }
-    
-    private Double getAverageRating(Course course) {
-        return reviewRepository.getAverageRatingForCourse(course);
-    }
-    
-    private Integer getReviewCount(Course course) {
-        Long count = reviewRepository.getReviewCountForCourse(course);
-        return count != null ? count.intValue() : 0;
-    }
 }
 
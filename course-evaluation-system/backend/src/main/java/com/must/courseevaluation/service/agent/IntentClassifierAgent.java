@@ -2,14 +2,19 @@ package com.must.courseevaluation.service.agent;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.must.courseevaluation.service.llm.ChatCompletionRequest;
+import com.must.courseevaluation.service.llm.DeepSeekClient;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 意图分类 Agent
@@ -20,22 +25,49 @@ public class IntentClassifierAgent {
     
     private static final Logger logger = LoggerFactory.getLogger(IntentClassifierAgent.class);
     
-    @Value("${deepseek.api.key:}")
-    private String apiKey;
+    // 意图分类位于每轮对话的关键路径上，超时后走降级逻辑
+    private static final Duration CLASSIFY_TIMEOUT = Duration.ofSeconds(10);
     
-    @Value("${deepseek.api.url:https://api.deepseek.com/v1}")
-    private String apiUrl;
+    private final DeepSeekClient deepSeekClient;
+    private final RuleBasedIntentClassifier ruleBasedClassifier;
+    private final double fastPathThreshold;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper = new ObjectMapper();
     
-    @Value("${deepseek.model:deepseek-chat}")
-    private String model;
+    // 快速路径命中率 = 规则分类次数 / 总分类次数
+    private final AtomicLong ruleClassified = new AtomicLong();
+    private final AtomicLong totalClassified = new AtomicLong();
     
-    private final RestTemplate restTemplate = new RestTemplate();
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    public IntentClassifierAgent(DeepSeekClient deepSeekClient,
+                                 RuleBasedIntentClassifier ruleBasedClassifier,
+                                 @Value("${ai.intent.fast-path-threshold:0.9}") double fastPathThreshold,
+                                 MeterRegistry meterRegistry) {
+        this.deepSeekClient = deepSeekClient;
+        this.ruleBasedClassifier = ruleBasedClassifier;
+        this.fastPathThreshold = fastPathThreshold;
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("ai.intent.fast_path.ratio", this, IntentClassifierAgent::getFastPathRatio)
+                .description("意图分类快速路径（规则）命中率")
+                .register(meterRegistry);
+    }
     
     /**
      * 对用户消息进行意图分类
+     * 规则分类器能以足够置信度处理的消息不再调用大模型
      */
     public IntentResult classify(String message, ConversationContext context) {
+        totalClassified.incrementAndGet();
+        
+        Optional<IntentResult> ruleResult = ruleBasedClassifier.classify(message, context);
+        if (ruleResult.isPresent() && ruleResult.get().getConfidence() >= fastPathThreshold) {
+            IntentResult result = ruleResult.get();
+            ruleClassified.incrementAndGet();
+            countClassification("rule");
+            logger.info("[意图分类] 规则命中 - 类型: {}, 参数: {}", result.getIntentType(), result.getParameters());
+            return result;
+        }
+        
+        countClassification("llm");
         try {
             String systemPrompt = buildClassifierPrompt();
             String userPrompt = buildUserPrompt(message, context);
@@ -54,6 +86,22 @@ public class IntentClassifierAgent {
         }
     }
     
+    /**
+     * 快速路径命中率（0-1）
+     */
+    public double getFastPathRatio() {
+        long total = totalClassified.get();
+        return total == 0 ? 0.0 : (double) ruleClassified.get() / total;
+    }
+    
+    private void countClassification(String path) {
+        Counter.builder("ai.intent.classifications")
+                .description("意图分类次数")
+                .tag("path", path)
+                .register(meterRegistry)
+                .increment();
+    }
+    
     private String buildClassifierPrompt() {
         return """
             你是一个智能意图分类器，负责分析用户在课程推荐对话中的意图，并提取相关参数。
@@ -343,34 +391,17 @@ public class IntentClassifierAgent {
         return result;
     }
     
-    private String callDeepSeekAPI(String systemPrompt, String userPrompt) throws Exception {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.setBearerAuth(apiKey);
-
-        Map<String, Object> requestBody = new HashMap<>();
-        requestBody.put("model", model);
-        requestBody.put("temperature", 0.3);
-        requestBody.put("max_tokens", 500);
-        requestBody.put("response_format", Map.of("type", "json_object"));
-
-        List<Map<String, String>> messages = new ArrayList<>();
-        messages.add(Map.of("role", "system", "content", systemPrompt));
-        messages.add(Map.of("role", "user", "content", userPrompt));
-        requestBody.put("messages", messages);
-
-        HttpEntity<Map<String, Object>> request = new HttpEntity<>(requestBody, headers);
-
-        String url = apiUrl + "/chat/completions";
-        ResponseEntity<String> response = restTemplate.exchange(
-                url, HttpMethod.POST, request, String.class);
-
-        if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-            JsonNode root = objectMapper.readTree(response.getBody());
-            return root.path("choices").get(0).path("message").path("content").asText();
-        }
-
-        throw new RuntimeException("DeepSeek API 调用失败");
+    private String callDeepSeekAPI(String systemPrompt, String userPrompt) {
+        return deepSeekClient.chatCompletion(ChatCompletionRequest.builder()
+                .caller("IntentClassifierAgent")
+                .systemPrompt(systemPrompt)
+                .userPrompt(userPrompt)
+                .temperature(0.3)
+                .maxTokens(500)
+                .jsonResponse(true)
+                .timeout(CLASSIFY_TIMEOUT)
+                .cacheable(true)
+                .build());
     }
 }
 
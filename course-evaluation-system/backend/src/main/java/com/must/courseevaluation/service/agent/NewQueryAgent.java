@@ -1,10 +1,9 @@
 package com.must.courseevaluation.service.agent;
 
-import com.must.courseevaluation.model.Course;
-import com.must.courseevaluation.model.CourseSchedule;
-import com.must.courseevaluation.repository.CourseRepository;
-import com.must.courseevaluation.repository.CourseScheduleRepository;
-import com.must.courseevaluation.repository.ReviewRepository;
+import com.must.courseevaluation.service.CourseCatalogService;
+import com.must.courseevaluation.service.CourseSearchService;
+import com.must.courseevaluation.service.catalog.CourseCatalogSnapshot;
+import com.must.courseevaluation.service.catalog.CourseCatalogSnapshot.CourseEntry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
@@ -21,16 +20,12 @@ public class NewQueryAgent implements BaseAgent {
     
     private static final Logger logger = LoggerFactory.getLogger(NewQueryAgent.class);
     
-    private final CourseRepository courseRepository;
-    private final CourseScheduleRepository courseScheduleRepository;
-    private final ReviewRepository reviewRepository;
+    private final CourseCatalogService courseCatalogService;
+    private final CourseSearchService courseSearchService;
     
-    public NewQueryAgent(CourseRepository courseRepository, 
-                         CourseScheduleRepository courseScheduleRepository,
-                         ReviewRepository reviewRepository) {
-        this.courseRepository = courseRepository;
-        this.courseScheduleRepository = courseScheduleRepository;
-        this.reviewRepository = reviewRepository;
+    public NewQueryAgent(CourseCatalogService courseCatalogService, CourseSearchService courseSearchService) {
+        this.courseCatalogService = courseCatalogService;
+        this.courseSearchService = courseSearchService;
     }
     
     @Override
@@ -42,15 +37,15 @@ public class NewQueryAgent implements BaseAgent {
     public AgentResult process(IntentResult intent, ConversationContext context) {
         logger.info("[NewQueryAgent] 处理新查询: {}", intent.getOriginalMessage());
         
-        // 获取所有课程
-        List<Course> allCourses = courseRepository.findAll();
+        // 从内存快照获取课程目录
+        CourseCatalogSnapshot catalog = courseCatalogService.getSnapshot();
         
         // 合并参数
         Map<String, Object> params = new HashMap<>(context.getParameters());
         params.putAll(intent.getParameters());
         
         // 过滤课程
-        List<Course> filteredCourses = filterCourses(allCourses, params, intent.getKeywords());
+        List<CourseEntry> filteredCourses = filterCourses(catalog, params, intent.getKeywords());
         logger.info("[NewQueryAgent] 过滤后课程数量: {}", filteredCourses.size());
         
         if (filteredCourses.isEmpty()) {
@@ -59,7 +54,7 @@ public class NewQueryAgent implements BaseAgent {
         }
         
         // 限制数量
-        List<Course> recommendedCourses = filteredCourses.stream()
+        List<CourseEntry> recommendedCourses = filteredCourses.stream()
                 .limit(5)
                 .collect(Collectors.toList());
         
@@ -80,7 +75,9 @@ public class NewQueryAgent implements BaseAgent {
                 .build();
     }
     
-    private List<Course> filterCourses(List<Course> courses, Map<String, Object> params, List<String> keywords) {
+    private List<CourseEntry> filterCourses(CourseCatalogSnapshot catalog, Map<String, Object> params, List<String> keywords) {
+        List<CourseEntry> courses = catalog.getCourses();
+        
         // 检查是否有结构化参数（学院、教师、课程类型、学分、时间）
         boolean hasStructuredParams = params.containsKey("faculty") || 
                                       params.containsKey("teacher") || 
@@ -90,9 +87,14 @@ public class NewQueryAgent implements BaseAgent {
                                       params.containsKey("timePeriod");
         
         // 预先获取符合时间条件的课程ID集合
-        Set<Long> timeMatchedCourseIds = getTimeMatchedCourseIds(params);
+        Set<Long> timeMatchedCourseIds = getTimeMatchedCourseIds(catalog, params);
+        
+        // 关键词匹配的课程ID由倒排索引一次算出，过滤和排序时只查集合
+        Set<Long> keywordMatchedCourseIds = keywords != null && !keywords.isEmpty()
+                ? courseSearchService.findCourseIdsContaining(keywords)
+                : Set.of();
         
-        List<Course> filteredByParams = courses.stream()
+        List<CourseEntry> filteredByParams = courses.stream()
                 .filter(course -> {
                     // 时间过滤（星期、时间段）
                     if (timeMatchedCourseIds != null && !timeMatchedCourseIds.contains(course.getId())) {
@@ -102,7 +104,7 @@ public class NewQueryAgent implements BaseAgent {
                     // 学院过滤
                     if (params.containsKey("faculty")) {
                         String faculty = (String) params.get("faculty");
-                        String courseFaculty = course.getFaculty() != null ? course.getFaculty().getName() : "";
+                        String courseFaculty = course.getFacultyName() != null ? course.getFacultyName() : "";
                         if (!courseFaculty.contains(faculty) && !faculty.contains(courseFaculty)) {
                             return false;
                         }
@@ -111,7 +113,7 @@ public class NewQueryAgent implements BaseAgent {
                     // 教师过滤
                     if (params.containsKey("teacher")) {
                         String teacher = (String) params.get("teacher");
-                        String courseTeacher = course.getTeacher() != null ? course.getTeacher().getName() : "";
+                        String courseTeacher = course.getTeacherName() != null ? course.getTeacherName() : "";
                         if (!courseTeacher.contains(teacher) && !teacher.contains(courseTeacher)) {
                             return false;
                         }
@@ -154,14 +156,14 @@ public class NewQueryAgent implements BaseAgent {
                     .sorted((a, b) -> {
                         // 如果有关键词，优先返回匹配关键词的课程
                         if (keywords != null && !keywords.isEmpty()) {
-                            boolean aMatch = matchKeywords(a, keywords);
-                            boolean bMatch = matchKeywords(b, keywords);
+                            boolean aMatch = keywordMatchedCourseIds.contains(a.getId());
+                            boolean bMatch = keywordMatchedCourseIds.contains(b.getId());
                             if (aMatch && !bMatch) return -1;
                             if (!aMatch && bMatch) return 1;
                         }
                         // 其次按评分排序
-                        Double ratingA = getAverageRating(a);
-                        Double ratingB = getAverageRating(b);
+                        Double ratingA = a.getAverageRating();
+                        Double ratingB = b.getAverageRating();
                         ratingA = ratingA != null ? ratingA : 0.0;
                         ratingB = ratingB != null ? ratingB : 0.0;
                         return ratingB.compareTo(ratingA);
@@ -171,11 +173,11 @@ public class NewQueryAgent implements BaseAgent {
         
         // 如果没有结构化参数，或结构化参数过滤后没有结果，则使用关键词匹配
         if (keywords != null && !keywords.isEmpty()) {
-            List<Course> keywordMatched = courses.stream()
-                    .filter(course -> matchKeywords(course, keywords))
+            List<CourseEntry> keywordMatched = courses.stream()
+                    .filter(course -> keywordMatchedCourseIds.contains(course.getId()))
                     .sorted((a, b) -> {
-                        Double ratingA = getAverageRating(a);
-                        Double ratingB = getAverageRating(b);
+                        Double ratingA = a.getAverageRating();
+                        Double ratingB = b.getAverageRating();
                         ratingA = ratingA != null ? ratingA : 0.0;
                         ratingB = ratingB != null ? ratingB : 0.0;
                         return ratingB.compareTo(ratingA);
@@ -191,8 +193,8 @@ public class NewQueryAgent implements BaseAgent {
         // 最后返回参数过滤结果（可能为空）
         return filteredByParams.stream()
                 .sorted((a, b) -> {
-                    Double ratingA = getAverageRating(a);
-                    Double ratingB = getAverageRating(b);
+                    Double ratingA = a.getAverageRating();
+                    Double ratingB = b.getAverageRating();
                     ratingA = ratingA != null ? ratingA : 0.0;
                     ratingB = ratingB != null ? ratingB : 0.0;
                     return ratingB.compareTo(ratingA);
@@ -204,7 +206,7 @@ public class NewQueryAgent implements BaseAgent {
      * 根据时间参数获取匹配的课程ID集合
      * @return 匹配的课程ID集合，如果没有时间参数则返回null（表示不过滤）
      */
-    private Set<Long> getTimeMatchedCourseIds(Map<String, Object> params) {
+    private Set<Long> getTimeMatchedCourseIds(CourseCatalogSnapshot catalog, Map<String, Object> params) {
         List<Integer> dayOfWeekList = null;
         Integer timePeriod = null;
         
@@ -242,48 +244,20 @@ public class NewQueryAgent implements BaseAgent {
         Set<Long> matchedCourseIds = new HashSet<>();
         
         if (dayOfWeekList != null && !dayOfWeekList.isEmpty()) {
-            // 查询匹配任意一个星期的课程
+            // 匹配任意一个星期的课程
             for (Integer dayOfWeek : dayOfWeekList) {
-                List<CourseSchedule> schedules;
-                if (timePeriod != null) {
-                    schedules = courseScheduleRepository.findByDayOfWeekAndTimePeriod(dayOfWeek, timePeriod);
-                    logger.info("[NewQueryAgent] 时间过滤: 周{} 时间段{}, 找到 {} 个时间安排", 
-                            dayOfWeek, timePeriod, schedules.size());
-                } else {
-                    schedules = courseScheduleRepository.findByDayOfWeek(dayOfWeek);
-                    logger.info("[NewQueryAgent] 时间过滤: 周{}, 找到 {} 个时间安排", dayOfWeek, schedules.size());
-                }
-                schedules.forEach(s -> matchedCourseIds.add(s.getCourse().getId()));
+                matchedCourseIds.addAll(catalog.findCourseIdsBySchedule(dayOfWeek, timePeriod));
             }
         } else if (timePeriod != null) {
             // 只指定时间段
-            List<CourseSchedule> schedules = courseScheduleRepository.findByTimePeriod(timePeriod);
-            logger.info("[NewQueryAgent] 时间过滤: 时间段{}, 找到 {} 个时间安排", timePeriod, schedules.size());
-            schedules.forEach(s -> matchedCourseIds.add(s.getCourse().getId()));
+            matchedCourseIds.addAll(catalog.findCourseIdsBySchedule(null, timePeriod));
         }
         
         logger.info("[NewQueryAgent] 时间过滤后匹配的课程ID数量: {}", matchedCourseIds.size());
         return matchedCourseIds;
     }
     
-    /**
-     * 检查课程是否匹配关键词
-     */
-    private boolean matchKeywords(Course course, List<String> keywords) {
-        if (keywords == null || keywords.isEmpty()) {
-            return true;
-        }
-        String searchText = (course.getName() + " " + 
-                            (course.getDescription() != null ? course.getDescription() : "")).toLowerCase();
-        for (String keyword : keywords) {
-            if (searchText.contains(keyword.toLowerCase())) {
-                return true;
-            }
-        }
-        return false;
-    }
-    
-    private AgentResult.CourseInfo toCourseInfo(Course course) {
+    private AgentResult.CourseInfo toCourseInfo(CourseEntry course) {
         return AgentResult.CourseInfo.builder()
                 .id(course.getId())
                 .code(course.getCode())
@@ -291,20 +265,11 @@ public class NewQueryAgent implements BaseAgent {
                 .credits(course.getCredits())
                 .type(course.getType().name())
                 .description(course.getDescription())
-                .facultyName(course.getFaculty() != null ? course.getFaculty().getName() : null)
-                .teacherName(course.getTeacher() != null ? course.getTeacher().getName() : null)
-                .averageRating(getAverageRating(course))
-                .reviewCount(getReviewCount(course))
+                .facultyName(course.getFacultyName())
+                .teacherName(course.getTeacherName())
+                .averageRating(course.getAverageRating())
+                .reviewCount(course.getReviewCount())
                 .build();
     }
-    
-    private Double getAverageRating(Course course) {
-        return reviewRepository.getAverageRatingForCourse(course);
-    }
-    
-    private Integer getReviewCount(Course course) {
-        Long count = reviewRepository.getReviewCountForCourse(course);
-        return count != null ? count.intValue() : 0;
-    }
 }
 
@@ -1,15 +1,16 @@
 package com.must.courseevaluation.service.agent;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.must.courseevaluation.service.CourseCatalogService;
+import com.must.courseevaluation.service.llm.ChatCompletionRequest;
+import com.must.courseevaluation.service.llm.DeepSeekClient;
+import com.must.courseevaluation.service.llm.LlmClientException;
+import com.must.courseevaluation.service.llm.StreamCancellation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestTemplate;
 
 import java.util.*;
+import java.util.function.Consumer;
 
 /**
  * 响应生成 Agent
@@ -20,17 +21,13 @@ public class ResponseAgent {
     
     private static final Logger logger = LoggerFactory.getLogger(ResponseAgent.class);
     
-    @Value("${deepseek.api.key:}")
-    private String apiKey;
+    private final DeepSeekClient deepSeekClient;
+    private final CourseCatalogService courseCatalogService;
     
-    @Value("${deepseek.api.url:https://api.deepseek.com/v1}")
-    private String apiUrl;
-    
-    @Value("${deepseek.model:deepseek-chat}")
-    private String model;
-    
-    private final RestTemplate restTemplate = new RestTemplate();
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    public ResponseAgent(DeepSeekClient deepSeekClient, CourseCatalogService courseCatalogService) {
+        this.deepSeekClient = deepSeekClient;
+        this.courseCatalogService = courseCatalogService;
+    }
     
     /**
      * 为推荐结果生成话术
@@ -53,36 +50,60 @@ public class ResponseAgent {
         }
     }
     
-    private String generateAIResponse(AgentResult result, IntentResult intent, ConversationContext context) throws Exception {
-        String systemPrompt = buildSystemPrompt(result.getIntentType());
-        String userPrompt = buildUserPrompt(result, intent, context);
+    /**
+     * 为推荐结果流式生成话术，每段增量内容回调 onToken，返回完整话术
+     * AI 调用失败时一次性输出默认话术；取消句柄被触发时关闭上游流并抛出 LlmClientException
+     */
+    public String streamRecommendationResponse(AgentResult result, IntentResult intent, ConversationContext context,
+                                               Consumer<String> onToken, StreamCancellation cancellation) {
+        if (result.getMessage() != null && !result.getMessage().isEmpty()) {
+            onToken.accept(result.getMessage());
+            return result.getMessage();
+        }
         
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.setBearerAuth(apiKey);
-
-        Map<String, Object> requestBody = new HashMap<>();
-        requestBody.put("model", model);
-        requestBody.put("temperature", 0.7);
-        requestBody.put("max_tokens", 300);
-
-        List<Map<String, String>> messages = new ArrayList<>();
-        messages.add(Map.of("role", "system", "content", systemPrompt));
-        messages.add(Map.of("role", "user", "content", userPrompt));
-        requestBody.put("messages", messages);
-
-        HttpEntity<Map<String, Object>> request = new HttpEntity<>(requestBody, headers);
-
-        String url = apiUrl + "/chat/completions";
-        ResponseEntity<String> response = restTemplate.exchange(
-                url, HttpMethod.POST, request, String.class);
-
-        if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-            JsonNode root = objectMapper.readTree(response.getBody());
-            return root.path("choices").get(0).path("message").path("content").asText();
+        StringBuilder streamed = new StringBuilder();
+        try {
+            return deepSeekClient.streamChatCompletion(ChatCompletionRequest.builder()
+                    .caller("ResponseAgent")
+                    .systemPrompt(buildSystemPrompt(result.getIntentType()))
+                    .userPrompt(buildUserPrompt(result, intent, context))
+                    .temperature(0.7)
+                    .maxTokens(300)
+                    .cacheable(true)
+                    .cacheVersion(courseCatalogService.getSnapshot().getVersion())
+                    .build(), token -> {
+                        streamed.append(token);
+                        onToken.accept(token);
+                    }, cancellation);
+        } catch (LlmClientException e) {
+            if (cancellation.isCancelled()) {
+                throw e;
+            }
+            if (streamed.length() > 0) {
+                // 已输出部分内容，保留已输出的部分
+                logger.warn("AI话术流式生成中断: {}", e.getMessage());
+                return streamed.toString();
+            }
+            logger.warn("AI话术生成失败，使用默认话术: {}", e.getMessage());
+            String response = generateDefaultResponse(result, intent, context);
+            onToken.accept(response);
+            return response;
         }
+    }
+    
+    private String generateAIResponse(AgentResult result, IntentResult intent, ConversationContext context) {
+        String systemPrompt = buildSystemPrompt(result.getIntentType());
+        String userPrompt = buildUserPrompt(result, intent, context);
         
-        throw new RuntimeException("AI话术生成失败");
+        return deepSeekClient.chatCompletion(ChatCompletionRequest.builder()
+                .caller("ResponseAgent")
+                .systemPrompt(systemPrompt)
+                .userPrompt(userPrompt)
+                .temperature(0.7)
+                .maxTokens(300)
+                .cacheable(true)
+                .cacheVersion(courseCatalogService.getSnapshot().getVersion())
+                .build());
     }
     
     private String buildSystemPrompt(IntentType intentType) {
@@ -0,0 +1,267 @@
+package com.must.courseevaluation.service.agent;
+
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * 基于规则的意图分类器（意图分类的快速路径）
+ *
+ * 只处理能被规则完整解释的消息：问候/感谢等短语，以及仅由星期、时间段、课程类型、
+ * 学分、难度、领域词、引用词和常见虚词组成的查询。消息中只要还有规则无法识别的内容，
+ * 就不给出结果，交由大模型分类。规则与 IntentClassifierAgent 提示词中的映射保持一致。
+ */
+@Component
+public class RuleBasedIntentClassifier {
+
+    static final double CHAT_CONFIDENCE = 0.99;
+    static final double NEW_QUERY_CONFIDENCE = 0.95;
+    static final double FOLLOW_UP_CONFIDENCE = 0.9;
+
+    private static final Set<String> CHAT_MESSAGES = Set.of(
+            "你好", "您好", "hi", "hello", "嗨",
+            "谢谢", "谢谢你", "感谢", "多谢", "非常感谢",
+            "再见", "拜拜", "bye",
+            "好的", "好", "可以", "嗯", "嗯嗯", "ok", "知道了", "明白了");
+
+    private static final Pattern DAY_PATTERN = Pattern.compile("(?:周|星期|礼拜)([一二三四五六日天1-7])");
+    // 数字学分最多两位，更长的数字不匹配，留在剩余文本中交给大模型
+    private static final Pattern CREDITS_PATTERN = Pattern.compile("(?<![0-9])([0-9]{1,2}|[一二两三四五六])\\s*个?学分");
+    private static final Pattern PUNCTUATION = Pattern.compile("[\\s\\p{Punct}，。！？、；：“”‘’（）…~～]+");
+
+    private static final Map<String, Integer> TIME_PERIODS = new LinkedHashMap<>();
+    private static final Map<String, String> COURSE_TYPES = new LinkedHashMap<>();
+    private static final Map<String, String> DIFFICULTIES = new LinkedHashMap<>();
+    private static final Map<String, String> FACULTY_KEYWORDS = new LinkedHashMap<>();
+
+    private static final List<String> REFERENCE_WORDS = List.of(
+            "上述", "刚才", "刚刚", "这些", "其中", "里面", "上面", "之前推荐");
+    private static final List<String> SUPPLEMENT_MARKERS = List.of(
+            "换成", "改成", "改为", "换为", "只要", "还要", "加上", "想要", "要");
+    private static final List<String> QUERY_MARKERS = List.of(
+            "推荐", "有什么", "有哪些", "有没有", "想学习", "想学", "找");
+    private static final List<String> FILLER_WORDS = List.of(
+            "课程", "课", "的", "吗", "呢", "吧", "呀", "啊", "了", "一下", "一些", "几门", "门",
+            "哪些", "什么", "有", "是", "在", "中", "和", "或", "或者", "还有", "我", "请", "帮我", "给我",
+            "能", "可以", "上课", "时间", "学习", "相关", "方面", "一点", "点");
+
+    static {
+        TIME_PERIODS.put("上午", 1);
+        TIME_PERIODS.put("早上", 1);
+        TIME_PERIODS.put("早晨", 1);
+        TIME_PERIODS.put("中午", 2);
+        TIME_PERIODS.put("午间", 2);
+        TIME_PERIODS.put("下午", 3);
+        TIME_PERIODS.put("晚上", 4);
+        TIME_PERIODS.put("夜间", 4);
+        TIME_PERIODS.put("晚课", 4);
+
+        COURSE_TYPES.put("必修", "COMPULSORY");
+        COURSE_TYPES.put("核心课", "COMPULSORY");
+        COURSE_TYPES.put("选修", "ELECTIVE");
+        COURSE_TYPES.put("公选", "ELECTIVE");
+
+        DIFFICULTIES.put("简单", "easy");
+        DIFFICULTIES.put("容易", "easy");
+        DIFFICULTIES.put("轻松", "easy");
+        DIFFICULTIES.put("适中", "medium");
+        DIFFICULTIES.put("困难", "hard");
+        DIFFICULTIES.put("有挑战", "hard");
+
+        addFacultyKeywords("创新工程学院", "计算机", "软件", "编程", "代码", "人工智能", "ai", "机器学习",
+                "算法", "数据库", "网络", "系统");
+        addFacultyKeywords("商学院", "经济", "金融", "会计", "财务", "营销", "市场", "投资", "创业",
+                "商业", "管理", "贸易");
+        addFacultyKeywords("人文艺术学院", "设计", "艺术", "绘画", "写作", "文学", "媒体", "传播", "文化", "创意");
+        addFacultyKeywords("酒店与旅游管理学院", "酒店", "旅游", "会展", "餐饮", "服务业", "款待");
+        addFacultyKeywords("医学院", "医学", "医疗", "健康", "药物", "药理", "解剖", "生理", "临床", "护理");
+    }
+
+    private static void addFacultyKeywords(String faculty, String... keywords) {
+        for (String keyword : keywords) {
+            FACULTY_KEYWORDS.put(keyword, faculty);
+        }
+    }
+
+    /**
+     * 尝试用规则分类，无法完整解释消息时返回空
+     */
+    public Optional<IntentResult> classify(String message, ConversationContext context) {
+        if (message == null) {
+            return Optional.empty();
+        }
+        String text = message.trim().toLowerCase(Locale.ROOT);
+        String stripped = PUNCTUATION.matcher(text).replaceAll("");
+        if (stripped.isEmpty()) {
+            return Optional.empty();
+        }
+
+        if (CHAT_MESSAGES.contains(stripped)) {
+            return Optional.of(result(IntentType.CHAT, CHAT_CONFIDENCE, message, new HashMap<>(), List.of(), false));
+        }
+
+        Map<String, Object> parameters = new HashMap<>();
+        List<String> keywords = new ArrayList<>();
+        String residual = stripped;
+
+        // 星期：周一…周日，周末 = 周六 + 周日
+        Set<Integer> days = new TreeSet<>();
+        if (residual.contains("周末")) {
+            days.add(6);
+            days.add(7);
+            residual = residual.replace("周末", "");
+        }
+        Matcher dayMatcher = DAY_PATTERN.matcher(residual);
+        while (dayMatcher.find()) {
+            days.add(parseDay(dayMatcher.group(1)));
+        }
+        residual = DAY_PATTERN.matcher(residual).replaceAll("");
+        if (!days.isEmpty()) {
+            parameters.put("dayOfWeek", new ArrayList<>(days));
+        }
+
+        // 学分
+        Matcher creditsMatcher = CREDITS_PATTERN.matcher(residual);
+        if (creditsMatcher.find()) {
+            parameters.put("credits", parseNumber(creditsMatcher.group(1)));
+            if (creditsMatcher.find()) {
+                return Optional.empty();
+            }
+            residual = CREDITS_PATTERN.matcher(residual).replaceAll("");
+        }
+
+        // 时间段、课程类型、难度、学院只接受单一取值，出现多个取值时交给大模型
+        Set<Integer> periods = new HashSet<>();
+        residual = extract(residual, TIME_PERIODS, periods);
+        Set<String> courseTypes = new HashSet<>();
+        residual = extract(residual, COURSE_TYPES, courseTypes);
+        Set<String> difficulties = new HashSet<>();
+        residual = extract(residual, DIFFICULTIES, difficulties);
+        Set<String> faculties = new HashSet<>();
+        // 直接提到学院名称（"换成商学院的"）只作为学院条件，不作为搜索关键词
+        for (String faculty : sortedByLength(new HashSet<>(FACULTY_KEYWORDS.values()))) {
+            if (residual.contains(faculty)) {
+                faculties.add(faculty);
+                residual = residual.replace(faculty, "");
+            }
+        }
+        for (String keyword : sortedByLength(FACULTY_KEYWORDS.keySet())) {
+            if (residual.contains(keyword)) {
+                faculties.add(FACULTY_KEYWORDS.get(keyword));
+                keywords.add(keyword);
+                residual = residual.replace(keyword, "");
+            }
+        }
+        if (periods.size() > 1 || courseTypes.size() > 1 || difficulties.size() > 1 || faculties.size() > 1) {
+            return Optional.empty();
+        }
+        periods.forEach(period -> parameters.put("timePeriod", period));
+        courseTypes.forEach(type -> parameters.put("courseType", type));
+        difficulties.forEach(difficulty -> parameters.put("difficulty", difficulty));
+        faculties.forEach(faculty -> parameters.put("faculty", faculty));
+
+        boolean reference = containsAny(residual, REFERENCE_WORDS);
+        residual = removeAll(residual, REFERENCE_WORDS);
+        boolean queryMarker = containsAny(residual, QUERY_MARKERS);
+        residual = removeAll(residual, QUERY_MARKERS);
+        boolean supplementMarker = containsAny(residual, SUPPLEMENT_MARKERS);
+        residual = removeAll(residual, SUPPLEMENT_MARKERS);
+        residual = removeAll(residual, FILLER_WORDS);
+
+        // 消息中还有规则无法识别的内容（课程名、教师、具体主题等）
+        if (!residual.isEmpty() || parameters.isEmpty()) {
+            return Optional.empty();
+        }
+
+        boolean hasPreviousQuery = context != null
+                && (context.hasLastRecommendedCourses()
+                    || (context.getParameters() != null && !context.getParameters().isEmpty()));
+
+        if (reference) {
+            if (context == null || !context.hasLastRecommendedCourses()) {
+                return Optional.empty();
+            }
+            return Optional.of(result(IntentType.REFINE, FOLLOW_UP_CONFIDENCE, message, parameters, keywords, true));
+        }
+        if (!hasPreviousQuery) {
+            return Optional.of(result(IntentType.NEW_QUERY, NEW_QUERY_CONFIDENCE, message, parameters, keywords, false));
+        }
+        if (queryMarker && !supplementMarker) {
+            return Optional.of(result(IntentType.NEW_QUERY, FOLLOW_UP_CONFIDENCE, message, parameters, keywords, false));
+        }
+        if (!queryMarker && (supplementMarker || keywords.isEmpty())) {
+            // "要选修课"、"3学分的"：在之前的条件上补充
+            return Optional.of(result(IntentType.SUPPLEMENT, FOLLOW_UP_CONFIDENCE, message, parameters, keywords, false));
+        }
+        return Optional.empty();
+    }
+
+    private IntentResult result(IntentType type, double confidence, String message,
+                                Map<String, Object> parameters, List<String> keywords, boolean reference) {
+        return IntentResult.builder()
+                .intentType(type)
+                .confidence(confidence)
+                .originalMessage(message)
+                .parameters(parameters)
+                .keywords(new ArrayList<>(keywords))
+                .referenceLastResult(reference)
+                .build();
+    }
+
+    private static <T> String extract(String text, Map<String, T> mapping, Set<T> values) {
+        for (String word : sortedByLength(mapping.keySet())) {
+            if (text.contains(word)) {
+                values.add(mapping.get(word));
+                text = text.replace(word, "");
+            }
+        }
+        return text;
+    }
+
+    private static boolean containsAny(String text, List<String> words) {
+        return words.stream().anyMatch(text::contains);
+    }
+
+    private static String removeAll(String text, List<String> words) {
+        for (String word : sortedByLength(words)) {
+            text = text.replace(word, "");
+        }
+        return text;
+    }
+
+    /**
+     * 长词优先匹配，避免"人工智能"被"ai"等短词先行截断
+     */
+    private static List<String> sortedByLength(Collection<String> words) {
+        return words.stream()
+                .sorted(Comparator.comparingInt(String::length).reversed())
+                .collect(Collectors.toList());
+    }
+
+    private static int parseDay(String day) {
+        return switch (day) {
+            case "一", "1" -> 1;
+            case "二", "2" -> 2;
+            case "三", "3" -> 3;
+            case "四", "4" -> 4;
+            case "五", "5" -> 5;
+            case "六", "6" -> 6;
+            default -> 7;
+        };
+    }
+
+    private static int parseNumber(String number) {
+        return switch (number) {
+            case "一" -> 1;
+            case "二", "两" -> 2;
+            case "三" -> 3;
+            case "四" -> 4;
+            case "五" -> 5;
+            case "六" -> 6;
+            default -> Integer.parseInt(number);
+        };
+    }
+}
@@ -1,10 +1,8 @@
 package com.must.courseevaluation.service.agent;
 
-import com.must.courseevaluation.model.Course;
-import com.must.courseevaluation.model.CourseSchedule;
-import com.must.courseevaluation.repository.CourseRepository;
-import com.must.courseevaluation.repository.CourseScheduleRepository;
-import com.must.courseevaluation.repository.ReviewRepository;
+import com.must.courseevaluation.service.CourseCatalogService;
+import com.must.courseevaluation.service.catalog.CourseCatalogSnapshot;
+import com.must.courseevaluation.service.catalog.CourseCatalogSnapshot.CourseEntry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
@@ -21,16 +19,10 @@ public class SupplementAgent implements BaseAgent {
     
     private static final Logger logger = LoggerFactory.getLogger(SupplementAgent.class);
     
-    private final CourseRepository courseRepository;
-    private final CourseScheduleRepository courseScheduleRepository;
-    private final ReviewRepository reviewRepository;
+    private final CourseCatalogService courseCatalogService;
     
-    public SupplementAgent(CourseRepository courseRepository, 
-                           CourseScheduleRepository courseScheduleRepository,
-                           ReviewRepository reviewRepository) {
-        this.courseRepository = courseRepository;
-        this.courseScheduleRepository = courseScheduleRepository;
-        this.reviewRepository = reviewRepository;
+    public SupplementAgent(CourseCatalogService courseCatalogService) {
+        this.courseCatalogService = courseCatalogService;
     }
     
     @Override
@@ -48,9 +40,9 @@ public class SupplementAgent implements BaseAgent {
         
         logger.info("[SupplementAgent] 合并后的参数: {}", mergedParams);
         
-        // 获取所有课程并过滤
-        List<Course> allCourses = courseRepository.findAll();
-        List<Course> filteredCourses = filterCourses(allCourses, mergedParams, intent.getKeywords());
+        // 从课程目录快照获取所有课程并过滤
+        CourseCatalogSnapshot catalog = courseCatalogService.getSnapshot();
+        List<CourseEntry> filteredCourses = filterCourses(catalog, mergedParams, intent.getKeywords());
         
         logger.info("[SupplementAgent] 过滤后课程数量: {}", filteredCourses.size());
         
@@ -105,7 +97,7 @@ public class SupplementAgent implements BaseAgent {
         }
         
         // 限制数量
-        List<Course> recommendedCourses = filteredCourses.stream()
+        List<CourseEntry> recommendedCourses = filteredCourses.stream()
                 .limit(5)
                 .collect(Collectors.toList());
         
@@ -126,9 +118,11 @@ public class SupplementAgent implements BaseAgent {
                 .build();
     }
     
-    private List<Course> filterCourses(List<Course> courses, Map<String, Object> params, List<String> keywords) {
+    private List<CourseEntry> filterCourses(CourseCatalogSnapshot catalog, Map<String, Object> params, List<String> keywords) {
+        List<CourseEntry> courses = catalog.getCourses();
+        
         // 预先获取符合时间条件的课程ID集合
-        Set<Long> timeMatchedCourseIds = getTimeMatchedCourseIds(params);
+        Set<Long> timeMatchedCourseIds = getTimeMatchedCourseIds(catalog, params);
         
         return courses.stream()
                 .filter(course -> {
@@ -140,7 +134,7 @@ public class SupplementAgent implements BaseAgent {
                     // 学院过滤
                     if (params.containsKey("faculty")) {
                         String faculty = (String) params.get("faculty");
-                        String courseFaculty = course.getFaculty() != null ? course.getFaculty().getName() : "";
+                        String courseFaculty = course.getFacultyName() != null ? course.getFacultyName() : "";
                         if (!courseFaculty.contains(faculty) && !faculty.contains(courseFaculty)) {
                             return false;
                         }
@@ -149,7 +143,7 @@ public class SupplementAgent implements BaseAgent {
                     // 教师过滤
                     if (params.containsKey("teacher")) {
                         String teacher = (String) params.get("teacher");
-                        String courseTeacher = course.getTeacher() != null ? course.getTeacher().getName() : "";
+                        String courseTeacher = course.getTeacherName() != null ? course.getTeacherName() : "";
                         if (!courseTeacher.contains(teacher) && !teacher.contains(courseTeacher)) {
                             return false;
                         }
@@ -183,8 +177,8 @@ public class SupplementAgent implements BaseAgent {
                     return true;
                 })
                 .sorted((a, b) -> {
-                    Double ratingA = getAverageRating(a);
-                    Double ratingB = getAverageRating(b);
+                    Double ratingA = a.getAverageRating();
+                    Double ratingB = b.getAverageRating();
                     ratingA = ratingA != null ? ratingA : 0.0;
                     ratingB = ratingB != null ? ratingB : 0.0;
                     return ratingB.compareTo(ratingA);
@@ -196,7 +190,7 @@ public class SupplementAgent implements BaseAgent {
      * 根据时间参数获取匹配的课程ID集合
      * @return 匹配的课程ID集合，如果没有时间参数则返回null（表示不过滤）
      */
-    private Set<Long> getTimeMatchedCourseIds(Map<String, Object> params) {
+    private Set<Long> getTimeMatchedCourseIds(CourseCatalogSnapshot catalog, Map<String, Object> params) {
         List<Integer> dayOfWeekList = null;
         Integer timePeriod = null;
         
@@ -234,31 +228,20 @@ public class SupplementAgent implements BaseAgent {
         Set<Long> matchedCourseIds = new HashSet<>();
         
         if (dayOfWeekList != null && !dayOfWeekList.isEmpty()) {
-            // 查询匹配任意一个星期的课程
+            // 匹配任意一个星期的课程
             for (Integer dayOfWeek : dayOfWeekList) {
-                List<CourseSchedule> schedules;
-                if (timePeriod != null) {
-                    schedules = courseScheduleRepository.findByDayOfWeekAndTimePeriod(dayOfWeek, timePeriod);
-                    logger.info("[SupplementAgent] 时间过滤: 周{} 时间段{}, 找到 {} 个时间安排", 
-                            dayOfWeek, timePeriod, schedules.size());
-                } else {
-                    schedules = courseScheduleRepository.findByDayOfWeek(dayOfWeek);
-                    logger.info("[SupplementAgent] 时间过滤: 周{}, 找到 {} 个时间安排", dayOfWeek, schedules.size());
-                }
-                schedules.forEach(s -> matchedCourseIds.add(s.getCourse().getId()));
+                matchedCourseIds.addAll(catalog.findCourseIdsBySchedule(dayOfWeek, timePeriod));
             }
         } else if (timePeriod != null) {
             // 只指定时间段
-            List<CourseSchedule> schedules = courseScheduleRepository.findByTimePeriod(timePeriod);
-            logger.info("[SupplementAgent] 时间过滤: 时间段{}, 找到 {} 个时间安排", timePeriod, schedules.size());
-            schedules.forEach(s -> matchedCourseIds.add(s.getCourse().getId()));
+            matchedCourseIds.addAll(catalog.findCourseIdsBySchedule(null, timePeriod));
         }
         
         logger.info("[SupplementAgent] 时间过滤后匹配的课程ID数量: {}", matchedCourseIds.size());
         return matchedCourseIds;
     }
     
-    private AgentResult.CourseInfo toCourseInfo(Course course) {
+    private AgentResult.CourseInfo toCourseInfo(CourseEntry course) {
         return AgentResult.CourseInfo.builder()
                 .id(course.getId())
                 .code(course.getCode())
@@ -266,20 +249,11 @@ public class SupplementAgent implements BaseAgent {
                 .credits(course.getCredits())
                 .type(course.getType().name())
                 .description(course.getDescription())
-                .facultyName(course.getFaculty() != null ? course.getFaculty().getName() : null)
-                .teacherName(course.getTeacher() != null ? course.getTeacher().getName() : null)
-                .averageRating(getAverageRating(course))
-                .reviewCount(getReviewCount(course))
+                .facultyName(course.getFacultyName())
+                .teacherName(course.getTeacherName())
+                .averageRating(course.getAverageRating())
+                .reviewCount(course.getReviewCount())
                 .build();
     }
-    
-    private Double getAverageRating(Course course) {
-        return reviewRepository.getAverageRatingForCourse(course);
-    }
-    
-    private Integer getReviewCount(Course course) {
-        Long count = reviewRepository.getReviewCountForCourse(course);
-        return count != null ? count.intValue() : 0;
-    }
 }
 
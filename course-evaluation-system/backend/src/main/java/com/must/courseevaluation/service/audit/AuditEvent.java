@@ -0,0 +1,53 @@
+package com.must.courseevaluation.service.audit;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 安全审计事件
+ * success 只对 LOGIN_ATTEMPT 有意义，userAgent 只在登录事件中记录，其余事件为 null
+ */
+public record AuditEvent(LocalDateTime timestamp,
+                         String eventType,
+                         String username,
+                         String ipAddress,
+                         String userAgent,
+                         Boolean success,
+                         String severity,
+                         String description) {
+
+    public static final String LOGIN_ATTEMPT = "LOGIN_ATTEMPT";
+
+    public boolean isFailedLogin() {
+        return LOGIN_ATTEMPT.equals(eventType) && Boolean.FALSE.equals(success);
+    }
+
+    public boolean isSuccessfulLogin() {
+        return LOGIN_ATTEMPT.equals(eventType) && Boolean.TRUE.equals(success);
+    }
+
+    public boolean isHighSeverity() {
+        return "HIGH".equals(severity) || "CRITICAL".equals(severity);
+    }
+
+    /**
+     * 转换为接口返回的日志格式（字段与原先的 Map 日志条目一致）
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("eventType", eventType);
+        map.put("username", username);
+        map.put("ipAddress", ipAddress);
+        map.put("severity", severity);
+        map.put("description", description);
+        map.put("timestamp", timestamp);
+        if (success != null) {
+            map.put("success", success);
+        }
+        if (userAgent != null) {
+            map.put("userAgent", userAgent);
+        }
+        return map;
+    }
+}
@@ -0,0 +1,323 @@
+package com.must.courseevaluation.service.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * 安全审计事件存储
+ *
+ * 事件保存在固定容量的环形缓冲区中，写满后覆盖最旧的事件；同时按分钟预聚合
+ * （失败登录按 IP/用户名计数、成功登录的用户 IP 集合、各事件类型与高严重程度事件计数），
+ * 统计和可疑活动检测只需合并时间范围内的分钟桶，与缓冲区中的事件数量无关。
+ * 配置了 security.audit.spill-file 时，离开缓冲区的事件（被覆盖的以及被 removeOlderThan 清理的）
+ * 以 JSON 行追加写入该文件：事件在锁内放入溢出队列，由单独的写线程批量写盘，登录请求不会等待磁盘 I/O；
+ * 队列写满时丢弃溢出事件并记录告警。
+ * 缓冲区和分钟桶的读写在 this 上同步。
+ */
+@Component
+public class SecurityAuditStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(SecurityAuditStore.class);
+
+    private final AuditEvent[] ring;
+    // 下一次写入的位置与当前事件数
+    private int head;
+    private int size;
+
+    private final MinuteBucket[] buckets;
+
+    private final Path spillFile;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final BlockingQueue<AuditEvent> spillQueue;
+    private final AtomicLong droppedSpills = new AtomicLong();
+    private final Thread spillThread;
+    private volatile boolean closed;
+    // 只由写线程访问（close 在写线程结束后关闭）
+    private BufferedWriter spillWriter;
+
+    public SecurityAuditStore(@Value("${security.audit.max-entries:10000}") int capacity,
+                              @Value("${security.audit.bucket-retention-hours:168}") int retentionHours,
+                              @Value("${security.audit.spill-file:}") String spillFile) {
+        if (capacity <= 0 || retentionHours <= 0) {
+            throw new IllegalArgumentException("审计缓冲区容量和统计保留时长必须为正数");
+        }
+        this.ring = new AuditEvent[capacity];
+        this.buckets = new MinuteBucket[retentionHours * 60];
+        this.spillFile = spillFile == null || spillFile.isBlank() ? null : Path.of(spillFile);
+        if (this.spillFile != null) {
+            // 一次清理最多移出整个缓冲区，留出同等余量给清理期间被覆盖的事件
+            this.spillQueue = new LinkedBlockingQueue<>(2 * capacity);
+            this.spillThread = Thread.ofPlatform().name("audit-spill").daemon(true).start(this::drainSpillQueue);
+        } else {
+            this.spillQueue = null;
+            this.spillThread = null;
+        }
+    }
+
+    /**
+     * 追加一个事件并更新所在分钟的聚合计数
+     */
+    public void append(AuditEvent event) {
+        AuditEvent evicted;
+        synchronized (this) {
+            evicted = size == ring.length ? ring[head] : null;
+            ring[head] = event;
+            head = (head + 1) % ring.length;
+            if (size < ring.length) {
+                size++;
+            }
+            bucketFor(minuteOf(event.timestamp())).add(event);
+            if (evicted != null) {
+                enqueueSpill(evicted);
+            }
+        }
+    }
+
+    /**
+     * 按时间倒序返回满足条件的事件
+     */
+    public synchronized List<AuditEvent> recent(Predicate<AuditEvent> filter, int limit) {
+        List<AuditEvent> result = new ArrayList<>();
+        for (int i = 1; i <= size && result.size() < limit; i++) {
+            AuditEvent event = ring[Math.floorMod(head - i, ring.length)];
+            if (filter.test(event)) {
+                result.add(event);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 删除早于 cutoff 的事件（缓冲区按时间顺序写入，只需从最旧一端移除），删除的事件同样写入溢出文件
+     * @return 删除的事件数
+     */
+    public synchronized int removeOlderThan(LocalDateTime cutoff) {
+        int removed = 0;
+        while (size > 0) {
+            int tail = Math.floorMod(head - size, ring.length);
+            if (!ring[tail].timestamp().isBefore(cutoff)) {
+                break;
+            }
+            enqueueSpill(ring[tail]);
+            ring[tail] = null;
+            size--;
+            removed++;
+        }
+        return removed;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * 合并 [since, now] 范围内的分钟桶（超出统计保留时长的部分不计入）
+     */
+    public synchronized Aggregate aggregateSince(LocalDateTime since, LocalDateTime now) {
+        long toMinute = minuteOf(now);
+        long fromMinute = Math.max(minuteOf(since), toMinute - buckets.length + 1);
+
+        Aggregate aggregate = new Aggregate();
+        for (long minute = fromMinute; minute <= toMinute; minute++) {
+            MinuteBucket bucket = buckets[(int) Math.floorMod(minute, (long) buckets.length)];
+            if (bucket != null && bucket.minute == minute) {
+                aggregate.merge(bucket);
+            }
+        }
+        return aggregate;
+    }
+
+    /**
+     * 停止写线程；队列中剩余的事件写完后关闭溢出文件
+     */
+    @PreDestroy
+    public void close() {
+        if (spillThread == null || closed) {
+            return;
+        }
+        closed = true;
+        try {
+            spillThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (spillThread.isAlive()) {
+            logger.warn("审计溢出写线程未在 5 秒内结束，剩余 {} 条事件未写入", spillQueue.size());
+            return;
+        }
+        if (spillWriter != null) {
+            try {
+                spillWriter.close();
+            } catch (IOException e) {
+                logger.warn("关闭审计溢出文件失败: {}", e.getMessage());
+            }
+            spillWriter = null;
+        }
+    }
+
+    private MinuteBucket bucketFor(long minute) {
+        int index = (int) Math.floorMod(minute, (long) buckets.length);
+        MinuteBucket bucket = buckets[index];
+        if (bucket == null || bucket.minute != minute) {
+            bucket = new MinuteBucket(minute);
+            buckets[index] = bucket;
+        }
+        return bucket;
+    }
+
+    // 在锁内调用，offer 不阻塞
+    private void enqueueSpill(AuditEvent event) {
+        if (spillQueue != null && !spillQueue.offer(event)) {
+            droppedSpills.incrementAndGet();
+        }
+    }
+
+    /**
+     * 写线程主循环：每次取出队列中的全部事件写入后 flush 一次；关闭后写完剩余事件再退出
+     */
+    private void drainSpillQueue() {
+        List<AuditEvent> batch = new ArrayList<>();
+        while (!closed || !spillQueue.isEmpty()) {
+            try {
+                AuditEvent first = spillQueue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            spillQueue.drainTo(batch);
+            spill(batch);
+            batch.clear();
+
+            long dropped = droppedSpills.getAndSet(0);
+            if (dropped > 0) {
+                logger.warn("审计溢出队列已满，丢弃 {} 条溢出事件", dropped);
+            }
+        }
+    }
+
+    private void spill(List<AuditEvent> events) {
+        try {
+            if (spillWriter == null) {
+                if (spillFile.getParent() != null) {
+                    Files.createDirectories(spillFile.getParent());
+                }
+                spillWriter = Files.newBufferedWriter(spillFile, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            for (AuditEvent event : events) {
+                Map<String, Object> line = event.toMap();
+                line.put("timestamp", event.timestamp().toString());
+                spillWriter.write(objectMapper.writeValueAsString(line));
+                spillWriter.newLine();
+            }
+            spillWriter.flush();
+        } catch (IOException e) {
+            logger.warn("写入审计溢出文件失败: {}", e.getMessage());
+        }
+    }
+
+    private static long minuteOf(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    /**
+     * 一分钟内的聚合计数
+     */
+    private static final class MinuteBucket {
+        final long minute;
+        final Map<String, Integer> countsByEventType = new HashMap<>();
+        final Map<String, Integer> failuresByIp = new HashMap<>();
+        final Map<String, Integer> failuresByUsername = new HashMap<>();
+        final Map<String, Set<String>> loginIpsByUsername = new HashMap<>();
+        int failedLogins;
+        int highSeverityEvents;
+
+        MinuteBucket(long minute) {
+            this.minute = minute;
+        }
+
+        void add(AuditEvent event) {
+            countsByEventType.merge(event.eventType(), 1, Integer::sum);
+            if (event.isHighSeverity()) {
+                highSeverityEvents++;
+            }
+            if (event.isFailedLogin()) {
+                failedLogins++;
+                failuresByIp.merge(String.valueOf(event.ipAddress()), 1, Integer::sum);
+                failuresByUsername.merge(String.valueOf(event.username()), 1, Integer::sum);
+            } else if (event.isSuccessfulLogin()) {
+                loginIpsByUsername.computeIfAbsent(String.valueOf(event.username()), k -> new HashSet<>())
+                        .add(String.valueOf(event.ipAddress()));
+            }
+        }
+    }
+
+    /**
+     * 时间范围内的聚合结果
+     */
+    public static final class Aggregate {
+        private final Map<String, Long> countsByEventType = new HashMap<>();
+        private final Map<String, Long> failuresByIp = new HashMap<>();
+        private final Map<String, Long> failuresByUsername = new HashMap<>();
+        private final Map<String, Set<String>> loginIpsByUsername = new HashMap<>();
+        private long failedLogins;
+        private long highSeverityEvents;
+
+        private void merge(MinuteBucket bucket) {
+            bucket.countsByEventType.forEach((k, v) -> countsByEventType.merge(k, (long) v, Long::sum));
+            bucket.failuresByIp.forEach((k, v) -> failuresByIp.merge(k, (long) v, Long::sum));
+            bucket.failuresByUsername.forEach((k, v) -> failuresByUsername.merge(k, (long) v, Long::sum));
+            bucket.loginIpsByUsername.forEach((k, v) ->
+                    loginIpsByUsername.computeIfAbsent(k, key -> new HashSet<>()).addAll(v));
+            failedLogins += bucket.failedLogins;
+            highSeverityEvents += bucket.highSeverityEvents;
+        }
+
+        public Map<String, Long> getCountsByEventType() {
+            return countsByEventType;
+        }
+
+        public Map<String, Long> getFailuresByIp() {
+            return failuresByIp;
+        }
+
+        public Map<String, Long> getFailuresByUsername() {
+            return failuresByUsername;
+        }
+
+        public Map<String, Set<String>> getLoginIpsByUsername() {
+            return loginIpsByUsername;
+        }
+
+        public long getFailedLogins() {
+            return failedLogins;
+        }
+
+        public long getHighSeverityEvents() {
+            return highSeverityEvents;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.must.courseevaluation.service.backup;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * 逻辑备份文件读取器，格式见 BackupFileWriter
+ *
+ * 顺序读取表头和压缩数据块，不解压；数据块的解压、校验和解码由 Chunk.decode 完成，可以在其它线程中进行。
+ */
+public class BackupFileReader implements Closeable {
+
+    // 防止损坏的长度字段导致分配过大的数组
+    private static final int MAX_CHUNK_BYTES = 256 * 1024 * 1024;
+
+    public record TableHeader(String name, List<String> columns, List<Integer> sqlTypes) {
+    }
+
+    public record Chunk(String table, int rowCount, int rawLength, long checksum, byte[] compressed) {
+
+        /**
+         * 解压并校验数据块，返回其中的所有行
+         * @throws IOException 校验和不一致或数据损坏
+         */
+        public List<Object[]> decode(int columnCount) throws IOException {
+            byte[] raw = new byte[rawLength];
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(compressed);
+                int length = inflater.inflate(raw);
+                if (length != rawLength || !inflater.finished()) {
+                    throw new IOException("表 " + table + " 的数据块长度不一致");
+                }
+            } catch (DataFormatException e) {
+                throw new IOException("表 " + table + " 的数据块解压失败", e);
+            } finally {
+                inflater.end();
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(raw);
+            if (crc.getValue() != checksum) {
+                throw new IOException("表 " + table + " 的数据块校验失败");
+            }
+
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(raw));
+            List<Object[]> rows = new ArrayList<>(rowCount);
+            for (int i = 0; i < rowCount; i++) {
+                Object[] row = new Object[columnCount];
+                for (int j = 0; j < columnCount; j++) {
+                    row[j] = BackupValueCodec.read(in);
+                }
+                rows.add(row);
+            }
+            return rows;
+        }
+    }
+
+    private final DataInputStream in;
+    private TableHeader currentTable;
+    private long tableRowCount;
+
+    public BackupFileReader(InputStream in) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(in, 64 * 1024));
+        byte[] magic = new byte[BackupFileWriter.MAGIC.length];
+        try {
+            this.in.readFully(magic);
+        } catch (EOFException e) {
+            throw new IOException("不是有效的备份文件");
+        }
+        if (!Arrays.equals(magic, BackupFileWriter.MAGIC)) {
+            throw new IOException("不是有效的备份文件");
+        }
+        int version = this.in.readByte();
+        if (version != BackupFileWriter.VERSION) {
+            throw new IOException("不支持的备份文件版本: " + version);
+        }
+    }
+
+    /**
+     * 读取下一张表的表头
+     * @return null 如果已到文件结束标记
+     */
+    public TableHeader nextTable() throws IOException {
+        if (currentTable != null) {
+            throw new IllegalStateException("表 " + currentTable.name() + " 的数据块尚未读完");
+        }
+        byte type = readType();
+        if (type == BackupFileWriter.END) {
+            return null;
+        }
+        if (type != BackupFileWriter.TABLE) {
+            throw new IOException("备份文件格式错误：期望表头");
+        }
+        String name = in.readUTF();
+        int columnCount = in.readInt();
+        List<String> columns = new ArrayList<>(columnCount);
+        List<Integer> sqlTypes = new ArrayList<>(columnCount);
+        for (int i = 0; i < columnCount; i++) {
+            columns.add(in.readUTF());
+            sqlTypes.add(in.readInt());
+        }
+        currentTable = new TableHeader(name, List.copyOf(columns), List.copyOf(sqlTypes));
+        return currentTable;
+    }
+
+    /**
+     * 读取当前表的下一个数据块（不解压）
+     * @return null 如果当前表已读完，此时可通过 tableRowCount 获取该表的总行数
+     */
+    public Chunk nextChunk() throws IOException {
+        if (currentTable == null) {
+            throw new IllegalStateException("读取数据块前需要先读取表头");
+        }
+        byte type = readType();
+        if (type == BackupFileWriter.TABLE_END) {
+            tableRowCount = in.readLong();
+            currentTable = null;
+            return null;
+        }
+        if (type != BackupFileWriter.CHUNK) {
+            throw new IOException("备份文件格式错误：期望数据块");
+        }
+        int rowCount = in.readInt();
+        int rawLength = in.readInt();
+        int compressedLength = in.readInt();
+        long checksum = in.readLong();
+        if (rowCount < 0 || rawLength < 0 || compressedLength < 0
+                || rawLength > MAX_CHUNK_BYTES || compressedLength > MAX_CHUNK_BYTES) {
+            throw new IOException("备份文件格式错误：数据块长度无效");
+        }
+        byte[] compressed = new byte[compressedLength];
+        in.readFully(compressed);
+        return new Chunk(currentTable.name(), rowCount, rawLength, checksum, compressed);
+    }
+
+    /**
+     * 最近读完的表在表尾记录的总行数
+     */
+    public long tableRowCount() {
+        return tableRowCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private byte readType() throws IOException {
+        try {
+            return in.readByte();
+        } catch (EOFException e) {
+            throw new IOException("备份文件不完整");
+        }
+    }
+}
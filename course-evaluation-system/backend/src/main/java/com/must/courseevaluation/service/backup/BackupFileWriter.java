@@ -0,0 +1,160 @@
+package com.must.courseevaluation.service.backup;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * 逻辑备份文件写入器
+ *
+ * 文件格式：文件头（MCEBAK + 版本号），之后逐表写入表头（表名、列名、JDBC 类型）、若干数据块和表尾（总行数），
+ * 最后是结束标记。每个数据块包含至多 chunkRows 行，单独 Deflate 压缩并带有压缩前数据的 CRC32，
+ * 恢复时可以按块并行解压和写入。写入过程中只在内存中保留当前一个数据块。
+ */
+public class BackupFileWriter implements Closeable {
+
+    static final byte[] MAGIC = {'M', 'C', 'E', 'B', 'A', 'K'};
+    static final int VERSION = 1;
+
+    static final byte TABLE = 1;
+    static final byte CHUNK = 2;
+    static final byte TABLE_END = 3;
+    static final byte END = 4;
+
+    private final DataOutputStream out;
+    private final int chunkRows;
+    private final int chunkBytes;
+
+    private final ByteArrayOutputStream chunkBuffer = new ByteArrayOutputStream();
+    private final DataOutputStream chunkData = new DataOutputStream(chunkBuffer);
+    private final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    private final byte[] deflateBuffer = new byte[64 * 1024];
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+
+    private String currentTable;
+    private int columnCount;
+    private int chunkRowCount;
+    private long tableRows;
+
+    /**
+     * @param chunkRows  每个数据块的最大行数
+     * @param chunkBytes 数据块压缩前的字节数达到该值时提前结束当前块，限制单块内存占用
+     */
+    public BackupFileWriter(OutputStream out, int chunkRows, int chunkBytes) throws IOException {
+        if (chunkRows <= 0 || chunkBytes <= 0) {
+            throw new IllegalArgumentException("数据块行数和字节数必须为正数");
+        }
+        this.out = new DataOutputStream(new BufferedOutputStream(out, 64 * 1024));
+        this.chunkRows = chunkRows;
+        this.chunkBytes = chunkBytes;
+        this.out.write(MAGIC);
+        this.out.writeByte(VERSION);
+    }
+
+    public void beginTable(String table, List<String> columns, List<Integer> sqlTypes) throws IOException {
+        if (currentTable != null) {
+            throw new IllegalStateException("表 " + currentTable + " 尚未结束");
+        }
+        if (columns.size() != sqlTypes.size()) {
+            throw new IllegalArgumentException("列名与列类型数量不一致");
+        }
+        currentTable = table;
+        columnCount = columns.size();
+        tableRows = 0;
+
+        out.writeByte(TABLE);
+        out.writeUTF(table);
+        out.writeInt(columnCount);
+        for (int i = 0; i < columnCount; i++) {
+            out.writeUTF(columns.get(i));
+            out.writeInt(sqlTypes.get(i));
+        }
+    }
+
+    /**
+     * 写入一行，values 在方法返回后即可复用
+     */
+    public void writeRow(Object[] values) throws IOException {
+        if (currentTable == null) {
+            throw new IllegalStateException("写入数据前需要先开始一张表");
+        }
+        if (values.length != columnCount) {
+            throw new IllegalArgumentException("表 " + currentTable + " 应有 " + columnCount + " 列，实际为 " + values.length);
+        }
+        for (Object value : values) {
+            BackupValueCodec.write(chunkData, value);
+        }
+        chunkRowCount++;
+        tableRows++;
+        if (chunkRowCount >= chunkRows || chunkBuffer.size() >= chunkBytes) {
+            flushChunk();
+        }
+    }
+
+    /**
+     * 结束当前表
+     * @return 该表写入的行数
+     */
+    public long endTable() throws IOException {
+        if (currentTable == null) {
+            throw new IllegalStateException("没有正在写入的表");
+        }
+        flushChunk();
+        out.writeByte(TABLE_END);
+        out.writeLong(tableRows);
+        currentTable = null;
+        return tableRows;
+    }
+
+    /**
+     * 写入结束标记；没有结束标记的文件在恢复时被视为不完整
+     */
+    public void finish() throws IOException {
+        if (currentTable != null) {
+            throw new IllegalStateException("表 " + currentTable + " 尚未结束");
+        }
+        out.writeByte(END);
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        deflater.end();
+        out.close();
+    }
+
+    private void flushChunk() throws IOException {
+        if (chunkRowCount == 0) {
+            return;
+        }
+        chunkData.flush();
+        byte[] raw = chunkBuffer.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(raw);
+
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        compressed.reset();
+        while (!deflater.finished()) {
+            int length = deflater.deflate(deflateBuffer);
+            compressed.write(deflateBuffer, 0, length);
+        }
+
+        out.writeByte(CHUNK);
+        out.writeInt(chunkRowCount);
+        out.writeInt(raw.length);
+        out.writeInt(compressed.size());
+        out.writeLong(crc.getValue());
+        compressed.writeTo(out);
+
+        chunkBuffer.reset();
+        chunkRowCount = 0;
+    }
+}
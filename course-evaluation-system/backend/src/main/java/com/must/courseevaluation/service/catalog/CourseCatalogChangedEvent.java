@@ -0,0 +1,50 @@
+package com.must.courseevaluation.service.catalog;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * 课程目录数据变化事件
+ * 课程、学院、教师、上课时间或评分聚合发生变化时发布，事务提交后由 CourseCatalogService 刷新快照
+ */
+public class CourseCatalogChangedEvent extends ApplicationEvent {
+
+    public enum Scope {
+        // 课程/学院/教师/上课时间变化，需要全量重建
+        FULL,
+        // 仅评分聚合变化
+        RATINGS,
+        // 仅AI总结的有无变化
+        SUMMARY
+    }
+
+    private final Scope scope;
+
+    // 变化涉及的课程ID，为null表示涉及所有课程
+    private final Long courseId;
+
+    public CourseCatalogChangedEvent(Object source, Scope scope, Long courseId) {
+        super(source);
+        this.scope = scope;
+        this.courseId = courseId;
+    }
+
+    public static CourseCatalogChangedEvent full(Object source) {
+        return new CourseCatalogChangedEvent(source, Scope.FULL, null);
+    }
+
+    public static CourseCatalogChangedEvent ratings(Object source, Long courseId) {
+        return new CourseCatalogChangedEvent(source, Scope.RATINGS, courseId);
+    }
+
+    public static CourseCatalogChangedEvent summary(Object source, Long courseId) {
+        return new CourseCatalogChangedEvent(source, Scope.SUMMARY, courseId);
+    }
+
+    public Scope getScope() {
+        return scope;
+    }
+
+    public Long getCourseId() {
+        return courseId;
+    }
+}
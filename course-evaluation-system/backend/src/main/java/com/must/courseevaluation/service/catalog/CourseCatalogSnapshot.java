@@ -0,0 +1,132 @@
+package com.must.courseevaluation.service.catalog;
+
+import com.must.courseevaluation.model.Course;
+import com.must.courseevaluation.service.timetable.WeeklyTimetable;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * 课程目录快照（不可变）
+ * 包含课程基本信息、学院/教师名称、上课时间和评分聚合，供推荐 Agent 在内存中过滤和排序。
+ * 数据变化时由 CourseCatalogService 构建新快照整体替换，读取方无需加锁。
+ */
+public final class CourseCatalogSnapshot {
+
+    private final long version;
+    private final LocalDateTime builtAt;
+    private final List<CourseEntry> courses;
+    private final Map<Long, CourseEntry> coursesById;
+
+    public CourseCatalogSnapshot(long version, Collection<CourseEntry> courses) {
+        this.version = version;
+        this.builtAt = LocalDateTime.now();
+        this.courses = List.copyOf(courses);
+
+        Map<Long, CourseEntry> byId = new HashMap<>();
+        for (CourseEntry course : this.courses) {
+            byId.put(course.getId(), course);
+        }
+        this.coursesById = Collections.unmodifiableMap(byId);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public LocalDateTime getBuiltAt() {
+        return builtAt;
+    }
+
+    public List<CourseEntry> getCourses() {
+        return courses;
+    }
+
+    public int size() {
+        return courses.size();
+    }
+
+    public Optional<CourseEntry> getCourse(Long courseId) {
+        return Optional.ofNullable(coursesById.get(courseId));
+    }
+
+    /**
+     * 按课程名查找：先精确匹配，再双向包含匹配
+     */
+    public Optional<CourseEntry> findByName(String name) {
+        if (name == null || name.isEmpty()) {
+            return Optional.empty();
+        }
+
+        for (CourseEntry course : courses) {
+            if (course.getName().equals(name)) {
+                return Optional.of(course);
+            }
+        }
+
+        for (CourseEntry course : courses) {
+            if (course.getName().contains(name) || name.contains(course.getName())) {
+                return Optional.of(course);
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * 查找在指定时间上课的课程ID
+     * @param dayOfWeek 星期几（1-7），为null表示不限
+     * @param timePeriod 时间段（1-4），为null表示不限
+     */
+    public Set<Long> findCourseIdsBySchedule(Integer dayOfWeek, Integer timePeriod) {
+        int queryMask = WeeklyTimetable.queryMask(dayOfWeek, timePeriod);
+        Set<Long> courseIds = new HashSet<>();
+        for (CourseEntry course : courses) {
+            if (WeeklyTimetable.conflicts(course.getScheduleMask(), queryMask)) {
+                courseIds.add(course.getId());
+            }
+        }
+        return courseIds;
+    }
+
+    /**
+     * 返回替换了部分课程条目的新快照
+     */
+    public CourseCatalogSnapshot withCourses(long newVersion, Map<Long, CourseEntry> replacements) {
+        List<CourseEntry> updated = new ArrayList<>(courses.size());
+        for (CourseEntry course : courses) {
+            updated.add(replacements.getOrDefault(course.getId(), course));
+        }
+        return new CourseCatalogSnapshot(newVersion, updated);
+    }
+
+    /**
+     * 目录中的单门课程
+     */
+    @Value
+    @Builder(toBuilder = true)
+    public static class CourseEntry {
+        Long id;
+        String code;
+        String name;
+        String description;
+        Double credits;
+        Course.CourseType type;
+        Long facultyId;
+        String facultyName;
+        Long teacherId;
+        String teacherName;
+
+        // 上课时间位图，每个(星期, 时间段)占一位，见 WeeklyTimetable
+        int scheduleMask;
+
+        // 平均分（没有评价时为null）和评价数
+        Double averageRating;
+        int reviewCount;
+
+        // 是否已有AI总结
+        boolean hasSummary;
+    }
+}
@@ -4,13 +4,19 @@ import com.must.courseevaluation.dto.AIRecommendationResponse;
 import com.must.courseevaluation.dto.AIRecommendationResponse.CourseRecommendation;
 import com.must.courseevaluation.dto.ChatRequest;
 import com.must.courseevaluation.service.AICourseRecommendationService;
+import com.must.courseevaluation.service.AIRecommendationStreamListener;
 import com.must.courseevaluation.service.agent.*;
+import com.must.courseevaluation.service.llm.StreamCancellation;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 /**
@@ -36,6 +42,9 @@ public class AICourseRecommendationServiceImpl implements AICourseRecommendation
     private final IntentClassifierAgent intentClassifier;
     private final AgentRouter agentRouter;
 
+    // 流式对话的处理线程：调用大模型期间大部分时间在等待网络，使用虚拟线程
+    private final ExecutorService streamExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
     public AICourseRecommendationServiceImpl(
             IntentClassifierAgent intentClassifier,
             AgentRouter agentRouter) {
@@ -104,6 +113,82 @@ public class AICourseRecommendationServiceImpl implements AICourseRecommendation
         }
     }
 
+    @Override
+    public StreamCancellation streamMessage(ChatRequest request, AIRecommendationStreamListener listener) {
+        StreamCancellation cancellation = new StreamCancellation();
+        Future<?> task = streamExecutor.submit(() -> doStreamMessage(request, listener, cancellation));
+        // 中断处理线程，使等待意图分类等非流式调用的线程尽快退出
+        cancellation.onCancel(() -> task.cancel(true));
+        return cancellation;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        streamExecutor.shutdownNow();
+    }
+
+    private void doStreamMessage(ChatRequest request, AIRecommendationStreamListener listener,
+                                 StreamCancellation cancellation) {
+        String userMessage = request.getMessage();
+        logger.info("========== 开始流式处理用户消息 ==========");
+        logger.info("[消息] {}", userMessage);
+
+        if (!isAIServiceAvailable()) {
+            logger.warn("AI服务未配置或未启用");
+            listener.onComplete(AIRecommendationResponse.error("AI服务未配置或未启用，请联系管理员"));
+            return;
+        }
+
+        AIRecommendationResponse response;
+        try {
+            ConversationContext context = ConversationContext.fromMap(
+                    request.getContext() != null ? request.getContext() : new HashMap<>(),
+                    request.getConversationHistory(),
+                    request.getConversationId()
+            );
+
+            IntentResult intent = intentClassifier.classify(userMessage, context);
+            logger.info("[意图] 类型={}, 置信度={}", intent.getIntentType(), intent.getConfidence());
+            if (cancellation.isCancelled()) {
+                return;
+            }
+            listener.onIntent(intent.getIntentType().name());
+
+            AgentResult agentResult = agentRouter.dispatch(intent, context);
+            if (cancellation.isCancelled()) {
+                return;
+            }
+            if (agentRouter.needsRecommendationResponse(agentResult)) {
+                // 先推送课程卡片，再流式生成话术
+                listener.onCourses(buildResponse(agentResult));
+                String message = agentRouter.getResponseAgent()
+                        .streamRecommendationResponse(agentResult, intent, context, listener::onToken, cancellation);
+                agentResult.setMessage(message);
+            } else if (agentResult.isSuccess() && agentResult.getMessage() != null) {
+                // 比较、详情、闲聊等意图的文本由各 Agent 直接生成，一次性推送
+                listener.onToken(agentResult.getMessage());
+            }
+            response = buildResponse(agentResult);
+
+        } catch (Exception e) {
+            if (cancellation.isCancelled()) {
+                logger.info("AI推荐流式处理已取消: {}", e.getMessage());
+                return;
+            }
+            logger.error("AI推荐流式处理失败: {}", e.getMessage(), e);
+            response = AIRecommendationResponse.error("AI服务暂时不可用，请稍后再试");
+        }
+
+        if (cancellation.isCancelled()) {
+            return;
+        }
+        try {
+            listener.onComplete(response);
+        } catch (Exception e) {
+            logger.warn("AI推荐流式响应发送失败: {}", e.getMessage());
+        }
+    }
+
     /**
      * 根据 Agent 结果构建响应
      */
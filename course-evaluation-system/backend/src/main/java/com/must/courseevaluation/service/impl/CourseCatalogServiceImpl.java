@@ -0,0 +1,216 @@
+package com.must.courseevaluation.service.impl;
+
+import com.must.courseevaluation.model.Course;
+import com.must.courseevaluation.model.CourseRatingStats;
+import com.must.courseevaluation.repository.CourseRatingStatsRepository;
+import com.must.courseevaluation.repository.CourseRepository;
+import com.must.courseevaluation.repository.CourseScheduleRepository;
+import com.must.courseevaluation.service.CourseCatalogService;
+import com.must.courseevaluation.service.catalog.CourseCatalogChangedEvent;
+import com.must.courseevaluation.service.catalog.CourseCatalogSnapshot;
+import com.must.courseevaluation.service.catalog.CourseCatalogSnapshot.CourseEntry;
+import com.must.courseevaluation.service.timetable.WeeklyTimetable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+@Service
+public class CourseCatalogServiceImpl implements CourseCatalogService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CourseCatalogServiceImpl.class);
+
+    // 构建期间数据持续变化时的最多构建次数
+    private static final int MAX_BUILD_ATTEMPTS = 5;
+
+    private final CourseRepository courseRepository;
+    private final CourseScheduleRepository courseScheduleRepository;
+    private final CourseRatingStatsRepository courseRatingStatsRepository;
+
+    private final AtomicLong versionSequence = new AtomicLong();
+
+    // 课程数据变化计数，构建前后不一致说明读到的数据可能早于最近一次提交
+    private final AtomicLong changeCount = new AtomicLong();
+
+    // 进程启动标识，与版本号一起组成课程列表的版本标识
+    private final String instanceId = Long.toString(System.currentTimeMillis(), 36);
+
+    // 最近一次全量重建的快照版本
+    private volatile long listVersion;
+
+    // 当前快照，构建新快照后整体替换
+    private volatile CourseCatalogSnapshot snapshot;
+
+    public CourseCatalogServiceImpl(CourseRepository courseRepository,
+                                    CourseScheduleRepository courseScheduleRepository,
+                                    CourseRatingStatsRepository courseRatingStatsRepository) {
+        this.courseRepository = courseRepository;
+        this.courseScheduleRepository = courseScheduleRepository;
+        this.courseRatingStatsRepository = courseRatingStatsRepository;
+    }
+
+    @Override
+    public CourseCatalogSnapshot getSnapshot() {
+        CourseCatalogSnapshot current = snapshot;
+        return current != null ? current : loadSnapshot();
+    }
+
+    /**
+     * 快照缺失时构建；并发的读取者等待正在进行的构建完成后直接使用其结果
+     */
+    private synchronized CourseCatalogSnapshot loadSnapshot() {
+        CourseCatalogSnapshot current = snapshot;
+        return current != null ? current : rebuild();
+    }
+
+    @Override
+    public synchronized CourseCatalogSnapshot rebuild() {
+        long startTime = System.currentTimeMillis();
+
+        for (int attempt = 1; ; attempt++) {
+            long seenChanges = changeCount.get();
+            List<CourseEntry> entries = loadEntries();
+
+            if (changeCount.get() == seenChanges) {
+                CourseCatalogSnapshot rebuilt = new CourseCatalogSnapshot(versionSequence.incrementAndGet(), entries);
+                snapshot = rebuilt;
+                listVersion = rebuilt.getVersion();
+
+                logger.info("课程目录快照已重建 - 版本: {}, 课程数: {}, 耗时: {}ms",
+                        rebuilt.getVersion(), rebuilt.size(), System.currentTimeMillis() - startTime);
+                return rebuilt;
+            }
+            if (attempt >= MAX_BUILD_ATTEMPTS) {
+                // 数据仍在变化：本次结果只返回给调用方，不缓存，下次读取时重新构建
+                logger.warn("课程目录构建期间数据持续变化，暂不缓存快照 - 尝试次数: {}", attempt);
+                CourseCatalogSnapshot uncached = new CourseCatalogSnapshot(versionSequence.incrementAndGet(), entries);
+                snapshot = null;
+                listVersion = uncached.getVersion();
+                return uncached;
+            }
+        }
+    }
+
+    /**
+     * 三次查询：课程（含学院、教师）、上课时间槽、评分聚合
+     */
+    private List<CourseEntry> loadEntries() {
+        List<Course> courses = courseRepository.findAllWithRelations();
+
+        Map<Long, Integer> scheduleMasks = new HashMap<>();
+        for (Object[] row : courseScheduleRepository.findAllSlots()) {
+            Long courseId = (Long) row[0];
+            int bit = WeeklyTimetable.slotBit(((Number) row[1]).intValue(), ((Number) row[2]).intValue());
+            scheduleMasks.merge(courseId, bit, (a, b) -> a | b);
+        }
+
+        Map<Long, CourseRatingStats> ratings = courseRatingStatsRepository.findAll().stream()
+                .collect(Collectors.toMap(CourseRatingStats::getCourseId, stats -> stats));
+
+        List<CourseEntry> entries = new ArrayList<>(courses.size());
+        for (Course course : courses) {
+            CourseRatingStats stats = ratings.get(course.getId());
+            entries.add(CourseEntry.builder()
+                    .id(course.getId())
+                    .code(course.getCode())
+                    .name(course.getName())
+                    .description(course.getDescription())
+                    .credits(course.getCredits())
+                    .type(course.getType())
+                    .facultyId(course.getFaculty() != null ? course.getFaculty().getId() : null)
+                    .facultyName(course.getFaculty() != null ? course.getFaculty().getName() : null)
+                    .teacherId(course.getTeacher() != null ? course.getTeacher().getId() : null)
+                    .teacherName(course.getTeacher() != null ? course.getTeacher().getName() : null)
+                    .scheduleMask(scheduleMasks.getOrDefault(course.getId(), 0))
+                    .averageRating(stats != null ? stats.getAverageRating() : null)
+                    .reviewCount(stats != null ? (int) stats.getReviewCount() : 0)
+                    .hasSummary(course.getAiSummary() != null)
+                    .build());
+        }
+        return entries;
+    }
+
+    @Override
+    public synchronized void refreshRatings(Long courseId) {
+        CourseCatalogSnapshot current = snapshot;
+        if (current == null) {
+            // 尚未构建，首次读取时会一并加载评分
+            return;
+        }
+
+        List<CourseRatingStats> statsList;
+        if (courseId != null) {
+            statsList = courseRatingStatsRepository.findById(courseId).map(List::of).orElse(List.of());
+        } else {
+            statsList = courseRatingStatsRepository.findAll();
+        }
+        Map<Long, CourseRatingStats> ratings = statsList.stream()
+                .collect(Collectors.toMap(CourseRatingStats::getCourseId, stats -> stats));
+
+        Map<Long, CourseEntry> replacements = new HashMap<>();
+        for (CourseEntry entry : current.getCourses()) {
+            if (courseId != null && !courseId.equals(entry.getId())) {
+                continue;
+            }
+            CourseRatingStats stats = ratings.get(entry.getId());
+            replacements.put(entry.getId(), entry.toBuilder()
+                    .averageRating(stats != null ? stats.getAverageRating() : null)
+                    .reviewCount(stats != null ? (int) stats.getReviewCount() : 0)
+                    .build());
+        }
+
+        snapshot = current.withCourses(versionSequence.incrementAndGet(), replacements);
+    }
+
+    @Override
+    public synchronized void refreshSummary(Long courseId) {
+        CourseCatalogSnapshot current = snapshot;
+        if (current == null) {
+            return;
+        }
+        Optional<CourseEntry> entry = current.getCourse(courseId);
+        if (entry.isEmpty()) {
+            return;
+        }
+        boolean hasSummary = courseRepository.existsByIdAndAiSummaryIsNotNull(courseId);
+        if (entry.get().isHasSummary() != hasSummary) {
+            snapshot = current.withCourses(versionSequence.incrementAndGet(),
+                    Map.of(courseId, entry.get().toBuilder().hasSummary(hasSummary).build()));
+        }
+    }
+
+    @Override
+    public String getListVersionTag() {
+        // 首次调用时先构建快照，确保版本号对应已加载的数据
+        getSnapshot();
+        return instanceId + "-" + listVersion;
+    }
+
+    /**
+     * 数据变化的事务提交后刷新快照；没有事务时立即执行
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CourseCatalogChangedEvent event) {
+        try {
+            if (event.getScope() == CourseCatalogChangedEvent.Scope.RATINGS) {
+                refreshRatings(event.getCourseId());
+            } else if (event.getScope() == CourseCatalogChangedEvent.Scope.SUMMARY) {
+                refreshSummary(event.getCourseId());
+            } else {
+                // 先计数：正在进行的构建据此发现自己读到了旧数据并重新读取
+                changeCount.incrementAndGet();
+                if (snapshot != null) {
+                    rebuild();
+                }
+            }
+        } catch (Exception e) {
+            // 刷新失败时丢弃旧快照，下次读取时重新构建
+            logger.error("刷新课程目录快照失败: {}", e.getMessage(), e);
+            snapshot = null;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.must.courseevaluation.service.impl;
+
+import com.must.courseevaluation.service.CourseCatalogService;
+import com.must.courseevaluation.service.CourseFacetService;
+import com.must.courseevaluation.service.catalog.CourseCatalogSnapshot;
+import com.must.courseevaluation.service.search.CourseFacetIndex;
+import com.must.courseevaluation.service.search.CourseFacetQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * 课程分面浏览
+ *
+ * 分面索引与目录快照一样不可变：查询前比较快照版本，版本更新时由新快照重建索引后整体替换，
+ * 并发查询读取同一个索引对象，无需加锁。
+ */
+@Service
+public class CourseFacetServiceImpl implements CourseFacetService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CourseFacetServiceImpl.class);
+
+    private final CourseCatalogService courseCatalogService;
+
+    // 当前索引，对应的快照版本记录在索引中
+    private volatile CourseFacetIndex index;
+
+    public CourseFacetServiceImpl(CourseCatalogService courseCatalogService) {
+        this.courseCatalogService = courseCatalogService;
+    }
+
+    @Override
+    public CourseFacetIndex.Result browse(CourseFacetQuery query) {
+        return currentIndex().search(query);
+    }
+
+    private CourseFacetIndex currentIndex() {
+        CourseCatalogSnapshot snapshot = courseCatalogService.getSnapshot();
+        CourseFacetIndex current = index;
+        if (current == null || snapshot.getVersion() > current.getVersion()) {
+            synchronized (this) {
+                current = index;
+                if (current == null || snapshot.getVersion() > current.getVersion()) {
+                    long startTime = System.nanoTime();
+                    current = new CourseFacetIndex(snapshot);
+                    index = current;
+                    logger.debug("课程分面索引已重建 - 快照版本: {}, 课程数: {}, 耗时: {}μs",
+                            current.getVersion(), current.size(), (System.nanoTime() - startTime) / 1000);
+                }
+            }
+        }
+        return current;
+    }
+}
@@ -0,0 +1,237 @@
+package com.must.courseevaluation.service.impl;
+
+import com.must.courseevaluation.model.CourseRatingStats;
+import com.must.courseevaluation.repository.CourseRatingStatsRepository;
+import com.must.courseevaluation.service.CourseRatingStatsService;
+import com.must.courseevaluation.service.catalog.CourseCatalogChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class CourseRatingStatsServiceImpl implements CourseRatingStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CourseRatingStatsServiceImpl.class);
+
+    // 重建时每条 IN 查询携带的课程ID数量上限
+    private static final int REBUILD_BATCH_SIZE = 1000;
+    private static final int SEED_ATTEMPTS = 3;
+
+    private final CourseRatingStatsRepository courseRatingStatsRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    // 补建聚合行使用独立事务，主键冲突不会影响调用方的事务
+    private final TransactionTemplate newTransactionTemplate;
+
+    public CourseRatingStatsServiceImpl(CourseRatingStatsRepository courseRatingStatsRepository,
+                                        ApplicationEventPublisher eventPublisher,
+                                        PlatformTransactionManager transactionManager) {
+        this.courseRatingStatsRepository = courseRatingStatsRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    @Transactional
+    public void recordReviewAdded(Long courseId, int rating) {
+        long[] buckets = new long[6];
+        addToBucket(buckets, rating, 1);
+        applyDelta(courseId, 1, rating, buckets);
+    }
+
+    @Override
+    @Transactional
+    public void recordReviewRemoved(Long courseId, int rating) {
+        long[] buckets = new long[6];
+        addToBucket(buckets, rating, -1);
+        applyDelta(courseId, -1, -rating, buckets);
+    }
+
+    @Override
+    @Transactional
+    public void recordRatingChanged(Long courseId, int oldRating, int newRating) {
+        if (oldRating == newRating) {
+            return;
+        }
+        long[] buckets = new long[6];
+        addToBucket(buckets, oldRating, -1);
+        addToBucket(buckets, newRating, 1);
+        applyDelta(courseId, 0, newRating - oldRating, buckets);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, Object> getCourseRatings(Long courseId) {
+        return courseRatingStatsRepository.findById(courseId)
+                .map(this::toRatingsMap)
+                .orElseGet(this::emptyRatingsMap);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, Object> getTeacherRatings(Long teacherId) {
+        List<CourseRatingStats> courseStats = courseRatingStatsRepository.findByTeacherId(teacherId);
+
+        // 合并教师名下各课程的聚合
+        CourseRatingStats merged = new CourseRatingStats();
+        for (CourseRatingStats stats : courseStats) {
+            merged.setReviewCount(merged.getReviewCount() + stats.getReviewCount());
+            merged.setRatingSum(merged.getRatingSum() + stats.getRatingSum());
+            merged.setRating1Count(merged.getRating1Count() + stats.getRating1Count());
+            merged.setRating2Count(merged.getRating2Count() + stats.getRating2Count());
+            merged.setRating3Count(merged.getRating3Count() + stats.getRating3Count());
+            merged.setRating4Count(merged.getRating4Count() + stats.getRating4Count());
+            merged.setRating5Count(merged.getRating5Count() + stats.getRating5Count());
+        }
+        return toRatingsMap(merged);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Double getAverageRating(Long courseId) {
+        return courseRatingStatsRepository.findById(courseId)
+                .map(CourseRatingStats::getAverageRating)
+                .orElse(null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public int getReviewCount(Long courseId) {
+        return courseRatingStatsRepository.findById(courseId)
+                .map(stats -> (int) stats.getReviewCount())
+                .orElse(0);
+    }
+
+    @Override
+    public Map<String, Object> rebuildAll() {
+        long startTime = System.currentTimeMillis();
+
+        // 先补建缺少的聚合行，再锁定全部聚合行后统计：并发的增量更新要么已提交并被统计到，
+        // 要么等重建提交后再在重建结果上累加；锁定之后才新建的行只由增量维护
+        seedMissingRows();
+        long[] totals = transactionTemplate.execute(status -> {
+            List<Long> courseIds = courseRatingStatsRepository.lockAllCourseIds();
+            long deleted = 0;
+            for (int from = 0; from < courseIds.size(); from += REBUILD_BATCH_SIZE) {
+                List<Long> batch = courseIds.subList(from, Math.min(from + REBUILD_BATCH_SIZE, courseIds.size()));
+                courseRatingStatsRepository.recomputeFromReviews(batch);
+                deleted += courseRatingStatsRepository.deleteEmpty(batch);
+            }
+            return new long[] { courseIds.size() - deleted, courseRatingStatsRepository.sumReviewCount() };
+        });
+        int courseCount = (int) totals[0];
+        long totalReviews = totals[1];
+        eventPublisher.publishEvent(CourseCatalogChangedEvent.ratings(this, null));
+
+        long elapsed = System.currentTimeMillis() - startTime;
+        logger.info("课程评分聚合重建完成 - 课程数: {}, 评价数: {}, 耗时: {}ms", courseCount, totalReviews, elapsed);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("success", true);
+        result.put("courseCount", courseCount);
+        result.put("reviewCount", totalReviews);
+        result.put("durationMs", elapsed);
+        return result;
+    }
+
+    /**
+     * 每天凌晨定时重建评分聚合，修复可能的计数偏差
+     * （例如删除用户时级联删除评价不会经过增量维护）
+     */
+    @Scheduled(cron = "${rating.stats.rebuild-cron:0 30 3 * * *}")
+    public void scheduledRebuild() {
+        try {
+            rebuildAll();
+        } catch (Exception e) {
+            logger.error("定时重建课程评分聚合失败: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 在聚合行上原子累加并通知课程目录快照刷新该课程评分
+     * 课程还没有聚合行时先补建再累加
+     * @param buckets 下标1-5为各星级的变化量
+     */
+    private void applyDelta(Long courseId, long countDelta, long sumDelta, long[] buckets) {
+        if (updateRow(courseId, countDelta, sumDelta, buckets) == 0) {
+            insertRowIfAbsent(courseId);
+            if (updateRow(courseId, countDelta, sumDelta, buckets) == 0) {
+                // 独立事务看不到课程（课程在当前事务中新建、尚未提交），
+                // 其他事务也无法为它写入评价，直接在当前事务中插入不会冲突
+                courseRatingStatsRepository.insertEmpty(courseId);
+                updateRow(courseId, countDelta, sumDelta, buckets);
+            }
+        }
+        eventPublisher.publishEvent(CourseCatalogChangedEvent.ratings(this, courseId));
+    }
+
+    private int updateRow(Long courseId, long countDelta, long sumDelta, long[] buckets) {
+        return courseRatingStatsRepository.applyDelta(courseId, countDelta, sumDelta,
+                buckets[1], buckets[2], buckets[3], buckets[4], buckets[5]);
+    }
+
+    /**
+     * 在独立事务中插入空的聚合行；并发的首条评价只有一个能插入成功，其余忽略主键冲突后直接累加
+     */
+    private void insertRowIfAbsent(Long courseId) {
+        try {
+            newTransactionTemplate.executeWithoutResult(status -> courseRatingStatsRepository.insertEmpty(courseId));
+        } catch (DataIntegrityViolationException e) {
+            logger.debug("课程 {} 的评分聚合行未插入: {}", courseId, e.getMessage());
+        }
+    }
+
+    /**
+     * 为有评价但缺少聚合行的课程补建空行，与并发的首条评价冲突时重试
+     */
+    private void seedMissingRows() {
+        for (int attempt = 1; attempt <= SEED_ATTEMPTS; attempt++) {
+            try {
+                newTransactionTemplate.executeWithoutResult(
+                        status -> courseRatingStatsRepository.insertMissingForReviewedCourses());
+                return;
+            } catch (DataIntegrityViolationException e) {
+                logger.warn("补建课程评分聚合行冲突（第{}次）: {}", attempt, e.getMessage());
+            }
+        }
+    }
+
+    private static void addToBucket(long[] buckets, int rating, long delta) {
+        if (rating >= 1 && rating <= 5) {
+            buckets[rating] += delta;
+        }
+    }
+
+    private Map<String, Object> toRatingsMap(CourseRatingStats stats) {
+        if (stats.getReviewCount() == 0) {
+            return emptyRatingsMap();
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("averageRating", Math.round(stats.getAverageRating() * 10) / 10.0);
+        result.put("totalReviews", (int) stats.getReviewCount());
+        result.put("ratingDistribution", stats.getRatingDistribution());
+        return result;
+    }
+
+    private Map<String, Object> emptyRatingsMap() {
+        Map<String, Object> result = new HashMap<>();
+        result.put("averageRating", 0.0);
+        result.put("totalReviews", 0);
+        result.put("ratingDistribution", new HashMap<Integer, Integer>());
+        return result;
+    }
+}
@@ -0,0 +1,80 @@
+package com.must.courseevaluation.service.impl;
+
+import com.must.courseevaluation.service.CourseCatalogService;
+import com.must.courseevaluation.service.CourseSearchService;
+import com.must.courseevaluation.service.catalog.CourseCatalogSnapshot;
+import com.must.courseevaluation.service.search.CourseSearchIndex;
+import com.must.courseevaluation.service.search.CourseSearchIndex.Field;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * 课程全文搜索
+ *
+ * 索引以课程目录快照为数据源：每次查询前比较课程列表版本（只在全量重建时改变），
+ * 版本更新时把新快照同步进索引，只有新增、内容变化或删除的课程会重新索引；
+ * 评分刷新不改变列表版本，不触发同步。
+ */
+@Service
+public class CourseSearchServiceImpl implements CourseSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CourseSearchServiceImpl.class);
+
+    private static final Set<Field> KEYWORD_FIELDS = EnumSet.of(Field.NAME, Field.DESCRIPTION);
+    private static final Set<Field> NAME_OR_CODE_FIELDS = EnumSet.of(Field.NAME, Field.CODE);
+
+    private final CourseCatalogService courseCatalogService;
+    private final CourseSearchIndex index = new CourseSearchIndex();
+
+    // 已同步进索引的课程列表版本
+    private volatile String indexedListVersion;
+
+    public CourseSearchServiceImpl(CourseCatalogService courseCatalogService) {
+        this.courseCatalogService = courseCatalogService;
+    }
+
+    @Override
+    public List<Long> search(String keyword, int limit) {
+        List<Long> courseIds = new ArrayList<>();
+        for (CourseSearchIndex.Hit hit : currentIndex().search(keyword, limit)) {
+            courseIds.add(hit.courseId());
+        }
+        return courseIds;
+    }
+
+    @Override
+    public Set<Long> findCourseIdsContaining(Collection<String> keywords) {
+        CourseSearchIndex current = currentIndex();
+        Set<Long> courseIds = new HashSet<>();
+        for (String keyword : keywords) {
+            courseIds.addAll(current.findContaining(keyword, KEYWORD_FIELDS));
+        }
+        return courseIds;
+    }
+
+    @Override
+    public Set<Long> findCourseIdsByNameOrCode(String keyword) {
+        return currentIndex().findContaining(keyword, NAME_OR_CODE_FIELDS);
+    }
+
+    private CourseSearchIndex currentIndex() {
+        String listVersion = courseCatalogService.getListVersionTag();
+        if (!listVersion.equals(indexedListVersion)) {
+            synchronized (this) {
+                if (!listVersion.equals(indexedListVersion)) {
+                    // 先取版本再取快照：快照不会比记录的版本旧，并发重建最多导致下次多同步一次
+                    CourseCatalogSnapshot snapshot = courseCatalogService.getSnapshot();
+                    long startTime = System.nanoTime();
+                    int changed = index.sync(snapshot.getCourses());
+                    indexedListVersion = listVersion;
+                    logger.debug("课程搜索索引已同步到课程列表版本 {} - 变化课程数: {}, 耗时: {}μs",
+                            listVersion, changed, (System.nanoTime() - startTime) / 1000);
+                }
+            }
+        }
+        return index;
+    }
+}
@@ -1,32 +1,51 @@
 package com.must.courseevaluation.service.impl;
 
 import com.must.courseevaluation.dto.CourseDto;
+import com.must.courseevaluation.dto.CourseFacetPageDto;
+import com.must.courseevaluation.dto.CourseListItemDto;
 import com.must.courseevaluation.dto.CourseScheduleDto;
 import com.must.courseevaluation.exception.ResourceNotFoundException;
 import com.must.courseevaluation.model.Course;
 import com.must.courseevaluation.model.CourseSchedule;
 import com.must.courseevaluation.model.Faculty;
 import com.must.courseevaluation.model.Teacher;
-import com.must.courseevaluation.model.UserSchedule;
 import com.must.courseevaluation.repository.CourseRepository;
 import com.must.courseevaluation.repository.CourseScheduleRepository;
 import com.must.courseevaluation.repository.FacultyRepository;
 import com.must.courseevaluation.repository.TeacherRepository;
-import com.must.courseevaluation.repository.UserScheduleRepository;
+import com.must.courseevaluation.service.CourseCatalogService;
+import com.must.courseevaluation.service.CourseFacetService;
+import com.must.courseevaluation.service.CourseSearchService;
 import com.must.courseevaluation.service.CourseService;
+import com.must.courseevaluation.service.TimetableService;
+import com.must.courseevaluation.service.catalog.CourseCatalogChangedEvent;
+import com.must.courseevaluation.service.catalog.CourseCatalogSnapshot;
+import com.must.courseevaluation.service.search.CourseFacetIndex;
+import com.must.courseevaluation.service.search.CourseFacetQuery;
+import com.must.courseevaluation.service.timetable.ScheduleBatchWriter;
+import com.must.courseevaluation.service.timetable.ScheduleSlotDiff;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 public class CourseServiceImpl implements CourseService {
 
+    // 相关度搜索单次返回的课程数上限
+    private static final int MAX_SEARCH_LIMIT = 100;
+
+    // 分面浏览单页课程数上限
+    private static final int MAX_BROWSE_PAGE_SIZE = 100;
+
     @Autowired
     private CourseRepository courseRepository;
 
@@ -40,7 +59,22 @@ public class CourseServiceImpl implements CourseService {
     private CourseScheduleRepository courseScheduleRepository;
     
     @Autowired
-    private UserScheduleRepository userScheduleRepository;
+    private TimetableService timetableService;
+    
+    @Autowired
+    private CourseSearchService courseSearchService;
+    
+    @Autowired
+    private CourseFacetService courseFacetService;
+    
+    @Autowired
+    private CourseCatalogService courseCatalogService;
+
+    @Autowired
+    private ScheduleBatchWriter scheduleBatchWriter;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional(readOnly = true)
@@ -52,6 +86,12 @@ public class CourseServiceImpl implements CourseService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<CourseListItemDto> getCourseListItems() {
+        return courseRepository.findAllListItems();
+    }
+
     @Override
     @Transactional(readOnly = true)
     public CourseDto getCourseById(Long id) {
@@ -101,6 +141,78 @@ public class CourseServiceImpl implements CourseService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<CourseDto> searchCoursesRanked(String keyword, int limit) {
+        List<Long> courseIds = courseSearchService.search(keyword, Math.max(1, Math.min(limit, MAX_SEARCH_LIMIT)));
+        if (courseIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        // 索引只给出排好序的ID，课程详情一次批量加载后按相关度顺序返回
+        Map<Long, Course> coursesById = courseRepository.findByIdInWithRelations(courseIds).stream()
+                .collect(Collectors.toMap(Course::getId, course -> course));
+        List<CourseDto> results = new ArrayList<>();
+        for (Long courseId : courseIds) {
+            Course course = coursesById.get(courseId);
+            if (course != null) {
+                results.add(CourseDto.fromEntity(course));
+            }
+        }
+        return results;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CourseFacetPageDto browseCourses(CourseFacetQuery query) {
+        int size = Math.max(1, Math.min(query.getSize(), MAX_BROWSE_PAGE_SIZE));
+        int page = Math.max(0, query.getPage());
+        CourseFacetQuery.CourseFacetQueryBuilder resolved = query.toBuilder().page(page).size(size);
+        if (query.getKeyword() != null && !query.getKeyword().isBlank()) {
+            resolved.courseIds(courseSearchService.findCourseIdsByNameOrCode(query.getKeyword()));
+        }
+        CourseFacetIndex.Result result = courseFacetService.browse(resolved.build());
+        
+        CourseFacetPageDto pageDto = new CourseFacetPageDto();
+        pageDto.setTotalElements(result.total());
+        pageDto.setPage(page);
+        pageDto.setSize(size);
+        result.facets().forEach((dimension, counts) -> pageDto.getFacets().put(
+                dimension.name().toLowerCase(),
+                counts.stream()
+                        .map(count -> new CourseFacetPageDto.FacetCount(
+                                count.value(), count.label(), count.count(), count.selected()))
+                        .collect(Collectors.toList())));
+        
+        List<Long> courseIds = result.courseIds();
+        if (courseIds.isEmpty()) {
+            return pageDto;
+        }
+        
+        // 只加载当前页的课程和时间安排，评分取自目录快照
+        Map<Long, Course> coursesById = courseRepository.findByIdInWithRelations(courseIds).stream()
+                .collect(Collectors.toMap(Course::getId, course -> course));
+        Map<Long, List<CourseScheduleDto>> schedulesByCourse = courseScheduleRepository.findByCourseIdIn(courseIds).stream()
+                .collect(Collectors.groupingBy(schedule -> schedule.getCourse().getId(),
+                        Collectors.mapping(CourseScheduleDto::fromEntity, Collectors.toList())));
+        CourseCatalogSnapshot catalog = courseCatalogService.getSnapshot();
+        
+        for (Long courseId : courseIds) {
+            Course course = coursesById.get(courseId);
+            if (course == null) {
+                continue;
+            }
+            CourseDto dto = CourseDto.fromEntity(course);
+            dto.setSchedules(schedulesByCourse.getOrDefault(courseId, new ArrayList<>()));
+            catalog.getCourse(courseId).ifPresent(entry -> {
+                dto.setAverageRating(entry.getAverageRating());
+                dto.setReviewCount((long) entry.getReviewCount());
+            });
+            pageDto.getContent().add(dto);
+        }
+        return pageDto;
+    }
+
     @Override
     @Transactional
     public CourseDto createCourse(CourseDto courseDto) {
@@ -132,6 +244,7 @@ public class CourseServiceImpl implements CourseService {
 
         // 保存课程
         Course savedCourse = courseRepository.save(course);
+        eventPublisher.publishEvent(CourseCatalogChangedEvent.full(this));
         return CourseDto.fromEntity(savedCourse);
     }
 
@@ -171,6 +284,7 @@ public class CourseServiceImpl implements CourseService {
 
         // 保存更新后的课程
         Course updatedCourse = courseRepository.save(existingCourse);
+        eventPublisher.publishEvent(CourseCatalogChangedEvent.full(this));
         return CourseDto.fromEntity(updatedCourse);
     }
 
@@ -181,6 +295,7 @@ public class CourseServiceImpl implements CourseService {
             throw new ResourceNotFoundException("课程不存在，ID: " + id);
         }
         courseRepository.deleteById(id);
+        eventPublisher.publishEvent(CourseCatalogChangedEvent.full(this));
     }
     
     // ==================== 课程时间表相关方法 ====================
@@ -212,6 +327,7 @@ public class CourseServiceImpl implements CourseService {
         schedule.setLocation(scheduleDto.getLocation());
         
         CourseSchedule savedSchedule = courseScheduleRepository.save(schedule);
+        eventPublisher.publishEvent(CourseCatalogChangedEvent.full(this));
         return CourseScheduleDto.fromEntity(savedSchedule);
     }
     
@@ -235,6 +351,7 @@ public class CourseServiceImpl implements CourseService {
         schedule.setLocation(scheduleDto.getLocation());
         
         CourseSchedule updatedSchedule = courseScheduleRepository.save(schedule);
+        eventPublisher.publishEvent(CourseCatalogChangedEvent.full(this));
         return CourseScheduleDto.fromEntity(updatedSchedule);
     }
     
@@ -245,31 +362,34 @@ public class CourseServiceImpl implements CourseService {
             throw new ResourceNotFoundException("课程时间安排不存在，ID: " + scheduleId);
         }
         courseScheduleRepository.deleteById(scheduleId);
+        eventPublisher.publishEvent(CourseCatalogChangedEvent.full(this));
     }
     
     @Override
     @Transactional
     public List<CourseScheduleDto> setCourseSchedules(Long courseId, List<CourseScheduleDto> scheduleDtos) {
-        Course course = courseRepository.findById(courseId)
-                .orElseThrow(() -> new ResourceNotFoundException("课程不存在，ID: " + courseId));
-        
-        // 删除原有的所有时间安排
-        courseScheduleRepository.deleteByCourseId(courseId);
+        if (!courseRepository.existsById(courseId)) {
+            throw new ResourceNotFoundException("课程不存在，ID: " + courseId);
+        }
         
-        // 添加新的时间安排
-        List<CourseScheduleDto> savedSchedules = new ArrayList<>();
-        for (CourseScheduleDto dto : scheduleDtos) {
-            CourseSchedule schedule = new CourseSchedule();
-            schedule.setCourse(course);
-            schedule.setDayOfWeek(dto.getDayOfWeek());
-            schedule.setTimePeriod(dto.getTimePeriod());
-            schedule.setLocation(dto.getLocation());
-            
-            CourseSchedule savedSchedule = courseScheduleRepository.save(schedule);
-            savedSchedules.add(CourseScheduleDto.fromEntity(savedSchedule));
+        // 与现有时间安排比较，只写入变化的行：删除、修改地点、新增各一次批量执行
+        List<ScheduleSlotDiff.Row> current = courseScheduleRepository.findRowsByCourseId(courseId).stream()
+                .map(ScheduleSlotDiff.Row::of)
+                .collect(Collectors.toList());
+        List<ScheduleSlotDiff.Slot> desired = scheduleDtos.stream()
+                .map(dto -> ScheduleSlotDiff.Slot.of(dto.getDayOfWeek(), dto.getTimePeriod(), dto.getLocation()))
+                .collect(Collectors.toList());
+        ScheduleSlotDiff.Result diff = ScheduleSlotDiff.compute(current, desired, true);
+        if (!diff.isEmpty()) {
+            scheduleBatchWriter.apply(ScheduleBatchWriter.Table.COURSE, courseId, diff);
+            eventPublisher.publishEvent(CourseCatalogChangedEvent.full(this));
         }
         
-        return savedSchedules;
+        // 返回替换后的完整时间安排
+        return courseScheduleRepository.findByCourseId(courseId).stream()
+                .sorted(Comparator.comparing(CourseSchedule::getDayOfWeek).thenComparing(CourseSchedule::getTimePeriod))
+                .map(CourseScheduleDto::fromEntity)
+                .collect(Collectors.toList());
     }
     
     @Override
@@ -284,39 +404,30 @@ public class CourseServiceImpl implements CourseService {
     @Override
     @Transactional(readOnly = true)
     public List<CourseDto> findCoursesWithoutConflict(Long userId) {
-        // 获取用户的所有课程时间安排
-        List<UserSchedule> userSchedules = userScheduleRepository.findByUserId(userId);
-        
-        // 构建用户已占用的时间槽集合
-        Set<String> occupiedSlots = new HashSet<>();
-        for (UserSchedule schedule : userSchedules) {
-            occupiedSlots.add(schedule.getDayOfWeek() + "-" + schedule.getTimePeriod());
+        // 用户课表与每门课程的上课时间都是位图，一次按位与即可判断冲突
+        Set<Long> courseIds = new HashSet<>(timetableService.findCourseIdsWithoutConflict(userId));
+        if (courseIds.isEmpty()) {
+            return new ArrayList<>();
         }
         
-        // 获取所有课程并过滤掉有冲突的
-        List<Course> allCourses = courseRepository.findAllWithRelations();
-        List<CourseDto> nonConflictingCourses = new ArrayList<>();
+        // 不冲突的课程通常接近全部课程，按ID列表查询会超出数据库的参数个数上限；
+        // 因此整表加载课程和时间安排（各一次查询），在内存中过滤。
+        // 先加载课程：时间安排关联的课程已在持久化上下文中，CourseScheduleDto::fromEntity 读取课程名称时不再触发批量查询
+        List<Course> courses = courseRepository.findAllWithRelations();
+        Map<Long, List<CourseScheduleDto>> schedulesByCourse = courseScheduleRepository.findAll().stream()
+                .filter(schedule -> courseIds.contains(schedule.getCourse().getId()))
+                .collect(Collectors.groupingBy(schedule -> schedule.getCourse().getId(),
+                        Collectors.mapping(CourseScheduleDto::fromEntity, Collectors.toList())));
         
-        for (Course course : allCourses) {
-            List<CourseSchedule> courseSchedules = courseScheduleRepository.findByCourseId(course.getId());
-            boolean hasConflict = false;
-            
-            for (CourseSchedule schedule : courseSchedules) {
-                String slot = schedule.getDayOfWeek() + "-" + schedule.getTimePeriod();
-                if (occupiedSlots.contains(slot)) {
-                    hasConflict = true;
-                    break;
-                }
-            }
-            
-            if (!hasConflict) {
-                CourseDto dto = CourseDto.fromEntity(course);
-                // 填充课程时间安排
-                dto.setSchedules(courseSchedules.stream()
-                        .map(CourseScheduleDto::fromEntity)
-                        .collect(Collectors.toList()));
-                nonConflictingCourses.add(dto);
+        List<CourseDto> nonConflictingCourses = new ArrayList<>();
+        for (Course course : courses) {
+            if (!courseIds.contains(course.getId())) {
+                continue;
             }
+            CourseDto dto = CourseDto.fromEntity(course);
+            // 填充课程时间安排
+            dto.setSchedules(schedulesByCourse.getOrDefault(course.getId(), new ArrayList<>()));
+            nonConflictingCourses.add(dto);
         }
         
         return nonConflictingCourses;
@@ -0,0 +1,220 @@
+package com.must.courseevaluation.service.impl;
+
+import com.must.courseevaluation.model.Review;
+import com.must.courseevaluation.repository.CourseRepository;
+import com.must.courseevaluation.repository.ReviewRepository;
+import com.must.courseevaluation.service.CourseSummaryRefreshService;
+import com.must.courseevaluation.service.CourseSummaryService;
+import com.must.courseevaluation.service.llm.TokenBucketRateLimiter;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 课程AI总结后台刷新
+ *
+ * 过期判断只用两次聚合查询（各课程已审核评价数 + 总结元数据），不加载评价内容；
+ * 过期课程提交到固定大小的工作线程池，每次调用大模型前从令牌桶获取令牌。
+ */
+@Service
+public class CourseSummaryRefreshServiceImpl implements CourseSummaryRefreshService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CourseSummaryRefreshServiceImpl.class);
+
+    // 最小评论数阈值
+    private static final int MIN_REVIEW_COUNT = 10;
+    // 评论变化阈值（超过此值才重新生成）
+    private static final int REVIEW_CHANGE_THRESHOLD = 10;
+
+    enum State { IDLE, RUNNING, COMPLETED }
+
+    private final CourseRepository courseRepository;
+    private final ReviewRepository reviewRepository;
+    private final CourseSummaryService courseSummaryService;
+    private final TokenBucketRateLimiter rateLimiter;
+
+    private final ExecutorService coordinator = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("summary-refresh-coordinator").daemon(true).factory());
+    private final ExecutorService workers;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicInteger completed = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private volatile State state = State.IDLE;
+    private volatile int total;
+    private volatile long startedNanos;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+
+    public CourseSummaryRefreshServiceImpl(CourseRepository courseRepository,
+                                           ReviewRepository reviewRepository,
+                                           CourseSummaryService courseSummaryService,
+                                           @Value("${ai.summary.workers:4}") int workerCount,
+                                           @Value("${ai.summary.rate-per-minute:30}") int ratePerMinute,
+                                           @Value("${ai.summary.burst:5}") int burst) {
+        this.courseRepository = courseRepository;
+        this.reviewRepository = reviewRepository;
+        this.courseSummaryService = courseSummaryService;
+        this.rateLimiter = new TokenBucketRateLimiter(ratePerMinute, burst);
+        this.workers = Executors.newFixedThreadPool(workerCount,
+                Thread.ofPlatform().name("summary-refresh-", 1).daemon(true).factory());
+    }
+
+    @Override
+    public boolean startRefresh() {
+        if (!courseSummaryService.isAIServiceAvailable()) {
+            logger.warn("AI服务未配置或未启用，跳过AI总结刷新");
+            return false;
+        }
+        if (!running.compareAndSet(false, true)) {
+            logger.info("AI总结刷新任务已在运行");
+            return false;
+        }
+
+        completed.set(0);
+        failed.set(0);
+        total = 0;
+        startedNanos = System.nanoTime();
+        startedAt = LocalDateTime.now();
+        finishedAt = null;
+        state = State.RUNNING;
+
+        coordinator.execute(this::runRefresh);
+        return true;
+    }
+
+    @Override
+    public Map<String, Object> getRefreshStatus() {
+        int done = completed.get();
+        int failedCount = failed.get();
+        int remaining = Math.max(0, total - done - failedCount);
+
+        Map<String, Object> status = new HashMap<>();
+        status.put("state", state.name());
+        status.put("total", total);
+        status.put("completed", done);
+        status.put("failed", failedCount);
+        status.put("remaining", remaining);
+        status.put("startedAt", startedAt);
+        status.put("finishedAt", finishedAt);
+
+        // 按已处理课程的平均耗时估算剩余时间
+        int processed = done + failedCount;
+        if (state == State.RUNNING && processed > 0) {
+            long elapsedNanos = System.nanoTime() - startedNanos;
+            long etaSeconds = TimeUnit.NANOSECONDS.toSeconds(elapsedNanos / processed * remaining);
+            status.put("etaSeconds", etaSeconds);
+        } else {
+            status.put("etaSeconds", null);
+        }
+        return status;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        coordinator.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    private void runRefresh() {
+        try {
+            List<Long> staleCourseIds = findStaleCourseIds();
+            total = staleCourseIds.size();
+            logger.info("====== 开始后台刷新AI课程总结，待生成: {} ======", total);
+
+            List<Future<?>> futures = new ArrayList<>();
+            for (Long courseId : staleCourseIds) {
+                futures.add(workers.submit(() -> refreshCourse(courseId)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("AI总结刷新被中断");
+        } catch (ExecutionException e) {
+            logger.error("AI总结刷新任务异常: {}", e.getCause().getMessage(), e.getCause());
+        } catch (Exception e) {
+            logger.error("AI总结刷新失败: {}", e.getMessage(), e);
+        } finally {
+            finishedAt = LocalDateTime.now();
+            state = State.COMPLETED;
+            running.set(false);
+            logger.info("====== AI课程总结刷新完成 - 待生成: {}, 成功: {}, 失败: {} ======",
+                    total, completed.get(), failed.get());
+        }
+    }
+
+    private void refreshCourse(Long courseId) {
+        try {
+            rateLimiter.acquire();
+            courseSummaryService.refreshCourseSummary(courseId);
+            completed.incrementAndGet();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failed.incrementAndGet();
+        } catch (Exception e) {
+            failed.incrementAndGet();
+            logger.error("为课程 {} 生成AI总结失败: {}", courseId, e.getMessage());
+        }
+    }
+
+    /**
+     * 找出需要（重新）生成AI总结的课程
+     */
+    private List<Long> findStaleCourseIds() {
+        Map<Long, Long> approvedCounts = new HashMap<>();
+        for (Object[] row : reviewRepository.countByStatusGroupByCourse(Review.ReviewStatus.APPROVED)) {
+            approvedCounts.put((Long) row[0], ((Number) row[1]).longValue());
+        }
+
+        List<Long> staleCourseIds = new ArrayList<>();
+        for (Object[] row : courseRepository.findSummaryMetadata()) {
+            Long courseId = (Long) row[0];
+            boolean hasSummary = Boolean.TRUE.equals(row[2]);
+            Integer lastReviewCount = (Integer) row[3];
+            long currentReviewCount = approvedCounts.getOrDefault(courseId, 0L);
+
+            if (shouldGenerateSummary(hasSummary, lastReviewCount, currentReviewCount)) {
+                logger.debug("课程 {} 需要生成AI总结，当前评论数: {}", row[1], currentReviewCount);
+                staleCourseIds.add(courseId);
+            }
+        }
+        return staleCourseIds;
+    }
+
+    /**
+     * 判断是否需要生成AI总结
+     *
+     * @param hasSummary 是否已有AI总结
+     * @param lastReviewCount 生成上次总结时的评论数量
+     * @param currentReviewCount 当前已审核评论数量
+     * @return true 需要生成，false 不需要
+     */
+    private boolean shouldGenerateSummary(boolean hasSummary, Integer lastReviewCount, long currentReviewCount) {
+        // 评论数不足10条，不生成
+        if (currentReviewCount < MIN_REVIEW_COUNT) {
+            return false;
+        }
+
+        // 没有AI总结，或没有记录上次评论数，需要生成
+        if (!hasSummary || lastReviewCount == null) {
+            return true;
+        }
+
+        // 评论数变化超过阈值才重新生成
+        return currentReviewCount - lastReviewCount > REVIEW_CHANGE_THRESHOLD;
+    }
+}
@@ -1,21 +1,30 @@
 package com.must.courseevaluation.service.impl;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.must.courseevaluation.dto.CourseSummaryDto;
 import com.must.courseevaluation.model.Course;
 import com.must.courseevaluation.model.Review;
+import com.must.courseevaluation.model.ReviewVote;
 import com.must.courseevaluation.repository.CourseRepository;
 import com.must.courseevaluation.repository.ReviewRepository;
 import com.must.courseevaluation.service.CourseSummaryService;
+import com.must.courseevaluation.service.catalog.CourseCatalogChangedEvent;
+import com.must.courseevaluation.service.llm.ChatCompletionRequest;
+import com.must.courseevaluation.service.llm.DeepSeekClient;
+import com.must.courseevaluation.service.summary.StratifiedReviewSampler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -24,42 +33,48 @@ public class CourseSummaryServiceImpl implements CourseSummaryService {
 
     private static final Logger logger = LoggerFactory.getLogger(CourseSummaryServiceImpl.class);
 
-    @Value("${deepseek.api.key}")
-    private String apiKey;
-
-    @Value("${deepseek.api.url}")
-    private String apiUrl;
-
-    @Value("${deepseek.model}")
-    private String model;
+    // 总结输出较长（max_tokens=1000），截止时间比对话类调用宽松
+    private static final Duration SUMMARY_TIMEOUT = Duration.ofSeconds(60);
+    // 每次总结最多交给大模型的评价条数
+    private static final int MAX_PROMPT_REVIEWS = 50;
 
     @Value("${deepseek.enabled}")
     private boolean enabled;
 
     private final CourseRepository courseRepository;
     private final ReviewRepository reviewRepository;
-    private final RestTemplate restTemplate;
+    private final DeepSeekClient deepSeekClient;
+    private final ApplicationEventPublisher eventPublisher;
     private final ObjectMapper objectMapper;
+    // 读取评价与保存总结各用一个短事务，中间的大模型调用不占用数据库连接
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final TransactionTemplate transactionTemplate;
 
     public CourseSummaryServiceImpl(CourseRepository courseRepository, 
-                                   ReviewRepository reviewRepository) {
+                                   ReviewRepository reviewRepository,
+                                   DeepSeekClient deepSeekClient,
+                                   ApplicationEventPublisher eventPublisher,
+                                   PlatformTransactionManager transactionManager) {
         this.courseRepository = courseRepository;
         this.reviewRepository = reviewRepository;
-        this.restTemplate = new RestTemplate();
+        this.deepSeekClient = deepSeekClient;
+        this.eventPublisher = eventPublisher;
         this.objectMapper = new ObjectMapper();
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     @Override
     public boolean isAIServiceAvailable() {
-        return enabled && apiKey != null && !apiKey.isEmpty() && !apiKey.equals("sk-your-api-key-here");
+        return enabled && deepSeekClient.isConfigured();
     }
 
     @Override
     public int getReviewCount(Long courseId) {
         Course course = courseRepository.findById(courseId)
                 .orElseThrow(() -> new RuntimeException("课程不存在"));
-        List<Review> reviews = reviewRepository.findByCourseAndStatus(course, Review.ReviewStatus.APPROVED);
-        return reviews.size();
+        return (int) reviewRepository.countByCourseAndStatus(course, Review.ReviewStatus.APPROVED);
     }
 
     @Override
@@ -69,8 +84,7 @@ public class CourseSummaryServiceImpl implements CourseSummaryService {
                 .orElseThrow(() -> new RuntimeException("课程不存在"));
         
         // 检查评论数量
-        List<Review> reviews = reviewRepository.findByCourseAndStatus(course, Review.ReviewStatus.APPROVED);
-        if (reviews.size() < 10) {
+        if (reviewRepository.countByCourseAndStatus(course, Review.ReviewStatus.APPROVED) < 10) {
             return null; // 评论不足10条，返回null
         }
         
@@ -89,71 +103,192 @@ public class CourseSummaryServiceImpl implements CourseSummaryService {
             }
         }
         
-        // 没有缓存的AI总结，返回null（不自动生成，等待启动时自动生成）
+        // 没有缓存的AI总结，返回null（不自动生成，等待后台刷新生成）
         return null;
     }
 
     @Override
-    @Transactional
     public CourseSummaryDto regenerateCourseSummary(Long courseId) {
         if (!isAIServiceAvailable()) {
             throw new RuntimeException("AI服务未配置或未启用");
         }
 
+        SummaryRequest request = readOnlyTransactionTemplate.execute(status -> prepareFullRequest(courseId));
+        return generateAndSaveSummary(request);
+    }
+
+    @Override
+    public CourseSummaryDto refreshCourseSummary(Long courseId) {
+        if (!isAIServiceAvailable()) {
+            throw new RuntimeException("AI服务未配置或未启用");
+        }
+
+        SummaryRequest request = readOnlyTransactionTemplate.execute(status -> prepareIncrementalRequest(courseId));
+        if (request == null) {
+            return regenerateCourseSummary(courseId);
+        }
+        if (request.userPrompt() == null) {
+            // 没有新内容（如仅有评价被删除），沿用已有总结，只更新评论数
+            return transactionTemplate.execute(status -> keepSummary(request));
+        }
+        return generateAndSaveSummary(request);
+    }
+
+    /**
+     * 全量生成的准备：在只读事务内抽样评价并构建提示词
+     */
+    private SummaryRequest prepareFullRequest(Long courseId) {
         Course course = courseRepository.findById(courseId)
                 .orElseThrow(() -> new RuntimeException("课程不存在"));
 
-        List<Review> reviews = reviewRepository.findByCourseAndStatus(course, Review.ReviewStatus.APPROVED);
+        // 水位取在读取评价之前，见 saveSummary
+        LocalDateTime watermark = LocalDateTime.now();
+
+        // 只查询抽样字段，选中后再按ID加载评价正文
+        List<StratifiedReviewSampler.Candidate> candidates = new ArrayList<>();
+        for (Object[] row : reviewRepository.findSamplingCandidates(courseId, Review.ReviewStatus.APPROVED,
+                ReviewVote.VoteType.LIKE, ReviewVote.VoteType.DISLIKE)) {
+            candidates.add(new StratifiedReviewSampler.Candidate((Long) row[0], (Integer) row[1],
+                    (LocalDateTime) row[2], ((Number) row[3]).longValue()));
+        }
 
-        if (reviews.isEmpty()) {
+        if (candidates.isEmpty()) {
             throw new RuntimeException("该课程暂无评价，无法生成总结");
         }
 
-        if (reviews.size() < 10) {
+        if (candidates.size() < 10) {
             throw new RuntimeException("评价数量不足10条，无法生成AI总结");
         }
 
-        return generateAndSaveSummary(course, reviews);
+        long seed = StratifiedReviewSampler.seedFor(courseId, candidates.size());
+        List<Long> selectedIds = StratifiedReviewSampler.sample(candidates, MAX_PROMPT_REVIEWS, seed);
+        Map<Long, Review> loaded = new HashMap<>();
+        reviewRepository.findAllById(selectedIds).forEach(review -> loaded.put(review.getId(), review));
+        List<Review> selectedReviews = selectedIds.stream()
+                .map(loaded::get)
+                .filter(Objects::nonNull)
+                .toList();
+
+        return new SummaryRequest(courseId, buildSystemPrompt(),
+                buildUserPrompt(course, selectedReviews, candidates.size()),
+                candidates.size(), watermark, "AI总结已生成并保存");
     }
 
     /**
-     * 生成AI总结并保存到数据库
+     * 增量更新的准备：在只读事务内读取新增评价并构建提示词
+     * @return 需要退回全量生成时返回null；没有新增评价时提示词为null
      */
-    @Transactional
-    public CourseSummaryDto generateAndSaveSummary(Course course, List<Review> reviews) {
-        // 如果评价超过50条，随机抽取50条
-        List<Review> selectedReviews = reviews;
-        if (reviews.size() > 50) {
-            selectedReviews = new ArrayList<>(reviews);
-            Collections.shuffle(selectedReviews);
-            selectedReviews = selectedReviews.subList(0, 50);
+    private SummaryRequest prepareIncrementalRequest(Long courseId) {
+        Course course = courseRepository.findById(courseId)
+                .orElseThrow(() -> new RuntimeException("课程不存在"));
+
+        CourseSummaryDto previous = parseStoredSummary(course);
+        if (previous == null || course.getAiSummaryUpdatedAt() == null) {
+            return null;
+        }
+
+        // 水位取在查询之前，见 saveSummary
+        LocalDateTime watermark = LocalDateTime.now();
+        // 只取上次总结之后新增/修改的评价，多取一条用于判断是否超出上限
+        List<Review> newReviews = reviewRepository.findChangedSince(courseId, Review.ReviewStatus.APPROVED,
+                course.getAiSummaryUpdatedAt(), PageRequest.of(0, MAX_PROMPT_REVIEWS + 1));
+        if (newReviews.size() > MAX_PROMPT_REVIEWS) {
+            logger.info("课程 {} 新增评价超过{}条，全量重新生成AI总结", course.getCode(), MAX_PROMPT_REVIEWS);
+            return null;
+        }
+
+        int reviewCount = (int) reviewRepository.countByCourseAndStatus(course, Review.ReviewStatus.APPROVED);
+        if (reviewCount < 10) {
+            throw new RuntimeException("评价数量不足10条，无法生成AI总结");
+        }
+        if (newReviews.isEmpty()) {
+            return new SummaryRequest(courseId, null, null, reviewCount, watermark, null);
         }
 
-        // 构建提示词
-        String systemPrompt = buildSystemPrompt();
-        String userPrompt = buildUserPrompt(course, selectedReviews, reviews.size());
+        return new SummaryRequest(courseId, buildIncrementalSystemPrompt(),
+                buildIncrementalUserPrompt(course, course.getAiSummary(), newReviews, reviewCount),
+                reviewCount, watermark, "AI总结已增量更新，新增评价: " + newReviews.size());
+    }
 
-        // 调用DeepSeek API
+    /**
+     * 调用大模型生成总结并保存到数据库
+     * 大模型调用最长可达一分钟，不在事务内进行，避免后台刷新的多个工作线程占住连接池
+     */
+    private CourseSummaryDto generateAndSaveSummary(SummaryRequest request) {
+        CourseSummaryDto dto;
         try {
-            CourseSummaryDto dto = callDeepSeekAPI(systemPrompt, userPrompt);
-            
-            // 将总结保存到数据库
-            String summaryJson = objectMapper.writeValueAsString(dto);
-            course.setAiSummary(summaryJson);
-            course.setAiSummaryUpdatedAt(LocalDateTime.now());
-            // 保存生成时的评论数量，用于后续判断是否需要重新生成
-            course.setAiSummaryReviewCount(reviews.size());
-            courseRepository.save(course);
-            
-            dto.setUpdatedAt(course.getAiSummaryUpdatedAt().toString());
-            dto.setReviewCount(reviews.size());
-            logger.info("课程 {} 的AI总结已生成并保存，当前评论数: {}", course.getCode(), reviews.size());
-            
-            return dto;
+            dto = callDeepSeekAPI(request.systemPrompt(), request.userPrompt());
         } catch (Exception e) {
             logger.error("调用DeepSeek API失败: {}", e.getMessage());
             throw new RuntimeException("AI服务暂时不可用，请稍后再试");
         }
+        return transactionTemplate.execute(status -> saveSummary(request, dto));
+    }
+
+    /**
+     * 将总结保存到数据库，并记录生成时的评论数量，用于后续判断是否需要重新生成
+     * 更新时间记为读取评价前的水位而不是保存时间，否则调用大模型期间写入的评价会被下次增量更新漏掉；
+     * 调用大模型期间已有水位更新的总结写入时保留较新的那份
+     */
+    private CourseSummaryDto saveSummary(SummaryRequest request, CourseSummaryDto dto) {
+        Course course = courseRepository.findById(request.courseId())
+                .orElseThrow(() -> new RuntimeException("课程不存在"));
+        if (course.getAiSummaryUpdatedAt() != null && course.getAiSummaryUpdatedAt().isAfter(request.watermark())) {
+            logger.info("课程 {} 的AI总结已被更新的结果覆盖，丢弃本次生成结果", course.getCode());
+            return storedSummary(course);
+        }
+
+        boolean firstSummary = course.getAiSummary() == null;
+        try {
+            course.setAiSummary(objectMapper.writeValueAsString(dto));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("AI总结保存失败", e);
+        }
+        course.setAiSummaryUpdatedAt(request.watermark());
+        course.setAiSummaryReviewCount(request.reviewCount());
+        courseRepository.save(course);
+        if (firstSummary) {
+            // 课程列表按是否已有总结排序，首次生成时刷新目录快照
+            eventPublisher.publishEvent(CourseCatalogChangedEvent.summary(this, course.getId()));
+        }
+        logger.info("课程 {} 的{}，当前评论数: {}", course.getCode(), request.description(), request.reviewCount());
+
+        dto.setUpdatedAt(course.getAiSummaryUpdatedAt().toString());
+        dto.setReviewCount(request.reviewCount());
+        return dto;
+    }
+
+    /**
+     * 没有新增评价时沿用已有总结，只更新评论数
+     */
+    private CourseSummaryDto keepSummary(SummaryRequest request) {
+        Course course = courseRepository.findById(request.courseId())
+                .orElseThrow(() -> new RuntimeException("课程不存在"));
+        course.setAiSummaryReviewCount(request.reviewCount());
+        courseRepository.save(course);
+        return storedSummary(course);
+    }
+
+    private CourseSummaryDto storedSummary(Course course) {
+        CourseSummaryDto dto = parseStoredSummary(course);
+        if (dto == null) {
+            throw new RuntimeException("AI服务暂时不可用，请稍后再试");
+        }
+        dto.setUpdatedAt(course.getAiSummaryUpdatedAt() != null ? course.getAiSummaryUpdatedAt().toString() : null);
+        dto.setReviewCount(course.getAiSummaryReviewCount());
+        return dto;
+    }
+
+    private CourseSummaryDto parseStoredSummary(Course course) {
+        if (course.getAiSummary() == null || course.getAiSummary().isEmpty()) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(course.getAiSummary(), CourseSummaryDto.class);
+        } catch (Exception e) {
+            logger.warn("解析已有AI总结失败，将全量重新生成: {}", e.getMessage());
+            return null;
+        }
     }
 
     private String buildSystemPrompt() {
@@ -177,6 +312,49 @@ public class CourseSummaryServiceImpl implements CourseSummaryService {
             """;
     }
 
+    private String buildIncrementalSystemPrompt() {
+        return """
+            你是一个客观、公正的课程评价分析师。你将收到一门课程已有的总结报告（JSON格式）以及此后新增的学生评价。
+            你的任务是在已有总结的基础上融入新评价，输出更新后的完整课程总结。
+            
+            要求：
+            1. 保留已有总结中仍然成立的结论，根据新评价补充、修正或调整表述
+            2. 新评价与已有结论冲突时，结合评价数量客观权衡，不要被少数评价完全推翻
+            3. 分析维度包括：总体评价、课程难度/作业量、教师授课风格、优缺点分析
+            4. 语言简洁明了，使用中文
+            
+            必须严格按照以下JSON格式输出：
+            {
+              "overall": "总体评价摘要（50-100字）",
+              "difficulty": "课程难度与作业量分析",
+              "teaching": "教师授课风格与质量分析",
+              "pros": ["优点1", "优点2", "优点3"],
+              "cons": ["缺点1", "缺点2"],
+              "suggestion": "给未来选课学生的建议"
+            }
+            """;
+    }
+
+    private String buildIncrementalUserPrompt(Course course, String previousSummary,
+                                              List<Review> newReviews, int totalReviewCount) {
+        StringBuilder prompt = new StringBuilder();
+        prompt.append("课程：").append(course.getCode()).append(" ").append(course.getName()).append("\n\n");
+
+        prompt.append("已有总结（基于").append(course.getAiSummaryReviewCount() != null ? course.getAiSummaryReviewCount() : "此前的")
+              .append("条评价）：\n").append(previousSummary).append("\n\n");
+
+        prompt.append("新增评价（").append(newReviews.size()).append("条，目前共")
+              .append(totalReviewCount).append("条）：\n");
+        int index = 1;
+        for (Review review : newReviews) {
+            prompt.append(index++).append(". 评分：").append(review.getRating()).append("分 | 内容：")
+                  .append(review.getContent()).append("\n");
+        }
+
+        prompt.append("\n请输出更新后的课程总结。");
+        return prompt.toString();
+    }
+
     private String buildUserPrompt(Course course, List<Review> reviews, int totalReviewCount) {
         StringBuilder prompt = new StringBuilder();
         prompt.append("课程信息：\n");
@@ -188,8 +366,8 @@ public class CourseSummaryServiceImpl implements CourseSummaryService {
         prompt.append("简介：").append(course.getDescription() != null ? course.getDescription() : "无").append("\n\n");
 
         prompt.append("学生评价集合（共").append(totalReviewCount).append("条");
-        if (totalReviewCount > 50) {
-            prompt.append("，随机抽取50条");
+        if (totalReviewCount > MAX_PROMPT_REVIEWS) {
+            prompt.append("，按评分分层抽取").append(MAX_PROMPT_REVIEWS).append("条");
         }
         prompt.append("）：\n");
 
@@ -204,52 +382,41 @@ public class CourseSummaryServiceImpl implements CourseSummaryService {
     }
 
     private CourseSummaryDto callDeepSeekAPI(String systemPrompt, String userPrompt) throws Exception {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.setBearerAuth(apiKey);
-
-        Map<String, Object> requestBody = new HashMap<>();
-        requestBody.put("model", model);
-        requestBody.put("temperature", 0.5);
-        requestBody.put("max_tokens", 1000);
-        requestBody.put("response_format", Map.of("type", "json_object"));
-
-        List<Map<String, String>> messages = new ArrayList<>();
-        messages.add(Map.of("role", "system", "content", systemPrompt));
-        messages.add(Map.of("role", "user", "content", userPrompt));
-        requestBody.put("messages", messages);
-
-        HttpEntity<Map<String, Object>> request = new HttpEntity<>(requestBody, headers);
-
-        String url = apiUrl + "/chat/completions";
-        logger.info("调用DeepSeek API: {}", url);
-
-        ResponseEntity<String> response = restTemplate.exchange(
-                url, HttpMethod.POST, request, String.class);
+        String content = deepSeekClient.chatCompletion(ChatCompletionRequest.builder()
+                .caller("CourseSummaryService")
+                .systemPrompt(systemPrompt)
+                .userPrompt(userPrompt)
+                .temperature(0.5)
+                .maxTokens(1000)
+                .jsonResponse(true)
+                .timeout(SUMMARY_TIMEOUT)
+                .build());
+
+        JsonNode summaryJson = objectMapper.readTree(content);
+        
+        CourseSummaryDto dto = new CourseSummaryDto();
+        dto.setOverall(summaryJson.path("overall").asText());
+        dto.setDifficulty(summaryJson.path("difficulty").asText());
+        dto.setTeaching(summaryJson.path("teaching").asText());
+        dto.setSuggestion(summaryJson.path("suggestion").asText());
+        
+        List<String> pros = new ArrayList<>();
+        summaryJson.path("pros").forEach(node -> pros.add(node.asText()));
+        dto.setPros(pros);
+        
+        List<String> cons = new ArrayList<>();
+        summaryJson.path("cons").forEach(node -> cons.add(node.asText()));
+        dto.setCons(cons);
+        
+        return dto;
+    }
 
-        if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-            JsonNode root = objectMapper.readTree(response.getBody());
-            String content = root.path("choices").get(0).path("message").path("content").asText();
-            
-            JsonNode summaryJson = objectMapper.readTree(content);
-            
-            CourseSummaryDto dto = new CourseSummaryDto();
-            dto.setOverall(summaryJson.path("overall").asText());
-            dto.setDifficulty(summaryJson.path("difficulty").asText());
-            dto.setTeaching(summaryJson.path("teaching").asText());
-            dto.setSuggestion(summaryJson.path("suggestion").asText());
-            
-            List<String> pros = new ArrayList<>();
-            summaryJson.path("pros").forEach(node -> pros.add(node.asText()));
-            dto.setPros(pros);
-            
-            List<String> cons = new ArrayList<>();
-            summaryJson.path("cons").forEach(node -> cons.add(node.asText()));
-            dto.setCons(cons);
-            
-            return dto;
-        } else {
-            throw new RuntimeException("DeepSeek API返回错误: " + response.getStatusCode());
-        }
+    /**
+     * 一次总结生成所需的输入，在只读事务内准备好，调用大模型时不再访问数据库
+     * @param watermark 读取评价之前的时间，作为总结覆盖到的时间点
+     * @param description 保存成功后日志中的说明
+     */
+    private record SummaryRequest(Long courseId, String systemPrompt, String userPrompt,
+                                  int reviewCount, LocalDateTime watermark, String description) {
     }
 }
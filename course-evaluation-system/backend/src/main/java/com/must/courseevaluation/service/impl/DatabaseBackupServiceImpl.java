@@ -1,65 +1,147 @@
 package com.must.courseevaluation.service.impl;
 
+import com.must.courseevaluation.model.User;
+import com.must.courseevaluation.security.UserPrincipalChangedEvent;
 import com.must.courseevaluation.service.DatabaseBackupService;
+import com.must.courseevaluation.service.backup.BackupFileReader;
+import com.must.courseevaluation.service.backup.BackupFileReader.Chunk;
+import com.must.courseevaluation.service.backup.BackupFileReader.TableHeader;
+import com.must.courseevaluation.service.backup.BackupFileWriter;
+import com.must.courseevaluation.service.catalog.CourseCatalogChangedEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
 import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.ZoneId;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 @Service
 public class DatabaseBackupServiceImpl implements DatabaseBackupService {
     
     private static final Logger logger = LoggerFactory.getLogger(DatabaseBackupServiceImpl.class);
     
-    @Autowired
-    private JdbcTemplate jdbcTemplate;
+    private static final String BACKUP_EXTENSION = ".mcebak";
     
-    @Autowired
-    private DataSource dataSource;
+    // 按外键依赖排序：恢复时被引用的表先于引用它的表写入
+    private static final List<String> BACKUP_TABLES = List.of(
+            "faculties", "teachers", "users", "user_preferences",
+            "courses", "course_schedules", "course_rating_stats",
+            "reviews", "review_votes", "user_schedules",
+            "ai_conversations", "ai_messages");
     
-    private final List<Map<String, Object>> backupHistory = new ArrayList<>();
+    // 数据块压缩前的字节上限，长文本较多时提前分块
+    private static final int CHUNK_BYTES = 1024 * 1024;
+    
+    private static final Pattern BACKUP_NAME = Pattern.compile("[A-Za-z0-9_-]{1,100}");
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Path backupDirectory;
+    private final int chunkRows;
+    private final int restoreWorkers;
+    
+    public DatabaseBackupServiceImpl(JdbcTemplate jdbcTemplate,
+                                     DataSource dataSource,
+                                     ApplicationEventPublisher eventPublisher,
+                                     @Value("${backup.directory:backups}") String backupDirectory,
+                                     @Value("${backup.chunk-rows:1000}") int chunkRows,
+                                     @Value("${backup.restore.workers:4}") int restoreWorkers) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSource = dataSource;
+        this.eventPublisher = eventPublisher;
+        this.backupDirectory = Paths.get(backupDirectory);
+        this.chunkRows = chunkRows;
+        this.restoreWorkers = restoreWorkers;
+    }
     
     @Override
     public Map<String, Object> createBackup(String backupName) {
         logger.info("开始创建数据备份: {}", backupName);
         
         Map<String, Object> result = new HashMap<>();
+        Path partial = null;
         
         try {
-            // 获取所有表的统计信息作为备份验证
-            Map<String, Object> stats = getDatabaseStats();
+            Path target = backupFile(backupName);
+            if (Files.exists(target)) {
+                throw new IllegalArgumentException("备份已存在: " + backupName);
+            }
+            Files.createDirectories(backupDirectory);
+            partial = target.resolveSibling(target.getFileName() + ".part");
             
-            // 创建备份记录
-            Map<String, Object> backup = new HashMap<>();
-            backup.put("name", backupName);
-            backup.put("timestamp", LocalDateTime.now());
-            backup.put("stats", stats);
-            backup.put("status", "COMPLETED");
+            long startNanos = System.nanoTime();
+            List<Map<String, Object>> tables = new ArrayList<>();
+            long totalRows = 0;
             
-            // 添加到备份历史
-            backupHistory.add(backup);
+            try (OutputStream out = Files.newOutputStream(partial);
+                 BackupFileWriter writer = new BackupFileWriter(out, chunkRows, CHUNK_BYTES);
+                 Connection connection = dataSource.getConnection()) {
+                // 所有表在同一个只读事务中导出，得到同一时间点的一致快照
+                connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+                connection.setAutoCommit(false);
+                connection.setReadOnly(true);
+                try {
+                    for (String table : BACKUP_TABLES) {
+                        Map<String, Object> tableResult = dumpTable(connection, writer, table);
+                        totalRows += (Long) tableResult.get("rows");
+                        tables.add(tableResult);
+                    }
+                    writer.finish();
+                } finally {
+                    connection.rollback();
+                }
+            }
             
-            // 由于使用Neon云数据库，实际备份由云服务提供商自动处理
-            // 这里主要记录备份时间点和数据统计
+            // 写完后再改名，备份列表中不会出现写了一半的文件
+            Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE);
+            long elapsedNanos = System.nanoTime() - startNanos;
+            long sizeBytes = Files.size(target);
             
             result.put("success", true);
             result.put("message", "备份创建成功");
             result.put("backupName", backupName);
             result.put("timestamp", LocalDateTime.now());
-            result.put("dataStats", stats);
+            result.put("sizeBytes", sizeBytes);
+            result.put("totalRows", totalRows);
+            result.put("elapsedMs", TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+            result.put("rowsPerSecond", perSecond(totalRows, elapsedNanos));
+            result.put("bytesPerSecond", perSecond(sizeBytes, elapsedNanos));
+            result.put("tables", tables);
             
-            logger.info("数据备份创建成功: {}", backupName);
+            logger.info("数据备份创建成功: {}，共 {} 行，{} 字节，耗时 {} 毫秒",
+                    backupName, totalRows, sizeBytes, result.get("elapsedMs"));
             
         } catch (Exception e) {
             logger.error("创建备份失败: {}", e.getMessage(), e);
+            deleteQuietly(partial);
             result.put("success", false);
             result.put("message", "备份创建失败: " + e.getMessage());
         }
@@ -67,20 +149,105 @@ public class DatabaseBackupServiceImpl implements DatabaseBackupService {
         return result;
     }
     
+    @Override
+    public Map<String, Object> restoreBackup(String backupName) {
+        logger.info("开始从备份恢复数据: {}", backupName);
+        
+        Map<String, Object> result = new HashMap<>();
+        ExecutorService workers = null;
+        
+        try {
+            Path file = backupFile(backupName);
+            if (!Files.exists(file)) {
+                throw new IllegalArgumentException("备份不存在: " + backupName);
+            }
+            
+            workers = Executors.newFixedThreadPool(restoreWorkers,
+                    Thread.ofPlatform().name("backup-restore-", 1).daemon(true).factory());
+            
+            long startNanos = System.nanoTime();
+            List<Map<String, Object>> tables = new ArrayList<>();
+            long totalRows = 0;
+            
+            try (InputStream in = Files.newInputStream(file);
+                 BackupFileReader reader = new BackupFileReader(in);
+                 Connection connection = dataSource.getConnection()) {
+                // 清空现有数据和写入备份在同一个事务中完成，失败时回滚，原有数据保持不变
+                connection.setAutoCommit(false);
+                try {
+                    deleteBackupTables(connection);
+                    TableHeader header;
+                    while ((header = reader.nextTable()) != null) {
+                        Map<String, Object> tableResult = restoreTable(connection, reader, header, workers);
+                        totalRows += (Long) tableResult.get("rows");
+                        tables.add(tableResult);
+                    }
+                    requireAdminAccount(connection);
+                    connection.commit();
+                } catch (Exception e) {
+                    connection.rollback();
+                    throw e;
+                }
+            }
+            for (Map<String, Object> tableResult : tables) {
+                resetIdSequence((String) tableResult.get("table"));
+            }
+            long elapsedNanos = System.nanoTime() - startNanos;
+            
+            // 恢复绕过了 JPA，直接写入的数据需要通知课程目录和认证信息缓存
+            eventPublisher.publishEvent(CourseCatalogChangedEvent.full(this));
+            eventPublisher.publishEvent(UserPrincipalChangedEvent.all(this));
+            
+            result.put("success", true);
+            result.put("message", "数据恢复成功");
+            result.put("backupName", backupName);
+            result.put("timestamp", LocalDateTime.now());
+            result.put("totalRows", totalRows);
+            result.put("elapsedMs", TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+            result.put("rowsPerSecond", perSecond(totalRows, elapsedNanos));
+            result.put("tables", tables);
+            
+            logger.info("从备份 {} 恢复数据成功，共 {} 行，耗时 {} 毫秒", backupName, totalRows, result.get("elapsedMs"));
+            
+        } catch (Exception e) {
+            logger.error("从备份恢复数据失败: {}", e.getMessage(), e);
+            result.put("success", false);
+            result.put("message", "数据恢复失败: " + e.getMessage() + "，现有数据未改动");
+        } finally {
+            if (workers != null) {
+                workers.shutdownNow();
+            }
+        }
+        
+        return result;
+    }
+    
     @Override
     public List<Map<String, Object>> getBackupList() {
-        // 返回备份历史记录
-        // 注意：实际的备份文件由Neon云服务管理
-        List<Map<String, Object>> backups = new ArrayList<>(backupHistory);
+        List<Map<String, Object>> backups = new ArrayList<>();
         
-        // 添加Neon自动备份信息
+        // Neon自动备份信息
         Map<String, Object> neonBackup = new HashMap<>();
         neonBackup.put("name", "Neon自动备份");
         neonBackup.put("type", "AUTOMATIC");
         neonBackup.put("description", "Neon云平台自动每日备份");
         neonBackup.put("retention", "7天");
+        backups.add(neonBackup);
         
-        backups.add(0, neonBackup);
+        for (Path file : listBackupFiles()) {
+            try {
+                Map<String, Object> backup = new HashMap<>();
+                String fileName = file.getFileName().toString();
+                backup.put("name", fileName.substring(0, fileName.length() - BACKUP_EXTENSION.length()));
+                backup.put("type", "LOGICAL");
+                backup.put("sizeBytes", Files.size(file));
+                backup.put("timestamp", lastModified(file));
+                backup.put("status", "COMPLETED");
+                backups.add(backup);
+            } catch (IOException e) {
+                logger.warn("读取备份文件信息失败: {}", file, e);
+            }
+        }
         
         return backups;
     }
@@ -171,33 +338,255 @@ public class DatabaseBackupServiceImpl implements DatabaseBackupService {
     
     @Override
     public Map<String, Object> cleanupOldBackups(int daysToKeep) {
-        logger.info("开始清理{}天前的备份记录", daysToKeep);
+        logger.info("开始清理{}天前的备份文件", daysToKeep);
         
         LocalDateTime cutoffDate = LocalDateTime.now().minusDays(daysToKeep);
         
         int removedCount = 0;
-        Iterator<Map<String, Object>> iterator = backupHistory.iterator();
-        
-        while (iterator.hasNext()) {
-            Map<String, Object> backup = iterator.next();
-            LocalDateTime backupTime = (LocalDateTime) backup.get("timestamp");
-            
-            if (backupTime != null && backupTime.isBefore(cutoffDate)) {
-                iterator.remove();
-                removedCount++;
+        int remainingCount = 0;
+        for (Path file : listBackupFiles()) {
+            try {
+                if (lastModified(file).isBefore(cutoffDate)) {
+                    Files.delete(file);
+                    removedCount++;
+                } else {
+                    remainingCount++;
+                }
+            } catch (IOException e) {
+                logger.warn("删除备份文件失败: {}", file, e);
+                remainingCount++;
             }
         }
         
         Map<String, Object> result = new HashMap<>();
         result.put("removedCount", removedCount);
-        result.put("remainingCount", backupHistory.size());
+        result.put("remainingCount", remainingCount);
         result.put("cleanupTime", LocalDateTime.now());
         
-        logger.info("清理完成，删除{}个旧备份记录", removedCount);
+        logger.info("清理完成，删除{}个旧备份文件", removedCount);
+        
+        return result;
+    }
+    
+    /**
+     * 用服务端游标逐批读取一张表并写入备份文件
+     */
+    private Map<String, Object> dumpTable(Connection connection, BackupFileWriter writer, String table)
+            throws SQLException, IOException {
+        long startNanos = System.nanoTime();
+        try (Statement statement = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            // PostgreSQL 驱动只有在关闭自动提交且设置 fetchSize 时才用游标分批拉取，否则会一次读入整张表
+            statement.setFetchSize(chunkRows);
+            try (ResultSet rs = statement.executeQuery("SELECT * FROM " + table)) {
+                ResultSetMetaData metaData = rs.getMetaData();
+                int columnCount = metaData.getColumnCount();
+                List<String> columns = new ArrayList<>(columnCount);
+                List<Integer> sqlTypes = new ArrayList<>(columnCount);
+                for (int i = 1; i <= columnCount; i++) {
+                    columns.add(metaData.getColumnName(i));
+                    sqlTypes.add(metaData.getColumnType(i));
+                }
+                
+                writer.beginTable(table, columns, sqlTypes);
+                Object[] row = new Object[columnCount];
+                while (rs.next()) {
+                    for (int i = 0; i < columnCount; i++) {
+                        row[i] = rs.getObject(i + 1);
+                    }
+                    writer.writeRow(row);
+                }
+                long rows = writer.endTable();
+                logger.debug("已导出表 {}，{} 行", table, rows);
+                return tableResult(table, rows, System.nanoTime() - startNanos);
+            }
+        }
+    }
+    
+    /**
+     * 恢复一张表：读取线程按顺序读出压缩数据块，由工作线程并行解压、校验，再在恢复事务中按顺序批量插入
+     */
+    private Map<String, Object> restoreTable(Connection connection, BackupFileReader reader, TableHeader header,
+                                             ExecutorService workers) throws Exception {
+        // 备份文件中的表名和列名会拼进 SQL，只接受已知的表和合法的标识符
+        if (!BACKUP_TABLES.contains(header.name())) {
+            throw new IOException("备份中包含未知的表: " + header.name());
+        }
+        for (String column : header.columns()) {
+            if (!IDENTIFIER.matcher(column).matches()) {
+                throw new IOException("表 " + header.name() + " 包含非法的列名: " + column);
+            }
+        }
+        
+        long startNanos = System.nanoTime();
+        int columnCount = header.columns().size();
+        // 预读的数据块数量上限，限制同时在内存中的解压数据
+        int maxPending = restoreWorkers * 2;
+        Deque<Future<List<Object[]>>> pending = new ArrayDeque<>();
+        long rows = 0;
+        
+        try (PreparedStatement statement = connection.prepareStatement(insertSql(header))) {
+            Chunk chunk;
+            while ((chunk = reader.nextChunk()) != null) {
+                Chunk current = chunk;
+                pending.add(workers.submit(() -> current.decode(columnCount)));
+                if (pending.size() >= maxPending) {
+                    rows += insertRows(statement, header, pending.poll());
+                }
+            }
+            while (!pending.isEmpty()) {
+                rows += insertRows(statement, header, pending.poll());
+            }
+        }
+        if (rows != reader.tableRowCount()) {
+            throw new IOException("表 " + header.name() + " 恢复行数 " + rows + " 与备份记录的 " + reader.tableRowCount() + " 不一致");
+        }
         
+        logger.debug("已恢复表 {}，{} 行", header.name(), rows);
+        return tableResult(header.name(), rows, System.nanoTime() - startNanos);
+    }
+    
+    /**
+     * 等待一个数据块解压完成并批量插入
+     */
+    private int insertRows(PreparedStatement statement, TableHeader header, Future<List<Object[]>> decoded)
+            throws SQLException, IOException, InterruptedException {
+        List<Object[]> rows;
+        try {
+            rows = decoded.get();
+        } catch (ExecutionException e) {
+            throw new IOException("恢复表 " + header.name() + " 失败: " + e.getCause().getMessage(), e.getCause());
+        }
+        
+        List<Integer> sqlTypes = header.sqlTypes();
+        for (Object[] row : rows) {
+            for (int i = 0; i < row.length; i++) {
+                if (row[i] == null) {
+                    statement.setNull(i + 1, sqlTypes.get(i));
+                } else {
+                    statement.setObject(i + 1, row[i], sqlTypes.get(i));
+                }
+            }
+            statement.addBatch();
+        }
+        statement.executeBatch();
+        return rows.size();
+    }
+    
+    /**
+     * 在恢复事务中按外键依赖的逆序删除所有备份表的数据
+     * 用 DELETE 而不是 TRUNCATE：部分数据库的 TRUNCATE 会隐式提交，无法随恢复失败一起回滚
+     */
+    private void deleteBackupTables(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            for (int i = BACKUP_TABLES.size() - 1; i >= 0; i--) {
+                statement.executeUpdate("DELETE FROM " + BACKUP_TABLES.get(i));
+            }
+        }
+    }
+    
+    /**
+     * 恢复由管理员发起，提交前确认恢复后的数据中仍有可用的管理员账号，否则系统将无人可以管理
+     */
+    private void requireAdminAccount(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT COUNT(*) FROM users WHERE role = ? AND active = TRUE")) {
+            statement.setString(1, User.Role.ROLE_ADMIN.name());
+            try (ResultSet rs = statement.executeQuery()) {
+                if (!rs.next() || rs.getLong(1) == 0) {
+                    throw new IllegalStateException("备份中没有可用的管理员账号，恢复后将无法管理系统");
+                }
+            }
+        }
+    }
+    
+    private String insertSql(TableHeader header) {
+        StringJoiner columns = new StringJoiner(", ");
+        StringJoiner placeholders = new StringJoiner(", ");
+        for (String column : header.columns()) {
+            columns.add("\"" + column + "\"");
+            placeholders.add("?");
+        }
+        return "INSERT INTO " + header.name() + " (" + columns + ") VALUES (" + placeholders + ")";
+    }
+    
+    /**
+     * 恢复时写入了显式的 id，提交后需要把自增序列推进到最大 id 之后
+     */
+    private void resetIdSequence(String table) {
+        try {
+            String sequence = jdbcTemplate.queryForObject("SELECT pg_get_serial_sequence(?, 'id')", String.class, table);
+            if (sequence != null) {
+                jdbcTemplate.queryForObject(
+                        "SELECT setval(?, COALESCE((SELECT MAX(id) FROM " + table + "), 0) + 1, false)",
+                        Long.class, sequence);
+            }
+        } catch (Exception e) {
+            logger.warn("重置表 {} 的自增序列失败: {}", table, e.getMessage());
+        }
+    }
+    
+    private Path backupFile(String backupName) {
+        if (backupName == null || !BACKUP_NAME.matcher(backupName).matches()) {
+            throw new IllegalArgumentException("备份名称只能包含字母、数字、下划线和连字符");
+        }
+        return backupDirectory.resolve(backupName + BACKUP_EXTENSION);
+    }
+    
+    /**
+     * 备份目录下的备份文件，最新的在前
+     */
+    private List<Path> listBackupFiles() {
+        if (!Files.isDirectory(backupDirectory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(backupDirectory)) {
+            return files
+                    .filter(file -> file.getFileName().toString().endsWith(BACKUP_EXTENSION))
+                    .sorted(Comparator.comparing(this::lastModifiedQuietly).reversed())
+                    .toList();
+        } catch (IOException e) {
+            logger.error("读取备份目录失败: {}", e.getMessage());
+            return List.of();
+        }
+    }
+    
+    private LocalDateTime lastModified(Path file) throws IOException {
+        Instant instant = Files.getLastModifiedTime(file).toInstant();
+        return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+    }
+    
+    private LocalDateTime lastModifiedQuietly(Path file) {
+        try {
+            return lastModified(file);
+        } catch (IOException e) {
+            return LocalDateTime.MIN;
+        }
+    }
+    
+    private void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("删除未完成的备份文件失败: {}", file);
+        }
+    }
+    
+    private static Map<String, Object> tableResult(String table, long rows, long elapsedNanos) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("table", table);
+        result.put("rows", rows);
+        result.put("elapsedMs", TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        result.put("rowsPerSecond", perSecond(rows, elapsedNanos));
         return result;
     }
     
+    private static long perSecond(long amount, long elapsedNanos) {
+        return elapsedNanos > 0 ? amount * TimeUnit.SECONDS.toNanos(1) / elapsedNanos : amount;
+    }
+    
     // 私有方法：验证用户数据
     private void validateUserData(List<String> issues) {
         try {
@@ -1,27 +1,55 @@
 package com.must.courseevaluation.service.impl;
 
 import com.must.courseevaluation.service.EmailService;
+import com.must.courseevaluation.service.mail.EmailTemplate;
+import com.must.courseevaluation.service.mail.OutboundMail;
+import com.must.courseevaluation.service.mail.OutboundMailQueue;
+import jakarta.annotation.PreDestroy;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.time.Year;
+import java.util.List;
+import java.util.Map;
+
 @Service
 public class EmailServiceImpl implements EmailService {
 
     private static final Logger logger = LoggerFactory.getLogger(EmailServiceImpl.class);
     
-    @Autowired
-    private JavaMailSender mailSender;
+    private static final String VERIFICATION_TEMPLATE = "mail-templates/verification-code.html";
+    
+    private final JavaMailSender mailSender;
+    private final String fromEmail;
+    private final EmailTemplate verificationTemplate;
+    private final OutboundMailQueue mailQueue;
+    
+    public EmailServiceImpl(JavaMailSender mailSender,
+                            @Value("${spring.mail.username}") String fromEmail,
+                            @Value("${mail.queue.capacity:500}") int queueCapacity,
+                            @Value("${mail.queue.workers:2}") int workerCount,
+                            @Value("${mail.retry.max-attempts:4}") int maxAttempts,
+                            @Value("${mail.retry.initial-backoff-ms:2000}") long initialBackoffMs) {
+        this.mailSender = mailSender;
+        this.fromEmail = fromEmail;
+        this.verificationTemplate = EmailTemplate.fromClasspath(VERIFICATION_TEMPLATE);
+        this.mailQueue = new OutboundMailQueue(
+                mail -> sendHtmlEmail(mail.to(), mail.subject(), mail.htmlContent()),
+                queueCapacity, workerCount, maxAttempts, Duration.ofMillis(initialBackoffMs));
+    }
     
-    @Value("${spring.mail.username}")
-    private String fromEmail;
+    @PreDestroy
+    public void shutdown() {
+        mailQueue.shutdown(Duration.ofSeconds(10));
+    }
     
     @Override
     public void sendSimpleEmail(String to, String subject, String content) {
@@ -61,47 +89,38 @@ public class EmailServiceImpl implements EmailService {
     
     @Override
     public void sendVerificationCodeEmail(String to, String code) {
-        String subject = "课程评价系统 - 邮箱验证码";
-        String htmlContent = "<div style='background-color: #f4f7f9; padding: 20px; font-family: Arial, sans-serif;'>"
-                + "<div style='max-width: 600px; margin: 0 auto; background-color: #ffffff; border-radius: 10px; padding: 30px; box-shadow: 0 3px 6px rgba(0,0,0,0.1);'>"
-                + "<h2 style='color: #2c3e50; margin-top: 0;'>邮箱验证码</h2>"
-                + "<p style='color: #555; font-size: 16px;'>尊敬的用户：</p>"
-                + "<p style='color: #555; font-size: 16px;'>您好！您正在注册课程评价系统账号，请使用以下验证码完成邮箱验证：</p>"
-                + "<div style='background-color: #f2f4f6; padding: 15px; border-radius: 5px; text-align: center; margin: 20px 0;'>"
-                + "<span style='color: #1e88e5; font-size: 24px; font-weight: bold; letter-spacing: 5px;'>" + code + "</span>"
-                + "</div>"
-                + "<p style='color: #555; font-size: 16px;'>验证码有效期为10分钟，请勿将验证码泄露给他人。</p>"
-                + "<p style='color: #555; font-size: 16px;'>如非本人操作，请忽略此邮件。</p>"
-                + "<div style='margin-top: 30px; padding-top: 20px; border-top: 1px solid #eee; color: #999; font-size: 13px;'>"
-                + "<p>这是一封自动发送的邮件，请勿直接回复。</p>"
-                + "<p>© " + java.time.Year.now().getValue() + " 课程评价系统</p>"
-                + "</div>"
-                + "</div>"
-                + "</div>";
+        String htmlContent = verificationTemplate.render(Map.of(
+                "title", "邮箱验证码",
+                "intro", "您好！您正在注册课程评价系统账号，请使用以下验证码完成邮箱验证：",
+                "notice", "如非本人操作，请忽略此邮件。",
+                "code", code,
+                "year", Year.now().getValue()));
         
-        sendHtmlEmail(to, subject, htmlContent);
+        enqueue(new OutboundMail(to, "课程评价系统 - 邮箱验证码", htmlContent));
     }
     
     @Override
     public void sendLoginVerificationCodeEmail(String to, String code) {
-        String subject = "课程评价系统 - 登录验证码";
-        String htmlContent = "<div style='background-color: #f4f7f9; padding: 20px; font-family: Arial, sans-serif;'>"
-                + "<div style='max-width: 600px; margin: 0 auto; background-color: #ffffff; border-radius: 10px; padding: 30px; box-shadow: 0 3px 6px rgba(0,0,0,0.1);'>"
-                + "<h2 style='color: #2c3e50; margin-top: 0;'>登录验证码</h2>"
-                + "<p style='color: #555; font-size: 16px;'>尊敬的用户：</p>"
-                + "<p style='color: #555; font-size: 16px;'>您好！您正在使用邮箱验证码登录课程评价系统，请使用以下验证码完成登录：</p>"
-                + "<div style='background-color: #f2f4f6; padding: 15px; border-radius: 5px; text-align: center; margin: 20px 0;'>"
-                + "<span style='color: #1e88e5; font-size: 24px; font-weight: bold; letter-spacing: 5px;'>" + code + "</span>"
-                + "</div>"
-                + "<p style='color: #555; font-size: 16px;'>验证码有效期为10分钟，请勿将验证码泄露给他人。</p>"
-                + "<p style='color: #555; font-size: 16px;'>如非本人操作，请注意账户安全。</p>"
-                + "<div style='margin-top: 30px; padding-top: 20px; border-top: 1px solid #eee; color: #999; font-size: 13px;'>"
-                + "<p>这是一封自动发送的邮件，请勿直接回复。</p>"
-                + "<p>© " + java.time.Year.now().getValue() + " 课程评价系统</p>"
-                + "</div>"
-                + "</div>"
-                + "</div>";
+        String htmlContent = verificationTemplate.render(Map.of(
+                "title", "登录验证码",
+                "intro", "您好！您正在使用邮箱验证码登录课程评价系统，请使用以下验证码完成登录：",
+                "notice", "如非本人操作，请注意账户安全。",
+                "code", code,
+                "year", Year.now().getValue()));
         
-        sendHtmlEmail(to, subject, htmlContent);
+        enqueue(new OutboundMail(to, "课程评价系统 - 登录验证码", htmlContent));
+    }
+    
+    @Override
+    public List<Map<String, Object>> getFailedEmails() {
+        return mailQueue.getDeadLetters();
+    }
+    
+    private void enqueue(OutboundMail mail) {
+        if (!mailQueue.enqueue(mail)) {
+            logger.error("发信队列已满，邮件未能入队 - 收件人: {}", mail.to());
+            throw new RuntimeException("邮件服务繁忙，请稍后再试");
+        }
+        logger.info("邮件已加入发送队列 - 收件人: {}, 待发送: {}", mail.to(), mailQueue.pendingCount());
     }
-} 
\ No newline at end of file
+}
@@ -4,7 +4,9 @@ import com.must.courseevaluation.dto.FacultyDto;
 import com.must.courseevaluation.model.Faculty;
 import com.must.courseevaluation.repository.FacultyRepository;
 import com.must.courseevaluation.service.FacultyService;
+import com.must.courseevaluation.service.catalog.CourseCatalogChangedEvent;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -14,10 +16,12 @@ import java.util.stream.Collectors;
 public class FacultyServiceImpl implements FacultyService {
 
     private final FacultyRepository facultyRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public FacultyServiceImpl(FacultyRepository facultyRepository) {
+    public FacultyServiceImpl(FacultyRepository facultyRepository, ApplicationEventPublisher eventPublisher) {
         this.facultyRepository = facultyRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -68,6 +72,8 @@ public class FacultyServiceImpl implements FacultyService {
         faculty.setDescription(facultyDto.getDescription());
 
         Faculty updatedFaculty = facultyRepository.save(faculty);
+        // 学院名称会出现在课程目录中
+        eventPublisher.publishEvent(CourseCatalogChangedEvent.full(this));
         return FacultyDto.fromEntity(updatedFaculty);
     }
 
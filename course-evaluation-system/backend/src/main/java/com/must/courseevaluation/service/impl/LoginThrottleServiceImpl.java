@@ -0,0 +1,108 @@
+package com.must.courseevaluation.service.impl;
+
+import com.must.courseevaluation.service.LoginThrottleService;
+import com.must.courseevaluation.service.throttle.LoginAttemptStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Optional;
+
+@Service
+public class LoginThrottleServiceImpl implements LoginThrottleService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoginThrottleServiceImpl.class);
+
+    private static final String IP_PREFIX = "ip:";
+    private static final String ACCOUNT_PREFIX = "account:";
+
+    private final LoginAttemptStore store;
+    private final int maxFailuresPerIp;
+    private final Duration ipWindow;
+    private final int maxFailuresPerAccount;
+    private final Duration accountWindow;
+
+    public LoginThrottleServiceImpl(LoginAttemptStore store,
+                                    @Value("${security.login.ip.max-failures:20}") int maxFailuresPerIp,
+                                    @Value("${security.login.ip.window-seconds:300}") long ipWindowSeconds,
+                                    @Value("${security.login.account.max-failures:5}") int maxFailuresPerAccount,
+                                    @Value("${security.login.account.window-seconds:900}") long accountWindowSeconds) {
+        this.store = store;
+        this.maxFailuresPerIp = maxFailuresPerIp;
+        this.ipWindow = Duration.ofSeconds(ipWindowSeconds);
+        this.maxFailuresPerAccount = maxFailuresPerAccount;
+        this.accountWindow = Duration.ofSeconds(accountWindowSeconds);
+    }
+
+    @Override
+    public Optional<Duration> checkAllowed(String account, String ipAddress) {
+        long now = System.currentTimeMillis();
+
+        String ipKey = ipKey(ipAddress);
+        if (ipKey != null && store.failureCount(ipKey, ipWindow, now) >= maxFailuresPerIp) {
+            return Optional.of(retryAfter(ipKey, ipWindow, maxFailuresPerIp, now));
+        }
+
+        String accountKey = accountKey(account);
+        if (accountKey != null && store.failureCount(accountKey, accountWindow, now) >= maxFailuresPerAccount) {
+            return Optional.of(retryAfter(accountKey, accountWindow, maxFailuresPerAccount, now));
+        }
+
+        return Optional.empty();
+    }
+
+    @Override
+    public void recordFailure(String account, String ipAddress) {
+        long now = System.currentTimeMillis();
+
+        String ipKey = ipKey(ipAddress);
+        if (ipKey != null && store.recordFailure(ipKey, ipWindow, now) >= maxFailuresPerIp) {
+            logger.warn("IP {} 登录失败次数超过上限，暂时限制登录", ipAddress);
+        }
+
+        String accountKey = accountKey(account);
+        if (accountKey != null && store.recordFailure(accountKey, accountWindow, now) >= maxFailuresPerAccount) {
+            logger.warn("账号 {} 登录失败次数超过上限，暂时锁定", account);
+        }
+    }
+
+    @Override
+    public void recordSuccess(String account) {
+        String accountKey = accountKey(account);
+        if (accountKey != null) {
+            store.reset(accountKey);
+        }
+    }
+
+    /**
+     * 定期清理长时间没有失败记录的键
+     */
+    @Scheduled(fixedDelayString = "${security.login.cleanup-interval-ms:600000}")
+    public void evictIdleCounters() {
+        Duration maxWindow = ipWindow.compareTo(accountWindow) >= 0 ? ipWindow : accountWindow;
+        int evicted = store.evictIdle(maxWindow, System.currentTimeMillis());
+        if (evicted > 0) {
+            logger.debug("清理登录失败计数 {} 条", evicted);
+        }
+    }
+
+    /**
+     * 等到失败次数降到上限以下，至少 1 秒
+     */
+    private Duration retryAfter(String key, Duration window, int limit, long now) {
+        Duration remaining = store.timeUntilBelow(key, window, limit, now);
+        return remaining.compareTo(Duration.ofSeconds(1)) < 0 ? Duration.ofSeconds(1) : remaining;
+    }
+
+    private static String ipKey(String ipAddress) {
+        return ipAddress == null || ipAddress.isBlank() ? null : IP_PREFIX + ipAddress.trim();
+    }
+
+    private static String accountKey(String account) {
+        return account == null || account.isBlank() ? null : ACCOUNT_PREFIX + account.trim().toLowerCase(Locale.ROOT);
+    }
+}
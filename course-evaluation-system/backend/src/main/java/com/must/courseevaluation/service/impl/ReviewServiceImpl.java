@@ -1,6 +1,7 @@
 package com.must.courseevaluation.service.impl;
 
 import com.must.courseevaluation.dto.ReviewDto;
+import com.must.courseevaluation.dto.ReviewPageDto;
 import com.must.courseevaluation.exception.ResourceNotFoundException;
 import com.must.courseevaluation.model.Course;
 import com.must.courseevaluation.model.Review;
@@ -10,13 +11,19 @@ import com.must.courseevaluation.repository.CourseRepository;
 import com.must.courseevaluation.repository.ReviewRepository;
 import com.must.courseevaluation.repository.ReviewVoteRepository;
 import com.must.courseevaluation.repository.UserRepository;
+import com.must.courseevaluation.security.UserDetailsImpl;
 import com.must.courseevaluation.service.ContentFilterService;
+import com.must.courseevaluation.service.CourseRatingStatsService;
 import com.must.courseevaluation.service.ReviewService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -24,6 +31,13 @@ import java.util.stream.Collectors;
 @Service
 public class ReviewServiceImpl implements ReviewService {
     
+    // 批量查询投票时单次IN列表的最大长度
+    private static final int VOTE_QUERY_BATCH_SIZE = 500;
+    
+    // 评价流分页大小
+    private static final int DEFAULT_FEED_SIZE = 20;
+    private static final int MAX_FEED_SIZE = 100;
+    
     @Autowired
     private ReviewRepository reviewRepository;
     
@@ -39,11 +53,12 @@ public class ReviewServiceImpl implements ReviewService {
     @Autowired
     private ReviewVoteRepository reviewVoteRepository;
     
+    @Autowired
+    private CourseRatingStatsService courseRatingStatsService;
+    
     @Override
     public List<ReviewDto> getAllReviews() {
-        return reviewRepository.findAll().stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return convertToDtos(reviewRepository.findAll());
     }
     
     @Override
@@ -71,9 +86,7 @@ public class ReviewServiceImpl implements ReviewService {
             }
         });
         
-        return reviews.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return convertToDtos(reviews);
     }
     
     @Override
@@ -91,9 +104,7 @@ public class ReviewServiceImpl implements ReviewService {
             }
         });
         
-        return reviews.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return convertToDtos(reviews);
     }
     
     @Override
@@ -101,9 +112,51 @@ public class ReviewServiceImpl implements ReviewService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("用户不存在，ID: " + userId));
                 
-        return reviewRepository.findByUser(user).stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return convertToDtos(reviewRepository.findByUser(user));
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public ReviewPageDto getCourseReviewFeed(Long courseId, String cursor, int size) {
+        if (!courseRepository.existsById(courseId)) {
+            throw new ResourceNotFoundException("课程不存在，ID: " + courseId);
+        }
+        
+        int pageSize = normalizeFeedSize(size);
+        // 多取一条用于判断是否还有下一页
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        FeedCursor after = FeedCursor.decode(cursor);
+        
+        if (after == null) {
+            return toFeedPage(reviewRepository.findCourseFeed(courseId, limit), pageSize);
+        }
+        
+        // 游标之后先取同一置顶分组内更早的评价；置顶分组取完仍不满一页时接上非置顶分组的开头
+        List<Long> ids = new ArrayList<>(reviewRepository.findCourseFeedIdsAfter(
+                courseId, after.pinned(), after.createdAt(), after.id(), pageSize + 1));
+        if (after.pinned() && ids.size() <= pageSize) {
+            ids.addAll(reviewRepository.findCourseFeedIdsInGroup(courseId, false, pageSize + 1 - ids.size()));
+        }
+        return toFeedPage(loadFeedReviews(ids), pageSize);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public ReviewPageDto getTeacherReviewFeed(Long teacherId, String cursor, int size) {
+        int pageSize = normalizeFeedSize(size);
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        FeedCursor after = FeedCursor.decode(cursor);
+        
+        if (after == null) {
+            return toFeedPage(reviewRepository.findTeacherFeed(teacherId, limit), pageSize);
+        }
+        
+        List<Long> ids = new ArrayList<>(reviewRepository.findTeacherFeedIdsAfter(
+                teacherId, after.pinned(), after.createdAt(), after.id(), pageSize + 1));
+        if (after.pinned() && ids.size() <= pageSize) {
+            ids.addAll(reviewRepository.findTeacherFeedIdsInGroup(teacherId, false, pageSize + 1 - ids.size()));
+        }
+        return toFeedPage(loadFeedReviews(ids), pageSize);
     }
     
     @Override
@@ -136,6 +189,10 @@ public class ReviewServiceImpl implements ReviewService {
         review.setStatus(Review.ReviewStatus.APPROVED);
         
         Review savedReview = reviewRepository.save(review);
+        
+        // 同一事务内增量更新课程评分聚合
+        courseRatingStatsService.recordReviewAdded(course.getId(), savedReview.getRating());
+        
         return convertToDto(savedReview);
     }
     
@@ -153,6 +210,7 @@ public class ReviewServiceImpl implements ReviewService {
         // 过滤内容中的敏感词
         String filteredContent = contentFilterService.filterContent(reviewDto.getContent());
         
+        int oldRating = review.getRating();
         review.setContent(filteredContent);
         review.setRating(reviewDto.getRating());
         review.setAnonymous(reviewDto.isAnonymous());
@@ -162,33 +220,33 @@ public class ReviewServiceImpl implements ReviewService {
         review.setStatus(Review.ReviewStatus.APPROVED);
         
         Review updatedReview = reviewRepository.save(review);
+        courseRatingStatsService.recordRatingChanged(review.getCourse().getId(), oldRating, review.getRating());
         return convertToDto(updatedReview);
     }
     
     @Override
     @Transactional
     public void deleteReview(Long id) {
-        if (!reviewRepository.existsById(id)) {
-            throw new ResourceNotFoundException("评价不存在，ID: " + id);
-        }
-        reviewRepository.deleteById(id);
+        Review review = reviewRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("评价不存在，ID: " + id));
+        
+        courseRatingStatsService.recordReviewRemoved(review.getCourse().getId(), review.getRating());
+        reviewRepository.delete(review);
     }
     
     @Override
     public Map<String, Object> getCourseRatings(Long courseId) {
-        Course course = courseRepository.findById(courseId)
-                .orElseThrow(() -> new ResourceNotFoundException("课程不存在，ID: " + courseId));
-                
-        List<Review> reviews = reviewRepository.findByCourse(course);
+        if (courseRepository.findById(courseId).isEmpty()) {
+            throw new ResourceNotFoundException("课程不存在，ID: " + courseId);
+        }
         
-        return calculateRatings(reviews);
+        // 直接读取预聚合的评分统计，不再加载全部评价
+        return courseRatingStatsService.getCourseRatings(courseId);
     }
     
     @Override
     public Map<String, Object> getTeacherRatings(Long teacherId) {
-        List<Review> teacherReviews = reviewRepository.findByTeacherId(teacherId);
-        
-        return calculateRatings(teacherReviews);
+        return courseRatingStatsService.getTeacherRatings(teacherId);
     }
     
     @Override
@@ -209,24 +267,18 @@ public class ReviewServiceImpl implements ReviewService {
         Course course = courseRepository.findById(courseId)
                 .orElseThrow(() -> new ResourceNotFoundException("课程不存在，ID: " + courseId));
         
-        return reviewRepository.findByCourse(course).stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return convertToDtos(reviewRepository.findByCourse(course));
     }
     
     @Override
     public List<ReviewDto> getReviewsByTeacher(Long teacherId, boolean approvedOnly) {
-        return reviewRepository.findByTeacherId(teacherId).stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return convertToDtos(reviewRepository.findByTeacherId(teacherId));
     }
     
     @Override
     public List<ReviewDto> getReviewsByStatus(Review.ReviewStatus status) {
         // 返回所有评论，忽略状态参数
-        return reviewRepository.findAll().stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return convertToDtos(reviewRepository.findAll());
     }
     
     @Override
@@ -238,6 +290,7 @@ public class ReviewServiceImpl implements ReviewService {
         // 过滤内容中的敏感词
         String filteredContent = contentFilterService.filterContent(reviewDto.getContent());
         
+        int oldRating = review.getRating();
         review.setContent(filteredContent);
         review.setRating(reviewDto.getRating());
         review.setAnonymous(reviewDto.isAnonymous());
@@ -255,6 +308,7 @@ public class ReviewServiceImpl implements ReviewService {
         review.setStatus(Review.ReviewStatus.APPROVED);
         
         Review updatedReview = reviewRepository.save(review);
+        courseRatingStatsService.recordRatingChanged(review.getCourse().getId(), oldRating, review.getRating());
         return convertToDto(updatedReview);
     }
     
@@ -330,6 +384,31 @@ public class ReviewServiceImpl implements ReviewService {
     }
     
     private ReviewDto convertToDto(Review review) {
+        ReviewDto dto = toDtoWithoutVotes(review);
+        
+        // 填充投票数据
+        populateVoteData(dto, review.getId(), null);
+        
+        return dto;
+    }
+    
+    /**
+     * 批量转换评论列表，投票数据通过分组查询一次性加载，
+     * 避免每条评论执行两次COUNT查询
+     */
+    private List<ReviewDto> convertToDtos(List<Review> reviews) {
+        if (reviews.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        List<ReviewDto> dtos = reviews.stream()
+                .map(this::toDtoWithoutVotes)
+                .collect(Collectors.toList());
+        populateVoteData(dtos, getCurrentUserIdOrNull());
+        return dtos;
+    }
+    
+    private ReviewDto toDtoWithoutVotes(Review review) {
         ReviewDto dto = new ReviewDto();
         dto.setId(review.getId());
         dto.setContent(review.getContent());
@@ -351,9 +430,6 @@ public class ReviewServiceImpl implements ReviewService {
         dto.setCourseName(review.getCourse().getName());
         dto.setCourseCode(review.getCourse().getCode());
         
-        // 填充投票数据
-        populateVoteData(dto, review.getId(), null);
-        
         return dto;
     }
     
@@ -379,35 +455,112 @@ public class ReviewServiceImpl implements ReviewService {
         }
     }
     
-    private Map<String, Object> calculateRatings(List<Review> reviews) {
-        Map<String, Object> result = new HashMap<>();
-        
-        if (reviews.isEmpty()) {
-            result.put("averageRating", 0.0);
-            result.put("totalReviews", 0);
-            result.put("ratingDistribution", new HashMap<Integer, Integer>());
-            return result;
+    /**
+     * 批量填充评论列表的投票数据
+     * @param dtos 评论DTO列表
+     * @param userId 当前用户ID（可选，用于查询用户的投票状态）
+     */
+    private void populateVoteData(List<ReviewDto> dtos, Long userId) {
+        Map<Long, ReviewDto> dtoById = new HashMap<>();
+        for (ReviewDto dto : dtos) {
+            dtoById.put(dto.getId(), dto);
         }
         
-        double averageRating = reviews.stream()
-                .mapToInt(Review::getRating)
-                .average()
-                .orElse(0.0);
+        List<Long> reviewIds = new ArrayList<>(dtoById.keySet());
+        for (int from = 0; from < reviewIds.size(); from += VOTE_QUERY_BATCH_SIZE) {
+            List<Long> batch = reviewIds.subList(from, Math.min(from + VOTE_QUERY_BATCH_SIZE, reviewIds.size()));
+            
+            // 统计点赞数和踩数
+            for (Object[] row : reviewVoteRepository.countVotesByReviewIds(batch)) {
+                ReviewDto dto = dtoById.get((Long) row[0]);
+                Long count = (Long) row[2];
+                if (row[1] == ReviewVote.VoteType.LIKE) {
+                    dto.setLikeCount(count);
+                } else {
+                    dto.setDislikeCount(count);
+                }
+            }
+            
+            // 如果提供了用户ID，查询用户的投票状态
+            if (userId != null) {
+                for (Object[] row : reviewVoteRepository.findUserVotesByReviewIds(userId, batch)) {
+                    dtoById.get((Long) row[0]).setUserVote(((ReviewVote.VoteType) row[1]).name());
+                }
+            }
+        }
+    }
+    
+    private int normalizeFeedSize(int size) {
+        if (size <= 0) {
+            return DEFAULT_FEED_SIZE;
+        }
+        return Math.min(size, MAX_FEED_SIZE);
+    }
+    
+    /**
+     * 按ID批量加载评价，保持ID列表中的排序
+     */
+    private List<Review> loadFeedReviews(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Review> reviewsById = reviewRepository.findFeedReviewsByIdIn(ids).stream()
+                .collect(Collectors.toMap(Review::getId, review -> review));
+        List<Review> reviews = new ArrayList<>();
+        for (Long id : ids) {
+            Review review = reviewsById.get(id);
+            if (review != null) {
+                reviews.add(review);
+            }
+        }
+        return reviews;
+    }
+    
+    private ReviewPageDto toFeedPage(List<Review> reviews, int pageSize) {
+        boolean hasMore = reviews.size() > pageSize;
+        List<Review> page = hasMore ? reviews.subList(0, pageSize) : reviews;
+        
+        String nextCursor = null;
+        if (hasMore) {
+            Review last = page.get(page.size() - 1);
+            nextCursor = new FeedCursor(last.isPinned(), last.getCreatedAt(), last.getId()).encode();
+        }
         
-        Map<Integer, Long> distribution = reviews.stream()
-                .collect(Collectors.groupingBy(Review::getRating, Collectors.counting()));
+        return new ReviewPageDto(convertToDtos(page), nextCursor, hasMore);
+    }
+    
+    /**
+     * 评价流游标：上一页最后一条评价的排序键 (pinned, createdAt, id)
+     * 对客户端编码为不透明的 Base64 字符串
+     */
+    private record FeedCursor(boolean pinned, LocalDateTime createdAt, Long id) {
         
-        // 确保所有评分都有数据
-        Map<Integer, Integer> formattedDistribution = new HashMap<>();
-        for (int i = 1; i <= 5; i++) {
-            formattedDistribution.put(i, distribution.getOrDefault(i, 0L).intValue());
+        String encode() {
+            String raw = (pinned ? "1" : "0") + "|" + createdAt + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
         }
         
-        result.put("averageRating", Math.round(averageRating * 10) / 10.0);
-        result.put("totalReviews", reviews.size());
-        result.put("ratingDistribution", formattedDistribution);
-        
-        return result;
+        static FeedCursor decode(String cursor) {
+            if (cursor == null || cursor.isBlank()) {
+                return null;
+            }
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                String[] parts = raw.split("\\|");
+                return new FeedCursor("1".equals(parts[0]), LocalDateTime.parse(parts[1]), Long.parseLong(parts[2]));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("无效的分页游标");
+            }
+        }
+    }
+    
+    // 获取当前登录用户ID（未登录时返回null，不查询数据库）
+    private Long getCurrentUserIdOrNull() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserDetailsImpl userDetails) {
+            return userDetails.getId();
+        }
+        return null;
     }
     
     @Override
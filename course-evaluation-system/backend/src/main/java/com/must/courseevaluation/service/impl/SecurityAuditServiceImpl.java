@@ -1,14 +1,14 @@
 package com.must.courseevaluation.service.impl;
 
 import com.must.courseevaluation.service.SecurityAuditService;
+import com.must.courseevaluation.service.audit.AuditEvent;
+import com.must.courseevaluation.service.audit.SecurityAuditStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.stream.Collectors;
 
 @Service
@@ -17,25 +17,17 @@ public class SecurityAuditServiceImpl implements SecurityAuditService {
     private static final Logger logger = LoggerFactory.getLogger(SecurityAuditServiceImpl.class);
     private static final Logger securityLogger = LoggerFactory.getLogger("SECURITY");
     
-    // 使用线程安全的队列存储安全日志
-    private final Queue<Map<String, Object>> securityLogs = new ConcurrentLinkedQueue<>();
+    // 环形缓冲区 + 按分钟预聚合的审计事件存储
+    private final SecurityAuditStore auditStore;
     
-    // 最大日志条数，防止内存溢出
-    private static final int MAX_LOG_ENTRIES = 10000;
+    public SecurityAuditServiceImpl(SecurityAuditStore auditStore) {
+        this.auditStore = auditStore;
+    }
     
     @Override
     public void logLoginAttempt(String username, boolean success, String ipAddress, String userAgent) {
-        Map<String, Object> logEntry = new HashMap<>();
-        logEntry.put("eventType", "LOGIN_ATTEMPT");
-        logEntry.put("username", username);
-        logEntry.put("success", success);
-        logEntry.put("ipAddress", ipAddress);
-        logEntry.put("userAgent", userAgent);
-        logEntry.put("timestamp", LocalDateTime.now());
-        logEntry.put("severity", success ? "LOW" : "MEDIUM");
-        logEntry.put("description", success ? "登录成功" : "登录失败");
-        
-        addLogEntry(logEntry);
+        auditStore.append(new AuditEvent(LocalDateTime.now(), AuditEvent.LOGIN_ATTEMPT, username, ipAddress,
+                userAgent, success, success ? "LOW" : "MEDIUM", success ? "登录成功" : "登录失败"));
         
         // 记录到专门的安全日志
         if (success) {
@@ -47,15 +39,8 @@ public class SecurityAuditServiceImpl implements SecurityAuditService {
     
     @Override
     public void logSecurityEvent(String eventType, String description, String username, String ipAddress, String severity) {
-        Map<String, Object> logEntry = new HashMap<>();
-        logEntry.put("eventType", eventType);
-        logEntry.put("description", description);
-        logEntry.put("username", username);
-        logEntry.put("ipAddress", ipAddress);
-        logEntry.put("severity", severity);
-        logEntry.put("timestamp", LocalDateTime.now());
-        
-        addLogEntry(logEntry);
+        auditStore.append(new AuditEvent(LocalDateTime.now(), eventType, username, ipAddress,
+                null, null, severity, description));
         
         // 根据严重程度选择日志级别
         switch (severity.toUpperCase()) {
@@ -73,55 +58,28 @@ public class SecurityAuditServiceImpl implements SecurityAuditService {
     
     @Override
     public List<Map<String, Object>> getSecurityLogs(LocalDateTime startTime, LocalDateTime endTime, String eventType, int limit) {
-        return securityLogs.stream()
-                .filter(log -> {
-                    LocalDateTime logTime = (LocalDateTime) log.get("timestamp");
-                    return (startTime == null || logTime.isAfter(startTime)) &&
-                           (endTime == null || logTime.isBefore(endTime)) &&
-                           (eventType == null || eventType.equals(log.get("eventType")));
-                })
-                .sorted((a, b) -> {
-                    LocalDateTime timeA = (LocalDateTime) a.get("timestamp");
-                    LocalDateTime timeB = (LocalDateTime) b.get("timestamp");
-                    return timeB.compareTo(timeA); // 降序排列，最新的在前面
-                })
-                .limit(limit > 0 ? limit : 100)
+        // 缓冲区按时间顺序写入，从最新一端遍历即为降序
+        return auditStore.recent(event ->
+                        (startTime == null || event.timestamp().isAfter(startTime)) &&
+                        (endTime == null || event.timestamp().isBefore(endTime)) &&
+                        (eventType == null || eventType.equals(event.eventType())),
+                        limit > 0 ? limit : 100)
+                .stream()
+                .map(AuditEvent::toMap)
                 .collect(Collectors.toList());
     }
     
     @Override
     public Map<String, Object> getFailedLoginStats(int hours) {
-        LocalDateTime cutoffTime = LocalDateTime.now().minusHours(hours);
-        
-        List<Map<String, Object>> failedLogins = securityLogs.stream()
-                .filter(log -> {
-                    LocalDateTime logTime = (LocalDateTime) log.get("timestamp");
-                    return "LOGIN_ATTEMPT".equals(log.get("eventType")) &&
-                           !((Boolean) log.get("success")) &&
-                           logTime.isAfter(cutoffTime);
-                })
-                .collect(Collectors.toList());
-        
-        // 按IP地址统计失败次数
-        Map<String, Long> failuresByIp = failedLogins.stream()
-                .collect(Collectors.groupingBy(
-                        log -> (String) log.get("ipAddress"),
-                        Collectors.counting()
-                ));
-        
-        // 按用户名统计失败次数
-        Map<String, Long> failuresByUsername = failedLogins.stream()
-                .collect(Collectors.groupingBy(
-                        log -> (String) log.get("username"),
-                        Collectors.counting()
-                ));
+        LocalDateTime now = LocalDateTime.now();
+        SecurityAuditStore.Aggregate aggregate = auditStore.aggregateSince(now.minusHours(hours), now);
         
         Map<String, Object> stats = new HashMap<>();
-        stats.put("totalFailedLogins", failedLogins.size());
+        stats.put("totalFailedLogins", aggregate.getFailedLogins());
         stats.put("timeRangeHours", hours);
-        stats.put("failuresByIp", failuresByIp);
-        stats.put("failuresByUsername", failuresByUsername);
-        stats.put("reportTime", LocalDateTime.now());
+        stats.put("failuresByIp", aggregate.getFailuresByIp());
+        stats.put("failuresByUsername", aggregate.getFailuresByUsername());
+        stats.put("reportTime", now);
         
         return stats;
     }
@@ -131,24 +89,12 @@ public class SecurityAuditServiceImpl implements SecurityAuditService {
         Map<String, Object> report = new HashMap<>();
         List<String> suspiciousActivities = new ArrayList<>();
         
-        LocalDateTime oneHourAgo = LocalDateTime.now().minusHours(1);
-        LocalDateTime oneDayAgo = LocalDateTime.now().minusDays(1);
-        
-        // 检查短时间内多次失败登录
-        Map<String, Long> recentFailuresByIp = securityLogs.stream()
-                .filter(log -> {
-                    LocalDateTime logTime = (LocalDateTime) log.get("timestamp");
-                    return "LOGIN_ATTEMPT".equals(log.get("eventType")) &&
-                           !((Boolean) log.get("success")) &&
-                           logTime.isAfter(oneHourAgo);
-                })
-                .collect(Collectors.groupingBy(
-                        log -> (String) log.get("ipAddress"),
-                        Collectors.counting()
-                ));
+        LocalDateTime now = LocalDateTime.now();
+        SecurityAuditStore.Aggregate lastHour = auditStore.aggregateSince(now.minusHours(1), now);
+        SecurityAuditStore.Aggregate lastDay = auditStore.aggregateSince(now.minusDays(1), now);
         
         // 检查是否有IP地址在1小时内失败登录超过5次
-        recentFailuresByIp.entrySet().stream()
+        lastHour.getFailuresByIp().entrySet().stream()
                 .filter(entry -> entry.getValue() >= 5)
                 .forEach(entry -> {
                     suspiciousActivities.add(String.format("IP地址 %s 在过去1小时内失败登录 %d 次", 
@@ -156,22 +102,7 @@ public class SecurityAuditServiceImpl implements SecurityAuditService {
                 });
         
         // 检查是否有用户在短时间内从多个IP登录
-        Map<String, Set<String>> userIpMap = securityLogs.stream()
-                .filter(log -> {
-                    LocalDateTime logTime = (LocalDateTime) log.get("timestamp");
-                    return "LOGIN_ATTEMPT".equals(log.get("eventType")) &&
-                           ((Boolean) log.get("success")) &&
-                           logTime.isAfter(oneHourAgo);
-                })
-                .collect(Collectors.groupingBy(
-                        log -> (String) log.get("username"),
-                        Collectors.mapping(
-                                log -> (String) log.get("ipAddress"),
-                                Collectors.toSet()
-                        )
-                ));
-        
-        userIpMap.entrySet().stream()
+        lastHour.getLoginIpsByUsername().entrySet().stream()
                 .filter(entry -> entry.getValue().size() > 3)
                 .forEach(entry -> {
                     suspiciousActivities.add(String.format("用户 %s 在过去1小时内从 %d 个不同IP地址登录", 
@@ -179,22 +110,14 @@ public class SecurityAuditServiceImpl implements SecurityAuditService {
                 });
         
         // 检查高严重程度安全事件
-        long highSeverityEvents = securityLogs.stream()
-                .filter(log -> {
-                    LocalDateTime logTime = (LocalDateTime) log.get("timestamp");
-                    String severity = (String) log.get("severity");
-                    return logTime.isAfter(oneDayAgo) &&
-                           ("HIGH".equals(severity) || "CRITICAL".equals(severity));
-                })
-                .count();
-        
+        long highSeverityEvents = lastDay.getHighSeverityEvents();
         if (highSeverityEvents > 0) {
             suspiciousActivities.add(String.format("过去24小时内发现 %d 个高严重程度安全事件", highSeverityEvents));
         }
         
         report.put("suspiciousActivities", suspiciousActivities);
         report.put("riskLevel", determinRiskLevel(suspiciousActivities.size()));
-        report.put("checkTime", LocalDateTime.now());
+        report.put("checkTime", now);
         report.put("totalSuspiciousCount", suspiciousActivities.size());
         
         if (!suspiciousActivities.isEmpty()) {
@@ -208,35 +131,20 @@ public class SecurityAuditServiceImpl implements SecurityAuditService {
     public Map<String, Object> cleanupOldLogs(int daysToKeep) {
         LocalDateTime cutoffTime = LocalDateTime.now().minusDays(daysToKeep);
         
-        int originalSize = securityLogs.size();
-        securityLogs.removeIf(log -> {
-            LocalDateTime logTime = (LocalDateTime) log.get("timestamp");
-            return logTime.isBefore(cutoffTime);
-        });
-        
-        int removedCount = originalSize - securityLogs.size();
+        int removedCount = auditStore.removeOlderThan(cutoffTime);
+        int remainingCount = auditStore.size();
         
         Map<String, Object> result = new HashMap<>();
         result.put("removedCount", removedCount);
-        result.put("remainingCount", securityLogs.size());
+        result.put("remainingCount", remainingCount);
         result.put("cleanupTime", LocalDateTime.now());
         result.put("daysKept", daysToKeep);
         
-        logger.info("安全日志清理完成，删除 {} 条日志，保留 {} 条", removedCount, securityLogs.size());
+        logger.info("安全日志清理完成，删除 {} 条日志，保留 {} 条", removedCount, remainingCount);
         
         return result;
     }
     
-    // 私有方法：添加日志条目
-    private void addLogEntry(Map<String, Object> logEntry) {
-        securityLogs.offer(logEntry);
-        
-        // 如果日志条数超过限制，删除最旧的条目
-        while (securityLogs.size() > MAX_LOG_ENTRIES) {
-            securityLogs.poll();
-        }
-    }
-    
     // 私有方法：根据可疑活动数量确定风险级别
     private String determinRiskLevel(int suspiciousCount) {
         if (suspiciousCount == 0) {
@@ -6,7 +6,9 @@ import com.must.courseevaluation.model.Teacher;
 import com.must.courseevaluation.repository.FacultyRepository;
 import com.must.courseevaluation.repository.TeacherRepository;
 import com.must.courseevaluation.service.TeacherService;
+import com.must.courseevaluation.service.catalog.CourseCatalogChangedEvent;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,11 +20,14 @@ public class TeacherServiceImpl implements TeacherService {
 
     private final TeacherRepository teacherRepository;
     private final FacultyRepository facultyRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public TeacherServiceImpl(TeacherRepository teacherRepository, FacultyRepository facultyRepository) {
+    public TeacherServiceImpl(TeacherRepository teacherRepository, FacultyRepository facultyRepository,
+                              ApplicationEventPublisher eventPublisher) {
         this.teacherRepository = teacherRepository;
         this.facultyRepository = facultyRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -137,6 +142,8 @@ public class TeacherServiceImpl implements TeacherService {
 
         // 保存更新
         Teacher updatedTeacher = teacherRepository.save(teacher);
+        // 教师名称会出现在课程目录中
+        eventPublisher.publishEvent(CourseCatalogChangedEvent.full(this));
 
         // 返回DTO
         return TeacherDto.fromEntity(updatedTeacher);
@@ -148,6 +155,7 @@ public class TeacherServiceImpl implements TeacherService {
             throw new RuntimeException("未找到教师，ID: " + id);
         }
         teacherRepository.deleteById(id);
+        eventPublisher.publishEvent(CourseCatalogChangedEvent.full(this));
     }
 
     @Override
@@ -0,0 +1,358 @@
+package com.must.courseevaluation.service.impl;
+
+import com.must.courseevaluation.dto.TimetableImportReportDto;
+import com.must.courseevaluation.service.TimetableImportService;
+import com.must.courseevaluation.service.catalog.CourseCatalogChangedEvent;
+import com.must.courseevaluation.service.importer.TabularReader;
+import com.must.courseevaluation.service.importer.TimetableRow;
+import com.must.courseevaluation.service.importer.TimetableRowParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+
+/**
+ * 学期课表批量导入实现
+ * 学院、教师和课程代码在导入开始时一次加载为内存映射，逐行解析时只查映射；
+ * 校验通过的行攒满一批后在独立事务中用 JDBC 批量写入，某一批失败只回滚该批，其余批次照常提交。
+ */
+@Service
+public class TimetableImportServiceImpl implements TimetableImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TimetableImportServiceImpl.class);
+
+    private static final String INSERT_TEACHER_SQL = "INSERT INTO teachers (name, faculty_id) VALUES (?, ?)";
+
+    // 学分、类型、教师和描述在导入文件未填写时：新课程取与 Course 实体一致的默认值，已有课程保留原值。
+    // 插入部分已代入默认值，更新部分不能用 EXCLUDED 判断是否填写，因此再次传入原始参数
+    private static final String UPSERT_COURSE_SQL =
+            "INSERT INTO courses (code, name, credits, type, faculty_id, teacher_id, description) " +
+            "VALUES (?, ?, COALESCE(?, 3.0), COALESCE(?, 'COMPULSORY'), ?, ?, ?) " +
+            "ON CONFLICT (code) DO UPDATE SET name = EXCLUDED.name, credits = COALESCE(?, courses.credits), " +
+            "type = COALESCE(?, courses.type), faculty_id = EXCLUDED.faculty_id, " +
+            "teacher_id = COALESCE(?, courses.teacher_id), " +
+            "description = COALESCE(EXCLUDED.description, courses.description)";
+
+    private static final String UPSERT_SCHEDULE_SQL =
+            "INSERT INTO course_schedules (course_id, day_of_week, time_period, location) VALUES (?, ?, ?, ?) " +
+            "ON CONFLICT (course_id, day_of_week, time_period) DO UPDATE SET location = EXCLUDED.location";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkRows;
+    private final int maxErrors;
+
+    public TimetableImportServiceImpl(JdbcTemplate jdbcTemplate,
+                                      PlatformTransactionManager transactionManager,
+                                      ApplicationEventPublisher eventPublisher,
+                                      @Value("${timetable.import.chunk-rows:500}") int chunkRows,
+                                      @Value("${timetable.import.max-errors:1000}") int maxErrors) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.chunkRows = Math.max(1, chunkRows);
+        this.maxErrors = Math.max(0, maxErrors);
+    }
+
+    @Override
+    public TimetableImportReportDto importTimetable(InputStream in, String filename, boolean dryRun) throws IOException {
+        long startTime = System.currentTimeMillis();
+        TimetableImportReportDto report = new TimetableImportReportDto();
+        report.setDryRun(dryRun);
+
+        // 文件中途损坏时已提交的批次不会回滚，无论如何结束都要通知课程目录刷新
+        try (TabularReader reader = openReader(in, filename)) {
+            List<String> header = readHeader(reader);
+            if (header == null) {
+                throw new IllegalArgumentException("导入文件为空");
+            }
+            TimetableRowParser parser = TimetableRowParser.fromHeader(header);
+            Lookups lookups = loadLookups();
+
+            List<TimetableRow> chunk = new ArrayList<>(chunkRows);
+            try {
+                List<String> cells;
+                while ((cells = reader.nextRow()) != null) {
+                    if (TimetableRowParser.isBlank(cells)) {
+                        continue;
+                    }
+                    report.setTotalRows(report.getTotalRows() + 1);
+                    int rowNumber = reader.getRowNumber();
+
+                    TimetableRowParser.Result result = parser.parse(rowNumber, cells);
+                    TimetableRow row = result.row();
+                    if (row == null) {
+                        for (TimetableRowParser.FieldError error : result.errors()) {
+                            addError(report, rowNumber, error.column().getHeader(), error.message());
+                        }
+                    } else if (!lookups.faculties.containsKey(row.facultyName())) {
+                        addError(report, rowNumber, TimetableRowParser.Column.FACULTY.getHeader(),
+                                "学院不存在: " + row.facultyName());
+                        row = null;
+                    }
+                    if (row == null) {
+                        report.setInvalidRows(report.getInvalidRows() + 1);
+                        continue;
+                    }
+
+                    report.setValidRows(report.getValidRows() + 1);
+                    chunk.add(row);
+                    if (chunk.size() >= chunkRows) {
+                        writeChunk(chunk, lookups, report, dryRun);
+                        chunk.clear();
+                    }
+                }
+            } catch (IOException e) {
+                // 读取失败之前已校验通过的行照常写入
+                addReadError(report, reader.getRowNumber() + 1, filename, e);
+            }
+            if (!chunk.isEmpty()) {
+                writeChunk(chunk, lookups, report, dryRun);
+            }
+        } finally {
+            if (!dryRun && report.getChunksCommitted() > 0) {
+                eventPublisher.publishEvent(CourseCatalogChangedEvent.full(this));
+            }
+        }
+
+        report.setDurationMs(System.currentTimeMillis() - startTime);
+        logger.info("课表导入完成: 文件={}, dryRun={}, 数据行={}, 有效={}, 无效={}, 新增课程={}, 更新课程={}, 上课时间={}, 失败批次={}, 耗时={}ms",
+                filename, dryRun, report.getTotalRows(), report.getValidRows(), report.getInvalidRows(),
+                report.getCoursesCreated(), report.getCoursesUpdated(), report.getSchedulesWritten(),
+                report.getChunksFailed(), report.getDurationMs());
+        return report;
+    }
+
+    /**
+     * 写入一批校验通过的行
+     * 试运行时用占位ID更新映射，后续批次对同一教师或课程的统计与实际导入一致
+     */
+    private void writeChunk(List<TimetableRow> chunk, Lookups lookups, TimetableImportReportDto report, boolean dryRun) {
+        ChunkPlan plan = ChunkPlan.of(chunk, lookups);
+
+        ChunkWrite written;
+        if (dryRun) {
+            written = ChunkWrite.placeholder(plan);
+        } else {
+            try {
+                written = transactionTemplate.execute(status -> writePlan(plan, lookups));
+            } catch (DataAccessException | TransactionException e) {
+                int firstRow = chunk.get(0).rowNumber();
+                int lastRow = chunk.get(chunk.size() - 1).rowNumber();
+                logger.warn("课表导入第{}-{}行所在批次写入失败: {}", firstRow, lastRow, e.getMessage());
+                report.setChunksFailed(report.getChunksFailed() + 1);
+                addError(report, firstRow, null, "第" + firstRow + "-" + lastRow + "行所在批次写入失败，已整体回滚: "
+                        + rootMessage(e));
+                return;
+            }
+        }
+
+        // 提交成功后才合并新ID，失败批次的教师和课程在后续批次中仍按新建处理
+        for (String code : plan.courses.keySet()) {
+            if (lookups.courses.containsKey(code)) {
+                report.setCoursesUpdated(report.getCoursesUpdated() + 1);
+            } else {
+                report.setCoursesCreated(report.getCoursesCreated() + 1);
+            }
+        }
+        report.setTeachersCreated(report.getTeachersCreated() + plan.newTeachers.size());
+        report.setSchedulesWritten(report.getSchedulesWritten() + plan.schedules.size());
+        report.setChunksCommitted(report.getChunksCommitted() + 1);
+        lookups.teachers.putAll(written.teacherIds());
+        lookups.courses.putAll(written.courseIds());
+    }
+
+    /**
+     * 在事务中依次写入教师、课程和上课时间，返回本批新建的教师ID和涉及的课程ID
+     */
+    private ChunkWrite writePlan(ChunkPlan plan, Lookups lookups) {
+        Map<TeacherKey, Long> teacherIds = new HashMap<>();
+        if (!plan.newTeachers.isEmpty()) {
+            List<Object[]> args = new ArrayList<>(plan.newTeachers.size());
+            for (TeacherKey key : plan.newTeachers) {
+                args.add(new Object[]{key.name(), key.facultyId()});
+            }
+            jdbcTemplate.batchUpdate(INSERT_TEACHER_SQL, args);
+
+            // 批量插入拿不到逐行生成的主键，按姓名回查；同名同学院取最大ID即刚插入的行
+            List<String> names = plan.newTeachers.stream().map(TeacherKey::name).distinct().toList();
+            jdbcTemplate.query("SELECT id, name, faculty_id FROM teachers WHERE name IN (" + placeholders(names.size()) + ")",
+                    rs -> {
+                        TeacherKey key = new TeacherKey(rs.getString("name"), rs.getLong("faculty_id"));
+                        if (plan.newTeachers.contains(key)) {
+                            teacherIds.merge(key, rs.getLong("id"), Math::max);
+                        }
+                    }, names.toArray());
+        }
+
+        List<Object[]> courseArgs = new ArrayList<>(plan.courses.size());
+        for (TimetableRow row : plan.courses.values()) {
+            Long facultyId = lookups.faculties.get(row.facultyName());
+            Long teacherId = null;
+            if (row.teacherName() != null) {
+                TeacherKey key = new TeacherKey(row.teacherName(), facultyId);
+                teacherId = teacherIds.containsKey(key) ? teacherIds.get(key) : lookups.teachers.get(key);
+            }
+            String type = row.type() != null ? row.type().name() : null;
+            courseArgs.add(new Object[]{row.courseCode(), row.courseName(), row.credits(), type,
+                    facultyId, teacherId, row.description(), row.credits(), type, teacherId});
+        }
+        jdbcTemplate.batchUpdate(UPSERT_COURSE_SQL, courseArgs);
+
+        Map<String, Long> courseIds = new HashMap<>();
+        List<String> codes = new ArrayList<>(plan.courses.keySet());
+        jdbcTemplate.query("SELECT id, code FROM courses WHERE code IN (" + placeholders(codes.size()) + ")",
+                rs -> {
+                    courseIds.put(rs.getString("code"), rs.getLong("id"));
+                }, codes.toArray());
+
+        if (!plan.schedules.isEmpty()) {
+            List<Object[]> scheduleArgs = new ArrayList<>(plan.schedules.size());
+            for (TimetableRow row : plan.schedules.values()) {
+                scheduleArgs.add(new Object[]{courseIds.get(row.courseCode()), row.dayOfWeek(), row.timePeriod(),
+                        row.location()});
+            }
+            jdbcTemplate.batchUpdate(UPSERT_SCHEDULE_SQL, scheduleArgs);
+        }
+        return new ChunkWrite(teacherIds, courseIds);
+    }
+
+    private Lookups loadLookups() {
+        Lookups lookups = new Lookups();
+        jdbcTemplate.query("SELECT id, name FROM faculties", rs -> {
+            lookups.faculties.put(rs.getString("name"), rs.getLong("id"));
+        });
+        jdbcTemplate.query("SELECT id, name, faculty_id FROM teachers WHERE faculty_id IS NOT NULL", rs -> {
+            // 同名同学院的教师有多位时取ID最小的一位，与手工录入时通常先建的记录一致
+            lookups.teachers.merge(new TeacherKey(rs.getString("name"), rs.getLong("faculty_id")),
+                    rs.getLong("id"), Math::min);
+        });
+        jdbcTemplate.query("SELECT id, code FROM courses", rs -> {
+            lookups.courses.put(rs.getString("code"), rs.getLong("id"));
+        });
+        return lookups;
+    }
+
+    /**
+     * 打开文件或读取表头失败时还没有写入任何数据，按请求参数错误处理
+     */
+    private static TabularReader openReader(InputStream in, String filename) {
+        try {
+            return TabularReader.open(in, filename);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("无法读取导入文件: " + e.getMessage(), e);
+        }
+    }
+
+    private static List<String> readHeader(TabularReader reader) {
+        try {
+            return reader.nextRow();
+        } catch (IOException e) {
+            throw new IllegalArgumentException("无法读取导入文件的表头: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 数据行格式损坏（如 CSV 引号未闭合、XLSX 工作表无法解析）时从该行起停止读取，记录为整行错误
+     */
+    private void addReadError(TimetableImportReportDto report, int row, String filename, IOException e) {
+        logger.warn("课表导入文件 {} 第{}行读取失败，停止读取: {}", filename, row, e.getMessage());
+        addError(report, row, null, "文件读取失败，该行及之后的内容未导入: " + e.getMessage());
+    }
+
+    private void addError(TimetableImportReportDto report, int row, String column, String message) {
+        if (report.getErrors().size() < maxErrors) {
+            report.getErrors().add(new TimetableImportReportDto.RowError(row, column, message));
+        } else {
+            report.setErrorsTruncated(true);
+        }
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getMessage() != null ? root.getMessage() : root.getClass().getSimpleName();
+    }
+
+    /**
+     * 教师按(姓名, 学院)匹配
+     */
+    private record TeacherKey(String name, Long facultyId) {
+    }
+
+    /**
+     * 导入过程中的名称到ID映射，每批提交后合并新建的记录
+     */
+    private static class Lookups {
+        final Map<String, Long> faculties = new HashMap<>();
+        final Map<TeacherKey, Long> teachers = new HashMap<>();
+        final Map<String, Long> courses = new HashMap<>();
+    }
+
+    /**
+     * 一批行去重后的写入计划：课程按代码以最后一行为准，上课时间按(课程, 星期, 时间段)以最后一行为准
+     */
+    private static class ChunkPlan {
+        final Set<TeacherKey> newTeachers = new LinkedHashSet<>();
+        final Map<String, TimetableRow> courses = new LinkedHashMap<>();
+        final Map<String, TimetableRow> schedules = new LinkedHashMap<>();
+
+        static ChunkPlan of(List<TimetableRow> chunk, Lookups lookups) {
+            ChunkPlan plan = new ChunkPlan();
+            for (TimetableRow row : chunk) {
+                plan.courses.put(row.courseCode(), row);
+                if (row.hasSchedule()) {
+                    plan.schedules.put(row.courseCode() + "|" + row.dayOfWeek() + "|" + row.timePeriod(), row);
+                }
+            }
+            // 只为最终生效的课程行创建教师，被同批后续行覆盖的教师不会被引用
+            for (TimetableRow row : plan.courses.values()) {
+                if (row.teacherName() != null) {
+                    TeacherKey key = new TeacherKey(row.teacherName(), lookups.faculties.get(row.facultyName()));
+                    if (!lookups.teachers.containsKey(key)) {
+                        plan.newTeachers.add(key);
+                    }
+                }
+            }
+            return plan;
+        }
+    }
+
+    /**
+     * 一批写入后得到的教师和课程ID
+     */
+    private record ChunkWrite(Map<TeacherKey, Long> teacherIds, Map<String, Long> courseIds) {
+
+        /**
+         * 试运行时的占位ID，仅用于判断后续批次中的记录是否已存在
+         */
+        static ChunkWrite placeholder(ChunkPlan plan) {
+            Map<TeacherKey, Long> teacherIds = new HashMap<>();
+            for (TeacherKey key : plan.newTeachers) {
+                teacherIds.put(key, -1L);
+            }
+            Map<String, Long> courseIds = new HashMap<>();
+            for (String code : plan.courses.keySet()) {
+                courseIds.put(code, -1L);
+            }
+            return new ChunkWrite(teacherIds, courseIds);
+        }
+    }
+}
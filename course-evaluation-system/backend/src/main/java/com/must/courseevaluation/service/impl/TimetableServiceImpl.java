@@ -0,0 +1,101 @@
+package com.must.courseevaluation.service.impl;
+
+import com.must.courseevaluation.repository.UserScheduleRepository;
+import com.must.courseevaluation.service.CourseCatalogService;
+import com.must.courseevaluation.service.TimetableService;
+import com.must.courseevaluation.service.catalog.CourseCatalogSnapshot.CourseEntry;
+import com.must.courseevaluation.service.timetable.UserTimetableChangedEvent;
+import com.must.courseevaluation.service.timetable.WeeklyTimetable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class TimetableServiceImpl implements TimetableService {
+
+    private final UserScheduleRepository userScheduleRepository;
+    private final CourseCatalogService courseCatalogService;
+
+    private final int cacheMaxEntries;
+
+    // 用户课表位图缓存，课程位图由课程目录快照维护：访问顺序的 LinkedHashMap 实现 LRU，所有访问都在 userMasks 上同步
+    private final LinkedHashMap<Long, Integer> userMasks;
+    // 每次失效加一；加载期间发生过失效时不写入缓存，避免把失效前读到的旧课表放回去
+    private long evictions;
+
+    public TimetableServiceImpl(UserScheduleRepository userScheduleRepository,
+                                CourseCatalogService courseCatalogService,
+                                @Value("${timetable.user-mask-cache.max-entries:10000}") int cacheMaxEntries) {
+        this.userScheduleRepository = userScheduleRepository;
+        this.courseCatalogService = courseCatalogService;
+        this.cacheMaxEntries = cacheMaxEntries;
+        this.userMasks = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Integer> eldest) {
+                return size() > TimetableServiceImpl.this.cacheMaxEntries;
+            }
+        };
+    }
+
+    @Override
+    public int getUserMask(Long userId) {
+        long generation;
+        synchronized (userMasks) {
+            Integer cached = userMasks.get(userId);
+            if (cached != null) {
+                return cached;
+            }
+            generation = evictions;
+        }
+
+        int mask = loadUserMask(userId);
+        synchronized (userMasks) {
+            if (evictions == generation) {
+                userMasks.put(userId, mask);
+            }
+        }
+        return mask;
+    }
+
+    @Override
+    public List<Long> findCourseIdsWithoutConflict(Long userId) {
+        int userMask = getUserMask(userId);
+
+        List<Long> courseIds = new ArrayList<>();
+        for (CourseEntry course : courseCatalogService.getSnapshot().getCourses()) {
+            if (!WeeklyTimetable.conflicts(course.getScheduleMask(), userMask)) {
+                courseIds.add(course.getId());
+            }
+        }
+        return courseIds;
+    }
+
+    @Override
+    public void evictUser(Long userId) {
+        synchronized (userMasks) {
+            userMasks.remove(userId);
+            evictions++;
+        }
+    }
+
+    /**
+     * 用户课表变化的事务提交后失效缓存，避免并发读取把旧课表重新放入缓存
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserTimetableChanged(UserTimetableChangedEvent event) {
+        evictUser(event.getUserId());
+    }
+
+    private int loadUserMask(Long userId) {
+        int mask = WeeklyTimetable.EMPTY;
+        for (Object[] row : userScheduleRepository.findSlotsByUserId(userId)) {
+            mask = WeeklyTimetable.withSlot(mask, (Integer) row[0], (Integer) row[1]);
+        }
+        return mask;
+    }
+}
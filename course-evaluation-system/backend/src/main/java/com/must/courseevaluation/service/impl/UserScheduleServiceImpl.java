@@ -7,11 +7,16 @@ import com.must.courseevaluation.model.UserSchedule;
 import com.must.courseevaluation.repository.UserRepository;
 import com.must.courseevaluation.repository.UserScheduleRepository;
 import com.must.courseevaluation.service.UserScheduleService;
+import com.must.courseevaluation.service.timetable.ScheduleBatchWriter;
+import com.must.courseevaluation.service.timetable.ScheduleSlotDiff;
+import com.must.courseevaluation.service.timetable.UserTimetableChangedEvent;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -24,6 +29,12 @@ public class UserScheduleServiceImpl implements UserScheduleService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private ScheduleBatchWriter scheduleBatchWriter;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
     @Override
     public List<UserScheduleDto> getUserSchedules(Long userId) {
         return userScheduleRepository.findByUserId(userId).stream()
@@ -50,6 +61,7 @@ public class UserScheduleServiceImpl implements UserScheduleService {
         schedule.setCourseName(scheduleDto.getCourseName());
         
         UserSchedule savedSchedule = userScheduleRepository.save(schedule);
+        eventPublisher.publishEvent(new UserTimetableChangedEvent(this, userId));
         return UserScheduleDto.fromEntity(savedSchedule);
     }
     
@@ -73,22 +85,24 @@ public class UserScheduleServiceImpl implements UserScheduleService {
         schedule.setCourseName(scheduleDto.getCourseName());
         
         UserSchedule updatedSchedule = userScheduleRepository.save(schedule);
+        eventPublisher.publishEvent(new UserTimetableChangedEvent(this, schedule.getUser().getId()));
         return UserScheduleDto.fromEntity(updatedSchedule);
     }
     
     @Override
     @Transactional
     public void deleteUserSchedule(Long scheduleId) {
-        if (!userScheduleRepository.existsById(scheduleId)) {
-            throw new ResourceNotFoundException("课程安排不存在，ID: " + scheduleId);
-        }
-        userScheduleRepository.deleteById(scheduleId);
+        UserSchedule schedule = userScheduleRepository.findById(scheduleId)
+                .orElseThrow(() -> new ResourceNotFoundException("课程安排不存在，ID: " + scheduleId));
+        userScheduleRepository.delete(schedule);
+        eventPublisher.publishEvent(new UserTimetableChangedEvent(this, schedule.getUser().getId()));
     }
     
     @Override
     @Transactional
     public void deleteAllUserSchedules(Long userId) {
         userScheduleRepository.deleteByUserId(userId);
+        eventPublisher.publishEvent(new UserTimetableChangedEvent(this, userId));
     }
     
     @Override
@@ -118,27 +132,40 @@ public class UserScheduleServiceImpl implements UserScheduleService {
     @Override
     @Transactional
     public List<UserScheduleDto> batchAddUserSchedules(Long userId, List<UserScheduleDto> scheduleDtos) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("用户不存在，ID: " + userId));
-        
-        List<UserScheduleDto> addedSchedules = new ArrayList<>();
+        return writeUserSchedules(userId, scheduleDtos, false);
+    }
+    
+    @Override
+    @Transactional
+    public List<UserScheduleDto> replaceUserSchedules(Long userId, List<UserScheduleDto> scheduleDtos) {
+        return writeUserSchedules(userId, scheduleDtos, true);
+    }
+    
+    /**
+     * 与现有时间安排比较后批量写入差异，返回写入后的完整课表
+     * @param removeMissing 是否删除不在提交列表中的时间安排
+     */
+    private List<UserScheduleDto> writeUserSchedules(Long userId, List<UserScheduleDto> scheduleDtos, boolean removeMissing) {
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("用户不存在，ID: " + userId);
+        }
         
-        for (UserScheduleDto dto : scheduleDtos) {
-            // 检查是否已存在
-            if (!userScheduleRepository.existsByUserIdAndDayOfWeekAndTimePeriod(
-                    userId, dto.getDayOfWeek(), dto.getTimePeriod())) {
-                UserSchedule schedule = new UserSchedule();
-                schedule.setUser(user);
-                schedule.setDayOfWeek(dto.getDayOfWeek());
-                schedule.setTimePeriod(dto.getTimePeriod());
-                schedule.setCourseName(dto.getCourseName());
-                
-                UserSchedule savedSchedule = userScheduleRepository.save(schedule);
-                addedSchedules.add(UserScheduleDto.fromEntity(savedSchedule));
-            }
+        // 一次查询现有行，删除、修改课程名称、新增各一次批量执行
+        List<ScheduleSlotDiff.Row> current = userScheduleRepository.findRowsByUserId(userId).stream()
+                .map(ScheduleSlotDiff.Row::of)
+                .collect(Collectors.toList());
+        List<ScheduleSlotDiff.Slot> desired = scheduleDtos.stream()
+                .map(dto -> ScheduleSlotDiff.Slot.of(dto.getDayOfWeek(), dto.getTimePeriod(), dto.getCourseName()))
+                .collect(Collectors.toList());
+        ScheduleSlotDiff.Result diff = ScheduleSlotDiff.compute(current, desired, removeMissing);
+        if (!diff.isEmpty()) {
+            scheduleBatchWriter.apply(ScheduleBatchWriter.Table.USER, userId, diff);
+            eventPublisher.publishEvent(new UserTimetableChangedEvent(this, userId));
         }
         
-        return addedSchedules;
+        return userScheduleRepository.findByUserId(userId).stream()
+                .sorted(Comparator.comparing(UserSchedule::getDayOfWeek).thenComparing(UserSchedule::getTimePeriod))
+                .map(UserScheduleDto::fromEntity)
+                .collect(Collectors.toList());
     }
 }
-
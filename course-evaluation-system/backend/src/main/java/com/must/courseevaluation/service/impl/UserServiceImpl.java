@@ -4,10 +4,12 @@ import com.must.courseevaluation.dto.UserDto;
 import com.must.courseevaluation.dto.auth.RegisterRequest;
 import com.must.courseevaluation.model.User;
 import com.must.courseevaluation.repository.UserRepository;
+import com.must.courseevaluation.security.UserPrincipalChangedEvent;
 import com.must.courseevaluation.service.UserService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -20,12 +22,15 @@ public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
     private static final Logger logger = LoggerFactory.getLogger(UserServiceImpl.class);
 
     @Autowired
-    public UserServiceImpl(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserServiceImpl(UserRepository userRepository, PasswordEncoder passwordEncoder,
+                           ApplicationEventPublisher eventPublisher) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -83,6 +88,7 @@ public class UserServiceImpl implements UserService {
     @Override
     public UserDto update(Long id, UserDto userDto) {
         User user = findById(id);
+        String originalUsername = user.getUsername();
         boolean statusChanged = false;
         boolean commentStatusChanged = false;
         
@@ -140,6 +146,8 @@ public class UserServiceImpl implements UserService {
 
         // 保存更新后的用户
         User updatedUser = userRepository.save(user);
+        // 认证信息缓存按用户名存放，失效修改前的用户名
+        eventPublisher.publishEvent(new UserPrincipalChangedEvent(this, originalUsername));
         
         if (statusChanged || commentStatusChanged) {
             logger.info("用户状态更新成功 - 用户ID: {}, 用户名: {}", id, updatedUser.getUsername());
@@ -151,10 +159,10 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public void delete(Long id) {
-        if (!userRepository.existsById(id)) {
-            throw new RuntimeException("用户不存在，ID: " + id);
-        }
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("用户不存在，ID: " + id));
         userRepository.deleteById(id);
+        eventPublisher.publishEvent(new UserPrincipalChangedEvent(this, user.getUsername()));
     }
 
     @Override
@@ -1,46 +1,49 @@
 package com.must.courseevaluation.service.impl;
 
 import com.must.courseevaluation.service.VerificationCodeService;
+import com.must.courseevaluation.service.verification.VerificationCodeStore;
+import com.must.courseevaluation.service.verification.VerificationCodeStore.VerifyResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDateTime;
-import java.util.Map;
-import java.util.Random;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.security.SecureRandom;
+import java.time.Duration;
 
 @Service
 public class VerificationCodeServiceImpl implements VerificationCodeService {
 
-    // 验证码有效期（分钟）
-    private static final int EXPIRATION_MINUTES = 10;
+    private static final Logger logger = LoggerFactory.getLogger(VerificationCodeServiceImpl.class);
+
+    private final VerificationCodeStore store;
+    
+    // 验证码有效期
+    private final Duration expiration;
     
-    // 存储验证码的Map: key是邮箱，value是包含验证码和过期时间的对象
-    private final Map<String, VerificationCodeInfo> verificationCodes = new ConcurrentHashMap<>();
+    // 每个验证码允许的错误次数，达到后验证码作废，需重新获取
+    private final int maxAttempts;
     
-    // 清理过期验证码的调度器
-    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final SecureRandom random = new SecureRandom();
     
-    public VerificationCodeServiceImpl() {
-        // 每分钟执行一次清理过期验证码的任务
-        scheduler.scheduleAtFixedRate(this::cleanExpiredCodes, 1, 1, TimeUnit.MINUTES);
+    public VerificationCodeServiceImpl(VerificationCodeStore store,
+                                       @Value("${verification.code.expiration-minutes:10}") long expirationMinutes,
+                                       @Value("${verification.code.max-attempts:5}") int maxAttempts) {
+        this.store = store;
+        this.expiration = Duration.ofMinutes(expirationMinutes);
+        this.maxAttempts = maxAttempts;
     }
     
     @Override
     public String generateVerificationCode() {
         // 生成6位数字验证码
-        return String.format("%06d", new Random().nextInt(1000000));
+        return String.format("%06d", random.nextInt(1000000));
     }
     
     @Override
     public void storeVerificationCode(String email, String code) {
-        // 计算过期时间
-        LocalDateTime expirationTime = LocalDateTime.now().plusMinutes(EXPIRATION_MINUTES);
-        
-        // 存储验证码和过期时间
-        verificationCodes.put(email, new VerificationCodeInfo(code, expirationTime));
+        store.put(email, code, expiration, System.currentTimeMillis());
     }
     
     @Override
@@ -50,65 +53,21 @@ public class VerificationCodeServiceImpl implements VerificationCodeService {
             return true;
         }
         
-        // 获取存储的验证码信息
-        VerificationCodeInfo storedInfo = verificationCodes.get(email);
-        
-        // 如果没有找到验证码或验证码已过期，返回false
-        if (storedInfo == null || storedInfo.isExpired()) {
-            return false;
-        }
-        
-        // 验证码是否匹配
-        boolean isValid = storedInfo.getCode().equals(code);
-        
-        // 如果验证成功，移除验证码
-        if (isValid) {
-            verificationCodes.remove(email);
+        VerifyResult result = store.verify(email, code, maxAttempts, System.currentTimeMillis());
+        if (result == VerifyResult.LOCKED) {
+            logger.warn("邮箱 {} 验证码错误次数达到 {} 次，验证码已作废", email, maxAttempts);
         }
-        
-        return isValid;
-    }
-    
-    /**
-     * 清理过期的验证码
-     */
-    private void cleanExpiredCodes() {
-        verificationCodes.entrySet().removeIf(entry -> entry.getValue().isExpired());
+        return result == VerifyResult.MATCHED;
     }
     
     /**
-     * 验证码信息类，包含验证码和过期时间
+     * 按时间轮刻度清理过期的验证码
      */
-    private static class VerificationCodeInfo {
-        private final String code;
-        private final LocalDateTime expirationTime;
-        
-        public VerificationCodeInfo(String code, LocalDateTime expirationTime) {
-            this.code = code;
-            this.expirationTime = expirationTime;
+    @Scheduled(fixedDelayString = "${verification.code.wheel-tick-ms:1000}")
+    public void expireCodes() {
+        int expired = store.expire(System.currentTimeMillis());
+        if (expired > 0) {
+            logger.debug("清理过期验证码 {} 个，待验证 {} 个", expired, store.size());
         }
-        
-        public String getCode() {
-            return code;
-        }
-        
-        public boolean isExpired() {
-            return LocalDateTime.now().isAfter(expirationTime);
-        }
-    }
-    
-    /**
-     * 关闭调度器
-     */
-    public void shutdownScheduler() {
-        scheduler.shutdown();
-    }
-    
-    /**
-     * Bean销毁时调用
-     */
-    @jakarta.annotation.PreDestroy
-    public void preDestroy() {
-        shutdownScheduler();
     }
-} 
\ No newline at end of file
+}
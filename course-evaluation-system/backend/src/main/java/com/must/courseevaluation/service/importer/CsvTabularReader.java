@@ -0,0 +1,89 @@
+package com.must.courseevaluation.service.importer;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CSV 逐行读取（RFC 4180）
+ * 支持双引号包围的字段、字段内的 "" 转义、逗号和换行，以及 UTF-8 BOM。
+ * 行号按记录计数，字段内换行不增加行号。
+ */
+public class CsvTabularReader implements TabularReader {
+
+    private static final int BOM = '\uFEFF';
+
+    private final Reader reader;
+    private int rowNumber;
+    private boolean started;
+
+    public CsvTabularReader(InputStream in) {
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public List<String> nextRow() throws IOException {
+        int ch = reader.read();
+        if (!started) {
+            started = true;
+            if (ch == BOM) {
+                ch = reader.read();
+            }
+        }
+        if (ch == -1) {
+            return null;
+        }
+
+        List<String> cells = new ArrayList<>();
+        StringBuilder cell = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (ch == -1) {
+                    throw new IOException("第" + (rowNumber + 1) + "行引号未闭合");
+                }
+                if (ch == '"') {
+                    int next = reader.read();
+                    if (next == '"') {
+                        cell.append('"');
+                    } else {
+                        quoted = false;
+                        ch = next;
+                        continue;
+                    }
+                } else {
+                    cell.append((char) ch);
+                }
+            } else if (ch == '"' && cell.length() == 0) {
+                quoted = true;
+            } else if (ch == ',') {
+                cells.add(cell.toString());
+                cell.setLength(0);
+            } else if (ch == '\r' || ch == '\n' || ch == -1) {
+                if (ch == '\r') {
+                    reader.mark(1);
+                    if (reader.read() != '\n') {
+                        reader.reset();
+                    }
+                }
+                cells.add(cell.toString());
+                rowNumber++;
+                return cells;
+            } else {
+                cell.append((char) ch);
+            }
+            ch = reader.read();
+        }
+    }
+
+    @Override
+    public int getRowNumber() {
+        return rowNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,39 @@
+package com.must.courseevaluation.service.importer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 逐行读取表格文件（CSV 或 XLSX），不把整个文件读入内存
+ */
+public interface TabularReader extends Closeable {
+
+    /**
+     * 读取下一行
+     * @return 单元格文本（空单元格为空字符串），文件结束时返回null
+     */
+    List<String> nextRow() throws IOException;
+
+    /**
+     * 最近一次 nextRow 返回的行在文件中的行号（从1开始），用于错误报告
+     */
+    int getRowNumber();
+
+    /**
+     * 按文件扩展名选择读取器
+     * @throws IllegalArgumentException 不支持的文件类型
+     */
+    static TabularReader open(InputStream in, String filename) throws IOException {
+        String name = filename != null ? filename.toLowerCase(Locale.ROOT) : "";
+        if (name.endsWith(".csv")) {
+            return new CsvTabularReader(in);
+        }
+        if (name.endsWith(".xlsx")) {
+            return XlsxTabularReader.open(in);
+        }
+        throw new IllegalArgumentException("不支持的文件类型，仅支持 .csv 和 .xlsx: " + filename);
+    }
+}
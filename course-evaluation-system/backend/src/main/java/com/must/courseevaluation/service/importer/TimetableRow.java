@@ -0,0 +1,27 @@
+package com.must.courseevaluation.service.importer;
+
+import com.must.courseevaluation.model.Course;
+
+/**
+ * 课表导入文件中校验通过的一行
+ * 每行描述一门课程及其一个上课时间；同一门课程有多个上课时间时分多行，课程信息以最后一行为准。
+ * 星期和时间段都为null表示该行只导入课程信息。
+ * 学分、类型、教师和描述为null表示文件中没有该列或单元格为空，导入时不覆盖已有课程的对应字段。
+ */
+public record TimetableRow(
+        int rowNumber,
+        String courseCode,
+        String courseName,
+        Double credits,
+        Course.CourseType type,
+        String facultyName,
+        String teacherName,
+        String description,
+        Integer dayOfWeek,
+        Integer timePeriod,
+        String location) {
+
+    public boolean hasSchedule() {
+        return dayOfWeek != null && timePeriod != null;
+    }
+}
@@ -0,0 +1,261 @@
+package com.must.courseevaluation.service.importer;
+
+import com.must.courseevaluation.model.Course;
+import com.must.courseevaluation.model.CourseSchedule;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * 课表导入行解析
+ * 根据表头定位各列（支持中英文列名，顺序不限），把单元格文本转换为 TimetableRow 并校验；
+ * 一行的所有问题一次收集，校验失败的行不写入。
+ */
+public class TimetableRowParser {
+
+    /**
+     * 导入列及其可用的表头名称
+     */
+    public enum Column {
+        COURSE_CODE(true, "course_code", "code", "课程代码"),
+        COURSE_NAME(true, "course_name", "name", "课程名称"),
+        FACULTY(true, "faculty", "学院", "院系"),
+        CREDITS(false, "credits", "学分"),
+        TYPE(false, "type", "课程类型"),
+        TEACHER(false, "teacher", "教师", "任课教师"),
+        DESCRIPTION(false, "description", "课程描述"),
+        DAY_OF_WEEK(false, "day_of_week", "星期"),
+        TIME_PERIOD(false, "time_period", "时间段"),
+        LOCATION(false, "location", "上课地点", "地点");
+
+        private final boolean required;
+        private final List<String> headers;
+
+        Column(boolean required, String... headers) {
+            this.required = required;
+            this.headers = List.of(headers);
+        }
+
+        /**
+         * 标准列名，用于错误报告
+         */
+        public String getHeader() {
+            return headers.get(0);
+        }
+    }
+
+    /**
+     * 单元格级错误
+     */
+    public record FieldError(Column column, String message) {
+    }
+
+    /**
+     * 解析结果：row 为null时 errors 非空
+     */
+    public record Result(TimetableRow row, List<FieldError> errors) {
+    }
+
+    // 与 CourseDto 的校验规则和数据库列长度一致
+    private static final Pattern CODE_PATTERN = Pattern.compile("^[A-Za-z0-9-]+$");
+    private static final int CODE_MAX_LENGTH = 20;
+    private static final int NAME_MAX_LENGTH = 100;
+    private static final int DESCRIPTION_MAX_LENGTH = 1000;
+    private static final int LOCATION_MAX_LENGTH = 100;
+
+    private static final Map<String, Course.CourseType> TYPE_NAMES = Map.of(
+            "compulsory", Course.CourseType.COMPULSORY,
+            "必修", Course.CourseType.COMPULSORY,
+            "必修课", Course.CourseType.COMPULSORY,
+            "elective", Course.CourseType.ELECTIVE,
+            "选修", Course.CourseType.ELECTIVE,
+            "选修课", Course.CourseType.ELECTIVE);
+
+    private final Map<Column, Integer> columnIndexes;
+
+    private TimetableRowParser(Map<Column, Integer> columnIndexes) {
+        this.columnIndexes = columnIndexes;
+    }
+
+    /**
+     * 由表头行构造
+     * @throws IllegalArgumentException 缺少必需列或列名重复
+     */
+    public static TimetableRowParser fromHeader(List<String> header) {
+        Map<String, Column> byHeader = new HashMap<>();
+        for (Column column : Column.values()) {
+            for (String name : column.headers) {
+                byHeader.put(name, column);
+            }
+        }
+
+        Map<Column, Integer> indexes = new EnumMap<>(Column.class);
+        for (int i = 0; i < header.size(); i++) {
+            Column column = byHeader.get(normalizeHeader(header.get(i)));
+            if (column != null && indexes.putIfAbsent(column, i) != null) {
+                throw new IllegalArgumentException("表头中列重复: " + header.get(i));
+            }
+        }
+
+        List<String> missing = new ArrayList<>();
+        for (Column column : Column.values()) {
+            if (column.required && !indexes.containsKey(column)) {
+                missing.add(column.getHeader());
+            }
+        }
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("表头缺少必需列: " + String.join(", ", missing));
+        }
+        return new TimetableRowParser(indexes);
+    }
+
+    /**
+     * 整行都是空单元格
+     */
+    public static boolean isBlank(List<String> cells) {
+        for (String cell : cells) {
+            if (cell != null && !cell.isBlank()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public Result parse(int rowNumber, List<String> cells) {
+        List<FieldError> errors = new ArrayList<>();
+
+        String code = cell(cells, Column.COURSE_CODE);
+        if (code == null) {
+            errors.add(new FieldError(Column.COURSE_CODE, "课程代码不能为空"));
+        } else if (code.length() > CODE_MAX_LENGTH || !CODE_PATTERN.matcher(code).matches()) {
+            errors.add(new FieldError(Column.COURSE_CODE, "课程代码只能包含字母、数字和连字符，且不超过" + CODE_MAX_LENGTH + "个字符"));
+        }
+
+        String name = cell(cells, Column.COURSE_NAME);
+        if (name == null) {
+            errors.add(new FieldError(Column.COURSE_NAME, "课程名称不能为空"));
+        } else if (name.length() > NAME_MAX_LENGTH) {
+            errors.add(new FieldError(Column.COURSE_NAME, "课程名称不能超过" + NAME_MAX_LENGTH + "个字符"));
+        }
+
+        String faculty = cell(cells, Column.FACULTY);
+        if (faculty == null) {
+            errors.add(new FieldError(Column.FACULTY, "学院不能为空"));
+        }
+
+        // 学分、类型和教师未填写时为null：新课程使用默认值，已有课程保留原值
+        Double credits = null;
+        String creditsText = cell(cells, Column.CREDITS);
+        if (creditsText != null) {
+            try {
+                credits = Double.parseDouble(creditsText);
+                if (credits < 0 || credits.isNaN() || credits.isInfinite()) {
+                    errors.add(new FieldError(Column.CREDITS, "学分必须是非负数"));
+                }
+            } catch (NumberFormatException e) {
+                errors.add(new FieldError(Column.CREDITS, "学分不是有效数字: " + creditsText));
+            }
+        }
+
+        Course.CourseType type = null;
+        String typeText = cell(cells, Column.TYPE);
+        if (typeText != null) {
+            type = TYPE_NAMES.get(typeText.toLowerCase(Locale.ROOT));
+            if (type == null) {
+                errors.add(new FieldError(Column.TYPE, "课程类型无效: " + typeText + "（应为必修或选修）"));
+            }
+        }
+
+        String teacher = cell(cells, Column.TEACHER);
+        if (teacher != null && teacher.length() > NAME_MAX_LENGTH) {
+            errors.add(new FieldError(Column.TEACHER, "教师姓名不能超过" + NAME_MAX_LENGTH + "个字符"));
+        }
+
+        String description = cell(cells, Column.DESCRIPTION);
+        if (description != null && description.length() > DESCRIPTION_MAX_LENGTH) {
+            errors.add(new FieldError(Column.DESCRIPTION, "课程描述不能超过" + DESCRIPTION_MAX_LENGTH + "个字符"));
+        }
+
+        String dayText = cell(cells, Column.DAY_OF_WEEK);
+        String periodText = cell(cells, Column.TIME_PERIOD);
+        Integer dayOfWeek = parseDayOfWeek(dayText, errors);
+        Integer timePeriod = parseTimePeriod(periodText, errors);
+        if ((dayText == null) != (periodText == null)) {
+            errors.add(new FieldError(dayText == null ? Column.DAY_OF_WEEK : Column.TIME_PERIOD,
+                    "星期和时间段需要同时填写"));
+        }
+
+        String location = cell(cells, Column.LOCATION);
+        if (location != null && location.length() > LOCATION_MAX_LENGTH) {
+            errors.add(new FieldError(Column.LOCATION, "上课地点不能超过" + LOCATION_MAX_LENGTH + "个字符"));
+        }
+
+        if (!errors.isEmpty()) {
+            return new Result(null, errors);
+        }
+        return new Result(new TimetableRow(rowNumber, code, name, credits, type, faculty, teacher, description,
+                dayOfWeek, timePeriod, location), List.of());
+    }
+
+    private static Integer parseDayOfWeek(String text, List<FieldError> errors) {
+        if (text == null) {
+            return null;
+        }
+        for (CourseSchedule.DayOfWeek day : CourseSchedule.DayOfWeek.values()) {
+            // 周一 / 星期一
+            String suffix = day.getChineseName().substring(1);
+            if (text.equals(day.getChineseName()) || text.equals("星期" + suffix)) {
+                return day.getValue();
+            }
+        }
+        Integer value = parseInteger(text);
+        if (value == null || value < 1 || value > 7) {
+            errors.add(new FieldError(Column.DAY_OF_WEEK, "星期无效: " + text + "（应为1-7或周一至周日）"));
+            return null;
+        }
+        return value;
+    }
+
+    private static Integer parseTimePeriod(String text, List<FieldError> errors) {
+        if (text == null) {
+            return null;
+        }
+        Integer value = parseInteger(text);
+        if (value == null || value < 1 || value > 4) {
+            errors.add(new FieldError(Column.TIME_PERIOD, "时间段无效: " + text + "（应为1-4）"));
+            return null;
+        }
+        return value;
+    }
+
+    /**
+     * 整数解析，兼容表格软件把整数存成 "3.0" 的情况
+     */
+    private static Integer parseInteger(String text) {
+        try {
+            double value = Double.parseDouble(text);
+            return value == Math.rint(value) ? (int) value : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 去掉首尾空白后的单元格文本，列不存在或为空时返回null
+     */
+    private String cell(List<String> cells, Column column) {
+        Integer index = columnIndexes.get(column);
+        if (index == null || index >= cells.size() || cells.get(index) == null) {
+            return null;
+        }
+        String value = cells.get(index).strip();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static String normalizeHeader(String header) {
+        if (header == null) {
+            return "";
+        }
+        return header.replace("\uFEFF", "").strip().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,262 @@
+package com.must.courseevaluation.service.importer;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * XLSX 逐行读取（第一个工作表）
+ *
+ * XLSX 是 ZIP 包内的 XML：上传内容先落到临时文件以便随机访问 ZIP 条目，
+ * 共享字符串表整体加载（已去重，通常远小于工作表），工作表用 StAX 按行流式解析。
+ * 只读取单元格的文本和数值，不计算公式（使用缓存的计算结果）。
+ */
+public class XlsxTabularReader implements TabularReader {
+
+    private static final String SHARED_STRINGS = "xl/sharedStrings.xml";
+    private static final String FIRST_SHEET = "xl/worksheets/sheet1.xml";
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = createInputFactory();
+
+    private final Path tempFile;
+    private final ZipFile zipFile;
+    private final InputStream sheetStream;
+    private final XMLStreamReader sheet;
+    private final List<String> sharedStrings;
+    private int rowNumber;
+    private int lastRowNumber;
+
+    private XlsxTabularReader(Path tempFile) throws IOException {
+        this.tempFile = tempFile;
+        this.zipFile = new ZipFile(tempFile.toFile());
+        try {
+            this.sharedStrings = readSharedStrings(zipFile);
+            ZipEntry sheetEntry = findFirstSheet(zipFile);
+            this.sheetStream = zipFile.getInputStream(sheetEntry);
+            this.sheet = XML_INPUT_FACTORY.createXMLStreamReader(sheetStream);
+        } catch (XMLStreamException e) {
+            zipFile.close();
+            throw new IOException("XLSX 文件格式错误: " + e.getMessage(), e);
+        } catch (IOException | RuntimeException e) {
+            zipFile.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 把上传内容写入临时文件后打开，关闭读取器时删除临时文件
+     */
+    public static XlsxTabularReader open(InputStream in) throws IOException {
+        Path tempFile = Files.createTempFile("timetable-import-", ".xlsx");
+        try {
+            Files.copy(in, tempFile, StandardCopyOption.REPLACE_EXISTING);
+            return new XlsxTabularReader(tempFile);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<String> nextRow() throws IOException {
+        try {
+            while (sheet.hasNext()) {
+                if (sheet.next() == XMLStreamConstants.START_ELEMENT && "row".equals(sheet.getLocalName())) {
+                    String r = sheet.getAttributeValue(null, "r");
+                    rowNumber = r != null ? Integer.parseInt(r) : lastRowNumber + 1;
+                    lastRowNumber = rowNumber;
+                    return readRow();
+                }
+            }
+            return null;
+        } catch (XMLStreamException | NumberFormatException e) {
+            throw new IOException("XLSX 工作表解析失败（第" + (lastRowNumber + 1) + "行附近）: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public int getRowNumber() {
+        return rowNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            sheet.close();
+        } catch (XMLStreamException e) {
+            // 关闭失败不影响后续清理
+        }
+        try {
+            sheetStream.close();
+            zipFile.close();
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * 读取当前 row 元素内的单元格，缺省的单元格（稀疏存储）补为空字符串
+     */
+    private List<String> readRow() throws XMLStreamException {
+        List<String> cells = new ArrayList<>();
+        while (sheet.hasNext()) {
+            int event = sheet.next();
+            if (event == XMLStreamConstants.END_ELEMENT && "row".equals(sheet.getLocalName())) {
+                return cells;
+            }
+            if (event == XMLStreamConstants.START_ELEMENT && "c".equals(sheet.getLocalName())) {
+                String reference = sheet.getAttributeValue(null, "r");
+                int column = reference != null ? columnIndex(reference) : cells.size();
+                String type = sheet.getAttributeValue(null, "t");
+                String value = readCell(type);
+                while (cells.size() < column) {
+                    cells.add("");
+                }
+                cells.add(value);
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * 读取当前 c 元素的值：共享字符串按下标查表，行内字符串取 is/t，其他类型取 v 的原文
+     */
+    private String readCell(String type) throws XMLStreamException {
+        StringBuilder text = new StringBuilder();
+        String value = null;
+        int depth = 1;
+        while (depth > 0 && sheet.hasNext()) {
+            int event = sheet.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+                String name = sheet.getLocalName();
+                if ("v".equals(name)) {
+                    value = sheet.getElementText();
+                    depth--;
+                } else if ("t".equals(name)) {
+                    text.append(sheet.getElementText());
+                    depth--;
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+
+        if ("inlineStr".equals(type)) {
+            return text.toString();
+        }
+        if (value == null) {
+            return "";
+        }
+        if ("s".equals(type)) {
+            int index = Integer.parseInt(value.trim());
+            return index >= 0 && index < sharedStrings.size() ? sharedStrings.get(index) : "";
+        }
+        if ("b".equals(type)) {
+            return "1".equals(value) ? "TRUE" : "FALSE";
+        }
+        return value;
+    }
+
+    /**
+     * 单元格引用（如 "AB12"）的列下标，从0开始
+     */
+    static int columnIndex(String reference) {
+        int column = 0;
+        for (int i = 0; i < reference.length(); i++) {
+            char ch = reference.charAt(i);
+            if (ch < 'A' || ch > 'Z') {
+                break;
+            }
+            column = column * 26 + (ch - 'A' + 1);
+        }
+        return column - 1;
+    }
+
+    /**
+     * 读取共享字符串表：每个 si 中所有 t 的文本拼接（跳过注音 rPh）
+     */
+    private static List<String> readSharedStrings(ZipFile zipFile) throws IOException, XMLStreamException {
+        List<String> strings = new ArrayList<>();
+        ZipEntry entry = zipFile.getEntry(SHARED_STRINGS);
+        if (entry == null) {
+            return strings;
+        }
+        try (InputStream in = zipFile.getInputStream(entry)) {
+            XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(in);
+            try {
+                StringBuilder current = null;
+                int phoneticDepth = 0;
+                while (reader.hasNext()) {
+                    int event = reader.next();
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        String name = reader.getLocalName();
+                        if ("si".equals(name)) {
+                            current = new StringBuilder();
+                        } else if ("rPh".equals(name)) {
+                            phoneticDepth++;
+                        } else if ("t".equals(name) && current != null) {
+                            String text = reader.getElementText();
+                            if (phoneticDepth == 0) {
+                                current.append(text);
+                            }
+                        }
+                    } else if (event == XMLStreamConstants.END_ELEMENT) {
+                        String name = reader.getLocalName();
+                        if ("si".equals(name) && current != null) {
+                            strings.add(current.toString());
+                            current = null;
+                        } else if ("rPh".equals(name)) {
+                            phoneticDepth--;
+                        }
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        }
+        return strings;
+    }
+
+    private static ZipEntry findFirstSheet(ZipFile zipFile) throws IOException {
+        ZipEntry entry = zipFile.getEntry(FIRST_SHEET);
+        if (entry != null) {
+            return entry;
+        }
+        ZipEntry first = null;
+        Enumeration<? extends ZipEntry> entries = zipFile.entries();
+        while (entries.hasMoreElements()) {
+            ZipEntry candidate = entries.nextElement();
+            String name = candidate.getName();
+            if (name.startsWith("xl/worksheets/") && name.endsWith(".xml")
+                    && (first == null || name.compareTo(first.getName()) < 0)) {
+                first = candidate;
+            }
+        }
+        if (first == null) {
+            throw new IOException("XLSX 文件中没有工作表");
+        }
+        return first;
+    }
+
+    /**
+     * 禁用 DTD 和外部实体，防止 XXE
+     */
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+}
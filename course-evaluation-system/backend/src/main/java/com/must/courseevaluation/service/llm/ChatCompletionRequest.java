@@ -0,0 +1,49 @@
+package com.must.courseevaluation.service.llm;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Duration;
+
+/**
+ * 大模型对话补全请求
+ */
+@Value
+@Builder
+public class ChatCompletionRequest {
+
+    /**
+     * 调用方名称（如 IntentClassifierAgent），用于按调用方统计指标
+     */
+    String caller;
+
+    String systemPrompt;
+
+    String userPrompt;
+
+    @Builder.Default
+    double temperature = 0.7;
+
+    @Builder.Default
+    int maxTokens = 500;
+
+    /**
+     * 是否要求模型返回 JSON 对象
+     */
+    boolean jsonResponse;
+
+    /**
+     * 本次调用的截止时间，为null时使用全局默认值
+     */
+    Duration timeout;
+
+    /**
+     * 是否允许使用缓存的回复（相同调用方、参数和规范化提示词）
+     */
+    boolean cacheable;
+
+    /**
+     * 回复所依赖数据的版本（如课程目录快照版本），版本变化后缓存自然失效
+     */
+    long cacheVersion;
+}
@@ -0,0 +1,354 @@
+package com.must.courseevaluation.service.llm;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * DeepSeek 大模型客户端（所有 Agent 和服务共用）
+ * 基于 JDK HttpClient：优先 HTTP/2，连接复用避免每次调用重新握手；
+ * 每次调用有整体截止时间，上游响应慢时不会无限阻塞请求线程；支持流式（stream=true）输出。
+ * 按调用方记录耗时与 token 用量指标（llm.client.requests / llm.client.tokens）。
+ */
+@Component
+public class DeepSeekClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeepSeekClient.class);
+
+    private static final String PLACEHOLDER_KEY = "sk-your-api-key-here";
+
+    private final String apiKey;
+    private final String apiUrl;
+    private final String model;
+    private final Duration defaultTimeout;
+    private final MeterRegistry meterRegistry;
+    private final LlmResponseCache responseCache;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // 流式调用的截止时间监控：到期时关闭响应流，让阻塞中的读取返回
+    private final ScheduledExecutorService streamWatchdog = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("llm-stream-watchdog").daemon(true).factory());
+
+    public DeepSeekClient(@Value("${deepseek.api.key:}") String apiKey,
+                          @Value("${deepseek.api.url:https://api.deepseek.com/v1}") String apiUrl,
+                          @Value("${deepseek.model:deepseek-chat}") String model,
+                          @Value("${deepseek.connect-timeout-ms:5000}") long connectTimeoutMs,
+                          @Value("${deepseek.request-timeout-ms:30000}") long requestTimeoutMs,
+                          MeterRegistry meterRegistry,
+                          LlmResponseCache responseCache) {
+        this.apiKey = apiKey;
+        this.apiUrl = apiUrl;
+        this.model = model;
+        this.defaultTimeout = Duration.ofMillis(requestTimeoutMs);
+        this.meterRegistry = meterRegistry;
+        this.responseCache = responseCache;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    /**
+     * 是否配置了可用的 API Key
+     */
+    public boolean isConfigured() {
+        return apiKey != null && !apiKey.isEmpty() && !apiKey.equals(PLACEHOLDER_KEY);
+    }
+
+    /**
+     * 调用对话补全接口，返回模型回复内容
+     * @throws LlmClientException 超时、HTTP错误或响应格式异常
+     */
+    public String chatCompletion(ChatCompletionRequest request) {
+        Optional<String> cached = responseCache.get(request);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+
+        String caller = callerOf(request);
+        Duration timeout = timeoutOf(request);
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            HttpResponse<String> response = await(httpClient.sendAsync(
+                    buildHttpRequest(buildRequestBody(request), timeout),
+                    HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8)), timeout);
+
+            if (response.statusCode() != 200) {
+                throw new LlmClientException("DeepSeek API返回错误: " + response.statusCode());
+            }
+
+            JsonNode root = objectMapper.readTree(response.body());
+            JsonNode content = root.path("choices").path(0).path("message").path("content");
+            if (content.isMissingNode() || content.isNull()) {
+                throw new LlmClientException("DeepSeek API 响应缺少回复内容");
+            }
+
+            recordUsage(caller, root.path("usage"));
+            outcome = "success";
+            responseCache.put(request, content.asText());
+            return content.asText();
+
+        } catch (LlmClientException e) {
+            outcome = e.isTimeout() ? "timeout" : "error";
+            throw e;
+        } catch (JsonProcessingException e) {
+            throw new LlmClientException("DeepSeek API 响应解析失败", e);
+        } finally {
+            recordRequest(sample, caller, outcome);
+        }
+    }
+
+    /**
+     * 以流式模式（stream=true）调用对话补全接口，不可取消
+     * @see #streamChatCompletion(ChatCompletionRequest, Consumer, StreamCancellation)
+     */
+    public String streamChatCompletion(ChatCompletionRequest request, Consumer<String> onDelta) {
+        return streamChatCompletion(request, onDelta, new StreamCancellation());
+    }
+
+    /**
+     * 以流式模式（stream=true）调用对话补全接口
+     * 每收到一段增量内容即回调 onDelta，返回完整回复内容。
+     * 截止时间覆盖整个流：到期时由定时任务关闭响应流，上游中途停止发送时阻塞的读取也会立即返回；
+     * 取消句柄被触发时同样关闭响应流。回调抛出的异常会中止读取并关闭上游连接。
+     * 命中缓存时一次性回调完整内容。
+     * @throws LlmClientException 超时、取消、HTTP错误或响应格式异常
+     */
+    public String streamChatCompletion(ChatCompletionRequest request, Consumer<String> onDelta,
+                                       StreamCancellation cancellation) {
+        Optional<String> cached = responseCache.get(request);
+        if (cached.isPresent()) {
+            onDelta.accept(cached.get());
+            return cached.get();
+        }
+
+        String caller = callerOf(request);
+        Duration timeout = timeoutOf(request);
+        long deadline = System.nanoTime() + timeout.toNanos();
+
+        Map<String, Object> requestBody = buildRequestBody(request);
+        requestBody.put("stream", true);
+        requestBody.put("stream_options", Map.of("include_usage", true));
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            CompletableFuture<HttpResponse<InputStream>> future = httpClient.sendAsync(
+                    buildHttpRequest(requestBody, timeout), HttpResponse.BodyHandlers.ofInputStream());
+            cancellation.onCancel(() -> future.cancel(true));
+            HttpResponse<InputStream> response = await(future, timeout);
+
+            InputStream body = response.body();
+            AtomicBoolean timedOut = new AtomicBoolean();
+            ScheduledFuture<?> watchdog = streamWatchdog.schedule(() -> {
+                timedOut.set(true);
+                closeQuietly(body);
+            }, Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            cancellation.onCancel(() -> closeQuietly(body));
+
+            StringBuilder content = new StringBuilder();
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+                if (response.statusCode() != 200) {
+                    throw new LlmClientException("DeepSeek API返回错误: " + response.statusCode());
+                }
+
+                boolean done = false;
+                String line;
+                while (!done && (line = reader.readLine()) != null) {
+                    // SSE 格式：每个数据块为 "data: {...}"，以 "data: [DONE]" 结束
+                    if (!line.startsWith("data:")) {
+                        continue;
+                    }
+                    String data = line.substring(5).trim();
+                    if ("[DONE]".equals(data)) {
+                        done = true;
+                        continue;
+                    }
+
+                    JsonNode chunk = objectMapper.readTree(data);
+                    String delta = chunk.path("choices").path(0).path("delta").path("content").asText("");
+                    if (!delta.isEmpty()) {
+                        content.append(delta);
+                        onDelta.accept(delta);
+                    }
+                    recordUsage(caller, chunk.path("usage"));
+                }
+                // 响应流被关闭时读取可能直接返回结束，而不是抛出异常
+                if (!done) {
+                    checkStreamAborted(timedOut, cancellation, timeout, null);
+                }
+            } catch (JsonProcessingException e) {
+                // 数据块格式错误，由外层统一转换
+                throw e;
+            } catch (IOException e) {
+                checkStreamAborted(timedOut, cancellation, timeout, e);
+                throw new LlmClientException("DeepSeek API 流式读取失败: " + e.getMessage(), e);
+            } finally {
+                watchdog.cancel(false);
+            }
+
+            outcome = "success";
+            responseCache.put(request, content.toString());
+            return content.toString();
+
+        } catch (LlmClientException e) {
+            outcome = e.isTimeout() ? "timeout" : "error";
+            throw e;
+        } catch (JsonProcessingException e) {
+            throw new LlmClientException("DeepSeek API 响应解析失败", e);
+        } finally {
+            recordRequest(sample, caller, outcome);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        streamWatchdog.shutdownNow();
+    }
+
+    private void checkStreamAborted(AtomicBoolean timedOut, StreamCancellation cancellation, Duration timeout,
+                                    IOException cause) {
+        if (timedOut.get()) {
+            throw LlmClientException.timeout("DeepSeek API 流式调用超时（" + timeout.toMillis() + "ms）", cause);
+        }
+        if (cancellation.isCancelled()) {
+            throw new LlmClientException("DeepSeek API 流式调用已取消", cause);
+        }
+    }
+
+    private static void closeQuietly(InputStream in) {
+        try {
+            in.close();
+        } catch (IOException e) {
+            // 关闭只用于中止读取，失败时读取方会在截止检查中报告
+        }
+    }
+
+    private String callerOf(ChatCompletionRequest request) {
+        return request.getCaller() != null ? request.getCaller() : "unknown";
+    }
+
+    private Duration timeoutOf(ChatCompletionRequest request) {
+        return request.getTimeout() != null ? request.getTimeout() : defaultTimeout;
+    }
+
+    private HttpRequest buildHttpRequest(Map<String, Object> requestBody, Duration timeout) {
+        try {
+            return HttpRequest.newBuilder(URI.create(apiUrl + "/chat/completions"))
+                    .timeout(timeout)
+                    .header("Content-Type", "application/json")
+                    .header("Authorization", "Bearer " + apiKey)
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            objectMapper.writeValueAsString(requestBody), StandardCharsets.UTF_8))
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new LlmClientException("DeepSeek API 请求序列化失败", e);
+        }
+    }
+
+    /**
+     * 在截止时间内等待响应（流式模式下为收到响应头）
+     */
+    private <T> HttpResponse<T> await(CompletableFuture<HttpResponse<T>> future, Duration timeout) {
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw LlmClientException.timeout("DeepSeek API 调用超时（" + timeout.toMillis() + "ms）", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof HttpTimeoutException) {
+                throw LlmClientException.timeout("DeepSeek API 调用超时: " + cause.getMessage(), cause);
+            }
+            throw new LlmClientException("DeepSeek API 调用失败: " + cause.getMessage(), cause);
+        } catch (CancellationException e) {
+            throw new LlmClientException("DeepSeek API 调用已取消", e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new LlmClientException("DeepSeek API 调用被中断", e);
+        }
+    }
+
+    private void recordRequest(Timer.Sample sample, String caller, String outcome) {
+        long elapsedNanos = sample.stop(Timer.builder("llm.client.requests")
+                .description("DeepSeek API 调用耗时")
+                .tag("caller", caller)
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+        logger.debug("[{}] DeepSeek API 调用完成 - 结果: {}, 耗时: {}ms",
+                caller, outcome, TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+    }
+
+    private Map<String, Object> buildRequestBody(ChatCompletionRequest request) {
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("model", model);
+        requestBody.put("temperature", request.getTemperature());
+        requestBody.put("max_tokens", request.getMaxTokens());
+        if (request.isJsonResponse()) {
+            requestBody.put("response_format", Map.of("type", "json_object"));
+        }
+
+        List<Map<String, String>> messages = new ArrayList<>();
+        if (request.getSystemPrompt() != null) {
+            messages.add(Map.of("role", "system", "content", request.getSystemPrompt()));
+        }
+        messages.add(Map.of("role", "user", "content", request.getUserPrompt()));
+        requestBody.put("messages", messages);
+        return requestBody;
+    }
+
+    private void recordUsage(String caller, JsonNode usage) {
+        // 流式模式下只有最后一个数据块携带 usage
+        if (!usage.isObject()) {
+            return;
+        }
+        DistributionSummary.builder("llm.client.tokens")
+                .description("DeepSeek API token 用量")
+                .tag("caller", caller)
+                .tag("type", "prompt")
+                .register(meterRegistry)
+                .record(usage.path("prompt_tokens").asLong());
+        DistributionSummary.builder("llm.client.tokens")
+                .description("DeepSeek API token 用量")
+                .tag("caller", caller)
+                .tag("type", "completion")
+                .register(meterRegistry)
+                .record(usage.path("completion_tokens").asLong());
+    }
+}
@@ -0,0 +1,33 @@
+package com.must.courseevaluation.service.llm;
+
+/**
+ * 大模型调用失败（超时、HTTP错误或响应格式异常）
+ */
+public class LlmClientException extends RuntimeException {
+
+    private final boolean timeout;
+
+    public LlmClientException(String message) {
+        this(message, null, false);
+    }
+
+    public LlmClientException(String message, Throwable cause) {
+        this(message, cause, false);
+    }
+
+    private LlmClientException(String message, Throwable cause, boolean timeout) {
+        super(message, cause);
+        this.timeout = timeout;
+    }
+
+    /**
+     * 创建超时异常（超过调用截止时间）
+     */
+    public static LlmClientException timeout(String message, Throwable cause) {
+        return new LlmClientException(message, cause, true);
+    }
+
+    public boolean isTimeout() {
+        return timeout;
+    }
+}
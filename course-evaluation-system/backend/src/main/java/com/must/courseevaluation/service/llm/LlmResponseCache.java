@@ -0,0 +1,152 @@
+package com.must.courseevaluation.service.llm;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * 大模型回复缓存
+ * 键为（调用方, 数据版本, 生成参数, 规范化后的提示词）的摘要，
+ * 选课高峰期大量重复提问可直接命中缓存，降低延迟和 API 费用。
+ * 容量受限，按最近最少使用淘汰，条目超过有效期后失效。
+ * 命中情况记录在 llm.cache.requests 指标中（result=hit/miss）。
+ */
+@Component
+public class LlmResponseCache {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final MeterRegistry meterRegistry;
+
+    // 访问顺序的 LinkedHashMap 实现 LRU，所有访问都在 this 上同步
+    private final LinkedHashMap<String, CachedResponse> entries;
+
+    @Autowired
+    public LlmResponseCache(@Value("${deepseek.cache.max-entries:1000}") int maxEntries,
+                            @Value("${deepseek.cache.ttl-seconds:600}") long ttlSeconds,
+                            MeterRegistry meterRegistry) {
+        this(maxEntries, Duration.ofSeconds(ttlSeconds), meterRegistry);
+    }
+
+    public LlmResponseCache(int maxEntries, Duration ttl, MeterRegistry meterRegistry) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.meterRegistry = meterRegistry;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                return size() > LlmResponseCache.this.maxEntries;
+            }
+        };
+        Gauge.builder("llm.cache.size", this, LlmResponseCache::size)
+                .description("大模型回复缓存条目数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 查找缓存的回复，未命中或已过期时返回空
+     */
+    public Optional<String> get(ChatCompletionRequest request) {
+        if (!isEnabled(request)) {
+            return Optional.empty();
+        }
+
+        String key = keyOf(request);
+        String content = null;
+        synchronized (this) {
+            CachedResponse cached = entries.get(key);
+            if (cached != null) {
+                if (System.nanoTime() - cached.createdAt() > ttlNanos) {
+                    entries.remove(key);
+                } else {
+                    content = cached.content();
+                }
+            }
+        }
+
+        counter(request.getCaller(), content != null ? "hit" : "miss").increment();
+        return Optional.ofNullable(content);
+    }
+
+    /**
+     * 缓存一次成功调用的回复
+     */
+    public void put(ChatCompletionRequest request, String content) {
+        if (!isEnabled(request) || content == null || content.isEmpty()) {
+            return;
+        }
+
+        String key = keyOf(request);
+        synchronized (this) {
+            entries.put(key, new CachedResponse(content, System.nanoTime()));
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    private boolean isEnabled(ChatCompletionRequest request) {
+        return maxEntries > 0 && request.isCacheable();
+    }
+
+    private Counter counter(String caller, String result) {
+        return Counter.builder("llm.cache.requests")
+                .description("大模型回复缓存查询次数")
+                .tag("caller", caller != null ? caller : "unknown")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 提示词可能很长（包含课程列表），键只保存摘要
+     */
+    static String keyOf(ChatCompletionRequest request) {
+        String raw = request.getCaller() + '\u0000'
+                + request.getCacheVersion() + '\u0000'
+                + request.getTemperature() + '\u0000'
+                + request.getMaxTokens() + '\u0000'
+                + request.isJsonResponse() + '\u0000'
+                + normalize(request.getSystemPrompt()) + '\u0000'
+                + normalize(request.getUserPrompt());
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(raw.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
+
+    /**
+     * 规范化提示词：忽略首尾空白、连续空白和英文大小写差异
+     */
+    static String normalize(String prompt) {
+        if (prompt == null) {
+            return "";
+        }
+        return WHITESPACE.matcher(prompt.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    private record CachedResponse(String content, long createdAt) {
+    }
+}
@@ -0,0 +1,47 @@
+package com.must.courseevaluation.service.llm;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 流式调用的取消句柄
+ * 由发起方持有，在客户端断开或超时时调用 cancel()；正在进行的调用通过 onCancel 注册中止动作
+ * （如关闭上游响应流），阻塞中的读取会立即返回。
+ */
+public final class StreamCancellation {
+
+    private final List<Runnable> actions = new CopyOnWriteArrayList<>();
+    private volatile boolean cancelled;
+
+    /**
+     * 取消并执行已注册的中止动作，重复调用无效果
+     */
+    public void cancel() {
+        synchronized (this) {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+        }
+        for (Runnable action : actions) {
+            action.run();
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * 注册中止动作，已取消时立即执行
+     */
+    public void onCancel(Runnable action) {
+        synchronized (this) {
+            if (!cancelled) {
+                actions.add(action);
+                return;
+            }
+        }
+        action.run();
+    }
+}
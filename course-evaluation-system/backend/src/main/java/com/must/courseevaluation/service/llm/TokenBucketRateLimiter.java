@@ -0,0 +1,68 @@
+package com.must.courseevaluation.service.llm;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 令牌桶限流器
+ * 以固定速率补充令牌，桶容量决定允许的突发量；令牌不足时调用线程等待。
+ * 用于批量调用大模型（如课程总结刷新），避免超出 API 速率限制。
+ */
+public class TokenBucketRateLimiter {
+
+    private final long capacity;
+    private final double tokensPerNano;
+
+    private double tokens;
+    private long lastRefillNanos;
+
+    /**
+     * @param permitsPerMinute 每分钟补充的令牌数
+     * @param burst            桶容量（允许的突发调用数）
+     */
+    public TokenBucketRateLimiter(int permitsPerMinute, int burst) {
+        if (permitsPerMinute <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("限流速率和桶容量必须为正数");
+        }
+        this.capacity = burst;
+        this.tokensPerNano = permitsPerMinute / (double) Duration.ofMinutes(1).toNanos();
+        this.tokens = burst;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * 获取一个令牌，令牌不足时阻塞等待
+     */
+    public void acquire() throws InterruptedException {
+        while (true) {
+            long waitNanos;
+            synchronized (this) {
+                refill();
+                if (tokens >= 1) {
+                    tokens -= 1;
+                    return;
+                }
+                waitNanos = (long) Math.ceil((1 - tokens) / tokensPerNano);
+            }
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /**
+     * 尝试获取一个令牌，不等待
+     */
+    public synchronized boolean tryAcquire() {
+        refill();
+        if (tokens >= 1) {
+            tokens -= 1;
+            return true;
+        }
+        return false;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * tokensPerNano);
+        lastRefillNanos = now;
+    }
+}
@@ -0,0 +1,93 @@
+package com.must.courseevaluation.service.mail;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 预编译的邮件模板
+ * 模板文本在加载时切分为固定片段和 {{name}} 占位符，渲染时只做一次顺序拼接；
+ * 占位符的值会做 HTML 转义。
+ */
+public final class EmailTemplate {
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{\\{\\s*(\\w+)\\s*}}");
+
+    // 偶数下标为固定片段，奇数下标为占位符名称
+    private final List<String> parts;
+    private final int literalLength;
+
+    private EmailTemplate(List<String> parts) {
+        this.parts = parts;
+        int length = 0;
+        for (int i = 0; i < parts.size(); i += 2) {
+            length += parts.get(i).length();
+        }
+        this.literalLength = length;
+    }
+
+    public static EmailTemplate compile(String source) {
+        List<String> parts = new ArrayList<>();
+        Matcher matcher = PLACEHOLDER.matcher(source);
+        int last = 0;
+        while (matcher.find()) {
+            parts.add(source.substring(last, matcher.start()));
+            parts.add(matcher.group(1));
+            last = matcher.end();
+        }
+        parts.add(source.substring(last));
+        return new EmailTemplate(List.copyOf(parts));
+    }
+
+    /**
+     * 从类路径加载并编译模板
+     */
+    public static EmailTemplate fromClasspath(String path) {
+        try (InputStream in = EmailTemplate.class.getClassLoader().getResourceAsStream(path)) {
+            if (in == null) {
+                throw new IllegalStateException("邮件模板不存在: " + path);
+            }
+            return compile(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException("读取邮件模板失败: " + path, e);
+        }
+    }
+
+    /**
+     * 渲染模板，缺少的占位符渲染为空字符串
+     */
+    public String render(Map<String, ?> values) {
+        StringBuilder html = new StringBuilder(literalLength + 64);
+        for (int i = 0; i < parts.size(); i++) {
+            if (i % 2 == 0) {
+                html.append(parts.get(i));
+            } else {
+                Object value = values.get(parts.get(i));
+                if (value != null) {
+                    appendEscaped(html, value.toString());
+                }
+            }
+        }
+        return html.toString();
+    }
+
+    private static void appendEscaped(StringBuilder html, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '<' -> html.append("&lt;");
+                case '>' -> html.append("&gt;");
+                case '&' -> html.append("&amp;");
+                case '"' -> html.append("&quot;");
+                case '\'' -> html.append("&#39;");
+                default -> html.append(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.must.courseevaluation.service.mail;
+
+/**
+ * 待发送的HTML邮件
+ */
+public record OutboundMail(String to, String subject, String htmlContent) {
+}
@@ -0,0 +1,151 @@
+package com.must.courseevaluation.service.mail;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * 异步发信队列
+ *
+ * 邮件放入有界队列后由固定数量的工作线程发送，调用方不等待 SMTP 握手。
+ * 发送失败按指数退避重试（退避期间不占用工作线程），重试次数用完后记入死信列表。
+ * 队列已满时拒绝入队，由调用方决定如何提示用户。
+ */
+public class OutboundMailQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboundMailQueue.class);
+
+    // 死信列表只保留最近的若干条
+    private static final int MAX_DEAD_LETTERS = 100;
+
+    private final Consumer<OutboundMail> delivery;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+
+    private final ThreadPoolExecutor workers;
+    private final ScheduledExecutorService retryScheduler;
+    private final Deque<DeadLetter> deadLetters = new ArrayDeque<>();
+
+    /**
+     * @param delivery       实际发送邮件的操作，抛出异常视为发送失败
+     * @param capacity       等待发送的邮件数上限
+     * @param workerCount    工作线程数
+     * @param maxAttempts    最多尝试次数（含第一次）
+     * @param initialBackoff 第一次重试前的等待时间，之后每次翻倍
+     */
+    public OutboundMailQueue(Consumer<OutboundMail> delivery, int capacity, int workerCount,
+                             int maxAttempts, Duration initialBackoff) {
+        this.delivery = delivery;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoff = initialBackoff;
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacity),
+                Thread.ofPlatform().name("mail-sender-", 1).daemon(true).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("mail-retry").daemon(true).factory());
+    }
+
+    /**
+     * 邮件入队，立即返回
+     * @return false 如果队列已满或已关闭
+     */
+    public boolean enqueue(OutboundMail mail) {
+        return submit(mail, 1);
+    }
+
+    public int pendingCount() {
+        return workers.getQueue().size();
+    }
+
+    /**
+     * 最近的死信（最新的在前）
+     */
+    public List<Map<String, Object>> getDeadLetters() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        synchronized (deadLetters) {
+            for (DeadLetter deadLetter : deadLetters) {
+                Map<String, Object> entry = new HashMap<>();
+                entry.put("to", deadLetter.mail().to());
+                entry.put("subject", deadLetter.mail().subject());
+                entry.put("attempts", deadLetter.attempts());
+                entry.put("error", deadLetter.error());
+                entry.put("failedAt", deadLetter.failedAt());
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 停止接收新邮件，等待已入队的邮件发送完毕（最多 timeout），未到期的重试直接放弃
+     */
+    public void shutdown(Duration timeout) {
+        retryScheduler.shutdownNow();
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                logger.warn("邮件队列关闭超时，丢弃 {} 封未发送的邮件", workers.shutdownNow().size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            workers.shutdownNow();
+        }
+    }
+
+    private boolean submit(OutboundMail mail, int attempt) {
+        try {
+            workers.execute(() -> deliver(mail, attempt));
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    private void deliver(OutboundMail mail, int attempt) {
+        try {
+            delivery.accept(mail);
+        } catch (Exception e) {
+            if (attempt >= maxAttempts) {
+                deadLetter(mail, attempt, e.getMessage());
+                return;
+            }
+            long backoffMillis = initialBackoff.toMillis() << (attempt - 1);
+            logger.warn("邮件发送失败，{} 毫秒后第 {} 次重试 - 收件人: {}, 错误: {}",
+                    backoffMillis, attempt + 1, mail.to(), e.getMessage());
+            try {
+                retryScheduler.schedule(() -> {
+                    if (!submit(mail, attempt + 1)) {
+                        deadLetter(mail, attempt, "重试时发信队列已满");
+                    }
+                }, backoffMillis, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException rejected) {
+                deadLetter(mail, attempt, "发信队列已关闭");
+            }
+        }
+    }
+
+    private void deadLetter(OutboundMail mail, int attempts, String error) {
+        logger.error("邮件发送最终失败，已记入死信 - 收件人: {}, 主题: {}, 尝试次数: {}, 错误: {}",
+                mail.to(), mail.subject(), attempts, error);
+        synchronized (deadLetters) {
+            deadLetters.addFirst(new DeadLetter(mail, attempts, error, LocalDateTime.now()));
+            while (deadLetters.size() > MAX_DEAD_LETTERS) {
+                deadLetters.removeLast();
+            }
+        }
+    }
+
+    private record DeadLetter(OutboundMail mail, int attempts, String error, LocalDateTime failedAt) {
+    }
+}
@@ -0,0 +1,336 @@
+package com.must.courseevaluation.service.search;
+
+import com.must.courseevaluation.model.CourseSchedule;
+import com.must.courseevaluation.service.catalog.CourseCatalogSnapshot;
+import com.must.courseevaluation.service.catalog.CourseCatalogSnapshot.CourseEntry;
+import com.must.courseevaluation.service.timetable.WeeklyTimetable;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * 课程分面索引（不可变）
+ *
+ * 以快照中的课程下标为位置，每个学院、教师、类型、学分取值、上课时间槽和评分档位各有一个位图，
+ * 筛选即位图求交。每个维度的计数在"除本维度外的其他条件"的结果上统计，
+ * 选中某个学院后其他学院的计数仍然可见。快照变化时整体重建。
+ * 结果按列表顺序分页：已有AI总结的课程在前，其次按评价数降序，相同时保持快照顺序。
+ */
+public final class CourseFacetIndex {
+
+    public enum Dimension {
+        FACULTY,
+        TEACHER,
+        TYPE,
+        CREDITS,
+        DAY,
+        PERIOD,
+        RATING
+    }
+
+    public record FacetCount(String value, String label, int count, boolean selected) {
+    }
+
+    public record Result(List<Long> courseIds, int total, Map<Dimension, List<FacetCount>> facets) {
+    }
+
+    // 评分分面的档位：平均分不低于该值
+    private static final int[] RATING_THRESHOLDS = {4, 3, 2, 1};
+
+    private static final Dimension[] VALUE_DIMENSIONS = {
+            Dimension.FACULTY, Dimension.TEACHER, Dimension.TYPE, Dimension.CREDITS
+    };
+
+    private final long version;
+    private final int size;
+    private final Long[] courseIds;
+    private final Map<Long, Integer> positions;
+    private final double[] ratings;
+
+    // 按列表顺序排列的课程位置
+    private final int[] listOrder;
+    private final BitSet all;
+
+    // 取值维度：每个位置的取值键（没有该属性为null）、每个取值的位图和显示名称
+    private final Map<Dimension, String[]> valueKeys = new EnumMap<>(Dimension.class);
+    private final Map<Dimension, Map<String, BitSet>> valuePostings = new EnumMap<>(Dimension.class);
+    private final Map<Dimension, Map<String, String>> valueLabels = new EnumMap<>(Dimension.class);
+
+    // 每个(星期, 时间段)时间槽的位图，下标与 WeeklyTimetable 的位序一致
+    private final BitSet[] slotPostings = new BitSet[WeeklyTimetable.DAYS * WeeklyTimetable.PERIODS];
+
+    private final Map<Integer, BitSet> ratingPostings = new HashMap<>();
+
+    public CourseFacetIndex(CourseCatalogSnapshot snapshot) {
+        List<CourseEntry> courses = snapshot.getCourses();
+        this.version = snapshot.getVersion();
+        this.size = courses.size();
+        this.courseIds = new Long[size];
+        this.positions = new HashMap<>(size * 2);
+        this.ratings = new double[size];
+        this.all = new BitSet(size);
+        all.set(0, size);
+
+        for (Dimension dimension : VALUE_DIMENSIONS) {
+            valueKeys.put(dimension, new String[size]);
+            valuePostings.put(dimension, new HashMap<>());
+            valueLabels.put(dimension, new HashMap<>());
+        }
+        for (int slot = 0; slot < slotPostings.length; slot++) {
+            slotPostings[slot] = new BitSet(size);
+        }
+        for (int threshold : RATING_THRESHOLDS) {
+            ratingPostings.put(threshold, new BitSet(size));
+        }
+
+        for (int position = 0; position < size; position++) {
+            CourseEntry course = courses.get(position);
+            courseIds[position] = course.getId();
+            positions.put(course.getId(), position);
+
+            addValue(Dimension.FACULTY, position, key(course.getFacultyId()), course.getFacultyName());
+            addValue(Dimension.TEACHER, position, key(course.getTeacherId()), course.getTeacherName());
+            addValue(Dimension.TYPE, position,
+                    course.getType() != null ? course.getType().name() : null,
+                    course.getType() != null ? course.getType().getChineseName() : null);
+            addValue(Dimension.CREDITS, position, key(course.getCredits()), key(course.getCredits()));
+
+            int mask = course.getScheduleMask();
+            while (mask != 0) {
+                slotPostings[Integer.numberOfTrailingZeros(mask)].set(position);
+                mask &= mask - 1;
+            }
+
+            Double rating = course.getAverageRating();
+            ratings[position] = rating != null ? rating : Double.NaN;
+            for (int threshold : RATING_THRESHOLDS) {
+                if (rating != null && rating >= threshold) {
+                    ratingPostings.get(threshold).set(position);
+                }
+            }
+        }
+
+        Comparator<Integer> byListOrder = Comparator
+                .comparing((Integer position) -> !courses.get(position).isHasSummary())
+                .thenComparing(position -> -courses.get(position).getReviewCount())
+                .thenComparingInt(position -> position);
+        this.listOrder = IntStream.range(0, size).boxed()
+                .sorted(byListOrder)
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 按条件筛选课程，返回当前页的课程ID（列表顺序）、总数和所有维度的计数
+     */
+    public Result search(CourseFacetQuery query) {
+        Map<Dimension, Set<String>> selected = new EnumMap<>(Dimension.class);
+        selected.put(Dimension.FACULTY, keys(query.getFacultyIds()));
+        selected.put(Dimension.TEACHER, keys(query.getTeacherIds()));
+        selected.put(Dimension.TYPE, keys(query.getTypes().stream().map(Enum::name).toList()));
+        selected.put(Dimension.CREDITS, keys(query.getCredits()));
+
+        // 上课时间条件记在 DAY 下，统计星期和时间段时都要排除它
+        Map<Dimension, BitSet> filters = new EnumMap<>(Dimension.class);
+        for (Dimension dimension : VALUE_DIMENSIONS) {
+            if (!selected.get(dimension).isEmpty()) {
+                filters.put(dimension, valueFilter(dimension, selected.get(dimension)));
+            }
+        }
+        Set<Integer> days = query.getDaysOfWeek();
+        Set<Integer> periods = query.getTimePeriods();
+        if (!days.isEmpty() || !periods.isEmpty()) {
+            filters.put(Dimension.DAY, scheduleFilter(days, periods));
+        }
+        if (query.getMinRating() != null) {
+            filters.put(Dimension.RATING, ratingFilter(query.getMinRating()));
+        }
+
+        BitSet scope = query.getCourseIds() != null ? candidateFilter(query.getCourseIds()) : all;
+        BitSet matched = intersect(scope, filters, null);
+        List<Long> page = new ArrayList<>();
+        // 按 long 计算，页码很大时不溢出为负数
+        long skip = (long) query.getPage() * query.getSize();
+        for (int i = 0; i < size && page.size() < query.getSize(); i++) {
+            int position = listOrder[i];
+            if (!matched.get(position)) {
+                continue;
+            }
+            if (skip > 0) {
+                skip--;
+            } else {
+                page.add(courseIds[position]);
+            }
+        }
+
+        Map<Dimension, List<FacetCount>> facets = new EnumMap<>(Dimension.class);
+        for (Dimension dimension : VALUE_DIMENSIONS) {
+            facets.put(dimension, valueFacet(dimension, intersect(scope, filters, dimension), selected.get(dimension)));
+        }
+
+        BitSet scheduleBase = intersect(scope, filters, Dimension.DAY);
+        List<FacetCount> dayFacet = new ArrayList<>();
+        for (CourseSchedule.DayOfWeek day : CourseSchedule.DayOfWeek.values()) {
+            int count = andCardinality(scheduleBase, scheduleFilter(Set.of(day.getValue()), periods));
+            dayFacet.add(new FacetCount(String.valueOf(day.getValue()), day.getChineseName(), count,
+                    days.contains(day.getValue())));
+        }
+        facets.put(Dimension.DAY, dayFacet);
+
+        List<FacetCount> periodFacet = new ArrayList<>();
+        for (CourseSchedule.TimePeriod period : CourseSchedule.TimePeriod.values()) {
+            int count = andCardinality(scheduleBase, scheduleFilter(days, Set.of(period.getValue())));
+            periodFacet.add(new FacetCount(String.valueOf(period.getValue()), period.getDescription(), count,
+                    periods.contains(period.getValue())));
+        }
+        facets.put(Dimension.PERIOD, periodFacet);
+
+        BitSet ratingBase = intersect(scope, filters, Dimension.RATING);
+        List<FacetCount> ratingFacet = new ArrayList<>();
+        for (int threshold : RATING_THRESHOLDS) {
+            int count = andCardinality(ratingBase, ratingPostings.get(threshold));
+            ratingFacet.add(new FacetCount(String.valueOf(threshold), threshold + "分及以上", count,
+                    query.getMinRating() != null && query.getMinRating() == threshold));
+        }
+        facets.put(Dimension.RATING, ratingFacet);
+
+        return new Result(page, matched.cardinality(), facets);
+    }
+
+    private void addValue(Dimension dimension, int position, String key, String label) {
+        if (key == null) {
+            return;
+        }
+        valueKeys.get(dimension)[position] = key;
+        valuePostings.get(dimension).computeIfAbsent(key, k -> new BitSet(size)).set(position);
+        valueLabels.get(dimension).putIfAbsent(key, label != null ? label : key);
+    }
+
+    /**
+     * 同一维度内多个取值求并，未知取值不匹配任何课程
+     */
+    private BitSet valueFilter(Dimension dimension, Set<String> keys) {
+        BitSet filter = new BitSet(size);
+        for (String key : keys) {
+            BitSet posting = valuePostings.get(dimension).get(key);
+            if (posting != null) {
+                filter.or(posting);
+            }
+        }
+        return filter;
+    }
+
+    /**
+     * 所选星期与所选时间段组合出的时间槽求并，空集合表示该维度不限
+     */
+    private BitSet scheduleFilter(Set<Integer> days, Set<Integer> periods) {
+        BitSet filter = new BitSet(size);
+        for (int day = 1; day <= WeeklyTimetable.DAYS; day++) {
+            if (!days.isEmpty() && !days.contains(day)) {
+                continue;
+            }
+            for (int period = 1; period <= WeeklyTimetable.PERIODS; period++) {
+                if (periods.isEmpty() || periods.contains(period)) {
+                    filter.or(slotPostings[Integer.numberOfTrailingZeros(WeeklyTimetable.slotBit(day, period))]);
+                }
+            }
+        }
+        return filter;
+    }
+
+    /**
+     * 整数最低分直接取预建的档位位图，其他取值逐个比较
+     */
+    private BitSet ratingFilter(double minRating) {
+        if (minRating == Math.rint(minRating) && ratingPostings.containsKey((int) minRating)) {
+            return ratingPostings.get((int) minRating);
+        }
+        BitSet filter = new BitSet(size);
+        for (int position = 0; position < size; position++) {
+            if (!Double.isNaN(ratings[position]) && ratings[position] >= minRating) {
+                filter.set(position);
+            }
+        }
+        return filter;
+    }
+
+    /**
+     * 候选课程所在位置的位图，不在快照中的ID忽略
+     */
+    private BitSet candidateFilter(Set<Long> candidateIds) {
+        BitSet filter = new BitSet(size);
+        for (Long courseId : candidateIds) {
+            Integer position = positions.get(courseId);
+            if (position != null) {
+                filter.set(position);
+            }
+        }
+        return filter;
+    }
+
+    /**
+     * 候选范围内除 excluded 以外所有条件的交集
+     */
+    private BitSet intersect(BitSet scope, Map<Dimension, BitSet> filters, Dimension excluded) {
+        BitSet result = (BitSet) scope.clone();
+        for (Map.Entry<Dimension, BitSet> entry : filters.entrySet()) {
+            if (entry.getKey() != excluded) {
+                result.and(entry.getValue());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 一次遍历 base 中的课程统计各取值的数量；已选中的取值即使计数为0也保留
+     */
+    private List<FacetCount> valueFacet(Dimension dimension, BitSet base, Set<String> selected) {
+        String[] keys = valueKeys.get(dimension);
+        Map<String, Integer> counts = new HashMap<>();
+        for (int position = base.nextSetBit(0); position >= 0; position = base.nextSetBit(position + 1)) {
+            if (keys[position] != null) {
+                counts.merge(keys[position], 1, Integer::sum);
+            }
+        }
+        for (String key : selected) {
+            counts.putIfAbsent(key, 0);
+        }
+
+        Map<String, String> labels = valueLabels.get(dimension);
+        List<FacetCount> facet = new ArrayList<>(counts.size());
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            facet.add(new FacetCount(entry.getKey(), labels.getOrDefault(entry.getKey(), entry.getKey()),
+                    entry.getValue(), selected.contains(entry.getKey())));
+        }
+        facet.sort(Comparator.comparingInt(FacetCount::count).reversed().thenComparing(FacetCount::label));
+        return facet;
+    }
+
+    private static int andCardinality(BitSet a, BitSet b) {
+        BitSet result = (BitSet) a.clone();
+        result.and(b);
+        return result.cardinality();
+    }
+
+    private static Set<String> keys(Collection<?> values) {
+        Set<String> keys = new HashSet<>();
+        for (Object value : values) {
+            if (value != null) {
+                keys.add(key(value));
+            }
+        }
+        return keys;
+    }
+
+    private static String key(Object value) {
+        return value != null ? String.valueOf(value) : null;
+    }
+}
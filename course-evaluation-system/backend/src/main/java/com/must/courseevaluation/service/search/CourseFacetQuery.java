@@ -0,0 +1,50 @@
+package com.must.courseevaluation.service.search;
+
+import com.must.courseevaluation.model.Course;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.Set;
+
+/**
+ * 课程分面查询条件
+ * 同一维度内的多个取值为"或"，不同维度之间为"且"；空集合表示该维度不限。
+ * 星期和时间段合并为上课时间条件：课程在任一(所选星期, 所选时间段)上课即匹配。
+ * keyword 由服务层通过搜索索引解析为候选课程 courseIds，所有维度的结果和计数都限定在候选范围内。
+ */
+@Value
+@Builder(toBuilder = true)
+public class CourseFacetQuery {
+
+    @Builder.Default
+    Set<Long> facultyIds = Set.of();
+
+    @Builder.Default
+    Set<Long> teacherIds = Set.of();
+
+    @Builder.Default
+    Set<Course.CourseType> types = Set.of();
+
+    @Builder.Default
+    Set<Double> credits = Set.of();
+
+    @Builder.Default
+    Set<Integer> daysOfWeek = Set.of();
+
+    @Builder.Default
+    Set<Integer> timePeriods = Set.of();
+
+    // 课程名称或代码关键词，为空表示不限
+    String keyword;
+
+    // 候选课程ID，为null表示不限
+    Set<Long> courseIds;
+
+    // 最低平均分，为null表示不限（没有评价的课程不满足任何最低分条件）
+    Double minRating;
+
+    // 页码从0开始
+    int page;
+
+    int size;
+}
@@ -0,0 +1,351 @@
+package com.must.courseevaluation.service.search;
+
+import com.must.courseevaluation.service.catalog.CourseCatalogSnapshot.CourseEntry;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 课程倒排索引
+ *
+ * 对课程名称、代码、描述、教师和学院按字符切分：连续的字母/数字/汉字片段生成单字和相邻二元组，
+ * 中文无需分词器即可检索。查询时长度不小于2的片段只用二元组，单字片段用单字。
+ * 相关度为 BM25，词频按字段权重累加（名称、代码权重最高）。
+ * 读写锁保护，通过 sync 与课程全集同步，只重新索引内容有变化的课程。
+ */
+public final class CourseSearchIndex {
+
+    public enum Field {
+        NAME(3.0),
+        CODE(3.0),
+        TEACHER(2.0),
+        FACULTY(1.0),
+        DESCRIPTION(1.0);
+
+        private final double weight;
+
+        Field(double weight) {
+            this.weight = weight;
+        }
+
+        int bit() {
+            return 1 << ordinal();
+        }
+    }
+
+    public record Hit(Long courseId, double score) {
+    }
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final Field[] FIELDS = Field.values();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Map<Long, Posting>> postings = new HashMap<>();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private double totalLength;
+
+    /**
+     * 与课程全集同步：新增和内容有变化的课程重新索引，不在集合中的课程删除
+     * @return 新增、更新和删除的课程数
+     */
+    public int sync(Collection<CourseEntry> courses) {
+        lock.writeLock().lock();
+        try {
+            int changed = 0;
+            Set<Long> present = new HashSet<>();
+            for (CourseEntry course : courses) {
+                present.add(course.getId());
+                String[] raw = rawFields(course);
+                Document existing = documents.get(course.getId());
+                if (existing == null || !Arrays.equals(existing.raw, raw)) {
+                    upsertLocked(course.getId(), raw);
+                    changed++;
+                }
+            }
+            Iterator<Map.Entry<Long, Document>> iterator = documents.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Long, Document> entry = iterator.next();
+                if (!present.contains(entry.getKey())) {
+                    unindex(entry.getValue());
+                    iterator.remove();
+                    changed++;
+                }
+            }
+            return changed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 按 BM25 相关度搜索
+     * 查询中的每个片段至少要命中一半的检索词才算匹配，任一片段匹配的课程进入结果
+     */
+    public List<Hit> search(String query, int limit) {
+        List<List<String>> groups = queryTerms(normalize(query));
+        if (groups.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            if (documents.isEmpty()) {
+                return List.of();
+            }
+            int documentCount = documents.size();
+            double averageLength = totalLength / documentCount;
+
+            Map<Long, Accumulator> accumulators = new HashMap<>();
+            for (int group = 0; group < groups.size(); group++) {
+                for (String term : groups.get(group)) {
+                    Map<Long, Posting> termPostings = postings.get(term);
+                    if (termPostings == null) {
+                        continue;
+                    }
+                    int df = termPostings.size();
+                    double idf = Math.log(1 + (documentCount - df + 0.5) / (df + 0.5));
+                    for (Map.Entry<Long, Posting> entry : termPostings.entrySet()) {
+                        Posting posting = entry.getValue();
+                        double norm = K1 * (1 - B + B * posting.documentLength / averageLength);
+                        Accumulator accumulator = accumulators.computeIfAbsent(entry.getKey(),
+                                id -> new Accumulator(groups.size()));
+                        accumulator.score += idf * posting.frequency * (K1 + 1) / (posting.frequency + norm);
+                        accumulator.groupHits[group]++;
+                    }
+                }
+            }
+
+            PriorityQueue<Hit> top = new PriorityQueue<>(Comparator.comparingDouble(Hit::score)
+                    .thenComparing(Hit::courseId, Comparator.reverseOrder()));
+            for (Map.Entry<Long, Accumulator> entry : accumulators.entrySet()) {
+                if (!entry.getValue().matches(groups)) {
+                    continue;
+                }
+                top.add(new Hit(entry.getKey(), entry.getValue().score));
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+
+            List<Hit> hits = new ArrayList<>(top);
+            hits.sort(Comparator.comparingDouble(Hit::score).reversed().thenComparing(Hit::courseId));
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 查找指定字段包含关键词（忽略大小写和全半角）的课程
+     * 先用检索词的倒排表求交得到候选，再逐个确认子串
+     */
+    public Set<Long> findContaining(String keyword, Set<Field> fields) {
+        String normalized = normalize(keyword);
+        if (normalized.isEmpty() || fields.isEmpty()) {
+            return Set.of();
+        }
+        int fieldMask = 0;
+        for (Field field : fields) {
+            fieldMask |= field.bit();
+        }
+        List<String> terms = new ArrayList<>();
+        queryTerms(normalized).forEach(terms::addAll);
+
+        lock.readLock().lock();
+        try {
+            Collection<Long> candidates = terms.isEmpty() ? documents.keySet() : intersect(terms, fieldMask);
+            Set<Long> matches = new HashSet<>();
+            for (Long courseId : candidates) {
+                Document document = documents.get(courseId);
+                for (Field field : fields) {
+                    String text = document.normalized[field.ordinal()];
+                    if (text != null && text.contains(normalized)) {
+                        matches.add(courseId);
+                        break;
+                    }
+                }
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 统一大小写和全半角
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT).trim();
+    }
+
+    private void upsertLocked(Long courseId, String[] raw) {
+        Document previous = documents.get(courseId);
+        if (previous != null) {
+            unindex(previous);
+        }
+
+        String[] normalized = new String[FIELDS.length];
+        Map<String, Posting> termPostings = new HashMap<>();
+        double length = 0;
+        for (Field field : FIELDS) {
+            String text = normalize(raw[field.ordinal()]);
+            normalized[field.ordinal()] = text;
+            for (String term : documentTerms(text)) {
+                Posting posting = termPostings.computeIfAbsent(term, t -> new Posting());
+                posting.frequency += field.weight;
+                posting.fieldMask |= field.bit();
+                length += field.weight;
+            }
+        }
+
+        for (Map.Entry<String, Posting> entry : termPostings.entrySet()) {
+            entry.getValue().documentLength = length;
+            postings.computeIfAbsent(entry.getKey(), term -> new HashMap<>()).put(courseId, entry.getValue());
+        }
+        documents.put(courseId, new Document(courseId, raw, normalized, length));
+        totalLength += length;
+    }
+
+    private void unindex(Document document) {
+        Set<String> terms = new HashSet<>();
+        for (String text : document.normalized) {
+            terms.addAll(documentTerms(text));
+        }
+        for (String term : terms) {
+            Map<Long, Posting> termPostings = postings.get(term);
+            if (termPostings != null) {
+                termPostings.remove(document.courseId);
+                if (termPostings.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+        totalLength -= document.length;
+    }
+
+    private Collection<Long> intersect(List<String> terms, int fieldMask) {
+        // 从最短的倒排表开始求交
+        List<Map<Long, Posting>> lists = new ArrayList<>();
+        for (String term : terms) {
+            Map<Long, Posting> termPostings = postings.get(term);
+            if (termPostings == null) {
+                return List.of();
+            }
+            lists.add(termPostings);
+        }
+        lists.sort(Comparator.comparingInt(Map::size));
+
+        List<Long> result = new ArrayList<>();
+        for (Map.Entry<Long, Posting> entry : lists.get(0).entrySet()) {
+            if ((entry.getValue().fieldMask & fieldMask) == 0) {
+                continue;
+            }
+            boolean inAll = true;
+            for (int i = 1; i < lists.size() && inAll; i++) {
+                Posting posting = lists.get(i).get(entry.getKey());
+                inAll = posting != null && (posting.fieldMask & fieldMask) != 0;
+            }
+            if (inAll) {
+                result.add(entry.getKey());
+            }
+        }
+        return result;
+    }
+
+    private static String[] rawFields(CourseEntry course) {
+        String[] raw = new String[FIELDS.length];
+        raw[Field.NAME.ordinal()] = course.getName();
+        raw[Field.CODE.ordinal()] = course.getCode();
+        raw[Field.TEACHER.ordinal()] = course.getTeacherName();
+        raw[Field.FACULTY.ordinal()] = course.getFacultyName();
+        raw[Field.DESCRIPTION.ordinal()] = course.getDescription();
+        return raw;
+    }
+
+    /**
+     * 文档的检索词：每个片段的单字和相邻二元组（重复出现的词各计一次词频）
+     */
+    private static List<String> documentTerms(String text) {
+        List<String> terms = new ArrayList<>();
+        for (int[] run : runs(text)) {
+            for (int i = 0; i < run.length; i++) {
+                terms.add(new String(run, i, 1));
+                if (i + 1 < run.length) {
+                    terms.add(new String(run, i, 2));
+                }
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * 查询的检索词，按片段分组：长度不小于2的片段取去重后的二元组，单字片段取单字
+     */
+    private static List<List<String>> queryTerms(String text) {
+        List<List<String>> groups = new ArrayList<>();
+        for (int[] run : runs(text)) {
+            Set<String> terms = new LinkedHashSet<>();
+            if (run.length == 1) {
+                terms.add(new String(run, 0, 1));
+            } else {
+                for (int i = 0; i + 1 < run.length; i++) {
+                    terms.add(new String(run, i, 2));
+                }
+            }
+            groups.add(new ArrayList<>(terms));
+        }
+        return groups;
+    }
+
+    /**
+     * 按非字母、非数字字符切分出的片段（以码点数组表示）
+     */
+    private static List<int[]> runs(String text) {
+        List<int[]> runs = new ArrayList<>();
+        int[] codePoints = text.codePoints().toArray();
+        int start = -1;
+        for (int i = 0; i <= codePoints.length; i++) {
+            boolean tokenChar = i < codePoints.length && Character.isLetterOrDigit(codePoints[i]);
+            if (tokenChar && start < 0) {
+                start = i;
+            } else if (!tokenChar && start >= 0) {
+                runs.add(Arrays.copyOfRange(codePoints, start, i));
+                start = -1;
+            }
+        }
+        return runs;
+    }
+
+    private static final class Posting {
+        double frequency;
+        int fieldMask;
+        double documentLength;
+    }
+
+    private record Document(Long courseId, String[] raw, String[] normalized, double length) {
+    }
+
+    private static final class Accumulator {
+        double score;
+        final int[] groupHits;
+
+        Accumulator(int groups) {
+            this.groupHits = new int[groups];
+        }
+
+        boolean matches(List<List<String>> groups) {
+            for (int i = 0; i < groupHits.length; i++) {
+                if (groupHits[i] * 2 >= groups.get(i).size()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.must.courseevaluation.service.summary;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * 评价分层抽样工具（用于生成AI总结的提示词）
+ *
+ * 按评分（1-5星）分层，各层按评价数量比例分配名额，且每个非空层至少一条，保证少数意见不被淹没；
+ * 层内按"较新 + 点赞净数高"加权抽样。随机数由种子和评价ID哈希得到，同一种子下结果完全确定，
+ * 评价集合不变时提示词不变，便于命中缓存。
+ */
+public final class StratifiedReviewSampler {
+
+    private StratifiedReviewSampler() {
+    }
+
+    /**
+     * 抽样候选：只包含抽样所需的字段，不含评价正文
+     */
+    public record Candidate(Long reviewId, int rating, LocalDateTime createdAt, long netVotes) {
+    }
+
+    /**
+     * 课程 + 评价数量作为种子：评价集合不变时抽样结果不变
+     */
+    public static long seedFor(Long courseId, long reviewCount) {
+        return mix(courseId * 0x9E3779B97F4A7C15L + reviewCount);
+    }
+
+    /**
+     * 抽取最多 limit 条评价
+     * @return 选中的评价ID，按发表时间倒序
+     */
+    public static List<Long> sample(List<Candidate> candidates, int limit, long seed) {
+        if (candidates.size() <= limit) {
+            return sortedByRecency(candidates);
+        }
+
+        Map<Integer, List<Candidate>> strata = new TreeMap<>();
+        for (Candidate candidate : candidates) {
+            strata.computeIfAbsent(candidate.rating(), k -> new ArrayList<>()).add(candidate);
+        }
+
+        Map<Integer, Integer> quotas = allocate(strata, candidates.size(), limit);
+        List<Candidate> selected = new ArrayList<>(limit);
+        strata.forEach((rating, stratum) -> selected.addAll(sampleStratum(stratum, quotas.get(rating), seed)));
+        return sortedByRecency(selected);
+    }
+
+    /**
+     * 按比例分配名额（最大余数法），每个非空层至少一条
+     */
+    private static Map<Integer, Integer> allocate(Map<Integer, List<Candidate>> strata, int total, int limit) {
+        Map<Integer, Integer> quotas = new TreeMap<>();
+        int assigned = 0;
+        for (Map.Entry<Integer, List<Candidate>> entry : strata.entrySet()) {
+            int quota = Math.max(1, (int) ((long) entry.getValue().size() * limit / total));
+            quotas.put(entry.getKey(), quota);
+            assigned += quota;
+        }
+
+        // 余下的名额依次分给余数最大的层；保底名额超出时从最大的层扣回
+        List<Integer> byRemainder = new ArrayList<>(strata.keySet());
+        byRemainder.sort(Comparator.comparingLong((Integer rating) ->
+                (long) strata.get(rating).size() * limit % total).reversed());
+        for (int i = 0; assigned < limit; i = (i + 1) % byRemainder.size()) {
+            int rating = byRemainder.get(i);
+            if (quotas.get(rating) < strata.get(rating).size()) {
+                quotas.merge(rating, 1, Integer::sum);
+                assigned++;
+            }
+        }
+        while (assigned > limit) {
+            int largest = Collections.max(quotas.keySet(), Comparator.comparingInt(quotas::get));
+            quotas.merge(largest, -1, Integer::sum);
+            assigned--;
+        }
+        return quotas;
+    }
+
+    /**
+     * 层内加权无放回抽样（Efraimidis-Spirakis：键 u^(1/w) 最大的 k 条）
+     */
+    private static List<Candidate> sampleStratum(List<Candidate> stratum, int quota, long seed) {
+        if (stratum.size() <= quota) {
+            return stratum;
+        }
+
+        // 时间越新排名越高，最新一条权重是最旧一条的两倍
+        List<Candidate> byAge = new ArrayList<>(stratum);
+        byAge.sort(Comparator.comparing(Candidate::createdAt).thenComparing(Candidate::reviewId));
+        Map<Long, Double> keys = new HashMap<>();
+        for (int i = 0; i < byAge.size(); i++) {
+            Candidate candidate = byAge.get(i);
+            double recencyWeight = 1.0 + (double) i / (byAge.size() - 1);
+            double weight = recencyWeight * helpfulWeight(candidate.netVotes());
+            keys.put(candidate.reviewId(), Math.pow(uniform(seed, candidate.reviewId()), 1.0 / weight));
+        }
+
+        byAge.sort(Comparator.comparingDouble((Candidate c) -> keys.get(c.reviewId())).reversed()
+                .thenComparing(Candidate::reviewId));
+        return byAge.subList(0, quota);
+    }
+
+    /**
+     * 点赞净数越高权重越大（对数增长，避免个别热门评价垄断），被踩多的评价降权
+     */
+    private static double helpfulWeight(long netVotes) {
+        return netVotes >= 0 ? 1.0 + Math.log1p(netVotes) : 1.0 / (1.0 - netVotes);
+    }
+
+    /**
+     * 由种子和评价ID得到 (0, 1) 内的确定性随机数
+     */
+    private static double uniform(long seed, Long reviewId) {
+        return ((mix(seed ^ mix(reviewId)) >>> 11) + 0.5) / (1L << 53);
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static List<Long> sortedByRecency(Collection<Candidate> candidates) {
+        return candidates.stream()
+                .sorted(Comparator.comparing(Candidate::createdAt).reversed()
+                        .thenComparing(Comparator.comparing(Candidate::reviewId).reversed()))
+                .map(Candidate::reviewId)
+                .toList();
+    }
+}
@@ -0,0 +1,127 @@
+package com.must.courseevaluation.service.throttle;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 进程内的滑动窗口计数存储
+ *
+ * 每个键只保存上一个和当前固定窗口的计数，按当前窗口已过去的比例对上一窗口计数加权，
+ * 近似滑动窗口且内存占用固定。每个键的计数单独加锁，不同键之间互不阻塞。
+ */
+@Component
+public class InMemoryLoginAttemptStore implements LoginAttemptStore {
+
+    private final ConcurrentHashMap<String, WindowCounter> counters = new ConcurrentHashMap<>();
+
+    @Override
+    public double recordFailure(String key, Duration window, long nowMillis) {
+        long windowMillis = window.toMillis();
+        WindowCounter counter = counters.computeIfAbsent(key,
+                k -> new WindowCounter(alignedStart(nowMillis, windowMillis)));
+        synchronized (counter) {
+            counter.roll(nowMillis, windowMillis);
+            counter.current++;
+            counter.lastUpdated = nowMillis;
+            return counter.estimate(nowMillis, windowMillis);
+        }
+    }
+
+    @Override
+    public double failureCount(String key, Duration window, long nowMillis) {
+        WindowCounter counter = counters.get(key);
+        if (counter == null) {
+            return 0;
+        }
+        synchronized (counter) {
+            counter.roll(nowMillis, window.toMillis());
+            return counter.estimate(nowMillis, window.toMillis());
+        }
+    }
+
+    @Override
+    public Duration timeUntilBelow(String key, Duration window, int limit, long nowMillis) {
+        long windowMillis = window.toMillis();
+        WindowCounter counter = counters.get(key);
+        if (counter == null) {
+            return Duration.ZERO;
+        }
+        synchronized (counter) {
+            counter.roll(nowMillis, windowMillis);
+            if (counter.estimate(nowMillis, windowMillis) < limit) {
+                return Duration.ZERO;
+            }
+            long windowEnd = counter.windowStart + windowMillis;
+            long belowAt;
+            if (counter.current >= limit) {
+                // 当前窗口内已超限：进入下一窗口后当前计数变为上一窗口计数，随时间线性衰减
+                belowAt = windowEnd + (long) Math.ceil(windowMillis * (1 - (double) limit / counter.current));
+            } else {
+                // 上一窗口的加权部分衰减到 limit - current 以下即可
+                belowAt = counter.windowStart
+                        + (long) Math.ceil(windowMillis * (1 - (double) (limit - counter.current) / counter.previous));
+            }
+            return Duration.ofMillis(Math.max(0, belowAt - nowMillis));
+        }
+    }
+
+    @Override
+    public void reset(String key) {
+        counters.remove(key);
+    }
+
+    @Override
+    public int evictIdle(Duration maxWindow, long nowMillis) {
+        long idleMillis = maxWindow.toMillis() * 2;
+        int before = counters.size();
+        counters.values().removeIf(counter -> {
+            synchronized (counter) {
+                return nowMillis - counter.lastUpdated > idleMillis;
+            }
+        });
+        return before - counters.size();
+    }
+
+    public int size() {
+        return counters.size();
+    }
+
+    private static long alignedStart(long nowMillis, long windowMillis) {
+        return nowMillis - Math.floorMod(nowMillis, windowMillis);
+    }
+
+    /**
+     * 两个相邻固定窗口的计数，所有读写都在计数对象上同步
+     */
+    private static final class WindowCounter {
+        long windowStart;
+        int previous;
+        int current;
+        long lastUpdated;
+
+        WindowCounter(long windowStart) {
+            this.windowStart = windowStart;
+        }
+
+        void roll(long nowMillis, long windowMillis) {
+            long elapsedWindows = (nowMillis - windowStart) / windowMillis;
+            if (elapsedWindows == 1) {
+                previous = current;
+                current = 0;
+            } else if (elapsedWindows > 1) {
+                previous = 0;
+                current = 0;
+            }
+            if (elapsedWindows > 0) {
+                windowStart += elapsedWindows * windowMillis;
+            }
+        }
+
+        double estimate(long nowMillis, long windowMillis) {
+            double elapsedFraction = (double) (nowMillis - windowStart) / windowMillis;
+            return previous * (1 - elapsedFraction) + current;
+        }
+    }
+}
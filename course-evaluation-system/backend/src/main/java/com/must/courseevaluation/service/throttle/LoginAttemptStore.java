@@ -0,0 +1,37 @@
+package com.must.courseevaluation.service.throttle;
+
+import java.time.Duration;
+
+/**
+ * 登录失败次数的滑动窗口存储
+ * 默认实现为进程内的 InMemoryLoginAttemptStore；多实例部署时可提供共享存储（如 Redis）的实现并标记为 @Primary。
+ */
+public interface LoginAttemptStore {
+
+    /**
+     * 记录一次失败
+     * @return 记录后滑动窗口内的失败次数（估算值）
+     */
+    double recordFailure(String key, Duration window, long nowMillis);
+
+    /**
+     * 滑动窗口内的失败次数（估算值）
+     */
+    double failureCount(String key, Duration window, long nowMillis);
+
+    /**
+     * 失败次数（估算值）降到 limit 以下还需等待的时间，用于提示客户端何时重试
+     */
+    Duration timeUntilBelow(String key, Duration window, int limit, long nowMillis);
+
+    /**
+     * 清除某个键的计数（如登录成功后清除用户名的失败次数）
+     */
+    void reset(String key);
+
+    /**
+     * 清理超过 maxWindow 两倍时间未更新的键，防止内存无限增长
+     * @return 清理的键数量
+     */
+    int evictIdle(Duration maxWindow, long nowMillis);
+}
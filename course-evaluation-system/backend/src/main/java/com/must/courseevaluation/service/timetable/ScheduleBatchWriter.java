@@ -0,0 +1,74 @@
+package com.must.courseevaluation.service.timetable;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 时间安排批量写入
+ * 把 ScheduleSlotDiff 的结果按删除、修改、新增各一次 JDBC 批量执行，在调用方的事务中运行。
+ * 直接写表不经过持久化上下文，调用方应在写入前后都通过查询（而非已加载的实体）读取时间安排。
+ */
+@Component
+public class ScheduleBatchWriter {
+
+    /**
+     * 时间安排表：表名、所属对象的外键列和附加信息列
+     */
+    public enum Table {
+        COURSE("course_schedules", "course_id", "location"),
+        USER("user_schedules", "user_id", "course_name");
+
+        private final String tableName;
+        private final String ownerColumn;
+        private final String detailColumn;
+
+        Table(String tableName, String ownerColumn, String detailColumn) {
+            this.tableName = tableName;
+            this.ownerColumn = ownerColumn;
+            this.detailColumn = detailColumn;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ScheduleBatchWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * 写入差异
+     * @param ownerId 课程ID或用户ID
+     */
+    public void apply(Table table, Long ownerId, ScheduleSlotDiff.Result diff) {
+        // 先删除再新增，替换时不会与唯一约束(所属对象, 星期, 时间段)冲突
+        if (!diff.deletes().isEmpty()) {
+            List<Object[]> args = new ArrayList<>(diff.deletes().size());
+            for (Long id : diff.deletes()) {
+                args.add(new Object[]{id, ownerId});
+            }
+            jdbcTemplate.batchUpdate("DELETE FROM " + table.tableName + " WHERE id = ? AND " + table.ownerColumn + " = ?",
+                    args);
+        }
+
+        if (!diff.updates().isEmpty()) {
+            List<Object[]> args = new ArrayList<>(diff.updates().size());
+            for (ScheduleSlotDiff.Row row : diff.updates()) {
+                args.add(new Object[]{row.detail(), row.id(), ownerId});
+            }
+            jdbcTemplate.batchUpdate("UPDATE " + table.tableName + " SET " + table.detailColumn + " = ? WHERE id = ? AND "
+                    + table.ownerColumn + " = ?", args);
+        }
+
+        if (!diff.inserts().isEmpty()) {
+            List<Object[]> args = new ArrayList<>(diff.inserts().size());
+            for (ScheduleSlotDiff.Slot slot : diff.inserts()) {
+                args.add(new Object[]{ownerId, slot.dayOfWeek(), slot.timePeriod(), slot.detail()});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO " + table.tableName + " (" + table.ownerColumn
+                    + ", day_of_week, time_period, " + table.detailColumn + ") VALUES (?, ?, ?, ?)", args);
+        }
+    }
+}
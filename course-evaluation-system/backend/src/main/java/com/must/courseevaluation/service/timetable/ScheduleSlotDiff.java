@@ -0,0 +1,102 @@
+package com.must.courseevaluation.service.timetable;
+
+import com.must.courseevaluation.model.CourseSchedule;
+
+import java.util.*;
+
+/**
+ * 时间安排差异计算
+ * 以(星期, 时间段)为键比较现有行与目标集合，得出需要新增、修改附加信息（上课地点或课程名称）和删除的行，
+ * 未变化的行不产生任何写入。
+ */
+public final class ScheduleSlotDiff {
+
+    /**
+     * 现有的一行时间安排
+     */
+    public record Row(Long id, int dayOfWeek, int timePeriod, String detail) {
+
+        /**
+         * 由投影查询的 [id, dayOfWeek, timePeriod, detail] 构造
+         */
+        public static Row of(Object[] columns) {
+            return new Row((Long) columns[0], ((Number) columns[1]).intValue(),
+                    ((Number) columns[2]).intValue(), (String) columns[3]);
+        }
+    }
+
+    /**
+     * 目标时间槽及其附加信息
+     */
+    public record Slot(int dayOfWeek, int timePeriod, String detail) {
+
+        /**
+         * 校验星期（1-7）和时间段（1-4）后构造，取值无效时抛出 IllegalArgumentException
+         */
+        public static Slot of(Integer dayOfWeek, Integer timePeriod, String detail) {
+            if (dayOfWeek == null || timePeriod == null) {
+                throw new IllegalArgumentException("星期几和时间段不能为空");
+            }
+            CourseSchedule.DayOfWeek.fromValue(dayOfWeek);
+            CourseSchedule.TimePeriod.fromValue(timePeriod);
+            return new Slot(dayOfWeek, timePeriod, detail);
+        }
+    }
+
+    /**
+     * 差异结果，updates 中的行已带上新的附加信息
+     */
+    public record Result(List<Slot> inserts, List<Row> updates, List<Long> deletes) {
+
+        public boolean isEmpty() {
+            return inserts.isEmpty() && updates.isEmpty() && deletes.isEmpty();
+        }
+    }
+
+    private ScheduleSlotDiff() {
+    }
+
+    /**
+     * 计算差异
+     * @param current 现有行
+     * @param desired 目标时间槽，同一时间槽不能出现两次
+     * @param removeMissing 为true时删除不在目标中的现有行（整体替换），为false时保留（合并）
+     */
+    public static Result compute(Collection<Row> current, Collection<Slot> desired, boolean removeMissing) {
+        Map<Integer, Row> currentBySlot = new HashMap<>();
+        for (Row row : current) {
+            currentBySlot.put(slotKey(row.dayOfWeek(), row.timePeriod()), row);
+        }
+
+        Set<Integer> desiredKeys = new HashSet<>();
+        List<Slot> inserts = new ArrayList<>();
+        List<Row> updates = new ArrayList<>();
+        for (Slot slot : desired) {
+            int key = slotKey(slot.dayOfWeek(), slot.timePeriod());
+            if (!desiredKeys.add(key)) {
+                throw new IllegalArgumentException("时间安排中存在重复的时间段: 星期" + slot.dayOfWeek()
+                        + " 第" + slot.timePeriod() + "时间段");
+            }
+            Row existing = currentBySlot.get(key);
+            if (existing == null) {
+                inserts.add(slot);
+            } else if (!Objects.equals(existing.detail(), slot.detail())) {
+                updates.add(new Row(existing.id(), existing.dayOfWeek(), existing.timePeriod(), slot.detail()));
+            }
+        }
+
+        List<Long> deletes = new ArrayList<>();
+        if (removeMissing) {
+            for (Map.Entry<Integer, Row> entry : currentBySlot.entrySet()) {
+                if (!desiredKeys.contains(entry.getKey())) {
+                    deletes.add(entry.getValue().id());
+                }
+            }
+        }
+        return new Result(inserts, updates, deletes);
+    }
+
+    private static int slotKey(int dayOfWeek, int timePeriod) {
+        return dayOfWeek * 16 + timePeriod;
+    }
+}
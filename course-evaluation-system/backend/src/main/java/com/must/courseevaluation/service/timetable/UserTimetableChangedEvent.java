@@ -0,0 +1,21 @@
+package com.must.courseevaluation.service.timetable;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * 用户课表变化事件
+ * 用户时间安排增删改时发布，事务提交后由 TimetableService 失效该用户的课表位图
+ */
+public class UserTimetableChangedEvent extends ApplicationEvent {
+
+    private final Long userId;
+
+    public UserTimetableChangedEvent(Object source, Long userId) {
+        super(source);
+        this.userId = userId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+}
@@ -0,0 +1,84 @@
+package com.must.courseevaluation.service.timetable;
+
+/**
+ * 周课表位图工具
+ * 一周 7 天 × 4 个时间段（见 CourseSchedule.TimePeriod）共 28 个时间槽，
+ * 每个时间槽占 int 中的一位，课表冲突检测只需一次按位与。
+ */
+public final class WeeklyTimetable {
+
+    public static final int DAYS = 7;
+    public static final int PERIODS = 4;
+
+    // 空课表
+    public static final int EMPTY = 0;
+
+    private WeeklyTimetable() {
+    }
+
+    /**
+     * 时间槽对应的位，星期或时间段超出范围时返回0
+     * @param dayOfWeek 星期几（1-7）
+     * @param timePeriod 时间段（1-4）
+     */
+    public static int slotBit(int dayOfWeek, int timePeriod) {
+        if (dayOfWeek < 1 || dayOfWeek > DAYS || timePeriod < 1 || timePeriod > PERIODS) {
+            return EMPTY;
+        }
+        return 1 << ((dayOfWeek - 1) * PERIODS + (timePeriod - 1));
+    }
+
+    /**
+     * 向课表加入一个时间槽
+     */
+    public static int withSlot(int mask, Integer dayOfWeek, Integer timePeriod) {
+        if (dayOfWeek == null || timePeriod == null) {
+            return mask;
+        }
+        return mask | slotBit(dayOfWeek, timePeriod);
+    }
+
+    /**
+     * 某一天所有时间段的位
+     */
+    public static int dayMask(int dayOfWeek) {
+        if (dayOfWeek < 1 || dayOfWeek > DAYS) {
+            return EMPTY;
+        }
+        return ((1 << PERIODS) - 1) << ((dayOfWeek - 1) * PERIODS);
+    }
+
+    /**
+     * 每天同一时间段的位
+     */
+    public static int periodMask(int timePeriod) {
+        int mask = EMPTY;
+        for (int day = 1; day <= DAYS; day++) {
+            mask |= slotBit(day, timePeriod);
+        }
+        return mask;
+    }
+
+    /**
+     * 按条件构造查询位图，参数为null表示该维度不限
+     */
+    public static int queryMask(Integer dayOfWeek, Integer timePeriod) {
+        if (dayOfWeek != null && timePeriod != null) {
+            return slotBit(dayOfWeek, timePeriod);
+        }
+        if (dayOfWeek != null) {
+            return dayMask(dayOfWeek);
+        }
+        if (timePeriod != null) {
+            return periodMask(timePeriod);
+        }
+        return dayMask(1) | dayMask(2) | dayMask(3) | dayMask(4) | dayMask(5) | dayMask(6) | dayMask(7);
+    }
+
+    /**
+     * 两个课表是否有冲突
+     */
+    public static boolean conflicts(int mask, int otherMask) {
+        return (mask & otherMask) != 0;
+    }
+}
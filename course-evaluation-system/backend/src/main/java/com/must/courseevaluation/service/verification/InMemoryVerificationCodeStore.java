@@ -0,0 +1,160 @@
+package com.must.courseevaluation.service.verification;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 进程内的验证码存储
+ *
+ * 验证码按过期时间挂到哈希时间轮的槽位上，每个刻度只处理当前槽位里的验证码，
+ * 清理开销与待验证总数无关。有效期超过一圈的验证码留在槽位里等下一圈。
+ * 被覆盖或已验证的验证码不从槽位中主动删除，轮到该槽位时直接丢弃。
+ */
+@Component
+public class InMemoryVerificationCodeStore implements VerificationCodeStore {
+
+    private final long tickMillis;
+    private final List<ConcurrentLinkedQueue<CodeEntry>> wheel;
+    private final ConcurrentHashMap<String, CodeEntry> codes = new ConcurrentHashMap<>();
+
+    // 下一个待处理的刻度，只在 expire 中读写
+    private long nextTick = Long.MIN_VALUE;
+
+    /**
+     * @param tickMillis 时间轮刻度（毫秒），也是过期清理的精度
+     * @param slots      时间轮槽位数
+     */
+    public InMemoryVerificationCodeStore(@Value("${verification.code.wheel-tick-ms:1000}") long tickMillis,
+                                         @Value("${verification.code.wheel-slots:1024}") int slots) {
+        if (tickMillis <= 0 || slots <= 0) {
+            throw new IllegalArgumentException("时间轮刻度和槽位数必须为正数");
+        }
+        this.tickMillis = tickMillis;
+        this.wheel = new ArrayList<>(slots);
+        for (int i = 0; i < slots; i++) {
+            wheel.add(new ConcurrentLinkedQueue<>());
+        }
+    }
+
+    @Override
+    public void put(String email, String code, Duration ttl, long nowMillis) {
+        CodeEntry entry = new CodeEntry(email, code, nowMillis + ttl.toMillis());
+        CodeEntry previous = codes.put(email, entry);
+        if (previous != null) {
+            synchronized (previous) {
+                previous.closed = true;
+            }
+        }
+        slot(expiryTick(entry.expiresAt)).add(entry);
+    }
+
+    @Override
+    public VerifyResult verify(String email, String code, int maxAttempts, long nowMillis) {
+        CodeEntry entry = codes.get(email);
+        if (entry == null) {
+            return VerifyResult.NOT_FOUND;
+        }
+        synchronized (entry) {
+            if (entry.closed) {
+                return VerifyResult.NOT_FOUND;
+            }
+            // 时间轮按刻度清理，刻度之间已过期的验证码在这里判定
+            if (entry.expiresAt <= nowMillis) {
+                close(entry);
+                return VerifyResult.NOT_FOUND;
+            }
+            if (entry.code.equals(code)) {
+                close(entry);
+                return VerifyResult.MATCHED;
+            }
+            entry.attempts++;
+            if (entry.attempts >= maxAttempts) {
+                close(entry);
+                return VerifyResult.LOCKED;
+            }
+            return VerifyResult.MISMATCH;
+        }
+    }
+
+    @Override
+    public synchronized int expire(long nowMillis) {
+        long currentTick = Math.floorDiv(nowMillis, tickMillis);
+        // 距上次处理超过一圈时，只需把每个槽位处理一遍
+        long fromTick = Math.max(nextTick, currentTick - wheel.size() + 1);
+        int expired = 0;
+        for (long tick = fromTick; tick <= currentTick; tick++) {
+            expired += expireSlot(slot(tick), nowMillis);
+        }
+        nextTick = currentTick + 1;
+        return expired;
+    }
+
+    @Override
+    public int size() {
+        return codes.size();
+    }
+
+    private int expireSlot(ConcurrentLinkedQueue<CodeEntry> slot, long nowMillis) {
+        List<CodeEntry> laterRounds = new ArrayList<>();
+        int expired = 0;
+        CodeEntry entry;
+        while ((entry = slot.poll()) != null) {
+            synchronized (entry) {
+                if (entry.closed) {
+                    continue;
+                }
+                if (entry.expiresAt > nowMillis) {
+                    laterRounds.add(entry);
+                } else {
+                    close(entry);
+                    expired++;
+                }
+            }
+        }
+        slot.addAll(laterRounds);
+        return expired;
+    }
+
+    /**
+     * 起点不早于 expiresAt 的第一个刻度：处理该刻度时验证码一定已过期，
+     * 不会因为在过期前被扫到而等上整整一圈
+     */
+    private long expiryTick(long expiresAt) {
+        return Math.floorDiv(expiresAt - 1, tickMillis) + 1;
+    }
+
+    private ConcurrentLinkedQueue<CodeEntry> slot(long tick) {
+        return wheel.get((int) Math.floorMod(tick, wheel.size()));
+    }
+
+    /**
+     * 作废验证码，调用方需持有 entry 的锁
+     */
+    private void close(CodeEntry entry) {
+        entry.closed = true;
+        codes.remove(entry.email, entry);
+    }
+
+    /**
+     * 单个邮箱的验证码，attempts 与 closed 的读写都在对象上同步
+     */
+    private static final class CodeEntry {
+        final String email;
+        final String code;
+        final long expiresAt;
+        int attempts;
+        boolean closed;
+
+        CodeEntry(String email, String code, long expiresAt) {
+            this.email = email;
+            this.code = code;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.must.courseevaluation.service.verification;
+
+import java.time.Duration;
+
+/**
+ * 邮箱验证码存储
+ * 默认实现为进程内的 InMemoryVerificationCodeStore；多实例部署时可提供共享存储（如 Redis，用键过期代替时间轮）的实现并标记为 @Primary。
+ */
+public interface VerificationCodeStore {
+
+    enum VerifyResult {
+        /** 验证码正确，已作废 */
+        MATCHED,
+        /** 验证码错误，尝试次数已累计 */
+        MISMATCH,
+        /** 验证码错误且达到尝试次数上限，验证码已作废 */
+        LOCKED,
+        /** 没有待验证的验证码或已过期 */
+        NOT_FOUND
+    }
+
+    /**
+     * 保存验证码，覆盖该邮箱之前的验证码并清零尝试次数
+     */
+    void put(String email, String code, Duration ttl, long nowMillis);
+
+    /**
+     * 校验验证码：正确时作废验证码；错误时累计尝试次数，达到 maxAttempts 后作废验证码
+     */
+    VerifyResult verify(String email, String code, int maxAttempts, long nowMillis);
+
+    /**
+     * 清理已过期的验证码
+     * @return 清理的数量
+     */
+    int expire(long nowMillis);
+
+    /**
+     * 待验证的验证码数量
+     */
+    int size();
+}
@@ -65,6 +65,12 @@ CREATE TABLE IF NOT EXISTS reviews (
   FOREIGN KEY (course_id) REFERENCES courses (id) ON DELETE CASCADE
 );
 
+-- 评价流游标分页索引（置顶优先，再按创建时间、ID倒序）
+CREATE INDEX IF NOT EXISTS idx_reviews_course_feed ON reviews (course_id, pinned DESC, created_at DESC, id DESC);
+
+-- 教师评价流：先按教师找到课程，再逐门课程走 idx_reviews_course_feed
+CREATE INDEX IF NOT EXISTS idx_courses_teacher ON courses (teacher_id);
+
 -- 评价投票表（点赞/踩）
 CREATE TABLE IF NOT EXISTS review_votes (
   id BIGSERIAL PRIMARY KEY,
@@ -99,3 +105,17 @@ CREATE TABLE IF NOT EXISTS user_schedules (
   FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE,
   UNIQUE (user_id, day_of_week, time_period)
 );
+
+-- 课程评分聚合表（评价增删改时增量维护，可从 reviews 表全量重建）
+CREATE TABLE IF NOT EXISTS course_rating_stats (
+  course_id BIGINT PRIMARY KEY,
+  review_count BIGINT NOT NULL DEFAULT 0,
+  rating_sum BIGINT NOT NULL DEFAULT 0,
+  rating_1_count BIGINT NOT NULL DEFAULT 0,
+  rating_2_count BIGINT NOT NULL DEFAULT 0,
+  rating_3_count BIGINT NOT NULL DEFAULT 0,
+  rating_4_count BIGINT NOT NULL DEFAULT 0,
+  rating_5_count BIGINT NOT NULL DEFAULT 0,
+  updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  FOREIGN KEY (course_id) REFERENCES courses (id) ON DELETE CASCADE
+);
@@ -0,0 +1,151 @@
+package com.must.courseevaluation.blackbox;
+
+import com.must.courseevaluation.dto.AIRecommendationResponse;
+import com.must.courseevaluation.repository.UserRepository;
+import com.must.courseevaluation.security.jwt.JwtUtils;
+import com.must.courseevaluation.service.AICourseRecommendationService;
+import com.must.courseevaluation.service.AIRecommendationStreamListener;
+import com.must.courseevaluation.service.llm.StreamCancellation;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * AI推荐流式聊天接口黑盒测试
+ *
+ * 测试功能：POST /ai-recommendations/chat/stream
+ * 1. 正常完成：SSE 事件经异步分派写出，异步分派通过安全过滤链
+ * 2. 未登录访问被拒绝
+ * 3. 连接超时：取消处理并结束连接
+ * 4. 客户端断开：取消处理及上游大模型流
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@DisplayName("AI推荐流式聊天 - 黑盒测试")
+public class AIChatStreamBlackBoxTests {
+
+    private static final String STREAM_URL = "/ai-recommendations/chat/stream";
+    private static final String REQUEST_BODY = "{\"message\":\"推荐编程课\",\"conversationId\":\"conv-1\"}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @MockBean
+    private AICourseRecommendationService aiCourseRecommendationService;
+
+    private final StreamCancellation cancellation = new StreamCancellation();
+    private final AtomicReference<AIRecommendationStreamListener> listener = new AtomicReference<>();
+
+    @BeforeEach
+    void setUp() {
+        when(aiCourseRecommendationService.streamMessage(any(), any())).thenAnswer(invocation -> {
+            listener.set(invocation.getArgument(1));
+            return cancellation;
+        });
+    }
+
+    /**
+     * 与真实客户端一样携带 JWT：鉴权只在初始请求中完成，异步分派时不会重新解析令牌
+     */
+    private MvcResult startStream() throws Exception {
+        String token = jwtUtils.generateJwtTokenForUser(userRepository.findByUsername("student").orElseThrow());
+        return mockMvc.perform(post(STREAM_URL)
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .content(REQUEST_BODY))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    @Test
+    @DisplayName("正常完成 - 推送全部事件，异步分派通过鉴权")
+    void testStreamCompletes() throws Exception {
+        // Given
+        MvcResult result = startStream();
+
+        // When
+        AIRecommendationStreamListener events = listener.get();
+        events.onIntent("NEW_QUERY");
+        events.onToken("为您推荐");
+        events.onComplete(AIRecommendationResponse.text("为您推荐"));
+
+        // Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(content().string(containsString("event:intent")))
+                .andExpect(content().string(containsString("event:token")))
+                .andExpect(content().string(containsString("event:done")));
+    }
+
+    @Test
+    @DisplayName("未登录 - 拒绝访问且不开始处理")
+    void testUnauthenticated() throws Exception {
+        mockMvc.perform(post(STREAM_URL)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(REQUEST_BODY))
+                .andExpect(status().isUnauthorized());
+
+        verify(aiCourseRecommendationService, never()).streamMessage(any(), any());
+    }
+
+    @Test
+    @DisplayName("连接超时 - 取消处理")
+    void testTimeoutCancels() throws Exception {
+        // Given
+        MvcResult result = startStream();
+        MockAsyncContext asyncContext = (MockAsyncContext) result.getRequest().getAsyncContext();
+
+        // When
+        for (AsyncListener asyncListener : asyncContext.getListeners()) {
+            asyncListener.onTimeout(new AsyncEvent(asyncContext));
+        }
+
+        // Then
+        assertTrue(cancellation.isCancelled());
+    }
+
+    @Test
+    @DisplayName("客户端断开 - 取消处理及上游流")
+    void testClientDisconnectCancels() throws Exception {
+        // Given
+        MvcResult result = startStream();
+        MockAsyncContext asyncContext = (MockAsyncContext) result.getRequest().getAsyncContext();
+        AtomicReference<Boolean> upstreamClosed = new AtomicReference<>(false);
+        cancellation.onCancel(() -> upstreamClosed.set(true));
+
+        // When：容器在写出失败时以错误事件通知
+        for (AsyncListener asyncListener : asyncContext.getListeners()) {
+            asyncListener.onError(new AsyncEvent(asyncContext, new IOException("Broken pipe")));
+        }
+
+        // Then
+        assertTrue(cancellation.isCancelled());
+        assertTrue(upstreamClosed.get());
+    }
+}
@@ -0,0 +1,134 @@
+package com.must.courseevaluation.blackbox;
+
+import com.must.courseevaluation.model.User;
+import com.must.courseevaluation.repository.UserRepository;
+import com.must.courseevaluation.security.jwt.JwtUtils;
+import com.must.courseevaluation.service.DatabaseBackupService;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * 数据备份恢复黑盒测试
+ *
+ * 测试功能：POST /system/backup/restore
+ * 1. 管理员在已有数据（包括自己的账号）的数据库上恢复：用备份替换现有数据，恢复后仍可继续管理
+ * 2. 备份中没有可用的管理员账号：整体回滚，现有数据保持不变
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@DisplayName("数据备份恢复 - 黑盒测试")
+public class SystemBackupBlackBoxTests {
+
+    private static final String BACKUP_NAME = "restore_blackbox_test";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DatabaseBackupService databaseBackupService;
+
+    @Value("${backup.directory:backups}")
+    private String backupDirectory;
+
+    private String adminToken;
+
+    @BeforeEach
+    void setUp() {
+        // H2 不支持 text[] 列定义，测试库中没有建出该表，按兼容类型补建以便完整备份
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS user_preferences (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "user_id BIGINT UNIQUE REFERENCES users (id), preferred_course_type VARCHAR(20), "
+                + "preferred_credits INT, preferred_difficulty VARCHAR(20), interest_keywords VARCHAR(255) ARRAY, "
+                + "updated_at TIMESTAMP)");
+        adminToken = jwtUtils.generateJwtTokenForUser(userRepository.findByUsername("admin").orElseThrow());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        Files.deleteIfExists(backupFile());
+        jdbcTemplate.update("DELETE FROM faculties WHERE name LIKE '恢复测试%'");
+        jdbcTemplate.update("UPDATE users SET role = ? WHERE username = 'admin'", User.Role.ROLE_ADMIN.name());
+    }
+
+    private Path backupFile() {
+        return Paths.get(backupDirectory).resolve(BACKUP_NAME + ".mcebak");
+    }
+
+    private long facultyCount(String name) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM faculties WHERE name = ?", Long.class, name);
+    }
+
+    @Test
+    @DisplayName("管理员恢复 - 现有数据被备份替换，管理员账号保留")
+    void testRestoreAsAdmin() throws Exception {
+        // Given：备份之后又新增了数据，并修改了已有数据
+        jdbcTemplate.update("INSERT INTO faculties (name, description) VALUES ('恢复测试学院', '备份前')");
+        mockMvc.perform(post("/system/backup")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .param("name", BACKUP_NAME))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true));
+        jdbcTemplate.update("INSERT INTO faculties (name, description) VALUES ('恢复测试学院-新增', '备份后')");
+        jdbcTemplate.update("UPDATE faculties SET description = '备份后' WHERE name = '恢复测试学院'");
+
+        // When
+        mockMvc.perform(post("/system/backup/restore")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .param("name", BACKUP_NAME))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true));
+
+        // Then
+        assertEquals(1, facultyCount("恢复测试学院"));
+        assertEquals(0, facultyCount("恢复测试学院-新增"));
+        assertEquals("备份前", jdbcTemplate.queryForObject(
+                "SELECT description FROM faculties WHERE name = '恢复测试学院'", String.class));
+        assertTrue(userRepository.findByUsername("admin").isPresent());
+        assertTrue(userRepository.findByUsername("student").isPresent());
+        mockMvc.perform(get("/system/backup/list")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("备份中没有管理员 - 回滚恢复，现有数据不变")
+    void testRestoreWithoutAdminRollsBack() {
+        // Given：备份时管理员账号已被降级
+        jdbcTemplate.update("UPDATE users SET role = ? WHERE username = 'admin'", User.Role.ROLE_STUDENT.name());
+        Map<String, Object> backup = databaseBackupService.createBackup(BACKUP_NAME);
+        assertEquals(true, backup.get("success"), String.valueOf(backup.get("message")));
+        jdbcTemplate.update("UPDATE users SET role = ? WHERE username = 'admin'", User.Role.ROLE_ADMIN.name());
+        jdbcTemplate.update("INSERT INTO faculties (name, description) VALUES ('恢复测试学院-保留', '备份后')");
+
+        // When
+        Map<String, Object> result = databaseBackupService.restoreBackup(BACKUP_NAME);
+
+        // Then
+        assertEquals(false, result.get("success"));
+        assertTrue(String.valueOf(result.get("message")).contains("管理员"));
+        assertEquals(1, facultyCount("恢复测试学院-保留"));
+        assertEquals(User.Role.ROLE_ADMIN, userRepository.findByUsername("admin").orElseThrow().getRole());
+    }
+}
@@ -0,0 +1,199 @@
+package com.must.courseevaluation.unit;
+
+import com.must.courseevaluation.dto.AIRecommendationResponse;
+import com.must.courseevaluation.dto.ChatRequest;
+import com.must.courseevaluation.service.AIRecommendationStreamListener;
+import com.must.courseevaluation.service.agent.*;
+import com.must.courseevaluation.service.impl.AICourseRecommendationServiceImpl;
+import com.must.courseevaluation.service.llm.LlmClientException;
+import com.must.courseevaluation.service.llm.StreamCancellation;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * AICourseRecommendationService 流式处理单元测试
+ * 测试事件顺序、失败时的错误响应与取消后停止推送
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("AICourseRecommendationService 流式处理单元测试")
+class AICourseRecommendationStreamUnitTest {
+
+    @Mock
+    private IntentClassifierAgent intentClassifier;
+
+    @Mock
+    private AgentRouter agentRouter;
+
+    @Mock
+    private ResponseAgent responseAgent;
+
+    private AICourseRecommendationServiceImpl service;
+    private RecordingListener listener;
+    private IntentResult intent;
+    private AgentResult agentResult;
+
+    @BeforeEach
+    void setUp() {
+        service = new AICourseRecommendationServiceImpl(intentClassifier, agentRouter);
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "apiKey", "sk-test");
+        listener = new RecordingListener();
+
+        intent = IntentResult.builder()
+                .intentType(IntentType.NEW_QUERY)
+                .originalMessage("推荐编程课")
+                .build();
+        agentResult = AgentResult.recommendation(IntentType.NEW_QUERY, List.of(
+                AgentResult.CourseInfo.builder().id(1L).code("CS101").name("程序设计").build()), null);
+
+        when(intentClassifier.classify(anyString(), any())).thenReturn(intent);
+        when(agentRouter.dispatch(any(), any())).thenReturn(agentResult);
+        when(agentRouter.needsRecommendationResponse(agentResult)).thenReturn(true);
+        when(agentRouter.getResponseAgent()).thenReturn(responseAgent);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    private ChatRequest request() {
+        ChatRequest request = new ChatRequest();
+        request.setMessage("推荐编程课");
+        request.setConversationId("conv-1");
+        return request;
+    }
+
+    @Test
+    @DisplayName("正常完成 - 依次推送意图、课程卡片、话术片段和完整响应")
+    void testStreamCompletes() throws Exception {
+        // Given
+        when(responseAgent.streamRecommendationResponse(eq(agentResult), eq(intent), any(), any(), any()))
+                .thenAnswer(invocation -> {
+                    Consumer<String> onToken = invocation.getArgument(3);
+                    onToken.accept("为您推荐");
+                    onToken.accept("程序设计");
+                    return "为您推荐程序设计";
+                });
+
+        // When
+        service.streamMessage(request(), listener);
+
+        // Then
+        assertTrue(listener.completed.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("intent:NEW_QUERY", "courses:1", "token:为您推荐", "token:程序设计", "done"),
+                listener.events);
+        assertEquals("recommendation", listener.response.getType());
+        assertEquals("为您推荐程序设计", listener.response.getContent());
+    }
+
+    @Test
+    @DisplayName("处理失败 - 以错误响应结束")
+    void testStreamFailureCompletesWithError() throws Exception {
+        // Given
+        when(agentRouter.dispatch(any(), any())).thenThrow(new IllegalStateException("数据库不可用"));
+
+        // When
+        service.streamMessage(request(), listener);
+
+        // Then
+        assertTrue(listener.completed.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("intent:NEW_QUERY", "done"), listener.events);
+        assertFalse(listener.response.isSuccess());
+    }
+
+    @Test
+    @DisplayName("取消 - 通知上游话术生成并不再推送事件")
+    void testCancelStopsStreamAndUpstream() throws Exception {
+        // Given：话术生成阻塞在上游流上，直到取消句柄关闭它
+        CountDownLatch streaming = new CountDownLatch(1);
+        CountDownLatch upstreamClosed = new CountDownLatch(1);
+        when(responseAgent.streamRecommendationResponse(eq(agentResult), eq(intent), any(), any(), any()))
+                .thenAnswer(invocation -> {
+                    StreamCancellation upstream = invocation.getArgument(4);
+                    CountDownLatch closed = new CountDownLatch(1);
+                    upstream.onCancel(() -> {
+                        closed.countDown();
+                        upstreamClosed.countDown();
+                    });
+                    Consumer<String> onToken = invocation.getArgument(3);
+                    onToken.accept("为您推荐");
+                    streaming.countDown();
+                    closed.await();
+                    throw new LlmClientException("流式调用已取消");
+                });
+
+        // When
+        StreamCancellation cancellation = service.streamMessage(request(), listener);
+        assertTrue(streaming.await(5, TimeUnit.SECONDS));
+        cancellation.cancel();
+
+        // Then
+        assertTrue(upstreamClosed.await(5, TimeUnit.SECONDS));
+        assertFalse(listener.completed.await(200, TimeUnit.MILLISECONDS));
+        assertEquals(List.of("intent:NEW_QUERY", "courses:1", "token:为您推荐"), listener.events);
+    }
+
+    @Test
+    @DisplayName("AI服务未启用 - 直接以错误响应结束")
+    void testServiceDisabled() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(service, "enabled", false);
+
+        // When
+        service.streamMessage(request(), listener);
+
+        // Then
+        assertTrue(listener.completed.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("done"), listener.events);
+        verifyNoInteractions(intentClassifier, agentRouter);
+    }
+
+    /**
+     * 按顺序记录收到的事件
+     */
+    private static class RecordingListener implements AIRecommendationStreamListener {
+
+        final List<String> events = new CopyOnWriteArrayList<>();
+        final CountDownLatch completed = new CountDownLatch(1);
+        volatile AIRecommendationResponse response;
+
+        @Override
+        public void onIntent(String intentType) {
+            events.add("intent:" + intentType);
+        }
+
+        @Override
+        public void onCourses(AIRecommendationResponse response) {
+            events.add("courses:" + response.getCourses().size());
+        }
+
+        @Override
+        public void onToken(String token) {
+            events.add("token:" + token);
+        }
+
+        @Override
+        public void onComplete(AIRecommendationResponse response) {
+            events.add("done");
+            this.response = response;
+            completed.countDown();
+        }
+    }
+}
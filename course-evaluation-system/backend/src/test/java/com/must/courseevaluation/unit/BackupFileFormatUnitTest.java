@@ -0,0 +1,170 @@
+package com.must.courseevaluation.unit;
+
+import com.must.courseevaluation.service.backup.BackupFileReader;
+import com.must.courseevaluation.service.backup.BackupFileReader.Chunk;
+import com.must.courseevaluation.service.backup.BackupFileReader.TableHeader;
+import com.must.courseevaluation.service.backup.BackupFileWriter;
+import org.junit.jupiter.api.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * BackupFileWriter / BackupFileReader 单元测试
+ * 测试备份文件的分块写入、读取、字段类型还原与损坏检测
+ */
+@DisplayName("备份文件格式 单元测试")
+class BackupFileFormatUnitTest {
+
+    private static final List<String> COLUMNS = List.of("id", "content", "rating", "created_at", "score", "deleted");
+    private static final List<Integer> TYPES = List.of(Types.BIGINT, Types.VARCHAR, Types.INTEGER,
+            Types.TIMESTAMP, Types.NUMERIC, Types.BIT);
+
+    private byte[] writeBackup(int rows, int chunkRows) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (BackupFileWriter writer = new BackupFileWriter(out, chunkRows, 1024 * 1024)) {
+            writer.beginTable("reviews", COLUMNS, TYPES);
+            for (int i = 0; i < rows; i++) {
+                writer.writeRow(row(i));
+            }
+            writer.endTable();
+            writer.beginTable("review_votes", List.of("id"), List.of(Types.BIGINT));
+            writer.endTable();
+            writer.finish();
+        }
+        return out.toByteArray();
+    }
+
+    private Object[] row(int i) {
+        Timestamp createdAt = new Timestamp(1_700_000_000_000L + i);
+        createdAt.setNanos(123_456_789);
+        return new Object[]{(long) i, i % 3 == 0 ? null : "评价内容" + i, i % 5 + 1, createdAt,
+                new BigDecimal("4.50"), i % 2 == 0};
+    }
+
+    // ==================== 读写往返 ====================
+
+    @Nested
+    @DisplayName("读写往返测试")
+    class RoundTripTests {
+
+        @Test
+        @DisplayName("按行数分块，所有行与字段值原样还原")
+        void testRoundTrip() throws IOException {
+            // Given
+            byte[] backup = writeBackup(25, 10);
+
+            // When
+            List<Integer> chunkSizes = new ArrayList<>();
+            List<Object[]> rows = new ArrayList<>();
+            try (BackupFileReader reader = new BackupFileReader(new ByteArrayInputStream(backup))) {
+                TableHeader header = reader.nextTable();
+                assertEquals("reviews", header.name());
+                assertEquals(COLUMNS, header.columns());
+                assertEquals(TYPES, header.sqlTypes());
+
+                Chunk chunk;
+                while ((chunk = reader.nextChunk()) != null) {
+                    chunkSizes.add(chunk.rowCount());
+                    rows.addAll(chunk.decode(header.columns().size()));
+                }
+                assertEquals(25, reader.tableRowCount());
+
+                TableHeader empty = reader.nextTable();
+                assertEquals("review_votes", empty.name());
+                assertNull(reader.nextChunk());
+                assertEquals(0, reader.tableRowCount());
+                assertNull(reader.nextTable());
+            }
+
+            // Then
+            assertEquals(List.of(10, 10, 5), chunkSizes);
+            for (int i = 0; i < 25; i++) {
+                Object[] expected = row(i);
+                expected[2] = ((Integer) expected[2]).longValue();
+                assertArrayEquals(expected, rows.get(i));
+            }
+        }
+
+        @Test
+        @DisplayName("超过 64KB 的长文本")
+        void testLongText() throws IOException {
+            // Given
+            String longText = "长".repeat(40_000);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try (BackupFileWriter writer = new BackupFileWriter(out, 10, 1024 * 1024)) {
+                writer.beginTable("ai_messages", List.of("content"), List.of(Types.VARCHAR));
+                writer.writeRow(new Object[]{longText});
+                writer.endTable();
+                writer.finish();
+            }
+
+            // When
+            try (BackupFileReader reader = new BackupFileReader(new ByteArrayInputStream(out.toByteArray()))) {
+                reader.nextTable();
+                List<Object[]> rows = reader.nextChunk().decode(1);
+
+                // Then
+                assertEquals(longText, rows.get(0)[0]);
+            }
+        }
+    }
+
+    // ==================== 损坏检测 ====================
+
+    @Nested
+    @DisplayName("损坏检测测试")
+    class CorruptionTests {
+
+        @Test
+        @DisplayName("数据块内容被篡改 - 解码时报错")
+        void testCorruptedChunk() throws IOException {
+            // Given - 篡改第一个数据块的压缩数据
+            byte[] backup = writeBackup(25, 10);
+            try (BackupFileReader reader = new BackupFileReader(new ByteArrayInputStream(backup))) {
+                TableHeader header = reader.nextTable();
+                Chunk chunk = reader.nextChunk();
+                chunk.compressed()[chunk.compressed().length / 2] ^= 0x5A;
+
+                // When & Then
+                assertThrows(IOException.class, () -> chunk.decode(header.columns().size()));
+            }
+        }
+
+        @Test
+        @DisplayName("文件被截断 - 读取时报错")
+        void testTruncatedFile() throws IOException {
+            // Given
+            byte[] backup = writeBackup(25, 10);
+            byte[] truncated = Arrays.copyOf(backup, backup.length - 1);
+
+            // When & Then
+            try (BackupFileReader reader = new BackupFileReader(new ByteArrayInputStream(truncated))) {
+                reader.nextTable();
+                while (reader.nextChunk() != null) {
+                    // 读完第一个表
+                }
+                reader.nextTable();
+                reader.nextChunk();
+                IOException e = assertThrows(IOException.class, reader::nextTable);
+                assertEquals("备份文件不完整", e.getMessage());
+            }
+        }
+
+        @Test
+        @DisplayName("不是备份文件 - 打开时报错")
+        void testInvalidMagic() {
+            assertThrows(IOException.class,
+                    () -> new BackupFileReader(new ByteArrayInputStream("not a backup".getBytes())));
+        }
+    }
+}
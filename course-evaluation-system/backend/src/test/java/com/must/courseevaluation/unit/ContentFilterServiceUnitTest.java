@@ -3,6 +3,8 @@ package com.must.courseevaluation.unit;
 import com.must.courseevaluation.service.ContentFilterService;
 import org.junit.jupiter.api.*;
 
+import java.util.Arrays;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -359,9 +361,74 @@ class ContentFilterServiceUnitTest {
             assertTrue(result.contains("推荐大家选修"));
         }
     }
-}
 
+    // ==================== 多模式匹配与热加载测试 ====================
+
+    @Nested
+    @DisplayName("多模式匹配与热加载测试")
+    class AutomatonTests {
+
+        @Test
+        @DisplayName("重叠敏感词 - 全部屏蔽")
+        void testOverlappingWords() {
+            // Given - "他妈的" 与 "妈的" 重叠
+            String content = "他妈的太难了";
+
+            // When
+            String result = contentFilterService.filterContent(content);
+
+            // Then
+            assertEquals("***太难了", result);
+        }
+
+        @Test
+        @DisplayName("短词包含在长词中 - 长词整体屏蔽")
+        void testNestedWords() {
+            // Given
+            contentFilterService.reloadSensitiveWords(Arrays.asList("abcde", "bc"));
 
+            // When
+            String result = contentFilterService.filterContent("xabcdex abcx");
 
+            // Then
+            assertEquals("x*****x a**x", result);
+        }
 
+        @Test
+        @DisplayName("无敏感词 - 返回原字符串")
+        void testNoMatchReturnsSameInstance() {
+            // Given
+            String content = "老师讲得很好";
 
+            // When
+            String result = contentFilterService.filterContent(content);
+
+            // Then
+            assertSame(content, result);
+        }
+
+        @Test
+        @DisplayName("热加载词表 - 新词生效，旧词失效")
+        void testReloadSensitiveWords() {
+            // When
+            contentFilterService.reloadSensitiveWords(Arrays.asList("水课", "", null, "水课"));
+
+            // Then
+            assertEquals(1, contentFilterService.getSensitiveWordCount());
+            assertTrue(contentFilterService.containsSensitiveContent("纯纯水课"));
+            assertFalse(contentFilterService.containsSensitiveContent("这门课太垃圾了"));
+            assertEquals("纯纯**", contentFilterService.filterContent("纯纯水课"));
+        }
+
+        @Test
+        @DisplayName("未配置词表文件 - 保留默认词表")
+        void testReloadFromFileWithoutConfig() {
+            // When
+            int wordCount = contentFilterService.reloadFromFile();
+
+            // Then
+            assertEquals(17, wordCount);
+            assertTrue(contentFilterService.containsSensitiveContent("垃圾"));
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package com.must.courseevaluation.unit;
+
+import com.must.courseevaluation.model.Course;
+import com.must.courseevaluation.model.CourseRatingStats;
+import com.must.courseevaluation.model.Faculty;
+import com.must.courseevaluation.model.Teacher;
+import com.must.courseevaluation.repository.CourseRatingStatsRepository;
+import com.must.courseevaluation.repository.CourseRepository;
+import com.must.courseevaluation.repository.CourseScheduleRepository;
+import com.must.courseevaluation.service.catalog.CourseCatalogChangedEvent;
+import com.must.courseevaluation.service.catalog.CourseCatalogSnapshot;
+import com.must.courseevaluation.service.catalog.CourseCatalogSnapshot.CourseEntry;
+import com.must.courseevaluation.service.impl.CourseCatalogServiceImpl;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * CourseCatalogService 单元测试
+ * 测试课程目录快照的构建、查询与事件驱动刷新
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CourseCatalogService 单元测试")
+class CourseCatalogServiceUnitTest {
+
+    @Mock
+    private CourseRepository courseRepository;
+
+    @Mock
+    private CourseScheduleRepository courseScheduleRepository;
+
+    @Mock
+    private CourseRatingStatsRepository courseRatingStatsRepository;
+
+    @InjectMocks
+    private CourseCatalogServiceImpl courseCatalogService;
+
+    private Course aiCourse;
+    private Course dbCourse;
+
+    @BeforeEach
+    void setUp() {
+        Faculty faculty = new Faculty();
+        faculty.setId(1L);
+        faculty.setName("资讯工程学院");
+
+        Teacher teacher = new Teacher();
+        teacher.setId(1L);
+        teacher.setName("张教授");
+
+        aiCourse = new Course();
+        aiCourse.setId(1L);
+        aiCourse.setCode("CS101");
+        aiCourse.setName("人工智能导论");
+        aiCourse.setFaculty(faculty);
+        aiCourse.setTeacher(teacher);
+
+        dbCourse = new Course();
+        dbCourse.setId(2L);
+        dbCourse.setCode("CS201");
+        dbCourse.setName("数据库系统");
+        dbCourse.setFaculty(faculty);
+    }
+
+    private void givenCatalogData() {
+        CourseRatingStats stats = new CourseRatingStats(1L);
+        stats.addRating(5);
+        stats.addRating(4);
+
+        when(courseRepository.findAllWithRelations()).thenReturn(Arrays.asList(aiCourse, dbCourse));
+        when(courseScheduleRepository.findAllSlots()).thenReturn(Arrays.asList(
+                new Object[]{1L, 1, 1},
+                new Object[]{2L, 3, 4}));
+        when(courseRatingStatsRepository.findAll()).thenReturn(List.of(stats));
+    }
+
+    // ==================== 快照构建测试 ====================
+
+    @Nested
+    @DisplayName("快照构建测试")
+    class BuildTests {
+
+        @Test
+        @DisplayName("首次读取 - 构建快照并缓存")
+        void testGetSnapshotBuildsOnce() {
+            // Given
+            givenCatalogData();
+
+            // When
+            CourseCatalogSnapshot first = courseCatalogService.getSnapshot();
+            CourseCatalogSnapshot second = courseCatalogService.getSnapshot();
+
+            // Then
+            assertSame(first, second);
+            assertEquals(2, first.size());
+            verify(courseRepository, times(1)).findAllWithRelations();
+
+            CourseEntry entry = first.getCourse(1L).orElseThrow();
+            assertEquals("资讯工程学院", entry.getFacultyName());
+            assertEquals("张教授", entry.getTeacherName());
+            assertEquals(4.5, entry.getAverageRating());
+            assertEquals(2, entry.getReviewCount());
+
+            CourseEntry noRating = first.getCourse(2L).orElseThrow();
+            assertNull(noRating.getAverageRating());
+            assertNull(noRating.getTeacherName());
+        }
+
+        @Test
+        @DisplayName("按上课时间查找课程")
+        void testFindCourseIdsBySchedule() {
+            // Given
+            givenCatalogData();
+
+            // When
+            CourseCatalogSnapshot snapshot = courseCatalogService.getSnapshot();
+
+            // Then
+            assertEquals(Set.of(1L), snapshot.findCourseIdsBySchedule(1, null));
+            assertEquals(Set.of(2L), snapshot.findCourseIdsBySchedule(null, 4));
+            assertEquals(Set.of(2L), snapshot.findCourseIdsBySchedule(3, 4));
+            assertTrue(snapshot.findCourseIdsBySchedule(1, 4).isEmpty());
+        }
+
+        @Test
+        @DisplayName("按名称查找 - 精确匹配优先于模糊匹配")
+        void testFindByName() {
+            // Given
+            givenCatalogData();
+
+            // When
+            CourseCatalogSnapshot snapshot = courseCatalogService.getSnapshot();
+
+            // Then
+            assertEquals(2L, snapshot.findByName("数据库系统").orElseThrow().getId());
+            assertEquals(1L, snapshot.findByName("人工智能").orElseThrow().getId());
+            assertTrue(snapshot.findByName("操作系统").isEmpty());
+        }
+    }
+
+    // ==================== 事件刷新测试 ====================
+
+    @Nested
+    @DisplayName("事件刷新测试")
+    class RefreshTests {
+
+        @Test
+        @DisplayName("评分变化 - 只刷新该课程评分")
+        void testRefreshRatingsForCourse() {
+            // Given
+            givenCatalogData();
+            CourseCatalogSnapshot before = courseCatalogService.getSnapshot();
+
+            CourseRatingStats updated = new CourseRatingStats(2L);
+            updated.addRating(3);
+            when(courseRatingStatsRepository.findById(2L)).thenReturn(Optional.of(updated));
+
+            // When
+            courseCatalogService.onCatalogChanged(CourseCatalogChangedEvent.ratings(this, 2L));
+
+            // Then
+            CourseCatalogSnapshot after = courseCatalogService.getSnapshot();
+            assertNotSame(before, after);
+            assertTrue(after.getVersion() > before.getVersion());
+            assertEquals(3.0, after.getCourse(2L).orElseThrow().getAverageRating());
+            assertSame(before.getCourse(1L).orElseThrow(), after.getCourse(1L).orElseThrow());
+            verify(courseRepository, times(1)).findAllWithRelations();
+        }
+
+        @Test
+        @DisplayName("首次生成AI总结 - 只刷新该课程的总结标记")
+        void testRefreshSummaryForCourse() {
+            // Given
+            givenCatalogData();
+            CourseCatalogSnapshot before = courseCatalogService.getSnapshot();
+            String listVersionTag = courseCatalogService.getListVersionTag();
+            assertFalse(before.getCourse(2L).orElseThrow().isHasSummary());
+            when(courseRepository.existsByIdAndAiSummaryIsNotNull(2L)).thenReturn(true);
+
+            // When
+            courseCatalogService.onCatalogChanged(CourseCatalogChangedEvent.summary(this, 2L));
+
+            // Then
+            CourseCatalogSnapshot after = courseCatalogService.getSnapshot();
+            assertTrue(after.getVersion() > before.getVersion());
+            assertTrue(after.getCourse(2L).orElseThrow().isHasSummary());
+            assertSame(before.getCourse(1L).orElseThrow(), after.getCourse(1L).orElseThrow());
+            assertEquals(listVersionTag, courseCatalogService.getListVersionTag());
+            verify(courseRepository, times(1)).findAllWithRelations();
+        }
+
+        @Test
+        @DisplayName("快照未构建 - 忽略变化事件")
+        void testEventBeforeFirstBuild() {
+            // When
+            courseCatalogService.onCatalogChanged(CourseCatalogChangedEvent.ratings(this, 1L));
+            courseCatalogService.onCatalogChanged(CourseCatalogChangedEvent.full(this));
+
+            // Then
+            verifyNoInteractions(courseRepository, courseScheduleRepository, courseRatingStatsRepository);
+        }
+
+        @Test
+        @DisplayName("首次构建期间课程变化 - 重新读取后再缓存")
+        void testChangeDuringFirstBuild() {
+            // Given：第一次读取课程时另一个事务提交了课程变化
+            Course renamed = new Course();
+            renamed.setId(1L);
+            renamed.setCode("CS101");
+            renamed.setName("人工智能导论（新版）");
+            when(courseRepository.findAllWithRelations())
+                    .thenAnswer(invocation -> {
+                        courseCatalogService.onCatalogChanged(CourseCatalogChangedEvent.full(this));
+                        return List.of(aiCourse);
+                    })
+                    .thenReturn(List.of(renamed));
+            when(courseScheduleRepository.findAllSlots()).thenReturn(List.of());
+            when(courseRatingStatsRepository.findAll()).thenReturn(List.of());
+
+            // When
+            CourseCatalogSnapshot snapshot = courseCatalogService.getSnapshot();
+
+            // Then
+            verify(courseRepository, times(2)).findAllWithRelations();
+            assertEquals("人工智能导论（新版）", snapshot.getCourse(1L).orElseThrow().getName());
+            assertSame(snapshot, courseCatalogService.getSnapshot());
+        }
+
+        @Test
+        @DisplayName("并发首次读取 - 只构建一次")
+        void testConcurrentFirstReadsBuildOnce() throws Exception {
+            // Given：构建过程被阻塞，其他读取者在此期间到达
+            CountDownLatch release = new CountDownLatch(1);
+            when(courseRepository.findAllWithRelations()).thenAnswer(invocation -> {
+                release.await();
+                return Arrays.asList(aiCourse, dbCourse);
+            });
+            when(courseScheduleRepository.findAllSlots()).thenReturn(List.of());
+            when(courseRatingStatsRepository.findAll()).thenReturn(List.of());
+
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            try {
+                List<Future<CourseCatalogSnapshot>> results = new ArrayList<>();
+                for (int i = 0; i < 4; i++) {
+                    results.add(executor.submit(courseCatalogService::getSnapshot));
+                }
+                Thread.sleep(100);
+                release.countDown();
+
+                // Then
+                CourseCatalogSnapshot first = results.get(0).get();
+                for (Future<CourseCatalogSnapshot> result : results) {
+                    assertSame(first, result.get());
+                }
+                verify(courseRepository, times(1)).findAllWithRelations();
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        @Test
+        @DisplayName("课程变化 - 全量重建")
+        void testFullRebuildOnCourseChange() {
+            // Given
+            givenCatalogData();
+            CourseCatalogSnapshot before = courseCatalogService.getSnapshot();
+
+            // When
+            courseCatalogService.onCatalogChanged(CourseCatalogChangedEvent.full(this));
+
+            // Then
+            assertNotSame(before, courseCatalogService.getSnapshot());
+            verify(courseRepository, times(2)).findAllWithRelations();
+        }
+
+        @Test
+        @DisplayName("列表版本标识 - 评分刷新不变，全量重建后改变")
+        void testListVersionTag() {
+            // Given
+            givenCatalogData();
+            when(courseRatingStatsRepository.findById(1L)).thenReturn(Optional.empty());
+            String initial = courseCatalogService.getListVersionTag();
+
+            // When
+            courseCatalogService.onCatalogChanged(CourseCatalogChangedEvent.ratings(this, 1L));
+            String afterRatings = courseCatalogService.getListVersionTag();
+            courseCatalogService.onCatalogChanged(CourseCatalogChangedEvent.full(this));
+            String afterRebuild = courseCatalogService.getListVersionTag();
+
+            // Then
+            assertEquals(initial, afterRatings);
+            assertNotEquals(initial, afterRebuild);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.must.courseevaluation.unit;
+
+import com.must.courseevaluation.model.Course;
+import com.must.courseevaluation.service.catalog.CourseCatalogSnapshot;
+import com.must.courseevaluation.service.catalog.CourseCatalogSnapshot.CourseEntry;
+import com.must.courseevaluation.service.search.CourseFacetIndex;
+import com.must.courseevaluation.service.search.CourseFacetIndex.Dimension;
+import com.must.courseevaluation.service.search.CourseFacetIndex.FacetCount;
+import com.must.courseevaluation.service.search.CourseFacetQuery;
+import com.must.courseevaluation.service.timetable.WeeklyTimetable;
+import org.junit.jupiter.api.*;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * CourseFacetIndex 单元测试
+ * 测试分面位图的筛选、分页与各维度计数
+ */
+@DisplayName("CourseFacetIndex 单元测试")
+class CourseFacetIndexUnitTest {
+
+    private CourseFacetIndex index;
+
+    @BeforeEach
+    void setUp() {
+        int mondayMorning = WeeklyTimetable.slotBit(1, 1);
+        int tuesdayEvening = WeeklyTimetable.slotBit(2, 4);
+        index = new CourseFacetIndex(new CourseCatalogSnapshot(1L, List.of(
+                course(1L, 1L, "资讯工程学院", 10L, Course.CourseType.COMPULSORY, 3.0, mondayMorning, 4.5),
+                course(2L, 1L, "资讯工程学院", 11L, Course.CourseType.ELECTIVE, 2.0, tuesdayEvening, 3.2),
+                course(3L, 2L, "商学院", 12L, Course.CourseType.ELECTIVE, 3.0, mondayMorning | tuesdayEvening, null),
+                course(4L, 2L, "商学院", 12L, Course.CourseType.COMPULSORY, 3.0, WeeklyTimetable.EMPTY, 2.0))));
+    }
+
+    @Test
+    @DisplayName("无条件 - 返回全部课程和完整计数")
+    void testNoFilter() {
+        CourseFacetIndex.Result result = index.search(query().build());
+
+        assertEquals(4, result.total());
+        assertEquals(List.of(1L, 2L, 3L, 4L), result.courseIds());
+        assertEquals(2, count(result, Dimension.FACULTY, "1"));
+        assertEquals(3, count(result, Dimension.CREDITS, "3.0"));
+        assertEquals(2, count(result, Dimension.DAY, "1"));
+        assertEquals(2, count(result, Dimension.PERIOD, "4"));
+        assertEquals(1, count(result, Dimension.RATING, "4"));
+        assertEquals(2, count(result, Dimension.RATING, "3"));
+    }
+
+    @Test
+    @DisplayName("多维度筛选 - 维度间求交，维度内求并")
+    void testCombinedFilters() {
+        CourseFacetIndex.Result result = index.search(query()
+                .facultyIds(Set.of(1L, 2L))
+                .types(Set.of(Course.CourseType.ELECTIVE))
+                .credits(Set.of(3.0))
+                .build());
+
+        assertEquals(List.of(3L), result.courseIds());
+        assertEquals(1, result.total());
+    }
+
+    @Test
+    @DisplayName("分面计数 - 不受本维度自身条件影响")
+    void testFacetCountsExcludeOwnDimension() {
+        CourseFacetIndex.Result result = index.search(query()
+                .facultyIds(Set.of(1L))
+                .types(Set.of(Course.CourseType.COMPULSORY))
+                .build());
+
+        assertEquals(List.of(1L), result.courseIds());
+        // 学院计数只受类型条件影响：必修课中学院1和学院2各一门
+        assertEquals(1, count(result, Dimension.FACULTY, "1"));
+        assertEquals(1, count(result, Dimension.FACULTY, "2"));
+        assertTrue(facet(result, Dimension.FACULTY, "1").selected());
+        // 类型计数只受学院条件影响
+        assertEquals(1, count(result, Dimension.TYPE, "COMPULSORY"));
+        assertEquals(1, count(result, Dimension.TYPE, "ELECTIVE"));
+        assertEquals("必修课", facet(result, Dimension.TYPE, "COMPULSORY").label());
+    }
+
+    @Test
+    @DisplayName("上课时间 - 星期和时间段组合为时间槽")
+    void testScheduleFilter() {
+        CourseFacetIndex.Result result = index.search(query()
+                .daysOfWeek(Set.of(2))
+                .timePeriods(Set.of(4))
+                .build());
+
+        assertEquals(List.of(2L, 3L), result.courseIds());
+        // 星期计数保留时间段条件：周一晚上没有课
+        assertEquals(0, count(result, Dimension.DAY, "1"));
+        assertEquals(2, count(result, Dimension.DAY, "2"));
+        // 时间段计数保留星期条件：周二上午没有课
+        assertEquals(0, count(result, Dimension.PERIOD, "1"));
+        assertEquals(2, count(result, Dimension.PERIOD, "4"));
+    }
+
+    @Test
+    @DisplayName("最低评分 - 整数档位和小数阈值，没有评价的课程不匹配")
+    void testMinRating() {
+        assertEquals(List.of(1L, 2L), index.search(query().minRating(3.0).build()).courseIds());
+        assertEquals(List.of(1L), index.search(query().minRating(3.5).build()).courseIds());
+
+        CourseFacetIndex.Result result = index.search(query().minRating(2.0).build());
+        assertEquals(List.of(1L, 2L, 4L), result.courseIds());
+        assertTrue(facet(result, Dimension.RATING, "2").selected());
+    }
+
+    @Test
+    @DisplayName("分页 - 总数不受分页影响")
+    void testPaging() {
+        CourseFacetIndex.Result result = index.search(query().page(1).size(3).build());
+
+        assertEquals(List.of(4L), result.courseIds());
+        assertEquals(4, result.total());
+    }
+
+    @Test
+    @DisplayName("分页 - 页码很大时返回空页而不是回绕到前面的页")
+    void testHugePage() {
+        // 按 int 计算时 2^30 * 4 溢出为 0
+        CourseFacetIndex.Result result = index.search(query().page(1 << 30).size(4).build());
+
+        assertTrue(result.courseIds().isEmpty());
+        assertEquals(4, result.total());
+    }
+
+    @Test
+    @DisplayName("未知取值 - 无匹配但仍返回已选中的取值")
+    void testUnknownValue() {
+        CourseFacetIndex.Result result = index.search(query().teacherIds(Set.of(99L)).build());
+
+        assertTrue(result.courseIds().isEmpty());
+        assertEquals(0, result.total());
+        assertEquals(0, count(result, Dimension.TEACHER, "99"));
+        assertEquals(2, count(result, Dimension.TEACHER, "12"));
+    }
+
+    @Test
+    @DisplayName("候选范围 - 结果和所有维度的计数都限定在候选课程内")
+    void testCandidateScope() {
+        CourseFacetIndex.Result result = index.search(query()
+                .courseIds(Set.of(2L, 3L, 99L))
+                .types(Set.of(Course.CourseType.ELECTIVE))
+                .build());
+
+        assertEquals(List.of(2L, 3L), result.courseIds());
+        assertEquals(2, result.total());
+        assertEquals(1, count(result, Dimension.FACULTY, "1"));
+        assertEquals(1, count(result, Dimension.FACULTY, "2"));
+        // 类型计数排除类型条件，但仍限定在候选范围内：范围外的必修课1和4不计入
+        assertEquals(List.of("ELECTIVE"), result.facets().get(Dimension.TYPE).stream().map(FacetCount::value).toList());
+        assertEquals(1, count(result, Dimension.DAY, "1"));
+    }
+
+    @Test
+    @DisplayName("列表顺序 - 已有AI总结的在前，其次按评价数降序，分页按此顺序")
+    void testListOrder() {
+        CourseFacetIndex ordered = new CourseFacetIndex(new CourseCatalogSnapshot(2L, List.of(
+                course(1L, 1L, "资讯工程学院", 10L, Course.CourseType.COMPULSORY, 3.0, 0, null).toBuilder()
+                        .reviewCount(3).build(),
+                course(2L, 1L, "资讯工程学院", 10L, Course.CourseType.COMPULSORY, 3.0, 0, null).toBuilder()
+                        .reviewCount(1).hasSummary(true).build(),
+                course(3L, 1L, "资讯工程学院", 10L, Course.CourseType.COMPULSORY, 3.0, 0, null).toBuilder()
+                        .reviewCount(8).build(),
+                course(4L, 1L, "资讯工程学院", 10L, Course.CourseType.COMPULSORY, 3.0, 0, null).toBuilder()
+                        .reviewCount(5).hasSummary(true).build())));
+
+        assertEquals(List.of(4L, 2L, 3L, 1L), ordered.search(query().build()).courseIds());
+        assertEquals(List.of(3L, 1L), ordered.search(query().page(1).size(2).build()).courseIds());
+    }
+
+    private CourseFacetQuery.CourseFacetQueryBuilder query() {
+        return CourseFacetQuery.builder().page(0).size(20);
+    }
+
+    private FacetCount facet(CourseFacetIndex.Result result, Dimension dimension, String value) {
+        return result.facets().get(dimension).stream()
+                .filter(count -> count.value().equals(value))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError(dimension + " 中没有取值 " + value));
+    }
+
+    private int count(CourseFacetIndex.Result result, Dimension dimension, String value) {
+        return facet(result, dimension, value).count();
+    }
+
+    private CourseEntry course(Long id, Long facultyId, String facultyName, Long teacherId,
+                               Course.CourseType type, Double credits, int scheduleMask, Double averageRating) {
+        return CourseEntry.builder()
+                .id(id)
+                .code("C" + id)
+                .name("课程" + id)
+                .facultyId(facultyId)
+                .facultyName(facultyName)
+                .teacherId(teacherId)
+                .teacherName("教师" + teacherId)
+                .type(type)
+                .credits(credits)
+                .scheduleMask(scheduleMask)
+                .averageRating(averageRating)
+                .build();
+    }
+}
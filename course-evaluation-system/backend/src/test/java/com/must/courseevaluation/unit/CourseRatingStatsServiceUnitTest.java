@@ -0,0 +1,259 @@
+package com.must.courseevaluation.unit;
+
+import com.must.courseevaluation.model.CourseRatingStats;
+import com.must.courseevaluation.repository.CourseRatingStatsRepository;
+import com.must.courseevaluation.service.catalog.CourseCatalogChangedEvent;
+import com.must.courseevaluation.service.impl.CourseRatingStatsServiceImpl;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * CourseRatingStatsService 单元测试
+ * 测试课程评分聚合的增量维护、读取与全量重建
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CourseRatingStatsService 单元测试")
+class CourseRatingStatsServiceUnitTest {
+
+    @Mock
+    private CourseRatingStatsRepository courseRatingStatsRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private CourseRatingStatsServiceImpl courseRatingStatsService;
+
+    private CourseRatingStats existingStats;
+
+    @BeforeEach
+    void setUp() {
+        // 已有两条评价：5星和3星
+        existingStats = new CourseRatingStats(1L);
+        existingStats.addRating(5);
+        existingStats.addRating(3);
+    }
+
+    // ==================== 增量维护测试 ====================
+
+    @Nested
+    @DisplayName("增量维护测试")
+    class IncrementalUpdateTests {
+
+        @Test
+        @DisplayName("新增评价 - 原子累加聚合行")
+        void testRecordReviewAdded() {
+            // Given
+            when(courseRatingStatsRepository.applyDelta(2L, 1, 4, 0, 0, 0, 1, 0)).thenReturn(1);
+
+            // When
+            courseRatingStatsService.recordReviewAdded(2L, 4);
+
+            // Then：聚合行已存在时只执行一条 UPDATE，不先查询再插入
+            verify(courseRatingStatsRepository).applyDelta(2L, 1, 4, 0, 0, 0, 1, 0);
+            verify(courseRatingStatsRepository, never()).insertEmpty(any());
+            verify(courseRatingStatsRepository, never()).save(any());
+
+            // 通知课程目录快照刷新该课程评分
+            ArgumentCaptor<CourseCatalogChangedEvent> eventCaptor = ArgumentCaptor.forClass(CourseCatalogChangedEvent.class);
+            verify(eventPublisher).publishEvent(eventCaptor.capture());
+            assertEquals(CourseCatalogChangedEvent.Scope.RATINGS, eventCaptor.getValue().getScope());
+            assertEquals(2L, eventCaptor.getValue().getCourseId());
+        }
+
+        @Test
+        @DisplayName("首条评价 - 独立事务补建聚合行后累加")
+        void testRecordFirstReview() {
+            // Given：第一次 UPDATE 没有命中聚合行
+            when(courseRatingStatsRepository.applyDelta(3L, 1, 5, 0, 0, 0, 0, 1)).thenReturn(0, 1);
+
+            // When
+            courseRatingStatsService.recordReviewAdded(3L, 5);
+
+            // Then
+            InOrder inOrder = inOrder(courseRatingStatsRepository, transactionManager);
+            inOrder.verify(courseRatingStatsRepository).applyDelta(3L, 1, 5, 0, 0, 0, 0, 1);
+            inOrder.verify(transactionManager).getTransaction(any());
+            inOrder.verify(courseRatingStatsRepository).insertEmpty(3L);
+            inOrder.verify(transactionManager).commit(any());
+            inOrder.verify(courseRatingStatsRepository).applyDelta(3L, 1, 5, 0, 0, 0, 0, 1);
+            verify(courseRatingStatsRepository, times(1)).insertEmpty(3L);
+        }
+
+        @Test
+        @DisplayName("并发首条评价 - 忽略主键冲突后累加")
+        void testRecordFirstReviewConcurrentInsert() {
+            // Given：另一个事务已抢先插入聚合行
+            when(courseRatingStatsRepository.applyDelta(3L, 1, 2, 0, 1, 0, 0, 0)).thenReturn(0, 1);
+            when(courseRatingStatsRepository.insertEmpty(3L))
+                    .thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+            // When
+            courseRatingStatsService.recordReviewAdded(3L, 2);
+
+            // Then
+            verify(courseRatingStatsRepository, times(2)).applyDelta(3L, 1, 2, 0, 1, 0, 0, 0);
+            verify(courseRatingStatsRepository, times(1)).insertEmpty(3L);
+            verify(eventPublisher).publishEvent(any(CourseCatalogChangedEvent.class));
+        }
+
+        @Test
+        @DisplayName("修改评分 - 直方图桶迁移")
+        void testRecordRatingChanged() {
+            // Given
+            when(courseRatingStatsRepository.applyDelta(1L, 0, -2, 1, 0, -1, 0, 0)).thenReturn(1);
+
+            // When
+            courseRatingStatsService.recordRatingChanged(1L, 3, 1);
+
+            // Then
+            verify(courseRatingStatsRepository).applyDelta(1L, 0, -2, 1, 0, -1, 0, 0);
+        }
+
+        @Test
+        @DisplayName("评分未变化 - 不访问数据库")
+        void testRecordRatingUnchanged() {
+            // When
+            courseRatingStatsService.recordRatingChanged(1L, 4, 4);
+
+            // Then
+            verifyNoInteractions(courseRatingStatsRepository);
+            verifyNoInteractions(eventPublisher);
+        }
+
+        @Test
+        @DisplayName("删除评价 - 计数减少")
+        void testRecordReviewRemoved() {
+            // Given
+            when(courseRatingStatsRepository.applyDelta(1L, -1, -5, 0, 0, 0, 0, -1)).thenReturn(1);
+
+            // When
+            courseRatingStatsService.recordReviewRemoved(1L, 5);
+
+            // Then
+            verify(courseRatingStatsRepository).applyDelta(1L, -1, -5, 0, 0, 0, 0, -1);
+        }
+    }
+
+    // ==================== 读取测试 ====================
+
+    @Nested
+    @DisplayName("评分读取测试")
+    class ReadTests {
+
+        @Test
+        @DisplayName("课程评分统计 - 平均分与分布")
+        void testGetCourseRatings() {
+            // Given
+            when(courseRatingStatsRepository.findById(1L)).thenReturn(Optional.of(existingStats));
+
+            // When
+            Map<String, Object> result = courseRatingStatsService.getCourseRatings(1L);
+
+            // Then
+            assertEquals(4.0, result.get("averageRating"));
+            assertEquals(2, result.get("totalReviews"));
+            @SuppressWarnings("unchecked")
+            Map<Integer, Integer> distribution = (Map<Integer, Integer>) result.get("ratingDistribution");
+            assertEquals(1, distribution.get(5));
+            assertEquals(0, distribution.get(4));
+        }
+
+        @Test
+        @DisplayName("无聚合行 - 返回默认统计")
+        void testGetCourseRatingsMissing() {
+            // Given
+            when(courseRatingStatsRepository.findById(9L)).thenReturn(Optional.empty());
+
+            // When
+            Map<String, Object> result = courseRatingStatsService.getCourseRatings(9L);
+
+            // Then
+            assertEquals(0.0, result.get("averageRating"));
+            assertEquals(0, result.get("totalReviews"));
+            assertNull(courseRatingStatsService.getAverageRating(9L));
+        }
+
+        @Test
+        @DisplayName("教师评分 - 合并各课程聚合")
+        void testGetTeacherRatings() {
+            // Given
+            CourseRatingStats other = new CourseRatingStats(2L);
+            other.addRating(1);
+            when(courseRatingStatsRepository.findByTeacherId(1L)).thenReturn(Arrays.asList(existingStats, other));
+
+            // When
+            Map<String, Object> result = courseRatingStatsService.getTeacherRatings(1L);
+
+            // Then
+            assertEquals(3, result.get("totalReviews"));
+            assertEquals(3.0, result.get("averageRating"));
+        }
+    }
+
+    // ==================== 全量重建测试 ====================
+
+    @Nested
+    @DisplayName("rebuildAll() 方法测试")
+    class RebuildTests {
+
+        @Test
+        @DisplayName("补建缺失行并锁定聚合行后重新统计")
+        void testRebuildAll() {
+            // Given：3门课程有聚合行，其中1门已没有评价
+            when(courseRatingStatsRepository.lockAllCourseIds()).thenReturn(Arrays.asList(1L, 2L, 3L));
+            when(courseRatingStatsRepository.deleteEmpty(Arrays.asList(1L, 2L, 3L))).thenReturn(1);
+            when(courseRatingStatsRepository.sumReviewCount()).thenReturn(6L);
+
+            // When
+            Map<String, Object> result = courseRatingStatsService.rebuildAll();
+
+            // Then
+            assertEquals(true, result.get("success"));
+            assertEquals(2, result.get("courseCount"));
+            assertEquals(6L, result.get("reviewCount"));
+
+            InOrder inOrder = inOrder(courseRatingStatsRepository);
+            inOrder.verify(courseRatingStatsRepository).insertMissingForReviewedCourses();
+            inOrder.verify(courseRatingStatsRepository).lockAllCourseIds();
+            inOrder.verify(courseRatingStatsRepository).recomputeFromReviews(Arrays.asList(1L, 2L, 3L));
+            inOrder.verify(courseRatingStatsRepository).deleteEmpty(Arrays.asList(1L, 2L, 3L));
+            verify(courseRatingStatsRepository, never()).deleteAllInBatch();
+        }
+
+        @Test
+        @DisplayName("补建冲突时重试")
+        void testRebuildRetriesSeedConflict() {
+            // Given
+            when(courseRatingStatsRepository.insertMissingForReviewedCourses())
+                    .thenThrow(new DataIntegrityViolationException("duplicate key"))
+                    .thenReturn(1);
+            when(courseRatingStatsRepository.lockAllCourseIds()).thenReturn(List.of());
+
+            // When
+            Map<String, Object> result = courseRatingStatsService.rebuildAll();
+
+            // Then
+            verify(courseRatingStatsRepository, times(2)).insertMissingForReviewedCourses();
+            verify(courseRatingStatsRepository, never()).recomputeFromReviews(any());
+            assertEquals(0, result.get("courseCount"));
+        }
+    }
+}
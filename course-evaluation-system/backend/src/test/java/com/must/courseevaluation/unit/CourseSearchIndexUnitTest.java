@@ -0,0 +1,110 @@
+package com.must.courseevaluation.unit;
+
+import com.must.courseevaluation.service.catalog.CourseCatalogSnapshot.CourseEntry;
+import com.must.courseevaluation.service.search.CourseSearchIndex;
+import com.must.courseevaluation.service.search.CourseSearchIndex.Field;
+import org.junit.jupiter.api.*;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * CourseSearchIndex 单元测试
+ * 测试二元组倒排索引的相关度排序、子串匹配与增量更新
+ */
+@DisplayName("CourseSearchIndex 单元测试")
+class CourseSearchIndexUnitTest {
+
+    private CourseSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new CourseSearchIndex();
+        index.sync(List.of(
+                course(1L, "CS101", "人工智能导论", "介绍机器学习与深度学习", "张教授", "资讯工程学院"),
+                course(2L, "CS201", "数据库系统", "关系数据库与SQL，涉及少量人工智能应用", "李教授", "资讯工程学院"),
+                course(3L, "BA101", "市场营销", "营销策略与品牌管理", "王教授", "商学院")));
+    }
+
+    @Test
+    @DisplayName("中文查询 - 名称命中的课程排在描述命中之前")
+    void testChineseQueryRanksNameFirst() {
+        List<CourseSearchIndex.Hit> hits = index.search("人工智能", 10);
+
+        assertEquals(2, hits.size());
+        assertEquals(1L, hits.get(0).courseId());
+        assertEquals(2L, hits.get(1).courseId());
+        assertTrue(hits.get(0).score() > hits.get(1).score());
+    }
+
+    @Test
+    @DisplayName("按课程代码、教师和学院搜索 - 忽略大小写")
+    void testSearchByCodeTeacherAndFaculty() {
+        assertEquals(3L, index.search("ba101", 10).get(0).courseId());
+        assertEquals(2L, index.search("李教授", 10).get(0).courseId());
+        assertEquals(3L, index.search("商学院", 10).get(0).courseId());
+    }
+
+    @Test
+    @DisplayName("limit 截断结果，无匹配返回空列表")
+    void testLimitAndNoMatch() {
+        assertEquals(1, index.search("教授", 1).size());
+        assertTrue(index.search("物理", 10).isEmpty());
+        assertTrue(index.search("  ", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("findContaining - 只在指定字段中确认子串")
+    void testFindContaining() {
+        Set<Field> nameAndDescription = EnumSet.of(Field.NAME, Field.DESCRIPTION);
+
+        assertEquals(Set.of(1L, 2L), index.findContaining("人工智能", nameAndDescription));
+        assertEquals(Set.of(1L), index.findContaining("人工智能", EnumSet.of(Field.NAME)));
+        assertEquals(Set.of(2L), index.findContaining("sql", nameAndDescription));
+        assertTrue(index.findContaining("人工导论", nameAndDescription).isEmpty());
+    }
+
+    @Test
+    @DisplayName("增量同步 - 修改和删除后旧内容不再命中")
+    void testSyncUpdateAndRemove() {
+        index.sync(List.of(
+                course(2L, "CS201", "数据库系统", "关系数据库与SQL，涉及少量人工智能应用", "李教授", "资讯工程学院"),
+                course(3L, "BA101", "财务会计", "会计基础", "王教授", "商学院")));
+
+        assertTrue(index.search("营销", 10).isEmpty());
+        assertEquals(3L, index.search("会计", 10).get(0).courseId());
+        assertEquals(List.of(2L), index.search("人工智能", 10).stream().map(CourseSearchIndex.Hit::courseId).toList());
+    }
+
+    @Test
+    @DisplayName("sync - 只重新索引新增、变化和删除的课程")
+    void testSyncCountsOnlyChangedCourses() {
+        int changed = index.sync(List.of(
+                course(1L, "CS101", "人工智能导论", "介绍机器学习与深度学习", "张教授", "资讯工程学院"),
+                course(2L, "CS201", "数据库原理", "关系数据库与SQL", "李教授", "资讯工程学院"),
+                course(4L, "MA101", "高等数学", "微积分", "赵教授", "通识教育部")));
+
+        assertEquals(3, changed, "课程2更新、课程4新增、课程3删除");
+        assertTrue(index.search("营销", 10).isEmpty());
+        assertEquals(4L, index.search("高等数学", 10).get(0).courseId());
+        assertEquals(0, index.sync(List.of(
+                course(1L, "CS101", "人工智能导论", "介绍机器学习与深度学习", "张教授", "资讯工程学院"),
+                course(2L, "CS201", "数据库原理", "关系数据库与SQL", "李教授", "资讯工程学院"),
+                course(4L, "MA101", "高等数学", "微积分", "赵教授", "通识教育部"))));
+    }
+
+    private CourseEntry course(Long id, String code, String name, String description,
+                               String teacherName, String facultyName) {
+        return CourseEntry.builder()
+                .id(id)
+                .code(code)
+                .name(name)
+                .description(description)
+                .teacherName(teacherName)
+                .facultyName(facultyName)
+                .build();
+    }
+}
@@ -8,12 +8,16 @@ import com.must.courseevaluation.model.CourseSchedule;
 import com.must.courseevaluation.model.Faculty;
 import com.must.courseevaluation.model.Teacher;
 import com.must.courseevaluation.repository.*;
+import com.must.courseevaluation.service.TimetableService;
+import com.must.courseevaluation.service.catalog.CourseCatalogChangedEvent;
 import com.must.courseevaluation.service.impl.CourseServiceImpl;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.Arrays;
 import java.util.Collections;
@@ -47,6 +51,12 @@ class CourseServiceUnitTest {
     @Mock
     private UserScheduleRepository userScheduleRepository;
 
+    @Mock
+    private TimetableService timetableService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private CourseServiceImpl courseService;
 
@@ -530,6 +540,7 @@ class CourseServiceUnitTest {
             // Then
             verify(courseRepository).existsById(1L);
             verify(courseRepository).deleteById(1L);
+            verify(eventPublisher).publishEvent(any(CourseCatalogChangedEvent.class));
         }
 
         @Test
@@ -650,5 +661,65 @@ class CourseServiceUnitTest {
             verify(courseScheduleRepository, never()).deleteById(anyLong());
         }
     }
-}
 
+    // ==================== findCoursesWithoutConflict() 测试 ====================
+
+    @Nested
+    @DisplayName("findCoursesWithoutConflict() 方法测试")
+    class FindCoursesWithoutConflictTests {
+
+        @Test
+        @DisplayName("整表加载课程和时间安排，按不冲突的课程ID过滤")
+        void testFindCoursesWithoutConflict() {
+            // Given - 课程2与用户课表冲突
+            Course conflicting = new Course();
+            conflicting.setId(2L);
+            conflicting.setCode("CS102");
+            conflicting.setName("数据结构");
+
+            CourseSchedule schedule = new CourseSchedule();
+            schedule.setId(1L);
+            schedule.setCourse(testCourse);
+            schedule.setDayOfWeek(2);
+            schedule.setTimePeriod(3);
+            CourseSchedule conflictingSchedule = new CourseSchedule();
+            conflictingSchedule.setId(2L);
+            conflictingSchedule.setCourse(conflicting);
+            conflictingSchedule.setDayOfWeek(1);
+            conflictingSchedule.setTimePeriod(1);
+
+            when(timetableService.findCourseIdsWithoutConflict(1L)).thenReturn(List.of(1L));
+            when(courseRepository.findAllWithRelations()).thenReturn(List.of(testCourse, conflicting));
+            when(courseScheduleRepository.findAll()).thenReturn(List.of(schedule, conflictingSchedule));
+
+            // When
+            List<CourseDto> result = courseService.findCoursesWithoutConflict(1L);
+
+            // Then - 不按ID列表查询，避免不冲突课程很多时超出参数个数上限
+            assertEquals(1, result.size());
+            assertEquals("CS101", result.get(0).getCode());
+            assertEquals(1, result.get(0).getSchedules().size());
+            verify(courseRepository, never()).findByIdInWithRelations(any());
+            verify(courseScheduleRepository, never()).findByCourseIdIn(any());
+            verify(courseScheduleRepository, never()).findByCourseId(anyLong());
+            // 先加载课程，时间安排转换时读取的课程已在持久化上下文中
+            InOrder inOrder = inOrder(courseRepository, courseScheduleRepository);
+            inOrder.verify(courseRepository).findAllWithRelations();
+            inOrder.verify(courseScheduleRepository).findAll();
+        }
+
+        @Test
+        @DisplayName("所有课程都冲突 - 返回空列表且不查询课程")
+        void testAllCoursesConflict() {
+            // Given
+            when(timetableService.findCourseIdsWithoutConflict(1L)).thenReturn(Collections.emptyList());
+
+            // When
+            List<CourseDto> result = courseService.findCoursesWithoutConflict(1L);
+
+            // Then
+            assertTrue(result.isEmpty());
+            verifyNoInteractions(courseRepository, courseScheduleRepository);
+        }
+    }
+}
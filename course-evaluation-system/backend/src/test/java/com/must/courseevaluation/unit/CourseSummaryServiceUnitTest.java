@@ -0,0 +1,299 @@
+package com.must.courseevaluation.unit;
+
+import com.must.courseevaluation.dto.CourseSummaryDto;
+import com.must.courseevaluation.model.Course;
+import com.must.courseevaluation.model.Review;
+import com.must.courseevaluation.model.ReviewVote;
+import com.must.courseevaluation.repository.CourseRepository;
+import com.must.courseevaluation.repository.ReviewRepository;
+import com.must.courseevaluation.service.impl.CourseSummaryServiceImpl;
+import com.must.courseevaluation.service.llm.ChatCompletionRequest;
+import com.must.courseevaluation.service.llm.DeepSeekClient;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * CourseSummaryService 单元测试
+ * 测试AI总结的增量更新、抽样全量生成与退回全量生成
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CourseSummaryService 单元测试")
+class CourseSummaryServiceUnitTest {
+
+    private static final String SUMMARY_JSON = "{\"overall\":\"内容扎实\",\"difficulty\":\"适中\",\"teaching\":\"清晰\","
+            + "\"pros\":[\"实用\"],\"cons\":[\"作业多\"],\"suggestion\":\"认真完成作业\"}";
+
+    @Mock
+    private CourseRepository courseRepository;
+
+    @Mock
+    private ReviewRepository reviewRepository;
+
+    @Mock
+    private DeepSeekClient deepSeekClient;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private CourseSummaryServiceImpl courseSummaryService;
+
+    private Course course;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(courseSummaryService, "enabled", true);
+        when(deepSeekClient.isConfigured()).thenReturn(true);
+
+        course = new Course();
+        course.setId(1L);
+        course.setCode("CS101");
+        course.setName("数据结构");
+        when(courseRepository.findById(1L)).thenReturn(Optional.of(course));
+    }
+
+    private Review review(int rating, String content) {
+        Review review = new Review();
+        review.setRating(rating);
+        review.setContent(content);
+        review.setCourse(course);
+        return review;
+    }
+
+    private List<Review> reviews(int count) {
+        List<Review> reviews = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Review review = review(4, "评价" + i);
+            review.setId((long) i + 1);
+            reviews.add(review);
+        }
+        return reviews;
+    }
+
+    /**
+     * 模拟抽样字段查询与按ID加载：共 count 条已审核评价
+     */
+    @SuppressWarnings("unchecked")
+    private void givenApprovedReviews(int count) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            rows.add(new Object[]{(long) i + 1, 4, LocalDateTime.now().minusDays(i), 0L});
+        }
+        when(reviewRepository.findSamplingCandidates(1L, Review.ReviewStatus.APPROVED,
+                ReviewVote.VoteType.LIKE, ReviewVote.VoteType.DISLIKE)).thenReturn(rows);
+        if (count >= 10) {
+            when(reviewRepository.findAllById(any())).thenAnswer(invocation -> {
+                Set<Long> ids = new HashSet<>();
+                ((Iterable<Long>) invocation.getArgument(0)).forEach(ids::add);
+                return reviews(count).stream().filter(r -> ids.contains(r.getId())).toList();
+            });
+        }
+    }
+
+    // ==================== 增量更新测试 ====================
+
+    @Nested
+    @DisplayName("增量更新测试")
+    class IncrementalTests {
+
+        @BeforeEach
+        void setUpSummary() {
+            course.setAiSummary(SUMMARY_JSON);
+            course.setAiSummaryUpdatedAt(LocalDateTime.now().minusDays(1));
+            course.setAiSummaryReviewCount(20);
+        }
+
+        @Test
+        @DisplayName("有新增评价 - 只把已有总结和新评价交给大模型")
+        void testIncrementalUpdate() throws Exception {
+            // Given
+            when(reviewRepository.findChangedSince(eq(1L), eq(Review.ReviewStatus.APPROVED), any(), any()))
+                    .thenReturn(List.of(review(2, "考试太难"), review(5, "老师很负责")));
+            when(reviewRepository.countByCourseAndStatus(course, Review.ReviewStatus.APPROVED)).thenReturn(22L);
+            when(deepSeekClient.chatCompletion(any())).thenReturn(SUMMARY_JSON);
+
+            // When
+            CourseSummaryDto result = courseSummaryService.refreshCourseSummary(1L);
+
+            // Then
+            ArgumentCaptor<ChatCompletionRequest> captor = ArgumentCaptor.forClass(ChatCompletionRequest.class);
+            verify(deepSeekClient).chatCompletion(captor.capture());
+            String prompt = captor.getValue().getUserPrompt();
+            assertTrue(prompt.contains(SUMMARY_JSON));
+            assertTrue(prompt.contains("考试太难"));
+            assertTrue(prompt.contains("老师很负责"));
+
+            verify(reviewRepository, never()).findByCourseAndStatus(any(), any());
+            assertEquals(22, course.getAiSummaryReviewCount());
+            assertEquals(22, result.getReviewCount());
+            verify(courseRepository).save(course);
+        }
+
+        @Test
+        @DisplayName("更新时间 - 记为查询评价之前的水位，调用大模型期间写入的评价留给下次")
+        void testWatermarkTakenBeforeQuery() throws Exception {
+            // Given：记录查询时间，大模型调用耗时之后才返回
+            AtomicReference<LocalDateTime> queriedAt = new AtomicReference<>();
+            when(reviewRepository.findChangedSince(eq(1L), eq(Review.ReviewStatus.APPROVED), any(), any()))
+                    .thenAnswer(invocation -> {
+                        queriedAt.set(LocalDateTime.now());
+                        return List.of(review(2, "考试太难"));
+                    });
+            when(reviewRepository.countByCourseAndStatus(course, Review.ReviewStatus.APPROVED)).thenReturn(21L);
+            when(deepSeekClient.chatCompletion(any())).thenAnswer(invocation -> {
+                Thread.sleep(20);
+                return SUMMARY_JSON;
+            });
+
+            // When
+            LocalDateTime beforeRefresh = LocalDateTime.now();
+            courseSummaryService.refreshCourseSummary(1L);
+
+            // Then
+            assertFalse(course.getAiSummaryUpdatedAt().isBefore(beforeRefresh));
+            assertFalse(course.getAiSummaryUpdatedAt().isAfter(queriedAt.get()));
+        }
+
+        @Test
+        @DisplayName("调用大模型 - 在读取事务提交之后、保存事务开始之前进行")
+        void testLlmCallOutsideTransaction() throws Exception {
+            // Given
+            when(reviewRepository.findChangedSince(eq(1L), eq(Review.ReviewStatus.APPROVED), any(), any()))
+                    .thenReturn(List.of(review(2, "考试太难")));
+            when(reviewRepository.countByCourseAndStatus(course, Review.ReviewStatus.APPROVED)).thenReturn(21L);
+            when(deepSeekClient.chatCompletion(any())).thenReturn(SUMMARY_JSON);
+
+            // When
+            courseSummaryService.refreshCourseSummary(1L);
+
+            // Then
+            InOrder inOrder = inOrder(transactionManager, reviewRepository, deepSeekClient, courseRepository);
+            inOrder.verify(transactionManager).getTransaction(any());
+            inOrder.verify(reviewRepository).findChangedSince(eq(1L), any(), any(), any());
+            inOrder.verify(transactionManager).commit(any());
+            inOrder.verify(deepSeekClient).chatCompletion(any());
+            inOrder.verify(transactionManager).getTransaction(any());
+            inOrder.verify(courseRepository).save(course);
+            inOrder.verify(transactionManager).commit(any());
+        }
+
+        @Test
+        @DisplayName("调用大模型期间已保存水位更新的总结 - 保留较新的总结")
+        void testNewerSummarySavedDuringCall() throws Exception {
+            // Given：大模型返回前，另一次生成已经以更新的水位保存了总结
+            LocalDateTime newerWatermark = LocalDateTime.now().plusMinutes(1);
+            when(reviewRepository.findChangedSince(eq(1L), eq(Review.ReviewStatus.APPROVED), any(), any()))
+                    .thenReturn(List.of(review(2, "考试太难")));
+            when(reviewRepository.countByCourseAndStatus(course, Review.ReviewStatus.APPROVED)).thenReturn(21L);
+            when(deepSeekClient.chatCompletion(any())).thenAnswer(invocation -> {
+                course.setAiSummaryUpdatedAt(newerWatermark);
+                course.setAiSummaryReviewCount(25);
+                return SUMMARY_JSON.replace("内容扎实", "内容过时");
+            });
+
+            // When
+            CourseSummaryDto result = courseSummaryService.refreshCourseSummary(1L);
+
+            // Then
+            verify(courseRepository, never()).save(any());
+            assertEquals(SUMMARY_JSON, course.getAiSummary());
+            assertEquals(newerWatermark, course.getAiSummaryUpdatedAt());
+            assertEquals("内容扎实", result.getOverall());
+            assertEquals(25, result.getReviewCount());
+        }
+
+        @Test
+        @DisplayName("没有新增评价 - 沿用已有总结，不调用大模型")
+        void testNoNewReviews() throws Exception {
+            // Given
+            when(reviewRepository.findChangedSince(eq(1L), eq(Review.ReviewStatus.APPROVED), any(), any()))
+                    .thenReturn(List.of());
+            when(reviewRepository.countByCourseAndStatus(course, Review.ReviewStatus.APPROVED)).thenReturn(18L);
+
+            // When
+            CourseSummaryDto result = courseSummaryService.refreshCourseSummary(1L);
+
+            // Then
+            assertEquals("内容扎实", result.getOverall());
+            assertEquals(18, course.getAiSummaryReviewCount());
+            verify(deepSeekClient, never()).chatCompletion(any());
+        }
+
+        @Test
+        @DisplayName("新增评价超过上限 - 退回全量生成")
+        void testTooManyNewReviews() throws Exception {
+            // Given
+            when(reviewRepository.findChangedSince(eq(1L), eq(Review.ReviewStatus.APPROVED), any(), any()))
+                    .thenReturn(reviews(51));
+            givenApprovedReviews(80);
+            when(deepSeekClient.chatCompletion(any())).thenReturn(SUMMARY_JSON);
+
+            // When
+            courseSummaryService.refreshCourseSummary(1L);
+
+            // Then
+            assertEquals(80, course.getAiSummaryReviewCount());
+            ArgumentCaptor<ChatCompletionRequest> captor = ArgumentCaptor.forClass(ChatCompletionRequest.class);
+            verify(deepSeekClient).chatCompletion(captor.capture());
+            assertFalse(captor.getValue().getUserPrompt().contains(SUMMARY_JSON));
+            verify(reviewRepository, never()).findByCourseAndStatus(any(), any());
+        }
+    }
+
+    // ==================== 全量生成测试 ====================
+
+    @Nested
+    @DisplayName("全量生成测试")
+    class FullRegenerationTests {
+
+        @Test
+        @DisplayName("没有已有总结 - 全量生成")
+        void testNoPreviousSummary() throws Exception {
+            // Given
+            givenApprovedReviews(12);
+            when(deepSeekClient.chatCompletion(any())).thenReturn(SUMMARY_JSON);
+
+            // When
+            CourseSummaryDto result = courseSummaryService.refreshCourseSummary(1L);
+
+            // Then
+            assertEquals(12, result.getReviewCount());
+            assertNotNull(course.getAiSummaryUpdatedAt());
+            ArgumentCaptor<ChatCompletionRequest> captor = ArgumentCaptor.forClass(ChatCompletionRequest.class);
+            verify(deepSeekClient).chatCompletion(captor.capture());
+            assertTrue(captor.getValue().getUserPrompt().contains("评价11"));
+            verify(reviewRepository, never()).findChangedSince(any(), any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("评价不足10条 - 抛出异常")
+        void testNotEnoughReviews() {
+            // Given
+            givenApprovedReviews(5);
+
+            // When & Then
+            RuntimeException exception = assertThrows(RuntimeException.class,
+                    () -> courseSummaryService.regenerateCourseSummary(1L));
+            assertEquals("评价数量不足10条，无法生成AI总结", exception.getMessage());
+        }
+    }
+}
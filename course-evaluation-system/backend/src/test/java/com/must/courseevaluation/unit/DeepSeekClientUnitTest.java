@@ -0,0 +1,265 @@
+package com.must.courseevaluation.unit;
+
+import com.must.courseevaluation.service.llm.ChatCompletionRequest;
+import com.must.courseevaluation.service.llm.DeepSeekClient;
+import com.must.courseevaluation.service.llm.LlmClientException;
+import com.must.courseevaluation.service.llm.LlmResponseCache;
+import com.must.courseevaluation.service.llm.StreamCancellation;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * DeepSeekClient 单元测试
+ * 使用本地 HttpServer 模拟 DeepSeek API，测试请求构造、超时与指标记录
+ */
+@DisplayName("DeepSeekClient 单元测试")
+class DeepSeekClientUnitTest {
+
+    private HttpServer server;
+    private SimpleMeterRegistry meterRegistry;
+    private DeepSeekClient client;
+
+    private final AtomicReference<String> lastRequestBody = new AtomicReference<>();
+    private final AtomicReference<String> lastAuthorization = new AtomicReference<>();
+    private final AtomicInteger requestCount = new AtomicInteger();
+
+    private volatile int responseStatus;
+    private volatile String responseBody;
+    private volatile long responseDelayMs;
+
+    // 流式响应发送第一个数据块后停止发送，直到测试结束
+    private volatile boolean stallAfterFirstChunk;
+    private final CountDownLatch releaseStall = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() throws IOException {
+        responseStatus = 200;
+        responseBody = """
+                {"choices":[{"message":{"content":"你好"}}],
+                 "usage":{"prompt_tokens":12,"completion_tokens":3,"total_tokens":15}}
+                """;
+        responseDelayMs = 0;
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1/chat/completions", exchange -> {
+            requestCount.incrementAndGet();
+            lastRequestBody.set(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            lastAuthorization.set(exchange.getRequestHeaders().getFirst("Authorization"));
+            try {
+                Thread.sleep(responseDelayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (stallAfterFirstChunk) {
+                exchange.sendResponseHeaders(200, 0);
+                try (OutputStream os = exchange.getResponseBody()) {
+                    os.write("data: {\"choices\":[{\"delta\":{\"content\":\"为您\"}}]}\n\n"
+                            .getBytes(StandardCharsets.UTF_8));
+                    os.flush();
+                    releaseStall.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return;
+            }
+            byte[] bytes = responseBody.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(responseStatus, bytes.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(bytes);
+            }
+        });
+        server.start();
+
+        meterRegistry = new SimpleMeterRegistry();
+        client = new DeepSeekClient("test-key",
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/v1",
+                "deepseek-chat", 1000, 2000, meterRegistry,
+                new LlmResponseCache(100, Duration.ofMinutes(10), meterRegistry));
+    }
+
+    @AfterEach
+    void tearDown() {
+        releaseStall.countDown();
+        client.shutdown();
+        server.stop(0);
+    }
+
+    private ChatCompletionRequest.ChatCompletionRequestBuilder request() {
+        return ChatCompletionRequest.builder()
+                .caller("TestAgent")
+                .systemPrompt("system")
+                .userPrompt("user");
+    }
+
+    @Test
+    @DisplayName("成功调用 - 返回回复内容并记录指标")
+    void testChatCompletionSuccess() {
+        // When
+        String content = client.chatCompletion(request().temperature(0.3).maxTokens(50).jsonResponse(true).build());
+
+        // Then
+        assertEquals("你好", content);
+        assertEquals("Bearer test-key", lastAuthorization.get());
+        assertTrue(lastRequestBody.get().contains("\"max_tokens\":50"));
+        assertTrue(lastRequestBody.get().contains("\"response_format\""));
+        assertEquals(1, meterRegistry.get("llm.client.requests")
+                .tag("caller", "TestAgent").tag("outcome", "success").timer().count());
+        assertEquals(12.0, meterRegistry.get("llm.client.tokens")
+                .tag("caller", "TestAgent").tag("type", "prompt").summary().totalAmount());
+    }
+
+    @Test
+    @DisplayName("非JSON模式 - 不发送 response_format")
+    void testPlainTextRequest() {
+        // When
+        client.chatCompletion(request().build());
+
+        // Then
+        assertFalse(lastRequestBody.get().contains("response_format"));
+    }
+
+    @Test
+    @DisplayName("HTTP错误 - 抛出异常并记录失败")
+    void testChatCompletionHttpError() {
+        // Given
+        responseStatus = 500;
+        responseBody = "{}";
+
+        // When & Then
+        assertThrows(LlmClientException.class, () -> client.chatCompletion(request().build()));
+        assertEquals(1, meterRegistry.get("llm.client.requests")
+                .tag("outcome", "error").timer().count());
+    }
+
+    @Test
+    @DisplayName("超过截止时间 - 抛出超时异常")
+    void testChatCompletionTimeout() {
+        // Given
+        responseDelayMs = 1000;
+
+        // When & Then
+        assertThrows(LlmClientException.class,
+                () -> client.chatCompletion(request().timeout(Duration.ofMillis(200)).build()));
+        assertEquals(1, meterRegistry.get("llm.client.requests")
+                .tag("outcome", "timeout").timer().count());
+    }
+
+    @Test
+    @DisplayName("流式调用 - 逐段回调并返回完整内容")
+    void testStreamChatCompletion() {
+        // Given
+        responseBody = """
+                data: {"choices":[{"delta":{"content":"为您"}}]}
+
+                data: {"choices":[{"delta":{"content":"推荐"}}]}
+
+                data: {"choices":[],"usage":{"prompt_tokens":20,"completion_tokens":2}}
+
+                data: [DONE]
+
+                """;
+        List<String> deltas = new ArrayList<>();
+
+        // When
+        String content = client.streamChatCompletion(request().build(), deltas::add);
+
+        // Then
+        assertEquals("为您推荐", content);
+        assertEquals(List.of("为您", "推荐"), deltas);
+        assertTrue(lastRequestBody.get().contains("\"stream\":true"));
+        assertEquals(2.0, meterRegistry.get("llm.client.tokens")
+                .tag("caller", "TestAgent").tag("type", "completion").summary().totalAmount());
+    }
+
+    @Test
+    @DisplayName("流式调用上游中途停止发送 - 到截止时间抛出超时异常")
+    void testStreamStalledBodyTimesOut() {
+        // Given
+        stallAfterFirstChunk = true;
+        List<String> deltas = new ArrayList<>();
+
+        // When
+        LlmClientException exception = assertTimeoutPreemptively(Duration.ofSeconds(5), () ->
+                assertThrows(LlmClientException.class, () -> client.streamChatCompletion(
+                        request().timeout(Duration.ofMillis(500)).build(), deltas::add)));
+
+        // Then
+        assertTrue(exception.isTimeout());
+        assertEquals(List.of("为您"), deltas);
+        assertEquals(1, meterRegistry.get("llm.client.requests")
+                .tag("outcome", "timeout").timer().count());
+    }
+
+    @Test
+    @DisplayName("流式调用取消 - 关闭上游流并立即返回")
+    void testStreamCancelled() throws Exception {
+        // Given
+        stallAfterFirstChunk = true;
+        StreamCancellation cancellation = new StreamCancellation();
+        CountDownLatch firstDelta = new CountDownLatch(1);
+        CompletableFuture<String> result = CompletableFuture.supplyAsync(() -> client.streamChatCompletion(
+                request().timeout(Duration.ofSeconds(30)).build(), delta -> firstDelta.countDown(), cancellation));
+        assertTrue(firstDelta.await(5, TimeUnit.SECONDS));
+
+        // When
+        cancellation.cancel();
+
+        // Then
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        LlmClientException cause = assertInstanceOf(LlmClientException.class, exception.getCause());
+        assertFalse(cause.isTimeout());
+    }
+
+    @Test
+    @DisplayName("可缓存请求 - 重复提问命中缓存，不再调用 API")
+    void testCacheableRequestServedFromCache() {
+        // When
+        String first = client.chatCompletion(request().userPrompt("推荐编程课程").cacheable(true).build());
+        String second = client.chatCompletion(request().userPrompt("  推荐编程课程 ").cacheable(true).build());
+
+        // Then
+        assertEquals(first, second);
+        assertEquals(1, requestCount.get());
+        assertEquals(1, meterRegistry.get("llm.cache.requests")
+                .tag("caller", "TestAgent").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    @DisplayName("数据版本变化 - 缓存失效")
+    void testCacheVersionChangeMisses() {
+        // When
+        client.chatCompletion(request().cacheable(true).cacheVersion(1L).build());
+        client.chatCompletion(request().cacheable(true).cacheVersion(2L).build());
+
+        // Then
+        assertEquals(2, requestCount.get());
+    }
+
+    @Test
+    @DisplayName("不可缓存请求 - 每次都调用 API")
+    void testNonCacheableRequestAlwaysCalls() {
+        // When
+        client.chatCompletion(request().build());
+        client.chatCompletion(request().build());
+
+        // Then
+        assertEquals(2, requestCount.get());
+    }
+}
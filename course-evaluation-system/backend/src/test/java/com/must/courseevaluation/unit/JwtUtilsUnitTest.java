@@ -0,0 +1,98 @@
+package com.must.courseevaluation.unit;
+
+import com.must.courseevaluation.model.User;
+import com.must.courseevaluation.security.jwt.JwtUtils;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.*;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JwtUtils 单元测试
+ * 测试令牌生成、单次解析校验与已验证令牌缓存
+ */
+@DisplayName("JwtUtils 单元测试")
+class JwtUtilsUnitTest {
+
+    private static final String SECRET = "dGVzdEtleUZvclVuaXRUZXN0aW5nT25seU5vdEZvclByb2R1Y3Rpb25Vc2VQbGVhc2U=";
+
+    private User user(String username) {
+        User user = new User();
+        user.setUsername(username);
+        return user;
+    }
+
+    @Test
+    @DisplayName("有效令牌 - 返回包含用户名的 Claims")
+    void testValidToken() {
+        // Given
+        JwtUtils jwtUtils = new JwtUtils(SECRET, 60_000, 100);
+        String token = jwtUtils.generateJwtTokenForUser(user("alice"));
+
+        // When
+        Optional<Claims> claims = jwtUtils.parseValidatedClaims(token);
+
+        // Then
+        assertTrue(claims.isPresent());
+        assertEquals("alice", claims.get().getSubject());
+        assertTrue(jwtUtils.validateJwtToken(token));
+    }
+
+    @Test
+    @DisplayName("重复校验同一令牌 - 命中缓存")
+    void testCachedClaims() {
+        JwtUtils jwtUtils = new JwtUtils(SECRET, 60_000, 100);
+        String token = jwtUtils.generateJwtTokenForUser(user("alice"));
+
+        Claims first = jwtUtils.parseValidatedClaims(token).orElseThrow();
+        Claims second = jwtUtils.parseValidatedClaims(token).orElseThrow();
+
+        assertSame(first, second);
+    }
+
+    @Test
+    @DisplayName("关闭缓存 - 仍可正常校验")
+    void testCacheDisabled() {
+        JwtUtils jwtUtils = new JwtUtils(SECRET, 60_000, 0);
+        String token = jwtUtils.generateJwtTokenForUser(user("bob"));
+
+        Claims first = jwtUtils.parseValidatedClaims(token).orElseThrow();
+        Claims second = jwtUtils.parseValidatedClaims(token).orElseThrow();
+
+        assertEquals("bob", second.getSubject());
+        assertNotSame(first, second);
+    }
+
+    @Test
+    @DisplayName("篡改的令牌 - 校验失败")
+    void testTamperedToken() {
+        JwtUtils jwtUtils = new JwtUtils(SECRET, 60_000, 100);
+        String token = jwtUtils.generateJwtTokenForUser(user("alice"));
+        // 修改签名的第一个字符（完整承载6位，不会落在填充位上）
+        int signatureStart = token.lastIndexOf('.') + 1;
+        char replacement = token.charAt(signatureStart) == 'A' ? 'B' : 'A';
+        String tampered = token.substring(0, signatureStart) + replacement + token.substring(signatureStart + 1);
+
+        assertTrue(jwtUtils.parseValidatedClaims(tampered).isEmpty());
+    }
+
+    @Test
+    @DisplayName("过期令牌 - 校验失败")
+    void testExpiredToken() {
+        JwtUtils jwtUtils = new JwtUtils(SECRET, -1_000, 100);
+        String token = jwtUtils.generateJwtTokenForUser(user("alice"));
+
+        assertTrue(jwtUtils.parseValidatedClaims(token).isEmpty());
+    }
+
+    @Test
+    @DisplayName("空令牌 - 校验失败")
+    void testEmptyToken() {
+        JwtUtils jwtUtils = new JwtUtils(SECRET, 60_000, 100);
+
+        assertTrue(jwtUtils.parseValidatedClaims(null).isEmpty());
+        assertTrue(jwtUtils.parseValidatedClaims("").isEmpty());
+    }
+}
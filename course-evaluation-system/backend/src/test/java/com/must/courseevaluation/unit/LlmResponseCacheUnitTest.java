@@ -0,0 +1,105 @@
+package com.must.courseevaluation.unit;
+
+import com.must.courseevaluation.service.llm.ChatCompletionRequest;
+import com.must.courseevaluation.service.llm.LlmResponseCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * LlmResponseCache 单元测试
+ * 测试提示词规范化、LRU 淘汰与有效期
+ */
+@DisplayName("LlmResponseCache 单元测试")
+class LlmResponseCacheUnitTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    private ChatCompletionRequest request(String caller, String userPrompt) {
+        return ChatCompletionRequest.builder()
+                .caller(caller)
+                .systemPrompt("system")
+                .userPrompt(userPrompt)
+                .cacheable(true)
+                .build();
+    }
+
+    @Test
+    @DisplayName("规范化提示词 - 忽略空白和大小写差异")
+    void testNormalizedPromptHits() {
+        // Given
+        LlmResponseCache cache = new LlmResponseCache(10, Duration.ofMinutes(1), meterRegistry);
+        cache.put(request("ChatAgent", "推荐 Java  课程"), "回复");
+
+        // When
+        Optional<String> result = cache.get(request("ChatAgent", " 推荐 java 课程\n"));
+
+        // Then
+        assertEquals(Optional.of("回复"), result);
+    }
+
+    @Test
+    @DisplayName("不同调用方 - 不共享缓存")
+    void testDifferentCallersDoNotShare() {
+        // Given
+        LlmResponseCache cache = new LlmResponseCache(10, Duration.ofMinutes(1), meterRegistry);
+        cache.put(request("ChatAgent", "你好"), "回复");
+
+        // When & Then
+        assertTrue(cache.get(request("ResponseAgent", "你好")).isEmpty());
+    }
+
+    @Test
+    @DisplayName("超出容量 - 淘汰最近最少使用的条目")
+    void testLeastRecentlyUsedEvicted() {
+        // Given
+        LlmResponseCache cache = new LlmResponseCache(2, Duration.ofMinutes(1), meterRegistry);
+        cache.put(request("ChatAgent", "a"), "A");
+        cache.put(request("ChatAgent", "b"), "B");
+        cache.get(request("ChatAgent", "a"));
+
+        // When
+        cache.put(request("ChatAgent", "c"), "C");
+
+        // Then
+        assertEquals(2, cache.size());
+        assertTrue(cache.get(request("ChatAgent", "a")).isPresent());
+        assertTrue(cache.get(request("ChatAgent", "b")).isEmpty());
+    }
+
+    @Test
+    @DisplayName("超过有效期 - 缓存失效")
+    void testExpiredEntryMisses() throws InterruptedException {
+        // Given
+        LlmResponseCache cache = new LlmResponseCache(10, Duration.ofMillis(20), meterRegistry);
+        cache.put(request("ChatAgent", "你好"), "回复");
+
+        // When
+        Thread.sleep(50);
+
+        // Then
+        assertTrue(cache.get(request("ChatAgent", "你好")).isEmpty());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("容量为0 - 关闭缓存")
+    void testZeroCapacityDisablesCache() {
+        // Given
+        LlmResponseCache cache = new LlmResponseCache(0, Duration.ofMinutes(1), meterRegistry);
+        cache.put(request("ChatAgent", "你好"), "回复");
+
+        // When & Then
+        assertTrue(cache.get(request("ChatAgent", "你好")).isEmpty());
+        assertEquals(0, cache.size());
+    }
+}
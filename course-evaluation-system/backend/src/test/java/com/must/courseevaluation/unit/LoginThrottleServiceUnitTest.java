@@ -0,0 +1,131 @@
+package com.must.courseevaluation.unit;
+
+import com.must.courseevaluation.service.impl.LoginThrottleServiceImpl;
+import com.must.courseevaluation.service.throttle.InMemoryLoginAttemptStore;
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * LoginThrottleService 单元测试
+ * 测试按IP/账号的滑动窗口登录限流与计数存储
+ */
+@DisplayName("LoginThrottleService 单元测试")
+class LoginThrottleServiceUnitTest {
+
+    private static final Duration WINDOW = Duration.ofMinutes(1);
+    // 对齐到窗口起点，便于计算加权
+    private static final long T0 = 1_700_000_040_000L - Math.floorMod(1_700_000_040_000L, 60_000L);
+
+    // ==================== 限流服务测试 ====================
+
+    @Nested
+    @DisplayName("限流服务测试")
+    class ServiceTests {
+
+        private InMemoryLoginAttemptStore store;
+        private LoginThrottleServiceImpl throttleService;
+
+        @BeforeEach
+        void setUp() {
+            store = new InMemoryLoginAttemptStore();
+            // IP 上限 5 次，账号上限 3 次
+            throttleService = new LoginThrottleServiceImpl(store, 5, 300, 3, 900);
+        }
+
+        @Test
+        @DisplayName("账号失败次数达到上限 - 拒绝并给出重试时间")
+        void testAccountLockout() {
+            // Given
+            for (int i = 0; i < 3; i++) {
+                assertTrue(throttleService.checkAllowed("alice", "10.0.0." + i).isEmpty());
+                throttleService.recordFailure("alice", "10.0.0." + i);
+            }
+
+            // When
+            Optional<Duration> retryAfter = throttleService.checkAllowed("Alice", "10.0.0.9");
+
+            // Then - 用户名不区分大小写，换 IP 也被拒绝
+            assertTrue(retryAfter.isPresent());
+            assertTrue(retryAfter.get().toSeconds() >= 1);
+            assertTrue(throttleService.checkAllowed("bob", "10.0.0.9").isEmpty());
+        }
+
+        @Test
+        @DisplayName("同一IP尝试多个账号 - 按IP拒绝")
+        void testIpThrottle() {
+            for (int i = 0; i < 5; i++) {
+                throttleService.recordFailure("user" + i, "10.0.0.1");
+            }
+
+            assertTrue(throttleService.checkAllowed("newuser", "10.0.0.1").isPresent());
+            assertTrue(throttleService.checkAllowed("newuser", "10.0.0.2").isEmpty());
+        }
+
+        @Test
+        @DisplayName("登录成功 - 清除账号失败次数")
+        void testSuccessResetsAccount() {
+            throttleService.recordFailure("alice", "10.0.0.1");
+            throttleService.recordFailure("alice", "10.0.0.1");
+
+            throttleService.recordSuccess("alice");
+            throttleService.recordFailure("alice", "10.0.0.1");
+
+            assertTrue(throttleService.checkAllowed("alice", "10.0.0.1").isEmpty());
+        }
+    }
+
+    // ==================== 滑动窗口存储测试 ====================
+
+    @Nested
+    @DisplayName("滑动窗口存储测试")
+    class StoreTests {
+
+        private final InMemoryLoginAttemptStore store = new InMemoryLoginAttemptStore();
+
+        @Test
+        @DisplayName("上一窗口计数按剩余比例加权")
+        void testSlidingEstimate() {
+            // Given - 第一个窗口内失败 4 次
+            for (int i = 0; i < 4; i++) {
+                store.recordFailure("k", WINDOW, T0 + 1_000);
+            }
+
+            // When - 下一个窗口过去一半
+            double estimate = store.failureCount("k", WINDOW, T0 + 90_000);
+
+            // Then
+            assertEquals(2.0, estimate, 0.001);
+            assertEquals(0.0, store.failureCount("k", WINDOW, T0 + 180_000), 0.001);
+        }
+
+        @Test
+        @DisplayName("重试时间 - 计数衰减到上限以下的时刻")
+        void testTimeUntilBelow() {
+            for (int i = 0; i < 4; i++) {
+                store.recordFailure("k", WINDOW, T0 + 1_000);
+            }
+
+            // 上限 2：下一窗口过去一半时估算值降到 2
+            Duration wait = store.timeUntilBelow("k", WINDOW, 2, T0 + 30_000);
+
+            assertEquals(60_000, wait.toMillis());
+            assertEquals(Duration.ZERO, store.timeUntilBelow("k", WINDOW, 5, T0 + 30_000));
+        }
+
+        @Test
+        @DisplayName("长时间无失败 - 清理计数")
+        void testEvictIdle() {
+            store.recordFailure("old", WINDOW, T0);
+            store.recordFailure("recent", WINDOW, T0 + 150_000);
+
+            int evicted = store.evictIdle(WINDOW, T0 + 160_000);
+
+            assertEquals(1, evicted);
+            assertEquals(1, store.size());
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.must.courseevaluation.unit;
+
+import com.must.courseevaluation.service.mail.EmailTemplate;
+import com.must.courseevaluation.service.mail.OutboundMail;
+import com.must.courseevaluation.service.mail.OutboundMailQueue;
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * OutboundMailQueue / EmailTemplate 单元测试
+ * 测试异步发信、失败重试、死信记录、队列容量以及模板渲染
+ */
+@DisplayName("OutboundMailQueue 单元测试")
+class OutboundMailQueueUnitTest {
+
+    private static final OutboundMail MAIL = new OutboundMail("test@student.must.edu.mo", "验证码", "<p>123456</p>");
+
+    private OutboundMailQueue queue;
+
+    @AfterEach
+    void tearDown() {
+        if (queue != null) {
+            queue.shutdown(Duration.ofSeconds(1));
+        }
+    }
+
+    // ==================== 发送与重试 ====================
+
+    @Nested
+    @DisplayName("发送与重试测试")
+    class DeliveryTests {
+
+        @Test
+        @DisplayName("入队后由后台线程发送")
+        void testEnqueueDelivers() throws InterruptedException {
+            // Given
+            CountDownLatch delivered = new CountDownLatch(1);
+            queue = new OutboundMailQueue(mail -> delivered.countDown(), 10, 1, 3, Duration.ofMillis(10));
+
+            // When
+            boolean accepted = queue.enqueue(MAIL);
+
+            // Then
+            assertTrue(accepted);
+            assertTrue(delivered.await(2, TimeUnit.SECONDS));
+            assertTrue(queue.getDeadLetters().isEmpty());
+        }
+
+        @Test
+        @DisplayName("发送失败后重试直至成功")
+        void testRetryUntilSuccess() throws InterruptedException {
+            // Given - 前两次发送失败
+            AtomicInteger attempts = new AtomicInteger();
+            CountDownLatch delivered = new CountDownLatch(1);
+            queue = new OutboundMailQueue(mail -> {
+                if (attempts.incrementAndGet() < 3) {
+                    throw new RuntimeException("SMTP 超时");
+                }
+                delivered.countDown();
+            }, 10, 1, 3, Duration.ofMillis(10));
+
+            // When
+            queue.enqueue(MAIL);
+
+            // Then
+            assertTrue(delivered.await(2, TimeUnit.SECONDS));
+            assertEquals(3, attempts.get());
+            assertTrue(queue.getDeadLetters().isEmpty());
+        }
+
+        @Test
+        @DisplayName("重试次数用完后记入死信")
+        void testDeadLetterAfterMaxAttempts() throws InterruptedException {
+            // Given - 每次发送都失败
+            AtomicInteger attempts = new AtomicInteger();
+            queue = new OutboundMailQueue(mail -> {
+                attempts.incrementAndGet();
+                throw new RuntimeException("SMTP 拒绝连接");
+            }, 10, 1, 2, Duration.ofMillis(10));
+
+            // When
+            queue.enqueue(MAIL);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+            while (queue.getDeadLetters().isEmpty() && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+
+            // Then
+            List<Map<String, Object>> deadLetters = queue.getDeadLetters();
+            assertEquals(1, deadLetters.size());
+            assertEquals("test@student.must.edu.mo", deadLetters.get(0).get("to"));
+            assertEquals(2, deadLetters.get(0).get("attempts"));
+            assertEquals("SMTP 拒绝连接", deadLetters.get(0).get("error"));
+            assertEquals(2, attempts.get());
+        }
+    }
+
+    // ==================== 队列容量 ====================
+
+    @Nested
+    @DisplayName("队列容量测试")
+    class CapacityTests {
+
+        @Test
+        @DisplayName("队列已满时拒绝入队")
+        void testRejectWhenFull() throws InterruptedException {
+            // Given - 唯一的工作线程被阻塞，队列容量为1
+            CountDownLatch started = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            queue = new OutboundMailQueue(mail -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, 1, 1, 1, Duration.ofMillis(10));
+            assertTrue(queue.enqueue(MAIL));
+            assertTrue(started.await(2, TimeUnit.SECONDS));
+
+            // When & Then
+            assertTrue(queue.enqueue(MAIL));
+            assertEquals(1, queue.pendingCount());
+            assertFalse(queue.enqueue(MAIL));
+
+            release.countDown();
+        }
+    }
+
+    // ==================== 模板渲染 ====================
+
+    @Nested
+    @DisplayName("邮件模板测试")
+    class TemplateTests {
+
+        @Test
+        @DisplayName("替换占位符并转义 HTML")
+        void testRenderEscapes() {
+            // Given
+            EmailTemplate template = EmailTemplate.compile("<h1>{{title}}</h1><p>{{code}}</p>{{missing}}");
+
+            // When
+            String html = template.render(Map.of("title", "<登录>", "code", "123456"));
+
+            // Then
+            assertEquals("<h1>&lt;登录&gt;</h1><p>123456</p>", html);
+        }
+
+        @Test
+        @DisplayName("从类路径加载验证码模板")
+        void testLoadVerificationTemplate() {
+            // When
+            String html = EmailTemplate.fromClasspath("mail-templates/verification-code.html")
+                    .render(Map.of("code", "654321", "year", 2026));
+
+            // Then
+            assertTrue(html.contains("654321"));
+            assertTrue(html.contains("2026"));
+            assertFalse(html.contains("{{"));
+        }
+    }
+}
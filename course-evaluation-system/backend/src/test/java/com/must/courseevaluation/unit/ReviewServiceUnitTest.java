@@ -1,10 +1,12 @@
 package com.must.courseevaluation.unit;
 
 import com.must.courseevaluation.dto.ReviewDto;
+import com.must.courseevaluation.dto.ReviewPageDto;
 import com.must.courseevaluation.exception.ResourceNotFoundException;
 import com.must.courseevaluation.model.*;
 import com.must.courseevaluation.repository.*;
 import com.must.courseevaluation.service.ContentFilterService;
+import com.must.courseevaluation.service.CourseRatingStatsService;
 import com.must.courseevaluation.service.impl.ReviewServiceImpl;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -42,6 +44,9 @@ class ReviewServiceUnitTest {
     @Mock
     private ReviewVoteRepository reviewVoteRepository;
 
+    @Mock
+    private CourseRatingStatsService courseRatingStatsService;
+
     @InjectMocks
     private ReviewServiceImpl reviewService;
 
@@ -114,7 +119,7 @@ class ReviewServiceUnitTest {
             review2.setStatus(Review.ReviewStatus.APPROVED);
 
             when(reviewRepository.findAll()).thenReturn(Arrays.asList(testReview, review2));
-            when(reviewVoteRepository.countByReviewIdAndVoteType(anyLong(), any())).thenReturn(0L);
+            when(reviewVoteRepository.countVotesByReviewIds(anyCollection())).thenReturn(Collections.emptyList());
 
             // When
             List<ReviewDto> result = reviewService.getAllReviews();
@@ -190,7 +195,7 @@ class ReviewServiceUnitTest {
             // Given
             when(courseRepository.findById(1L)).thenReturn(Optional.of(testCourse));
             when(reviewRepository.findByCourse(testCourse)).thenReturn(Arrays.asList(testReview));
-            when(reviewVoteRepository.countByReviewIdAndVoteType(anyLong(), any())).thenReturn(0L);
+            when(reviewVoteRepository.countVotesByReviewIds(anyCollection())).thenReturn(Collections.emptyList());
 
             // When
             List<ReviewDto> result = reviewService.getReviewsByCourse(1L);
@@ -218,7 +223,7 @@ class ReviewServiceUnitTest {
 
             when(courseRepository.findById(1L)).thenReturn(Optional.of(testCourse));
             when(reviewRepository.findByCourse(testCourse)).thenReturn(Arrays.asList(testReview, pinnedReview));
-            when(reviewVoteRepository.countByReviewIdAndVoteType(anyLong(), any())).thenReturn(0L);
+            when(reviewVoteRepository.countVotesByReviewIds(anyCollection())).thenReturn(Collections.emptyList());
 
             // When
             List<ReviewDto> result = reviewService.getReviewsByCourse(1L);
@@ -229,6 +234,26 @@ class ReviewServiceUnitTest {
             assertTrue(result.get(0).isPinned()); // 置顶评价应该排在前面
         }
 
+        @Test
+        @DisplayName("投票数据 - 批量分组查询填充")
+        void testGetReviewsByCourseBatchVoteCounts() {
+            // Given
+            when(courseRepository.findById(1L)).thenReturn(Optional.of(testCourse));
+            when(reviewRepository.findByCourse(testCourse)).thenReturn(Arrays.asList(testReview));
+            when(reviewVoteRepository.countVotesByReviewIds(anyCollection())).thenReturn(Arrays.asList(
+                    new Object[]{1L, ReviewVote.VoteType.LIKE, 3L},
+                    new Object[]{1L, ReviewVote.VoteType.DISLIKE, 1L}));
+
+            // When
+            List<ReviewDto> result = reviewService.getReviewsByCourse(1L);
+
+            // Then
+            assertEquals(3L, result.get(0).getLikeCount());
+            assertEquals(1L, result.get(0).getDislikeCount());
+            verify(reviewVoteRepository).countVotesByReviewIds(anyCollection());
+            verify(reviewVoteRepository, never()).countByReviewIdAndVoteType(anyLong(), any());
+        }
+
         @Test
         @DisplayName("课程不存在 - 抛出异常")
         void testGetReviewsByCourseNotFound() {
@@ -243,6 +268,101 @@ class ReviewServiceUnitTest {
         }
     }
 
+    // ==================== getCourseReviewFeed() 测试 ====================
+
+    @Nested
+    @DisplayName("getCourseReviewFeed() 方法测试")
+    class GetCourseReviewFeedTests {
+
+        @Test
+        @DisplayName("第一页 - 有更多数据时返回游标")
+        void testFirstPageReturnsCursor() {
+            // Given
+            Review older = new Review();
+            older.setId(2L);
+            older.setContent("较早的评价");
+            older.setRating(3);
+            older.setUser(testUser);
+            older.setCourse(testCourse);
+            older.setCreatedAt(LocalDateTime.now().minusDays(1));
+
+            when(courseRepository.existsById(1L)).thenReturn(true);
+            when(reviewRepository.findCourseFeed(eq(1L), any())).thenReturn(new ArrayList<>(Arrays.asList(testReview, older)));
+            when(reviewVoteRepository.countVotesByReviewIds(anyCollection())).thenReturn(Collections.emptyList());
+
+            // When
+            ReviewPageDto page = reviewService.getCourseReviewFeed(1L, null, 1);
+
+            // Then
+            assertEquals(1, page.getContent().size());
+            assertTrue(page.isHasMore());
+            assertNotNull(page.getNextCursor());
+        }
+
+        @Test
+        @DisplayName("后续页 - 按游标中的排序键查询")
+        void testNextPageUsesCursor() {
+            // Given
+            when(courseRepository.existsById(1L)).thenReturn(true);
+            when(reviewRepository.findCourseFeed(eq(1L), any())).thenReturn(new ArrayList<>(Arrays.asList(testReview, testReview)));
+            when(reviewVoteRepository.countVotesByReviewIds(anyCollection())).thenReturn(Collections.emptyList());
+            String cursor = reviewService.getCourseReviewFeed(1L, null, 1).getNextCursor();
+
+            when(reviewRepository.findCourseFeedIdsAfter(eq(1L), eq(false), eq(testReview.getCreatedAt()), eq(1L), anyInt()))
+                    .thenReturn(Collections.emptyList());
+
+            // When
+            ReviewPageDto page = reviewService.getCourseReviewFeed(1L, cursor, 1);
+
+            // Then
+            assertTrue(page.getContent().isEmpty());
+            assertFalse(page.isHasMore());
+            assertNull(page.getNextCursor());
+        }
+
+        @Test
+        @DisplayName("后续页 - 置顶评价取完后接着取非置顶评价")
+        void testNextPageContinuesIntoUnpinned() {
+            // Given：第一页最后一条是置顶评价
+            testReview.setPinned(true);
+            when(courseRepository.existsById(1L)).thenReturn(true);
+            when(reviewRepository.findCourseFeed(eq(1L), any())).thenReturn(new ArrayList<>(Arrays.asList(testReview, testReview)));
+            when(reviewVoteRepository.countVotesByReviewIds(anyCollection())).thenReturn(Collections.emptyList());
+            String cursor = reviewService.getCourseReviewFeed(1L, null, 1).getNextCursor();
+
+            Review unpinned = new Review();
+            unpinned.setId(2L);
+            unpinned.setContent("非置顶评价");
+            unpinned.setRating(4);
+            unpinned.setUser(testUser);
+            unpinned.setCourse(testCourse);
+            unpinned.setCreatedAt(LocalDateTime.now());
+            when(reviewRepository.findCourseFeedIdsAfter(eq(1L), eq(true), eq(testReview.getCreatedAt()), eq(1L), eq(2)))
+                    .thenReturn(Collections.emptyList());
+            when(reviewRepository.findCourseFeedIdsInGroup(1L, false, 2)).thenReturn(List.of(2L));
+            when(reviewRepository.findFeedReviewsByIdIn(List.of(2L))).thenReturn(List.of(unpinned));
+
+            // When
+            ReviewPageDto page = reviewService.getCourseReviewFeed(1L, cursor, 1);
+
+            // Then
+            assertEquals(1, page.getContent().size());
+            assertEquals(2L, page.getContent().get(0).getId());
+            assertFalse(page.isHasMore());
+        }
+
+        @Test
+        @DisplayName("无效游标 - 抛出异常")
+        void testInvalidCursor() {
+            // Given
+            when(courseRepository.existsById(1L)).thenReturn(true);
+
+            // When & Then
+            assertThrows(IllegalArgumentException.class,
+                () -> reviewService.getCourseReviewFeed(1L, "not-a-cursor", 20));
+        }
+    }
+
     // ==================== getReviewsByUser() 测试 ====================
 
     @Nested
@@ -255,7 +375,7 @@ class ReviewServiceUnitTest {
             // Given
             when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
             when(reviewRepository.findByUser(testUser)).thenReturn(Arrays.asList(testReview));
-            when(reviewVoteRepository.countByReviewIdAndVoteType(anyLong(), any())).thenReturn(0L);
+            when(reviewVoteRepository.countVotesByReviewIds(anyCollection())).thenReturn(Collections.emptyList());
 
             // When
             List<ReviewDto> result = reviewService.getReviewsByUser(1L);
@@ -461,28 +581,30 @@ class ReviewServiceUnitTest {
         @DisplayName("成功删除评价")
         void testDeleteReviewSuccess() {
             // Given
-            when(reviewRepository.existsById(1L)).thenReturn(true);
-            doNothing().when(reviewRepository).deleteById(1L);
+            when(reviewRepository.findById(1L)).thenReturn(Optional.of(testReview));
+            doNothing().when(reviewRepository).delete(testReview);
 
             // When
             reviewService.deleteReview(1L);
 
             // Then
-            verify(reviewRepository).existsById(1L);
-            verify(reviewRepository).deleteById(1L);
+            verify(reviewRepository).findById(1L);
+            verify(reviewRepository).delete(testReview);
+            verify(courseRatingStatsService).recordReviewRemoved(1L, 5);
         }
 
         @Test
         @DisplayName("评价不存在 - 抛出异常")
         void testDeleteReviewNotFound() {
             // Given
-            when(reviewRepository.existsById(999L)).thenReturn(false);
+            when(reviewRepository.findById(999L)).thenReturn(Optional.empty());
 
             // When & Then
             assertThrows(ResourceNotFoundException.class, 
                 () -> reviewService.deleteReview(999L));
-            verify(reviewRepository).existsById(999L);
-            verify(reviewRepository, never()).deleteById(anyLong());
+            verify(reviewRepository).findById(999L);
+            verify(reviewRepository, never()).delete(any(Review.class));
+            verify(courseRatingStatsService, never()).recordReviewRemoved(anyLong(), anyInt());
         }
     }
 
@@ -585,18 +707,16 @@ class ReviewServiceUnitTest {
     class GetCourseRatingsTests {
 
         @Test
-        @DisplayName("计算课程评分统计")
+        @DisplayName("读取课程评分聚合")
         void testGetCourseRatingsSuccess() {
             // Given
-            Review review2 = new Review();
-            review2.setId(2L);
-            review2.setRating(4);
-            review2.setUser(testUser);
-            review2.setCourse(testCourse);
-            review2.setStatus(Review.ReviewStatus.APPROVED);
+            Map<String, Object> ratings = new HashMap<>();
+            ratings.put("averageRating", 4.5);
+            ratings.put("totalReviews", 2);
+            ratings.put("ratingDistribution", Map.of(4, 1, 5, 1));
 
             when(courseRepository.findById(1L)).thenReturn(Optional.of(testCourse));
-            when(reviewRepository.findByCourse(testCourse)).thenReturn(Arrays.asList(testReview, review2));
+            when(courseRatingStatsService.getCourseRatings(1L)).thenReturn(ratings);
 
             // When
             Map<String, Object> result = reviewService.getCourseRatings(1L);
@@ -607,14 +727,20 @@ class ReviewServiceUnitTest {
             assertNotNull(result.get("averageRating"));
             assertNotNull(result.get("ratingDistribution"));
             verify(courseRepository).findById(1L);
+            verify(reviewRepository, never()).findByCourse(any(Course.class));
         }
 
         @Test
         @DisplayName("无评价 - 返回默认统计")
         void testGetCourseRatingsEmpty() {
             // Given
+            Map<String, Object> ratings = new HashMap<>();
+            ratings.put("averageRating", 0.0);
+            ratings.put("totalReviews", 0);
+            ratings.put("ratingDistribution", new HashMap<Integer, Integer>());
+
             when(courseRepository.findById(1L)).thenReturn(Optional.of(testCourse));
-            when(reviewRepository.findByCourse(testCourse)).thenReturn(Collections.emptyList());
+            when(courseRatingStatsService.getCourseRatings(1L)).thenReturn(ratings);
 
             // When
             Map<String, Object> result = reviewService.getCourseRatings(1L);
@@ -0,0 +1,146 @@
+package com.must.courseevaluation.unit;
+
+import com.must.courseevaluation.service.agent.AgentResult;
+import com.must.courseevaluation.service.agent.ConversationContext;
+import com.must.courseevaluation.service.agent.IntentResult;
+import com.must.courseevaluation.service.agent.IntentType;
+import com.must.courseevaluation.service.agent.RuleBasedIntentClassifier;
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * RuleBasedIntentClassifier 单元测试
+ * 测试意图分类快速路径的规则覆盖范围
+ */
+@DisplayName("RuleBasedIntentClassifier 单元测试")
+class RuleBasedIntentClassifierUnitTest {
+
+    private final RuleBasedIntentClassifier classifier = new RuleBasedIntentClassifier();
+
+    private ConversationContext emptyContext() {
+        return ConversationContext.builder().build();
+    }
+
+    private ConversationContext contextWithLastCourses() {
+        return ConversationContext.builder()
+                .lastRecommendedCourses(List.of(AgentResult.CourseInfo.builder().id(1L).name("数据结构").build()))
+                .parameters(new HashMap<>(Map.of("faculty", "创新工程学院")))
+                .build();
+    }
+
+    // ==================== 快速路径命中 ====================
+
+    @Nested
+    @DisplayName("规则命中测试")
+    class HitTests {
+
+        @Test
+        @DisplayName("问候/感谢 - 分类为闲聊")
+        void testChatMessages() {
+            for (String message : List.of("谢谢", "你好！", "Hello", "好的。")) {
+                Optional<IntentResult> result = classifier.classify(message, emptyContext());
+                assertTrue(result.isPresent(), message);
+                assertEquals(IntentType.CHAT, result.get().getIntentType());
+            }
+        }
+
+        @Test
+        @DisplayName("星期+时间段+课程类型 - 新查询并提取参数")
+        void testScheduleQuery() {
+            // When
+            Optional<IntentResult> result = classifier.classify("周一上午的选修课", emptyContext());
+
+            // Then
+            assertTrue(result.isPresent());
+            assertEquals(IntentType.NEW_QUERY, result.get().getIntentType());
+            assertEquals(List.of(1), result.get().getParameters().get("dayOfWeek"));
+            assertEquals(1, result.get().getParameters().get("timePeriod"));
+            assertEquals("ELECTIVE", result.get().getParameters().get("courseType"));
+        }
+
+        @Test
+        @DisplayName("领域词 - 映射学院并作为关键词")
+        void testDomainKeyword() {
+            // When
+            Optional<IntentResult> result = classifier.classify("推荐编程课程", emptyContext());
+
+            // Then
+            assertTrue(result.isPresent());
+            assertEquals(IntentType.NEW_QUERY, result.get().getIntentType());
+            assertEquals("创新工程学院", result.get().getParameters().get("faculty"));
+            assertEquals(List.of("编程"), result.get().getKeywords());
+        }
+
+        @Test
+        @DisplayName("周末 - 提取为周六和周日")
+        void testWeekend() {
+            Optional<IntentResult> result = classifier.classify("周末有什么课", emptyContext());
+
+            assertTrue(result.isPresent());
+            assertEquals(List.of(6, 7), result.get().getParameters().get("dayOfWeek"));
+        }
+
+        @Test
+        @DisplayName("已有查询时补充条件 - 分类为条件补充")
+        void testSupplement() {
+            Optional<IntentResult> result = classifier.classify("3学分的", contextWithLastCourses());
+
+            assertTrue(result.isPresent());
+            assertEquals(IntentType.SUPPLEMENT, result.get().getIntentType());
+            assertEquals(3, result.get().getParameters().get("credits"));
+        }
+
+        @Test
+        @DisplayName("引用上次推荐 - 分类为追问筛选")
+        void testRefine() {
+            Optional<IntentResult> result = classifier.classify("刚才推荐的有选修课吗", contextWithLastCourses());
+
+            assertTrue(result.isPresent());
+            assertEquals(IntentType.REFINE, result.get().getIntentType());
+            assertTrue(result.get().isReferenceLastResult());
+        }
+    }
+
+    // ==================== 交给大模型 ====================
+
+    @Nested
+    @DisplayName("规则未命中测试")
+    class MissTests {
+
+        @Test
+        @DisplayName("包含无法识别的内容 - 不给出结果")
+        void testUnrecognizedContent() {
+            assertTrue(classifier.classify("人工智能导论讲什么", emptyContext()).isEmpty());
+            assertTrue(classifier.classify("上述课程中有神经网络的吗", contextWithLastCourses()).isEmpty());
+            assertTrue(classifier.classify("数据库和算法课有什么区别", emptyContext()).isEmpty());
+        }
+
+        @Test
+        @DisplayName("引用上次推荐但没有推荐记录 - 不给出结果")
+        void testReferenceWithoutHistory() {
+            assertTrue(classifier.classify("这些有选修课吗", emptyContext()).isEmpty());
+        }
+
+        @Test
+        @DisplayName("同一条件出现多个取值 - 不给出结果")
+        void testConflictingValues() {
+            assertTrue(classifier.classify("上午或下午的课", emptyContext()).isEmpty());
+        }
+
+        @Test
+        @DisplayName("学分数字过长 - 不抛出异常且不给出结果")
+        void testOversizedCredits() {
+            assertTrue(classifier.classify("推荐99999999999学分的课", emptyContext()).isEmpty());
+            assertTrue(classifier.classify("推荐123学分的课", emptyContext()).isEmpty());
+        }
+
+        @Test
+        @DisplayName("没有任何条件 - 不给出结果")
+        void testNoParameters() {
+            assertTrue(classifier.classify("有什么课", emptyContext()).isEmpty());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.must.courseevaluation.unit;
+
+import com.must.courseevaluation.service.timetable.ScheduleSlotDiff;
+import com.must.courseevaluation.service.timetable.ScheduleSlotDiff.Row;
+import com.must.courseevaluation.service.timetable.ScheduleSlotDiff.Slot;
+import org.junit.jupiter.api.*;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ScheduleSlotDiff 单元测试
+ * 测试时间安排批量写入前的差异计算
+ */
+@DisplayName("ScheduleSlotDiff 单元测试")
+class ScheduleSlotDiffUnitTest {
+
+    private final List<Row> current = List.of(
+            new Row(1L, 1, 1, "A101"),
+            new Row(2L, 3, 2, "B202"),
+            new Row(3L, 5, 4, null));
+
+    @Test
+    @DisplayName("整体替换 - 新增、修改、删除各自分开，未变化的行不写入")
+    void testReplace() {
+        ScheduleSlotDiff.Result diff = ScheduleSlotDiff.compute(current, List.of(
+                new Slot(1, 1, "A101"),
+                new Slot(3, 2, "C303"),
+                new Slot(2, 3, "D404")), true);
+
+        assertEquals(List.of(new Slot(2, 3, "D404")), diff.inserts());
+        assertEquals(List.of(new Row(2L, 3, 2, "C303")), diff.updates());
+        assertEquals(List.of(3L), diff.deletes());
+    }
+
+    @Test
+    @DisplayName("合并 - 保留不在目标中的现有行")
+    void testMerge() {
+        ScheduleSlotDiff.Result diff = ScheduleSlotDiff.compute(current, List.of(
+                new Slot(5, 4, "E505"),
+                new Slot(7, 1, null)), false);
+
+        assertEquals(List.of(new Slot(7, 1, null)), diff.inserts());
+        assertEquals(List.of(new Row(3L, 5, 4, "E505")), diff.updates());
+        assertTrue(diff.deletes().isEmpty());
+    }
+
+    @Test
+    @DisplayName("目标与现有一致 - 无差异")
+    void testNoChange() {
+        ScheduleSlotDiff.Result diff = ScheduleSlotDiff.compute(current, List.of(
+                new Slot(5, 4, null),
+                new Slot(1, 1, "A101"),
+                new Slot(3, 2, "B202")), true);
+
+        assertTrue(diff.isEmpty());
+    }
+
+    @Test
+    @DisplayName("空目标整体替换 - 删除全部现有行")
+    void testReplaceWithEmpty() {
+        ScheduleSlotDiff.Result diff = ScheduleSlotDiff.compute(current, List.of(), true);
+
+        assertEquals(3, diff.deletes().size());
+        assertTrue(diff.inserts().isEmpty());
+    }
+
+    @Test
+    @DisplayName("重复时间段或无效取值 - 抛出异常")
+    void testInvalidSlots() {
+        assertThrows(IllegalArgumentException.class, () -> ScheduleSlotDiff.compute(current, List.of(
+                new Slot(2, 2, "X"),
+                new Slot(2, 2, "Y")), true));
+        assertThrows(IllegalArgumentException.class, () -> Slot.of(8, 1, null));
+        assertThrows(IllegalArgumentException.class, () -> Slot.of(1, 5, null));
+        assertThrows(IllegalArgumentException.class, () -> Slot.of(null, 1, null));
+        assertEquals(new Slot(7, 4, "A101"), Slot.of(7, 4, "A101"));
+    }
+}
@@ -0,0 +1,139 @@
+package com.must.courseevaluation.unit;
+
+import com.must.courseevaluation.service.audit.SecurityAuditStore;
+import com.must.courseevaluation.service.impl.SecurityAuditServiceImpl;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SecurityAuditService 单元测试
+ * 测试环形缓冲区审计存储、按分钟聚合的统计与可疑活动检测
+ */
+@DisplayName("SecurityAuditService 单元测试")
+class SecurityAuditServiceUnitTest {
+
+    private SecurityAuditServiceImpl auditService;
+
+    @BeforeEach
+    void setUp() {
+        auditService = new SecurityAuditServiceImpl(new SecurityAuditStore(100, 24, ""));
+    }
+
+    // ==================== 统计与检测测试 ====================
+
+    @Nested
+    @DisplayName("统计与检测测试")
+    class StatsTests {
+
+        @Test
+        @DisplayName("失败登录统计 - 按IP和用户名计数")
+        @SuppressWarnings("unchecked")
+        void testFailedLoginStats() {
+            // Given
+            auditService.logLoginAttempt("alice", false, "10.0.0.1", "UA");
+            auditService.logLoginAttempt("alice", false, "10.0.0.1", "UA");
+            auditService.logLoginAttempt("bob", false, "10.0.0.2", "UA");
+            auditService.logLoginAttempt("bob", true, "10.0.0.2", "UA");
+
+            // When
+            Map<String, Object> stats = auditService.getFailedLoginStats(1);
+
+            // Then
+            assertEquals(3L, stats.get("totalFailedLogins"));
+            Map<String, Long> byIp = (Map<String, Long>) stats.get("failuresByIp");
+            assertEquals(2L, byIp.get("10.0.0.1"));
+            Map<String, Long> byUsername = (Map<String, Long>) stats.get("failuresByUsername");
+            assertEquals(1L, byUsername.get("bob"));
+        }
+
+        @Test
+        @DisplayName("同一IP多次失败且有高严重程度事件 - 报告可疑活动")
+        @SuppressWarnings("unchecked")
+        void testDetectSuspiciousActivity() {
+            // Given
+            for (int i = 0; i < 5; i++) {
+                auditService.logLoginAttempt("user" + i, false, "10.0.0.9", "UA");
+            }
+            auditService.logSecurityEvent("LOGIN_THROTTLED", "登录失败次数过多", "user0", "10.0.0.9", "HIGH");
+
+            // When
+            Map<String, Object> report = auditService.detectSuspiciousActivity();
+
+            // Then
+            List<String> activities = (List<String>) report.get("suspiciousActivities");
+            assertEquals(2, activities.size());
+            assertTrue(activities.get(0).contains("10.0.0.9"));
+            assertEquals("MEDIUM", report.get("riskLevel"));
+        }
+
+        @Test
+        @DisplayName("没有异常 - 风险等级为低")
+        void testNoSuspiciousActivity() {
+            auditService.logLoginAttempt("alice", true, "10.0.0.1", "UA");
+
+            Map<String, Object> report = auditService.detectSuspiciousActivity();
+
+            assertEquals("LOW", report.get("riskLevel"));
+        }
+    }
+
+    // ==================== 日志存储测试 ====================
+
+    @Nested
+    @DisplayName("日志存储测试")
+    class StoreTests {
+
+        @Test
+        @DisplayName("查询日志 - 最新的在前并按事件类型过滤")
+        void testGetSecurityLogs() {
+            auditService.logLoginAttempt("alice", true, "10.0.0.1", "UA");
+            auditService.logSecurityEvent("ACCOUNT_DISABLED_LOGIN_ATTEMPT", "尝试使用已停用账户登录", "bob", "10.0.0.2", "MEDIUM");
+            auditService.logLoginAttempt("carol", false, "10.0.0.3", "UA");
+
+            List<Map<String, Object>> logins = auditService.getSecurityLogs(null, null, "LOGIN_ATTEMPT", 10);
+
+            assertEquals(2, logins.size());
+            assertEquals("carol", logins.get(0).get("username"));
+            assertEquals("alice", logins.get(1).get("username"));
+        }
+
+        @Test
+        @DisplayName("缓冲区写满或清理 - 离开缓冲区的事件写入溢出文件，统计不受影响")
+        void testRingBufferSpill(@TempDir Path dir) throws Exception {
+            // Given
+            Path spillFile = dir.resolve("audit.log");
+            SecurityAuditStore store = new SecurityAuditStore(3, 24, spillFile.toString());
+            SecurityAuditServiceImpl service = new SecurityAuditServiceImpl(store);
+
+            // When
+            for (int i = 0; i < 5; i++) {
+                service.logLoginAttempt("user" + i, false, "10.0.0.1", "UA");
+            }
+
+            // Then
+            List<Map<String, Object>> logs = service.getSecurityLogs(null, null, null, 10);
+            assertEquals(3, logs.size());
+            assertEquals("user4", logs.get(0).get("username"));
+
+            // When - 清理全部事件后关闭，写线程写完队列中剩余的事件
+            assertEquals(3, store.removeOlderThan(LocalDateTime.now().plusMinutes(1)));
+            store.close();
+
+            // Then
+            List<String> spilled = Files.readAllLines(spillFile);
+            assertEquals(5, spilled.size());
+            assertTrue(spilled.get(0).contains("\"username\":\"user0\""));
+            assertTrue(spilled.get(4).contains("\"username\":\"user4\""));
+
+            assertEquals(5L, service.getFailedLoginStats(1).get("totalFailedLogins"));
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.must.courseevaluation.unit;
+
+import com.must.courseevaluation.service.summary.StratifiedReviewSampler;
+import com.must.courseevaluation.service.summary.StratifiedReviewSampler.Candidate;
+import org.junit.jupiter.api.*;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * StratifiedReviewSampler 单元测试
+ * 测试评价分层抽样的确定性、名额分配与加权
+ */
+@DisplayName("StratifiedReviewSampler 单元测试")
+class StratifiedReviewSamplerUnitTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    /**
+     * 生成候选：评分按 ratings 循环，ID 越大越新
+     */
+    private List<Candidate> candidates(int count, int... ratings) {
+        List<Candidate> candidates = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            candidates.add(new Candidate((long) i + 1, ratings[i % ratings.length], BASE.plusHours(i), 0));
+        }
+        return candidates;
+    }
+
+    @Test
+    @DisplayName("同一种子 - 抽样结果相同")
+    void testDeterministic() {
+        List<Candidate> candidates = candidates(300, 5, 4, 4, 3, 1);
+        long seed = StratifiedReviewSampler.seedFor(7L, candidates.size());
+
+        List<Long> first = StratifiedReviewSampler.sample(candidates, 50, seed);
+        // 查询返回顺序不影响结果
+        List<Candidate> reordered = new ArrayList<>(candidates);
+        Collections.reverse(reordered);
+        List<Long> second = StratifiedReviewSampler.sample(reordered, 50, seed);
+
+        assertEquals(50, first.size());
+        assertEquals(first, second);
+        assertEquals(50, new HashSet<>(first).size());
+    }
+
+    @Test
+    @DisplayName("不同种子 - 抽样结果不同")
+    void testDifferentSeed() {
+        List<Candidate> candidates = candidates(300, 5, 4, 3);
+
+        assertNotEquals(StratifiedReviewSampler.sample(candidates, 50, 1L),
+                StratifiedReviewSampler.sample(candidates, 50, 2L));
+    }
+
+    @Test
+    @DisplayName("候选不超过上限 - 全部返回并按时间倒序")
+    void testFewerThanLimit() {
+        List<Long> result = StratifiedReviewSampler.sample(candidates(3, 5), 50, 1L);
+
+        assertEquals(List.of(3L, 2L, 1L), result);
+    }
+
+    @Test
+    @DisplayName("少数评分层 - 至少保留一条")
+    void testMinorityStratumKept() {
+        // Given - 199条5星，1条1星
+        List<Candidate> candidates = new ArrayList<>(candidates(199, 5));
+        candidates.add(new Candidate(1000L, 1, BASE, 0));
+
+        // When
+        List<Long> result = StratifiedReviewSampler.sample(candidates, 50, 3L);
+
+        // Then
+        assertEquals(50, result.size());
+        assertTrue(result.contains(1000L));
+    }
+
+    @Test
+    @DisplayName("名额按评分层比例分配")
+    void testProportionalAllocation() {
+        // Given - 4星占3/4，2星占1/4
+        List<Candidate> candidates = candidates(400, 4, 4, 4, 2);
+
+        // When
+        List<Long> result = StratifiedReviewSampler.sample(candidates, 40, 5L);
+
+        // Then
+        long twoStar = result.stream().filter(id -> candidates.get((int) (id - 1)).rating() == 2).count();
+        assertEquals(10, twoStar);
+    }
+
+    @Test
+    @DisplayName("点赞多的评价更容易被选中")
+    void testHelpfulVotesWeighted() {
+        // Given - 前100条有大量点赞，后100条被踩
+        List<Candidate> candidates = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            candidates.add(new Candidate((long) i + 1, 4, BASE.plusMinutes(i % 2), i < 100 ? 50 : -5));
+        }
+
+        // When
+        List<Long> result = StratifiedReviewSampler.sample(candidates, 50, 11L);
+
+        // Then
+        long helpful = result.stream().filter(id -> id <= 100).count();
+        assertTrue(helpful > 35, "点赞多的评价入选数: " + helpful);
+    }
+}
@@ -0,0 +1,179 @@
+package com.must.courseevaluation.unit;
+
+import com.must.courseevaluation.model.Course;
+import com.must.courseevaluation.service.importer.TabularReader;
+import com.must.courseevaluation.service.importer.TimetableRow;
+import com.must.courseevaluation.service.importer.TimetableRowParser;
+import com.must.courseevaluation.service.importer.TimetableRowParser.Column;
+import org.junit.jupiter.api.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 课表导入解析单元测试
+ * 测试 CSV/XLSX 逐行读取和导入行的表头定位、类型转换与校验
+ */
+@DisplayName("课表导入解析单元测试")
+class TimetableImportParsingUnitTest {
+
+    private static final List<String> HEADER = List.of("课程代码", "课程名称", "学院", "学分", "课程类型",
+            "任课教师", "星期", "时间段", "上课地点");
+
+    @Test
+    @DisplayName("CSV - 引号、转义、字段内换行和 BOM")
+    void testCsvReader() throws IOException {
+        String csv = "\uFEFFcode,name,faculty\r\n"
+                + "CS101,\"程序设计, 基础\",资讯工程学院\r\n"
+                + "CS102,\"说\"\"明\"\"\n第二行\",商学院\n"
+                + "\n"
+                + "CS103,,";
+
+        try (TabularReader reader = open(csv.getBytes(StandardCharsets.UTF_8), "timetable.CSV")) {
+            assertEquals(List.of("code", "name", "faculty"), reader.nextRow());
+            assertEquals(1, reader.getRowNumber());
+            assertEquals(List.of("CS101", "程序设计, 基础", "资讯工程学院"), reader.nextRow());
+            assertEquals(List.of("CS102", "说\"明\"\n第二行", "商学院"), reader.nextRow());
+            assertTrue(TimetableRowParser.isBlank(reader.nextRow()));
+            assertEquals(List.of("CS103", "", ""), reader.nextRow());
+            assertEquals(5, reader.getRowNumber());
+            assertNull(reader.nextRow());
+        }
+    }
+
+    @Test
+    @DisplayName("CSV - 引号未闭合时报错")
+    void testCsvUnclosedQuote() throws IOException {
+        try (TabularReader reader = open("code\n\"CS101".getBytes(StandardCharsets.UTF_8), "a.csv")) {
+            reader.nextRow();
+            assertThrows(IOException.class, reader::nextRow);
+        }
+    }
+
+    @Test
+    @DisplayName("XLSX - 共享字符串、行内字符串、数值和稀疏单元格")
+    void testXlsxReader() throws IOException {
+        String sharedStrings = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+                + "<sst xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\">"
+                + "<si><t>课程代码</t></si><si><t>课程名称</t></si><si><t>学分</t></si>"
+                + "<si><r><t>数据</t></r><r><t>结构</t></r></si>"
+                + "</sst>";
+        String sheet = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+                + "<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\"><sheetData>"
+                + "<row r=\"1\"><c r=\"A1\" t=\"s\"><v>0</v></c><c r=\"B1\" t=\"s\"><v>1</v></c>"
+                + "<c r=\"C1\" t=\"s\"><v>2</v></c></row>"
+                + "<row r=\"3\"><c r=\"A3\" t=\"inlineStr\"><is><t>CS201</t></is></c>"
+                + "<c r=\"C3\"><v>2.5</v></c></row>"
+                + "<row r=\"4\"><c r=\"B4\" t=\"s\"><v>3</v></c></row>"
+                + "</sheetData></worksheet>";
+
+        try (TabularReader reader = open(xlsx(sharedStrings, sheet), "timetable.xlsx")) {
+            assertEquals(List.of("课程代码", "课程名称", "学分"), reader.nextRow());
+            assertEquals(List.of("CS201", "", "2.5"), reader.nextRow());
+            assertEquals(3, reader.getRowNumber());
+            assertEquals(List.of("", "数据结构"), reader.nextRow());
+            assertNull(reader.nextRow());
+        }
+    }
+
+    @Test
+    @DisplayName("不支持的文件类型")
+    void testUnsupportedFile() {
+        assertThrows(IllegalArgumentException.class, () -> open(new byte[0], "timetable.xls"));
+        assertThrows(IllegalArgumentException.class, () -> open(new byte[0], null));
+    }
+
+    @Test
+    @DisplayName("表头 - 缺少必需列或列名重复")
+    void testHeaderValidation() {
+        IllegalArgumentException missing = assertThrows(IllegalArgumentException.class,
+                () -> TimetableRowParser.fromHeader(List.of("课程代码", "学分")));
+        assertTrue(missing.getMessage().contains("course_name"));
+        assertTrue(missing.getMessage().contains("faculty"));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> TimetableRowParser.fromHeader(List.of("code", "课程代码", "name", "faculty")));
+    }
+
+    @Test
+    @DisplayName("解析 - 中文列名、列顺序不限和中文取值")
+    void testParseValidRow() {
+        TimetableRowParser parser = TimetableRowParser.fromHeader(HEADER);
+
+        TimetableRowParser.Result result = parser.parse(2, List.of(" CS101 ", "程序设计", "资讯工程学院", "2",
+                "选修", "张老师", "周三", "2.0", "A101"));
+
+        assertTrue(result.errors().isEmpty());
+        TimetableRow row = result.row();
+        assertEquals(2, row.rowNumber());
+        assertEquals("CS101", row.courseCode());
+        assertEquals(2.0, row.credits());
+        assertEquals(Course.CourseType.ELECTIVE, row.type());
+        assertEquals("张老师", row.teacherName());
+        assertEquals(3, row.dayOfWeek());
+        assertEquals(2, row.timePeriod());
+        assertEquals("A101", row.location());
+        assertTrue(row.hasSchedule());
+    }
+
+    @Test
+    @DisplayName("解析 - 可选列缺省时为空，由导入决定默认值或保留原值")
+    void testParseDefaults() {
+        TimetableRowParser parser = TimetableRowParser.fromHeader(List.of("faculty", "name", "code", "星期", "时间段"));
+
+        TimetableRow row = parser.parse(2, List.of("商学院", "会计学", "BA200")).row();
+
+        assertNotNull(row);
+        assertNull(row.credits());
+        assertNull(row.type());
+        assertNull(row.teacherName());
+        assertFalse(row.hasSchedule());
+        assertEquals(6, parser.parse(3, List.of("商学院", "会计学", "BA200", "星期六", "1")).row().dayOfWeek());
+    }
+
+    @Test
+    @DisplayName("解析 - 一行的所有错误一次收集")
+    void testParseErrors() {
+        TimetableRowParser parser = TimetableRowParser.fromHeader(HEADER);
+
+        TimetableRowParser.Result result = parser.parse(5, List.of("CS 101", "", "资讯工程学院", "abc",
+                "必选", "", "8", "", ""));
+
+        assertNull(result.row());
+        List<Column> columns = result.errors().stream().map(TimetableRowParser.FieldError::column).toList();
+        assertTrue(columns.contains(Column.COURSE_CODE));
+        assertTrue(columns.contains(Column.COURSE_NAME));
+        assertTrue(columns.contains(Column.CREDITS));
+        assertTrue(columns.contains(Column.TYPE));
+        assertTrue(columns.contains(Column.DAY_OF_WEEK));
+        // 只填了星期没有填时间段
+        assertTrue(columns.contains(Column.TIME_PERIOD));
+    }
+
+    private TabularReader open(byte[] content, String filename) throws IOException {
+        return TabularReader.open(new ByteArrayInputStream(content), filename);
+    }
+
+    /**
+     * 构造只包含共享字符串表和第一个工作表的最小 XLSX
+     */
+    private byte[] xlsx(String sharedStrings, String sheet) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(out)) {
+            zip.putNextEntry(new ZipEntry("xl/sharedStrings.xml"));
+            zip.write(sharedStrings.getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+            zip.putNextEntry(new ZipEntry("xl/worksheets/sheet1.xml"));
+            zip.write(sheet.getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,157 @@
+package com.must.courseevaluation.unit;
+
+import com.must.courseevaluation.dto.TimetableImportReportDto;
+import com.must.courseevaluation.service.catalog.CourseCatalogChangedEvent;
+import com.must.courseevaluation.service.impl.TimetableImportServiceImpl;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * TimetableImportService 单元测试
+ * 测试课表导入的批量写入参数、已有课程字段的保留与课程目录事件
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TimetableImportService 单元测试")
+class TimetableImportServiceUnitTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Captor
+    private ArgumentCaptor<List<Object[]>> batchCaptor;
+
+    private TimetableImportServiceImpl importService;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        importService = new TimetableImportServiceImpl(jdbcTemplate, transactionManager, eventPublisher, 500, 1000);
+
+        // 已有学院“资讯工程学院”和课程 CS101，没有教师
+        stubLookup("SELECT id, name FROM faculties", "name", Map.of("资讯工程学院", 1L));
+        stubLookup("SELECT id, name, faculty_id FROM teachers WHERE faculty_id IS NOT NULL", "name", Map.of());
+        stubLookup("SELECT id, code FROM courses", "code", Map.of("CS101", 10L));
+    }
+
+    @Test
+    @DisplayName("可选列缺失 - 已有课程的学分、类型和教师不被默认值覆盖")
+    void testMissingOptionalColumnsKeepExistingValues() throws IOException {
+        // Given - 文件只有必需列
+        String csv = "code,name,faculty\nCS101,程序设计,资讯工程学院\n";
+
+        // When
+        TimetableImportReportDto report = importService.importTimetable(csvStream(csv), "timetable.csv", false);
+
+        // Then
+        assertEquals(1, report.getCoursesUpdated());
+        assertEquals(0, report.getCoursesCreated());
+
+        Object[] args = courseUpsertArgs().get(0);
+        assertEquals("CS101", args[0]);
+        assertEquals("程序设计", args[1]);
+        assertEquals(1L, args[4]);
+        // 插入部分和更新部分的学分、类型、教师都传null，由 SQL 决定取默认值还是保留原值
+        assertNull(args[2]);
+        assertNull(args[3]);
+        assertNull(args[5]);
+        assertNull(args[7]);
+        assertNull(args[8]);
+        assertNull(args[9]);
+    }
+
+    @Test
+    @DisplayName("可选列有值 - 同时用于新增和更新")
+    void testPresentOptionalColumnsAreWritten() throws IOException {
+        // Given
+        String csv = "code,name,faculty,credits,type\nCS102,数据结构,资讯工程学院,2,选修\nCS101,程序设计,资讯工程学院,,\n";
+
+        // When
+        TimetableImportReportDto report = importService.importTimetable(csvStream(csv), "timetable.csv", false);
+
+        // Then
+        assertEquals(1, report.getCoursesCreated());
+        assertEquals(1, report.getCoursesUpdated());
+
+        List<Object[]> rows = courseUpsertArgs();
+        assertEquals(2.0, rows.get(0)[2]);
+        assertEquals("ELECTIVE", rows.get(0)[3]);
+        assertEquals(2.0, rows.get(0)[7]);
+        assertEquals("ELECTIVE", rows.get(0)[8]);
+        // 列存在但单元格为空，同样保留原值
+        assertNull(rows.get(1)[2]);
+        assertNull(rows.get(1)[8]);
+
+        ArgumentCaptor<CourseCatalogChangedEvent> eventCaptor = ArgumentCaptor.forClass(CourseCatalogChangedEvent.class);
+        verify(eventPublisher).publishEvent(eventCaptor.capture());
+        assertEquals(CourseCatalogChangedEvent.Scope.FULL, eventCaptor.getValue().getScope());
+    }
+
+    @Test
+    @DisplayName("文件中途损坏 - 之前的行照常写入，读取失败记入报告并刷新课程目录")
+    void testMalformedRowStopsReadingButKeepsEarlierRows() throws IOException {
+        // Given - 第3行引号未闭合
+        String csv = "code,name,faculty\nCS101,程序设计,资讯工程学院\n\"CS102,数据结构";
+
+        // When
+        TimetableImportReportDto report = importService.importTimetable(csvStream(csv), "timetable.csv", false);
+
+        // Then
+        assertEquals(1, report.getValidRows());
+        assertEquals(1, report.getChunksCommitted());
+        assertEquals(1, report.getErrors().size());
+        assertEquals(3, report.getErrors().get(0).getRow());
+        assertNull(report.getErrors().get(0).getColumn());
+        assertEquals("CS101", courseUpsertArgs().get(0)[0]);
+        verify(eventPublisher).publishEvent(any(CourseCatalogChangedEvent.class));
+    }
+
+    private List<Object[]> courseUpsertArgs() {
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO courses"), batchCaptor.capture());
+        return batchCaptor.getValue();
+    }
+
+    /**
+     * 让导入开始时的名称到ID映射查询返回给定的行
+     */
+    private void stubLookup(String sql, String keyColumn, Map<String, Long> rows) throws SQLException {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (Map.Entry<String, Long> row : rows.entrySet()) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getString(keyColumn)).thenReturn(row.getKey());
+                when(rs.getLong("id")).thenReturn(row.getValue());
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(eq(sql), any(RowCallbackHandler.class));
+    }
+
+    private static ByteArrayInputStream csvStream(String csv) {
+        return new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,184 @@
+package com.must.courseevaluation.unit;
+
+import com.must.courseevaluation.repository.UserScheduleRepository;
+import com.must.courseevaluation.service.CourseCatalogService;
+import com.must.courseevaluation.service.catalog.CourseCatalogSnapshot;
+import com.must.courseevaluation.service.catalog.CourseCatalogSnapshot.CourseEntry;
+import com.must.courseevaluation.service.impl.TimetableServiceImpl;
+import com.must.courseevaluation.service.timetable.UserTimetableChangedEvent;
+import com.must.courseevaluation.service.timetable.WeeklyTimetable;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * TimetableService 单元测试
+ * 测试课表位图编码与不冲突课程查询
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TimetableService 单元测试")
+class TimetableServiceUnitTest {
+
+    @Mock
+    private UserScheduleRepository userScheduleRepository;
+
+    @Mock
+    private CourseCatalogService courseCatalogService;
+
+    private TimetableServiceImpl timetableService;
+
+    @BeforeEach
+    void setUp() {
+        timetableService = new TimetableServiceImpl(userScheduleRepository, courseCatalogService, 100);
+    }
+
+    private CourseEntry course(Long id, int mask) {
+        return CourseEntry.builder()
+                .id(id)
+                .name("课程" + id)
+                .scheduleMask(mask)
+                .build();
+    }
+
+    // ==================== 位图编码测试 ====================
+
+    @Nested
+    @DisplayName("WeeklyTimetable 位图编码测试")
+    class WeeklyTimetableTests {
+
+        @Test
+        @DisplayName("28个时间槽各占一位")
+        void testSlotBitsAreDistinct() {
+            int all = 0;
+            for (int day = 1; day <= 7; day++) {
+                for (int period = 1; period <= 4; period++) {
+                    int bit = WeeklyTimetable.slotBit(day, period);
+                    assertEquals(1, Integer.bitCount(bit));
+                    assertEquals(0, all & bit);
+                    all |= bit;
+                }
+            }
+            assertEquals(28, Integer.bitCount(all));
+        }
+
+        @Test
+        @DisplayName("超出范围的时间槽 - 返回空")
+        void testSlotBitOutOfRange() {
+            assertEquals(WeeklyTimetable.EMPTY, WeeklyTimetable.slotBit(0, 1));
+            assertEquals(WeeklyTimetable.EMPTY, WeeklyTimetable.slotBit(8, 1));
+            assertEquals(WeeklyTimetable.EMPTY, WeeklyTimetable.slotBit(1, 5));
+            assertEquals(WeeklyTimetable.EMPTY, WeeklyTimetable.withSlot(0, null, 1));
+        }
+
+        @Test
+        @DisplayName("按星期/时间段构造查询位图")
+        void testQueryMask() {
+            int monday = WeeklyTimetable.queryMask(1, null);
+            int evening = WeeklyTimetable.queryMask(null, 4);
+
+            assertEquals(4, Integer.bitCount(monday));
+            assertEquals(7, Integer.bitCount(evening));
+            assertEquals(WeeklyTimetable.slotBit(1, 4), monday & evening);
+            assertEquals(28, Integer.bitCount(WeeklyTimetable.queryMask(null, null)));
+        }
+    }
+
+    // ==================== 冲突检测测试 ====================
+
+    @Nested
+    @DisplayName("不冲突课程查询测试")
+    class WithoutConflictTests {
+
+        @Test
+        @DisplayName("过滤与用户课表冲突的课程")
+        void testFindCourseIdsWithoutConflict() {
+            // Given - 用户周一上午、周三晚上有课
+            when(userScheduleRepository.findSlotsByUserId(1L)).thenReturn(Arrays.asList(
+                    new Object[]{1, 1},
+                    new Object[]{3, 4}));
+
+            int mondayMorning = WeeklyTimetable.slotBit(1, 1);
+            int tuesdayMorning = WeeklyTimetable.slotBit(2, 1);
+            int wednesdayEvening = WeeklyTimetable.slotBit(3, 4);
+            when(courseCatalogService.getSnapshot()).thenReturn(new CourseCatalogSnapshot(1L, List.of(
+                    course(1L, mondayMorning | tuesdayMorning),
+                    course(2L, tuesdayMorning),
+                    course(3L, wednesdayEvening),
+                    course(4L, WeeklyTimetable.EMPTY))));
+
+            // When
+            List<Long> result = timetableService.findCourseIdsWithoutConflict(1L);
+
+            // Then
+            assertEquals(List.of(2L, 4L), result);
+        }
+
+        @Test
+        @DisplayName("用户课表位图缓存 - 变化事件后重新加载")
+        void testUserMaskCachedUntilChanged() {
+            // Given
+            when(userScheduleRepository.findSlotsByUserId(1L))
+                    .thenReturn(Collections.singletonList(new Object[]{1, 1}))
+                    .thenReturn(Collections.singletonList(new Object[]{2, 2}));
+
+            // When
+            int first = timetableService.getUserMask(1L);
+            int cached = timetableService.getUserMask(1L);
+            timetableService.onUserTimetableChanged(new UserTimetableChangedEvent(this, 1L));
+            int reloaded = timetableService.getUserMask(1L);
+
+            // Then
+            assertEquals(WeeklyTimetable.slotBit(1, 1), first);
+            assertEquals(first, cached);
+            assertEquals(WeeklyTimetable.slotBit(2, 2), reloaded);
+            verify(userScheduleRepository, times(2)).findSlotsByUserId(1L);
+        }
+
+        @Test
+        @DisplayName("用户课表位图缓存 - 超出上限时淘汰最久未访问的用户")
+        void testUserMaskCacheBounded() {
+            // Given - 缓存最多保留两个用户
+            TimetableServiceImpl boundedService = new TimetableServiceImpl(userScheduleRepository, courseCatalogService, 2);
+            when(userScheduleRepository.findSlotsByUserId(anyLong())).thenReturn(Collections.emptyList());
+
+            // When
+            boundedService.getUserMask(1L);
+            boundedService.getUserMask(2L);
+            boundedService.getUserMask(1L);
+            boundedService.getUserMask(3L);
+            boundedService.getUserMask(1L);
+            boundedService.getUserMask(2L);
+
+            // Then - 用户2最久未访问，被淘汰后重新加载
+            verify(userScheduleRepository, times(1)).findSlotsByUserId(1L);
+            verify(userScheduleRepository, times(2)).findSlotsByUserId(2L);
+            verify(userScheduleRepository, times(1)).findSlotsByUserId(3L);
+        }
+
+        @Test
+        @DisplayName("加载期间课表变化 - 不缓存旧位图")
+        void testEvictDuringLoadNotCached() {
+            // Given - 第一次加载的查询返回后、写入缓存前，课表变化事件到达
+            when(userScheduleRepository.findSlotsByUserId(1L))
+                    .thenAnswer(invocation -> {
+                        timetableService.onUserTimetableChanged(new UserTimetableChangedEvent(this, 1L));
+                        return Collections.singletonList(new Object[]{1, 1});
+                    })
+                    .thenReturn(Collections.singletonList(new Object[]{2, 2}));
+
+            // When
+            timetableService.getUserMask(1L);
+            int reloaded = timetableService.getUserMask(1L);
+
+            // Then
+            assertEquals(WeeklyTimetable.slotBit(2, 2), reloaded);
+            verify(userScheduleRepository, times(2)).findSlotsByUserId(1L);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.must.courseevaluation.unit;
+
+import com.must.courseevaluation.service.llm.TokenBucketRateLimiter;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TokenBucketRateLimiter 单元测试
+ * 测试令牌桶的突发容量、补充速率与参数校验
+ */
+@DisplayName("TokenBucketRateLimiter 单元测试")
+class TokenBucketRateLimiterUnitTest {
+
+    @Test
+    @DisplayName("突发容量用完后拒绝获取")
+    void testBurstCapacity() {
+        // Given - 每分钟1个令牌，几乎不会在测试期间补充
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 3);
+
+        // When & Then
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+    }
+
+    @Test
+    @DisplayName("令牌不足时 acquire 等待补充")
+    void testAcquireWaitsForRefill() throws InterruptedException {
+        // Given - 每分钟600个令牌，即每100毫秒补充一个
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(600, 1);
+        limiter.acquire();
+
+        // When
+        long start = System.nanoTime();
+        limiter.acquire();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // Then
+        assertTrue(elapsedMillis >= 50, "等待时间: " + elapsedMillis);
+    }
+
+    @Test
+    @DisplayName("非正数参数 - 抛出异常")
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucketRateLimiter(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucketRateLimiter(10, 0));
+    }
+}
@@ -0,0 +1,153 @@
+package com.must.courseevaluation.unit;
+
+import com.must.courseevaluation.model.User;
+import com.must.courseevaluation.repository.UserRepository;
+import com.must.courseevaluation.security.UserDetailsServiceImpl;
+import com.must.courseevaluation.security.UserPrincipalChangedEvent;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * UserDetailsService 单元测试
+ * 测试 JWT 请求认证信息缓存的命中、失效与登录路径
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("UserDetailsService 单元测试")
+class UserDetailsServiceUnitTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        testUser = new User();
+        testUser.setId(1L);
+        testUser.setUsername("testuser");
+        testUser.setPassword("encodedPassword");
+        testUser.setEmail("test@student.must.edu.mo");
+        testUser.setRole(User.Role.ROLE_STUDENT);
+        testUser.setActive(true);
+        testUser.setCanComment(true);
+    }
+
+    @Test
+    @DisplayName("重复加载同一用户 - 只查询一次数据库")
+    void testCacheHit() {
+        // Given
+        UserDetailsServiceImpl service = new UserDetailsServiceImpl(userRepository, 100, 300);
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+
+        // When
+        UserDetails first = service.loadCachedUserByUsername("testuser");
+        UserDetails second = service.loadCachedUserByUsername("testuser");
+
+        // Then
+        assertSame(first, second);
+        verify(userRepository, times(1)).findByUsername("testuser");
+    }
+
+    @Test
+    @DisplayName("用户信息变化事件 - 失效缓存并重新加载")
+    void testEvictOnChange() {
+        // Given
+        UserDetailsServiceImpl service = new UserDetailsServiceImpl(userRepository, 100, 300);
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        service.loadCachedUserByUsername("testuser");
+
+        // When - 管理员禁用账号
+        testUser.setActive(false);
+        service.onUserPrincipalChanged(new UserPrincipalChangedEvent(this, "testuser"));
+        UserDetails reloaded = service.loadCachedUserByUsername("testuser");
+
+        // Then
+        assertFalse(reloaded.isEnabled());
+        verify(userRepository, times(2)).findByUsername("testuser");
+    }
+
+    @Test
+    @DisplayName("加载期间用户信息变化 - 不缓存旧信息")
+    void testEvictDuringLoadNotCached() {
+        // Given - 第一次查询返回后、写入缓存前，禁用账号的事件到达
+        UserDetailsServiceImpl service = new UserDetailsServiceImpl(userRepository, 100, 300);
+        when(userRepository.findByUsername("testuser"))
+                .thenAnswer(invocation -> {
+                    service.onUserPrincipalChanged(new UserPrincipalChangedEvent(this, "testuser"));
+                    return Optional.of(testUser);
+                })
+                .thenAnswer(invocation -> {
+                    testUser.setActive(false);
+                    return Optional.of(testUser);
+                });
+
+        // When
+        UserDetails first = service.loadCachedUserByUsername("testuser");
+        UserDetails reloaded = service.loadCachedUserByUsername("testuser");
+
+        // Then
+        assertTrue(first.isEnabled());
+        assertFalse(reloaded.isEnabled());
+        verify(userRepository, times(2)).findByUsername("testuser");
+    }
+
+    @Test
+    @DisplayName("全部用户变化事件 - 清空缓存")
+    void testEvictAllOnRestore() {
+        // Given
+        UserDetailsServiceImpl service = new UserDetailsServiceImpl(userRepository, 100, 300);
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        service.loadCachedUserByUsername("testuser");
+
+        // When - 从备份恢复用户数据
+        service.onUserPrincipalChanged(UserPrincipalChangedEvent.all(this));
+        service.loadCachedUserByUsername("testuser");
+
+        // Then
+        verify(userRepository, times(2)).findByUsername("testuser");
+    }
+
+    @Test
+    @DisplayName("登录路径 - 始终查询数据库")
+    void testLoginBypassesCache() {
+        UserDetailsServiceImpl service = new UserDetailsServiceImpl(userRepository, 100, 300);
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+
+        service.loadCachedUserByUsername("testuser");
+        service.loadUserByUsername("testuser");
+
+        verify(userRepository, times(2)).findByUsername("testuser");
+    }
+
+    @Test
+    @DisplayName("关闭缓存 - 每次查询数据库")
+    void testCacheDisabled() {
+        UserDetailsServiceImpl service = new UserDetailsServiceImpl(userRepository, 0, 300);
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+
+        service.loadCachedUserByUsername("testuser");
+        service.loadCachedUserByUsername("testuser");
+
+        verify(userRepository, times(2)).findByUsername("testuser");
+    }
+
+    @Test
+    @DisplayName("用户不存在 - 抛出异常且不缓存")
+    void testUserNotFound() {
+        UserDetailsServiceImpl service = new UserDetailsServiceImpl(userRepository, 100, 300);
+        when(userRepository.findByUsername("ghost")).thenReturn(Optional.empty());
+
+        assertThrows(UsernameNotFoundException.class, () -> service.loadCachedUserByUsername("ghost"));
+        assertThrows(UsernameNotFoundException.class, () -> service.loadCachedUserByUsername("ghost"));
+        verify(userRepository, times(2)).findByUsername("ghost");
+    }
+}
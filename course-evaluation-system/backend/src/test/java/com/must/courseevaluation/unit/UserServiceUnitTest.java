@@ -4,12 +4,15 @@ import com.must.courseevaluation.dto.UserDto;
 import com.must.courseevaluation.dto.auth.RegisterRequest;
 import com.must.courseevaluation.model.User;
 import com.must.courseevaluation.repository.UserRepository;
+import com.must.courseevaluation.security.UserPrincipalChangedEvent;
 import com.must.courseevaluation.service.impl.UserServiceImpl;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
@@ -36,6 +39,9 @@ class UserServiceUnitTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -337,6 +343,10 @@ class UserServiceUnitTest {
             assertNotNull(result);
             verify(userRepository).existsByUsername("newusername");
             verify(userRepository).save(any(User.class));
+            // 失效修改前用户名的缓存认证信息
+            ArgumentCaptor<UserPrincipalChangedEvent> captor = ArgumentCaptor.forClass(UserPrincipalChangedEvent.class);
+            verify(eventPublisher).publishEvent(captor.capture());
+            assertEquals("testuser", captor.getValue().getUsername());
         }
 
         @Test
@@ -416,29 +426,30 @@ class UserServiceUnitTest {
         @DisplayName("成功删除用户")
         void testDeleteSuccess() {
             // Given
-            when(userRepository.existsById(1L)).thenReturn(true);
+            when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
             doNothing().when(userRepository).deleteById(1L);
 
             // When
             userService.delete(1L);
 
             // Then
-            verify(userRepository).existsById(1L);
+            verify(userRepository).findById(1L);
             verify(userRepository).deleteById(1L);
+            verify(eventPublisher).publishEvent(any(UserPrincipalChangedEvent.class));
         }
 
         @Test
         @DisplayName("用户不存在 - 抛出异常")
         void testDeleteNotFound() {
             // Given
-            when(userRepository.existsById(999L)).thenReturn(false);
+            when(userRepository.findById(999L)).thenReturn(Optional.empty());
 
             // When & Then
             RuntimeException exception = assertThrows(RuntimeException.class, 
                 () -> userService.delete(999L));
             
             assertTrue(exception.getMessage().contains("用户不存在"));
-            verify(userRepository).existsById(999L);
+            verify(userRepository).findById(999L);
             verify(userRepository, never()).deleteById(anyLong());
         }
     }
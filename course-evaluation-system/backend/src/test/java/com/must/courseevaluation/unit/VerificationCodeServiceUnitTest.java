@@ -1,27 +1,30 @@
 package com.must.courseevaluation.unit;
 
 import com.must.courseevaluation.service.impl.VerificationCodeServiceImpl;
+import com.must.courseevaluation.service.verification.InMemoryVerificationCodeStore;
+import com.must.courseevaluation.service.verification.VerificationCodeStore.VerifyResult;
 import org.junit.jupiter.api.*;
 
+import java.time.Duration;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
  * VerificationCodeService 单元测试
- * 测试验证码生成、存储和验证逻辑
+ * 测试验证码生成、存储和验证逻辑，以及错误次数限制与时间轮过期
  */
 @DisplayName("VerificationCodeService 单元测试")
 class VerificationCodeServiceUnitTest {
 
+    private static final int MAX_ATTEMPTS = 5;
+
+    private InMemoryVerificationCodeStore store;
     private VerificationCodeServiceImpl verificationCodeService;
 
     @BeforeEach
     void setUp() {
-        verificationCodeService = new VerificationCodeServiceImpl();
-    }
-
-    @AfterEach
-    void tearDown() {
-        verificationCodeService.shutdownScheduler();
+        store = new InMemoryVerificationCodeStore(1000, 64);
+        verificationCodeService = new VerificationCodeServiceImpl(store, 10, MAX_ATTEMPTS);
     }
 
     // ==================== generateVerificationCode() 测试 ====================
@@ -249,6 +252,144 @@ class VerificationCodeServiceUnitTest {
         }
     }
 
+    // ==================== 错误次数限制测试 ====================
+
+    @Nested
+    @DisplayName("错误次数限制测试")
+    class AttemptLimitTests {
+
+        @Test
+        @DisplayName("错误次数达到上限后验证码作废")
+        void testCodeInvalidatedAfterMaxAttempts() {
+            // Given
+            String email = "test@student.must.edu.mo";
+            verificationCodeService.storeVerificationCode(email, "123456");
+
+            // When
+            for (int i = 0; i < MAX_ATTEMPTS; i++) {
+                assertFalse(verificationCodeService.validateVerificationCode(email, "000000"));
+            }
+
+            // Then - 正确的验证码也不再有效
+            assertFalse(verificationCodeService.validateVerificationCode(email, "123456"));
+            assertEquals(0, store.size());
+        }
+
+        @Test
+        @DisplayName("重新获取验证码后错误次数清零")
+        void testNewCodeResetsAttempts() {
+            // Given
+            String email = "test@student.must.edu.mo";
+            verificationCodeService.storeVerificationCode(email, "123456");
+            for (int i = 0; i < MAX_ATTEMPTS - 1; i++) {
+                verificationCodeService.validateVerificationCode(email, "000000");
+            }
+
+            // When
+            verificationCodeService.storeVerificationCode(email, "654321");
+            verificationCodeService.validateVerificationCode(email, "000000");
+
+            // Then
+            assertTrue(verificationCodeService.validateVerificationCode(email, "654321"));
+        }
+
+        @Test
+        @DisplayName("存储层返回错误次数上限结果")
+        void testStoreReportsLocked() {
+            // Given
+            long now = 1_000_000L;
+            store.put("a@must.edu.mo", "123456", Duration.ofMinutes(10), now);
+
+            // When & Then
+            assertEquals(VerifyResult.MISMATCH, store.verify("a@must.edu.mo", "1", 2, now));
+            assertEquals(VerifyResult.LOCKED, store.verify("a@must.edu.mo", "2", 2, now));
+            assertEquals(VerifyResult.NOT_FOUND, store.verify("a@must.edu.mo", "123456", 2, now));
+        }
+    }
+
+    // ==================== 时间轮过期测试 ====================
+
+    @Nested
+    @DisplayName("时间轮过期测试")
+    class ExpiryTests {
+
+        @Test
+        @DisplayName("到期刻度清理验证码，未到期的保留")
+        void testExpireAtTick() {
+            // Given
+            long now = 1_000_000L;
+            store.put("a@must.edu.mo", "111111", Duration.ofSeconds(5), now);
+            store.put("b@must.edu.mo", "222222", Duration.ofSeconds(30), now);
+            store.expire(now);
+
+            // When
+            int expired = store.expire(now + 5_000);
+
+            // Then
+            assertEquals(1, expired);
+            assertEquals(1, store.size());
+            assertEquals(VerifyResult.NOT_FOUND, store.verify("a@must.edu.mo", "111111", MAX_ATTEMPTS, now + 5_000));
+            assertEquals(VerifyResult.MATCHED, store.verify("b@must.edu.mo", "222222", MAX_ATTEMPTS, now + 5_000));
+        }
+
+        @Test
+        @DisplayName("有效期超过一圈 - 等到对应的圈数才清理")
+        void testExpireAfterSeveralRounds() {
+            // Given - 64 个槽位、1 秒刻度，一圈 64 秒
+            long now = 1_000_000L;
+            store.put("a@must.edu.mo", "111111", Duration.ofSeconds(150), now);
+
+            // When & Then
+            for (long t = now; t < now + 150_000; t += 1_000) {
+                assertEquals(0, store.expire(t));
+            }
+            assertEquals(1, store.expire(now + 150_000));
+            assertEquals(0, store.size());
+        }
+
+        @Test
+        @DisplayName("过期时间不在刻度起点 - 下一个刻度即清理，不等一圈")
+        void testExpireUnalignedWithinOneTick() {
+            // Given - 过期时间落在刻度中间
+            long now = 1_000_500L;
+            store.put("a@must.edu.mo", "111111", Duration.ofSeconds(5), now);
+
+            // When & Then - 过期前的刻度都不清理
+            for (long t = 1_000_000L; t <= 1_005_000L; t += 1_000) {
+                assertEquals(0, store.expire(t));
+            }
+            assertEquals(1, store.expire(now + 5_000 + 1_000));
+            assertEquals(0, store.size());
+        }
+
+        @Test
+        @DisplayName("刻度之间已过期 - 验证时判定为无效")
+        void testExpiredBetweenTicks() {
+            // Given
+            long now = 1_000_000L;
+            store.put("a@must.edu.mo", "111111", Duration.ofSeconds(5), now);
+
+            // When & Then - 尚未执行清理
+            assertEquals(VerifyResult.NOT_FOUND, store.verify("a@must.edu.mo", "111111", MAX_ATTEMPTS, now + 5_000));
+        }
+
+        @Test
+        @DisplayName("覆盖后的旧验证码不会误删新验证码")
+        void testOverwrittenEntryDoesNotExpireNewCode() {
+            // Given
+            long now = 1_000_000L;
+            store.put("a@must.edu.mo", "111111", Duration.ofSeconds(5), now);
+            store.put("a@must.edu.mo", "222222", Duration.ofSeconds(60), now + 1_000);
+
+            // When
+            int expired = store.expire(now + 10_000);
+
+            // Then
+            assertEquals(0, expired);
+            assertEquals(VerifyResult.MATCHED, store.verify("a@must.edu.mo", "222222", MAX_ATTEMPTS, now + 10_000));
+        }
+    }
+
     // ==================== 并发测试 ====================
 
     @Nested
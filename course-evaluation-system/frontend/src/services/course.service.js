@@ -16,6 +16,11 @@ class CourseService {
       })
   }
   
+  // 课程列表精简投影：浏览器按 ETag 自动发送 If-None-Match，列表未变化时服务端返回 304
+  getCourseList() {
+    return http.get('courses', { params: { view: 'compact' } })
+  }
+  
   getCourseById(id) {
     return http.get(`courses/${id}`)
       .catch(error => {
@@ -81,6 +86,17 @@ class CourseService {
       })
   }
   
+  // 分面浏览课程：filters 中的数组参数按重复参数传递（facultyId=1&facultyId=2），返回当前页和各维度计数
+  browseCourses(filters = {}, page = 0, size = 20) {
+    const params = new URLSearchParams()
+    Object.entries(filters).forEach(([key, value]) => {
+      [].concat(value ?? []).forEach(item => params.append(key, item))
+    })
+    params.append('page', page)
+    params.append('size', size)
+    return http.get('courses/browse', { params })
+  }
+  
   createCourse(data) {
     return http.post('courses', data)
   }
@@ -93,6 +109,16 @@ class CourseService {
     return http.delete(`courses/${id}`)
   }
   
+  // 导入学期课表文件（.csv 或 .xlsx），dryRun 为 true 时只校验不写入，返回导入报告
+  importTimetable(file, dryRun = false) {
+    const formData = new FormData()
+    formData.append('file', file)
+    return http.post('courses/import', formData, {
+      params: { dryRun },
+      headers: { 'Content-Type': 'multipart/form-data' }
+    })
+  }
+  
   // 获取课程评价统计
   getCourseRatings(id) {
     return http.get(`courses/${id}/ratings`)
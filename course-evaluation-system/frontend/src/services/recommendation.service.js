@@ -210,33 +210,7 @@ class RecommendationService {
       const result = response.data;
       console.log('[前端] 收到后端响应:', result);
 
-      // 返回标准格式
-      if (result.type === 'recommendation' && result.courses) {
-        return {
-          type: 'recommendation',
-          content: result.content,
-          courses: result.courses.map(course => ({
-            id: course.id,
-            code: course.code,
-            name: course.name,
-            credits: course.credits,
-            type: course.type,
-            description: course.description,
-            facultyName: course.facultyName,
-            teacherName: course.teacherName,
-            averageRating: course.averageRating,
-            reviewCount: course.reviewCount,
-            reason: course.reason
-          })),
-          updatedContext: result.updatedContext
-        };
-      } else {
-        return {
-          type: 'text',
-          content: result.content || result.error || '抱歉，处理您的请求时出现了问题。',
-          updatedContext: result.updatedContext
-        };
-      }
+      return this._normalizeChatResponse(result);
 
     } catch (error) {
       console.error('[前端] 调用后端AI推荐API失败:', error);
@@ -261,8 +235,181 @@ class RecommendationService {
     }
   }
 
+  /**
+   * 发送消息并以流式方式获取AI回复（SSE）
+   * 意图、课程卡片和话术片段到达时立即回调，不必等待整段回复生成完毕
+   * @param {string} conversationId - 对话ID
+   * @param {string} userMessage - 用户消息
+   * @param {object} conversationContext - 对话上下文（提取的参数）
+   * @param {array} conversationHistory - 对话历史消息
+   * @param {object} handlers - 回调：onIntent(intentType)、onCourses(response)、onToken(text)
+   * @returns {object} 完整回复，格式与 sendMessage 相同
+   */
+  async streamMessage(conversationId, userMessage, conversationContext, conversationHistory = [], handlers = {}) {
+    // 不支持流式读取的浏览器退回到普通请求
+    if (typeof fetch !== 'function' || typeof TextDecoder === 'undefined') {
+      return this.sendMessage(conversationId, userMessage, conversationContext, conversationHistory);
+    }
+
+    let received = false;
+    try {
+      console.log('[前端] 流式发送消息到后端:', userMessage);
+
+      const headers = {
+        'Content-Type': 'application/json',
+        'Accept': 'text/event-stream'
+      };
+      const token = this._getToken();
+      if (token) {
+        headers.Authorization = `Bearer ${token}`;
+      }
+
+      const response = await fetch(`${http.defaults.baseURL}/ai-recommendations/chat/stream`, {
+        method: 'POST',
+        headers,
+        body: JSON.stringify({
+          message: userMessage,
+          context: conversationContext || {},
+          conversationId: conversationId,
+          conversationHistory: conversationHistory.map(msg => ({
+            role: msg.role,
+            content: msg.content
+          }))
+        })
+      });
+
+      if (!response.ok || !response.body) {
+        const error = new Error(`流式请求失败: ${response.status}`);
+        error.response = { status: response.status };
+        throw error;
+      }
+
+      const reader = response.body.getReader();
+      const decoder = new TextDecoder('utf-8');
+      let buffer = '';
+      let result = null;
+
+      while (result === null) {
+        const { value, done } = await reader.read();
+        if (done) {
+          break;
+        }
+        buffer += decoder.decode(value, { stream: true }).replace(/\r\n/g, '\n');
+
+        // 事件之间以空行分隔
+        let boundary;
+        while ((boundary = buffer.indexOf('\n\n')) >= 0) {
+          const event = this._parseSseEvent(buffer.slice(0, boundary));
+          buffer = buffer.slice(boundary + 2);
+          if (!event) {
+            continue;
+          }
+          received = true;
+
+          if (event.name === 'intent') {
+            handlers.onIntent && handlers.onIntent(event.data.intentType);
+          } else if (event.name === 'courses') {
+            handlers.onCourses && handlers.onCourses(this._normalizeChatResponse(event.data));
+          } else if (event.name === 'token') {
+            handlers.onToken && handlers.onToken(event.data.content);
+          } else if (event.name === 'done') {
+            result = this._normalizeChatResponse(event.data);
+            break;
+          }
+        }
+      }
+      reader.cancel().catch(() => {});
+
+      if (result === null) {
+        throw new Error('流式响应在完成前中断');
+      }
+      console.log('[前端] 流式响应完成:', result);
+      return result;
+
+    } catch (error) {
+      console.error('[前端] 流式调用后端AI推荐API失败:', error);
+      if (!received && error.response?.status !== 401) {
+        // 尚未收到任何事件：退回到普通请求重试一次
+        return this.sendMessage(conversationId, userMessage, conversationContext, conversationHistory);
+      }
+      return {
+        type: 'text',
+        content: error.response?.status === 401
+          ? '您的登录已过期，请重新登录后再试。'
+          : '抱歉，AI回复中断，请稍后再试。'
+      };
+    }
+  }
+
   // ==================== 辅助方法 ====================
 
+  /**
+   * 将后端的推荐响应转换为前端消息格式
+   */
+  _normalizeChatResponse(result) {
+    if (result.type === 'recommendation' && result.courses) {
+      return {
+        type: 'recommendation',
+        content: result.content,
+        courses: result.courses.map(course => ({
+          id: course.id,
+          code: course.code,
+          name: course.name,
+          credits: course.credits,
+          type: course.type,
+          description: course.description,
+          facultyName: course.facultyName,
+          teacherName: course.teacherName,
+          averageRating: course.averageRating,
+          reviewCount: course.reviewCount,
+          reason: course.reason
+        })),
+        updatedContext: result.updatedContext
+      };
+    }
+    return {
+      type: 'text',
+      content: result.content || result.error || '抱歉，处理您的请求时出现了问题。',
+      updatedContext: result.updatedContext
+    };
+  }
+
+  /**
+   * 解析一个SSE事件块（event: 与 data: 行）
+   */
+  _parseSseEvent(block) {
+    let name = 'message';
+    const dataLines = [];
+    block.split('\n').forEach(line => {
+      if (line.startsWith('event:')) {
+        name = line.slice(6).trim();
+      } else if (line.startsWith('data:')) {
+        dataLines.push(line.slice(5).replace(/^ /, ''));
+      }
+    });
+    if (dataLines.length === 0) {
+      return null;
+    }
+    try {
+      return { name, data: JSON.parse(dataLines.join('\n')) };
+    } catch (e) {
+      console.warn('[前端] 无法解析SSE事件:', name, e);
+      return null;
+    }
+  }
+
+  /**
+   * 读取当前登录用户的token
+   */
+  _getToken() {
+    try {
+      const userData = JSON.parse(localStorage.getItem('user') || 'null');
+      return userData && userData.token ? userData.token : null;
+    } catch (e) {
+      return null;
+    }
+  }
+
   /**
    * 分析用户输入以提取参数
    */
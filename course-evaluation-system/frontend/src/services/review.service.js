@@ -39,6 +39,18 @@ class ReviewService {
       })
   }
   
+  // 游标分页获取课程评价（首页不传cursor，之后传上一页返回的nextCursor）
+  getCourseReviewFeed(courseId, cursor = null, size = 20) {
+    const params = cursor ? { cursor, size } : { size }
+    return http.get(`reviews/course/${courseId}/feed`, { params })
+  }
+  
+  // 游标分页获取教师评价
+  getTeacherReviewFeed(teacherId, cursor = null, size = 20) {
+    const params = cursor ? { cursor, size } : { size }
+    return http.get(`reviews/teacher/${teacherId}/feed`, { params })
+  }
+  
   // 获取用户评价
   getUserReviews(userId) {
     return http.get(`reviews/user/${userId}`)
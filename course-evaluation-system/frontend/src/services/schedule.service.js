@@ -13,11 +13,16 @@ class ScheduleService {
     return http.post('user-schedules', scheduleData)
   }
   
-  // 批量添加课程时间安排
+  // 批量添加课程时间安排（已有时间段更新课程名称），返回完整课表
   batchAddSchedules(schedulesData) {
     return http.post('user-schedules/batch', schedulesData)
   }
   
+  // 整体替换课程时间安排，返回替换后的课表
+  replaceSchedules(schedulesData) {
+    return http.put('user-schedules/batch', schedulesData)
+  }
+  
   // 更新课程时间安排
   updateSchedule(scheduleId, scheduleData) {
     return http.put(`user-schedules/${scheduleId}`, scheduleData)
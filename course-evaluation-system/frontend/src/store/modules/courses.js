@@ -33,7 +33,8 @@ export default {
       commit('SET_LOADING', true)
       commit('SET_ERROR', null)
       
-      return CourseService.getAllCourses()
+      // 列表只需要精简字段，课程详情通过 fetchCourseById 获取
+      return CourseService.getCourseList()
         .then(response => {
           commit('SET_COURSES', response.data)
           return Promise.resolve(response.data)
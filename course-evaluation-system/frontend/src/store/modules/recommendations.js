@@ -4,6 +4,7 @@ const state = {
   currentConversationId: null,
   messages: [],
   isTyping: false,
+  streamingMessageId: null,  // 正在流式接收的AI消息
   error: null,
   conversations: [],  // 对话历史列表
   isFirstUserMessage: false  // 标记是否是第一条用户消息
@@ -33,6 +34,17 @@ const mutations = {
     state.isTyping = isTyping;
   },
   
+  UPDATE_MESSAGE(state, { id, changes }) {
+    const message = state.messages.find(m => m.id === id);
+    if (message) {
+      Object.assign(message, changes);
+    }
+  },
+  
+  SET_STREAMING_MESSAGE(state, messageId) {
+    state.streamingMessageId = messageId;
+  },
+  
   CLEAR_MESSAGES(state) {
     state.messages = [];
   },
@@ -167,12 +179,40 @@ const actions = {
       // 构建对话历史（包含刚添加的用户消息）
       const conversationHistory = [...state.messages];
       
-      // 获取AI回复（传递对话历史实现上下文记忆）
-      const aiResponse = await recommendationService.sendMessage(
+      // AI消息在收到第一个课程卡片或话术片段时加入界面，随后逐段追加
+      const aiMessageId = `msg_${Date.now() + 1}`;
+      const ensureStreamingMessage = (changes) => {
+        if (state.streamingMessageId !== aiMessageId) {
+          commit('ADD_MESSAGE', {
+            id: aiMessageId,
+            role: 'ai',
+            content: '',
+            timestamp: new Date().toISOString(),
+            type: 'text',
+            courses: null
+          });
+          commit('SET_STREAMING_MESSAGE', aiMessageId);
+        }
+        commit('UPDATE_MESSAGE', { id: aiMessageId, changes });
+      };
+      
+      // 流式获取AI回复（传递对话历史实现上下文记忆）
+      let streamedContent = '';
+      const aiResponse = await recommendationService.streamMessage(
         state.currentConversationId,
         messageContent,
         context,
-        conversationHistory  // 传递对话历史
+        conversationHistory,  // 传递对话历史
+        {
+          onCourses: (response) => ensureStreamingMessage({
+            type: response.type,
+            courses: response.courses || null
+          }),
+          onToken: (token) => {
+            streamedContent += token;
+            ensureStreamingMessage({ content: streamedContent });
+          }
+        }
       );
       
       // 更新对话上下文
@@ -183,9 +223,9 @@ const actions = {
         );
       }
       
-      // 创建AI消息
+      // 创建AI消息（以完整回复为准）
       const aiMessage = {
-        id: `msg_${Date.now() + 1}`,
+        id: aiMessageId,
         role: 'ai',
         content: aiResponse.content,
         timestamp: new Date().toISOString(),
@@ -196,8 +236,13 @@ const actions = {
       // 停止AI输入状态
       commit('SET_TYPING', false);
       
-      // 添加AI回复到界面
-      commit('ADD_MESSAGE', aiMessage);
+      // 添加AI回复到界面（流式接收时替换为完整内容）
+      if (state.streamingMessageId === aiMessageId) {
+        commit('UPDATE_MESSAGE', { id: aiMessageId, changes: aiMessage });
+        commit('SET_STREAMING_MESSAGE', null);
+      } else {
+        commit('ADD_MESSAGE', aiMessage);
+      }
       
       // 保存AI消息到数据库
       await recommendationService.addMessageToConversation(
@@ -209,6 +254,7 @@ const actions = {
     } catch (error) {
       console.error('发送消息失败:', error);
       commit('SET_TYPING', false);
+      commit('SET_STREAMING_MESSAGE', null);
       commit('SET_ERROR', error.message);
       
       const errorMessage = {